@@ -0,0 +1,39 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "payment.bulkhead", name = "enabled", havingValue = "true")
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public Bulkhead paymentWriteBulkhead() {
+        return bulkhead("payment-writes", properties.getWrite());
+    }
+
+    @Bean
+    public Bulkhead historyReadBulkhead() {
+        return bulkhead("history-reads", properties.getRead());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new BulkheadInterceptor(paymentWriteBulkhead(), historyReadBulkhead()))
+                .addPathPatterns("/payments/**", "/receipts/**", "/services/**", "/customers/**", "/graphql");
+    }
+
+    private Bulkhead bulkhead(String name, BulkheadProperties.Compartment c) {
+        return new Bulkhead(name, c.getMaxConcurrent(), c.getMaxQueue(), c.getTimeout(), meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.Bulkhead;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+//POST de pagos -> bulkhead de escritura; GET de historial/recibos/servicios/dashboard -> bulkhead de lectura
+//POST /graphql también es lectura: el API GraphQL no tiene mutaciones
+//Otros POST (ej. /receipts/import) no toman turno de ninguno: no son registerPayment ni lecturas de historial
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String ACQUIRED = BulkheadInterceptor.class.getName() + ".bulkhead";
+
+    private final Bulkhead writeBulkhead;
+    private final Bulkhead readBulkhead;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Bulkhead bulkhead = compartment(request);
+        if (bulkhead == null) {
+            return true;
+        }
+        bulkhead.acquire(); // lanza BulkheadFullException -> 503 en GlobalExceptionHandler
+        request.setAttribute(ACQUIRED, bulkhead);
+        return true;
+    }
+
+    private Bulkhead compartment(HttpServletRequest request) {
+        String path = RateLimitInterceptor.path(request);
+        if ("GET".equals(request.getMethod()) || RateLimitInterceptor.GRAPHQL_PATH.equals(path)) {
+            return readBulkhead;
+        }
+        if ("POST".equals(request.getMethod()) && path.startsWith("/payments/")) {
+            return writeBulkhead;
+        }
+        return null;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object bulkhead = request.getAttribute(ACQUIRED);
+        if (bulkhead instanceof Bulkhead b) {
+            request.removeAttribute(ACQUIRED);
+            b.release();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "payment.bulkhead")
+public class BulkheadProperties {
+
+    //Opt-in: pools de conexiones y bulkheads separados para escrituras de pago y lecturas
+    private boolean enabled = false;
+
+    //registerPayment
+    private Compartment write = new Compartment(20, 50, Duration.ofSeconds(2), 10);
+
+    //historial de pagos, recibos y servicios
+    private Compartment read = new Compartment(30, 30, Duration.ofMillis(500), 10);
+
+    @Data
+    public static class Compartment {
+        //requests ejecutando a la vez
+        private int maxConcurrent;
+        //requests esperando turno; más allá se rechaza de inmediato
+        private int maxQueue;
+        //espera máxima por un turno
+        private Duration timeout;
+        //tamaño del pool Hikari de este compartimento
+        private int poolSize;
+
+        public Compartment() {
+        }
+
+        public Compartment(int maxConcurrent, int maxQueue, Duration timeout, int poolSize) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.timeout = timeout;
+            this.poolSize = poolSize;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "payment.concurrency-limit", name = "enabled", havingValue = "true")
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public AdaptiveConcurrencyLimiter concurrencyLimiter() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                properties.getInitialLimit(),
+                properties.getMinLimit(),
+                properties.getMaxLimit(),
+                properties.getLatencyThreshold().toNanos(),
+                properties.getBackoffRatio(),
+                properties.getWriteReserve());
+
+        Gauge.builder("payment.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("payment.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        return limiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // antes que los bulkheads: el exceso se descarta sin esperar turno
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(concurrencyLimiter(),
+                        Math.max(1, properties.getRetryAfter().toSeconds()), properties.getUnsampledPaths()))
+                .addPathPatterns("/payments/**", "/receipts/**", "/services/**", "/customers/**", "/graphql")
+                .order(-10);
+    }
+}
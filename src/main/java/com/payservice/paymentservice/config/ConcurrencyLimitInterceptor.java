@@ -0,0 +1,53 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.AdaptiveConcurrencyLimiter;
+import com.payservice.paymentservice.util.exception.ServiceOverloadedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+
+//Load shedding: si no hay cupo se responde 503 + Retry-After sin tocar la base de datos
+//Solo los POST de pagos tienen prioridad (como el compartimento de escritura de BulkheadInterceptor)
+//Los endpoints masivos (unsampledPaths) ocupan cupo pero su latencia no cuenta como congestión
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED = ConcurrencyLimitInterceptor.class.getName() + ".started";
+    private static final String UNSAMPLED = ConcurrencyLimitInterceptor.class.getName() + ".unsampled";
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long retryAfterSeconds;
+    private final List<String> unsampledPaths;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String path = RateLimitInterceptor.path(request);
+        boolean priority = "POST".equals(request.getMethod()) && path.startsWith("/payments/");
+        if (!limiter.tryAcquire(priority)) {
+            throw new ServiceOverloadedException("Service overloaded, retry later", retryAfterSeconds);
+        }
+        request.setAttribute(STARTED, System.nanoTime());
+        if (unsampledPaths.stream().anyMatch(p -> MATCHER.match(p, path))) {
+            request.setAttribute(UNSAMPLED, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object started = request.getAttribute(STARTED);
+        if (started instanceof Long start) {
+            request.removeAttribute(STARTED);
+            if (request.getAttribute(UNSAMPLED) != null) {
+                limiter.release();
+            } else {
+                limiter.onComplete(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "payment.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    //Opt-in: límite adaptativo (AIMD) de requests en vuelo delante de los controllers
+    private boolean enabled = false;
+
+    private int initialLimit = 50;
+    private int minLimit = 10;
+    private int maxLimit = 400;
+
+    //Una respuesta más lenta que esto cuenta como congestión y reduce el límite
+    private Duration latencyThreshold = Duration.ofMillis(250);
+
+    //Endpoints lentos por diseño: ocupan cupo pero no reducen el límite de los demás
+    private List<String> unsampledPaths = new ArrayList<>(List.of("/receipts/import", "/customers/*/dashboard"));
+
+    //Decremento multiplicativo ante congestión
+    private double backoffRatio = 0.9;
+
+    //Fracción del límite reservada a los POST de pagos; las lecturas se rechazan antes
+    private double writeReserve = 0.2;
+
+    //Valor del header Retry-After en los 503
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,24 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "payment.dashboard")
+public class DashboardProperties {
+
+    //Plazo único para todas las secciones, contado desde que llega el request
+    private Duration deadline = Duration.ofMillis(800);
+
+    //Últimos pagos por defecto y tope del parámetro payments
+    private int lastPayments = 10;
+    private int maxPayments = 50;
+
+    //Hilos compartidos por todos los dashboards; cada sección usa uno y su propia conexión
+    private int poolSize = 16;
+
+    //Secciones en espera de hilo; con la cola llena el dashboard responde 503 en vez de encolar sin límite
+    private int queueCapacity = 64;
+}
@@ -0,0 +1,119 @@
+package com.payservice.paymentservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//Reemplaza el DataSource autoconfigurado cuando hay réplicas de lectura y/o bulkheads de conexiones
+//Los pools no son beans (el DataSource es el proxy): se cierran acá y publican hikaricp.* con su poolName
+@Configuration
+@ConditionalOnExpression("${payment.datasource.replica.enabled:false} or ${payment.bulkhead.enabled:false}")
+public class DataSourceRoutingConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new CopyOnWriteArrayList<>();
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public DataSourceRoutingConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties primaryProperties,
+                                 ReplicaRoutingProperties replicaProperties,
+                                 BulkheadProperties bulkheadProperties,
+                                 Environment environment) {
+        boolean bulkheads = bulkheadProperties.isEnabled();
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = register(hikari(primaryProperties, binder));
+        primary.setPoolName(bulkheads ? "payment-writes" : "primary");
+        if (bulkheads) {
+            primary.setMaximumPoolSize(bulkheadProperties.getWrite().getPoolSize());
+            primary.setConnectionTimeout(bulkheadProperties.getWrite().getTimeout().toMillis());
+        }
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primary);
+
+        if (bulkheads) {
+            // lecturas pesadas no compiten por las conexiones de registerPayment
+            HikariDataSource primaryRead = register(hikari(primaryProperties, binder));
+            primaryRead.setPoolName("history-reads");
+            primaryRead.setMaximumPoolSize(bulkheadProperties.getRead().getPoolSize());
+            primaryRead.setConnectionTimeout(bulkheadProperties.getRead().getTimeout().toMillis());
+            targets.put(ReadWriteRoutingDataSource.PRIMARY_READ, primaryRead);
+        }
+
+        List<String> urls = replicaProperties.isEnabled() ? replicaProperties.getUrls() : List.of();
+        for (int i = 0; i < urls.size(); i++) {
+            targets.put(ReadWriteRoutingDataSource.REPLICA_PREFIX + i,
+                    register(replica(primaryProperties, replicaProperties, binder, urls.get(i), i)));
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(urls.size(), bulkheads);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // la conexión real se pide en la primera sentencia, cuando readOnly ya está fijado
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    //Métricas de Hikari (hikaricp.connections.*, tag pool) para dimensionar cada compartimento
+    //El tracker se fija antes del primer getConnection, que es cuando Hikari arranca el pool
+    private HikariDataSource register(HikariDataSource pool) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        pools.add(pool);
+        return pool;
+    }
+
+    //Como la autoconfiguración: spring.datasource.* y luego spring.datasource.hikari.* (timeouts, leak detection...)
+    //El tamaño y el timeout de cada compartimento se fijan después y mandan sobre los comunes
+    static HikariDataSource hikari(DataSourceProperties properties, Binder binder) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+
+    private HikariDataSource replica(DataSourceProperties primaryProperties, ReplicaRoutingProperties props,
+                                     Binder binder, String url, int index) {
+        HikariDataSource replica = new HikariDataSource();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica-" + index);
+        replica.setJdbcUrl(url);
+        replica.setDriverClassName(primaryProperties.determineDriverClassName());
+        replica.setUsername(props.getUsername() != null ? props.getUsername() : primaryProperties.determineUsername());
+        replica.setPassword(props.getPassword() != null ? props.getPassword() : primaryProperties.determinePassword());
+        replica.setMaximumPoolSize(props.getMaximumPoolSize());
+        replica.setReadOnly(true);
+        return replica;
+    }
+}
@@ -0,0 +1,21 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "payment.graphql")
+public class GraphQlLimitsProperties {
+
+    //Niveles de anidación permitidos en una consulta
+    private int maxDepth = 8;
+
+    //Costo estimado máximo: cada lista multiplica el costo de sus hijos (ver GraphQlCostConfig)
+    private int maxComplexity = 10000;
+
+    //Elementos que se suponen por lista cuando la consulta no los acota con limit o ids
+    private int defaultListSize = 10;
+
+    //Tope de ids en customers(ids) y de limit en Customer.payments
+    private int maxIds = 100;
+}
@@ -0,0 +1,151 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "payment.jobs")
+public class JobProperties {
+
+    private Autopay autopay = new Autopay();
+    private Overdue overdue = new Overdue();
+    private Billing billing = new Billing();
+    private Reconciliation reconciliation = new Reconciliation();
+    private Aging aging = new Aging();
+    private Settlement settlement = new Settlement();
+    private PaymentArchive paymentArchive = new PaymentArchive();
+    private ReceiptArchive receiptArchive = new ReceiptArchive();
+    private ReceiptLedger receiptLedger = new ReceiptLedger();
+
+    @Data
+    public static class Autopay {
+        //Opt-in: solo el disparo programado; POST /jobs/autopay/run funciona siempre
+        private boolean enabled = false;
+        private String cron = "0 0 1 * * *";
+
+        //Workers en paralelo; cada uno procesa los clientes con mod(customer_id, workers) = partición
+        private int workers = 4;
+
+        //Recibos por transacción (y por checkpoint)
+        private int chunkSize = 500;
+
+        //Filas que el cursor trae por ida a la base
+        private int fetchSize = 1000;
+    }
+
+    @Data
+    public static class Overdue {
+        //Opt-in: solo el disparo programado; POST /jobs/overdue/run funciona siempre
+        private boolean enabled = false;
+        private String cron = "0 5 0 * * *";
+
+        //Filas por UPDATE; cada UPDATE confirma por separado para no retener locks
+        private int chunkSize = 5000;
+    }
+
+    @Data
+    public static class Billing {
+        //Opt-in: solo el disparo programado; POST /jobs/billing/run funciona siempre
+        private boolean enabled = false;
+        private String cron = "0 0 2 1 * *";
+
+        //Servicios por página; cada página se inserta en lote y confirma con su checkpoint
+        private int pageSize = 1000;
+
+        //Primer recibo de un servicio sin historial (no hay recibo anterior que repetir)
+        //Sin monto configurado esos servicios se cuentan como omitidos en el reporte
+        private BigDecimal firstReceiptAmount;
+        private String firstReceiptCurrency = "PEN";
+        private int firstReceiptDueDay = 28;
+    }
+
+    @Data
+    public static class Reconciliation {
+        //Opt-in: solo el disparo programado; POST /jobs/reconciliation/run funciona siempre
+        private boolean enabled = false;
+        private String cron = "0 0 4 * * *";
+
+        //Workers en paralelo, cada uno con una transacción sobre el snapshot compartido
+        private int workers = 4;
+
+        //Cantidad de receipt_id por rango de trabajo
+        private int rangeSize = 100_000;
+
+        private int fetchSize = 5000;
+
+        //Máximo de discrepancias detalladas en el reporte (el total siempre se informa)
+        private int maxReported = 1000;
+    }
+
+    @Data
+    public static class Aging {
+        //Opt-in: solo el disparo programado; POST /jobs/aging/run funciona siempre
+        private boolean enabled = false;
+        private String cron = "0 */15 * * * *";
+
+        //Solape con la corrida anterior: cubre transacciones que confirmaron tarde y desfase de relojes
+        private Duration overlap = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Settlement {
+        //Opt-in: solo el disparo programado (cierra el día anterior); POST /jobs/settlement/run funciona siempre
+        private boolean enabled = false;
+        private String cron = "0 30 0 * * *";
+
+        //Pagos entre checkpoints
+        private int chunkSize = 10_000;
+
+        private int fetchSize = 5000;
+    }
+
+    @Data
+    public static class PaymentArchive {
+        //Opt-in: solo el disparo programado; POST /jobs/payment-archive/run funciona siempre
+        private boolean enabled = false;
+        private String cron = "0 0 3 2 * *";
+
+        //Meses que quedan en payments (incluye el actual); el historial por defecto no mira más atrás
+        private int hotMonths = 24;
+
+        //Particiones futuras que se crean por adelantado: sin partición DEFAULT (db/008) un mes faltante rechaza el pago
+        private int monthsAhead = 3;
+    }
+
+    @Data
+    public static class ReceiptArchive {
+        //Opt-in: solo el disparo programado; POST /jobs/receipt-archive/run funciona siempre
+        private boolean enabled = false;
+        private String cron = "0 30 3 * * *";
+
+        //Antigüedad mínima (por due_date) de un recibo PAID para salir de receipts
+        private int minAgeMonths = 24;
+
+        //Recibos por sentencia; cada lote confirma solo
+        private int batchSize = 2000;
+    }
+
+    @Data
+    public static class ReceiptLedger {
+        //Opt-in: solo el disparo programado; POST /jobs/receipt-ledger/rebuild funciona siempre
+        private boolean enabled = false;
+        private String cron = "0 0 5 * * *";
+
+        //Workers en paralelo; un recibo cae siempre en un único rango, sus eventos se pliegan en orden
+        private int workers = 4;
+
+        //Cantidad de receipt_id por rango de trabajo (una transacción por rango)
+        private int rangeSize = 50_000;
+
+        private int fetchSize = 5000;
+
+        //Recibos con menos eventos no guardan snapshot: su replay ya es corto
+        private int snapshotMinEvents = 8;
+
+        //Margen del horizonte de snapshots: eventos más recientes se pliegan pero no se guardan
+        private Duration snapshotMargin = Duration.ofMinutes(1);
+    }
+}
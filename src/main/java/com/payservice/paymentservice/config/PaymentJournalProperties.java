@@ -0,0 +1,30 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "payment.journal")
+public class PaymentJournalProperties {
+
+    //Opt-in: con false un POST de pago sin base responde el error de siempre
+    private boolean enabled = false;
+
+    //Directorio local (disco propio de la instancia) donde viven los segmentos
+    private String directory = "data/payment-journal";
+
+    //Tamaño de cada segmento mapeado en memoria; al llenarse se abre el siguiente
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    //fsync agrupado: ventana máxima de pagos aceptados que un corte de energía puede perder
+    private Duration fsyncInterval = Duration.ofMillis(10);
+
+    //Cada cuánto se intenta reaplicar lo pendiente
+    private Duration replayInterval = Duration.ofSeconds(5);
+
+    //Máximo de conflictos detallados en el reporte de un replay (el total siempre se informa)
+    private int maxReported = 100;
+}
@@ -0,0 +1,64 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.ratelimit.JdbcRateLimitStore;
+import com.payservice.paymentservice.util.ratelimit.LocalRateLimitStore;
+import com.payservice.paymentservice.util.ratelimit.RateLimitStore;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "payment.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimitProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private final Environment environment;
+
+    private HikariDataSource pool;
+
+    @Bean
+    public RateLimitStore rateLimitStore() {
+        if ("jdbc".equalsIgnoreCase(properties.getStore())) {
+            // pool propio y chico, no registrado como DataSource para no competir con el principal
+            pool = DataSourceRoutingConfig.hikari(dataSourceProperties, Binder.get(environment));
+            pool.setPoolName("rate-limit");
+            pool.setMaximumPoolSize(properties.getPoolSize());
+            return new JdbcRateLimitStore(new JdbcTemplate(pool));
+        }
+        return new LocalRateLimitStore(properties.getMaxEntries());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // primero: un integrador que excede su cuota no consume cupo de concurrencia ni bulkhead
+        registry.addInterceptor(new RateLimitInterceptor(properties, rateLimitStore()))
+                .addPathPatterns("/payments/**", "/receipts/**", "/services/**", "/customers/**", "/graphql")
+                .order(-20);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.rate-limit.purge-interval:PT1M}")
+    public void purgeIdleBuckets() {
+        rateLimitStore().purgeIdle(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+    }
+
+    @PreDestroy
+    public void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.exception.RateLimitExceededException;
+import com.payservice.paymentservice.util.ratelimit.RateLimitDecision;
+import com.payservice.paymentservice.util.ratelimit.RateLimitStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+//Aplica el límite por cliente (path variable customerId) y por integrador; al exceder -> 429
+//El integrador se identifica por el usuario autenticado o la IP remota, nunca por un header que el cliente elige
+//(detrás de un proxy, server.forward-headers-strategy hace que getRemoteAddr sea la IP original)
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String GRAPHQL_PATH = "/graphql";
+    static final String GRAPHQL_ENDPOINT = "graphql";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final RateLimitProperties properties;
+    private final RateLimitStore store;
+    private final LongSupplier clockMicros;
+
+    public RateLimitInterceptor(RateLimitProperties properties, RateLimitStore store) {
+        this(properties, store, () -> TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String endpoint;
+        if (handler instanceof HandlerMethod method) {
+            endpoint = method.getMethod().getName();
+        } else if (GRAPHQL_PATH.equals(path(request))) {
+            // /graphql es una RouterFunction, sin método de controller: cuota propia (endpoints.graphql)
+            endpoint = GRAPHQL_ENDPOINT;
+        } else {
+            return true;
+        }
+
+        RateLimitDecision decision = check(endpoint, clientId(request), uriVariables(request).get("customerId"));
+
+        response.setHeader(LIMIT_HEADER, String.valueOf(decision.limit()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        return true;
+    }
+
+    //También lo usa el stack reactivo (ReactiveReadLimits): mismos buckets para el mismo endpoint
+    //endpoint = nombre del método del controller; al exceder -> RateLimitExceededException
+    public RateLimitDecision check(String endpoint, String clientId, Object customerId) {
+        long now = clockMicros.getAsLong();
+
+        String clientKey = "client:" + endpoint + ":" + clientId;
+        RateLimitProperties.Limit clientLimit = properties.getClient().forEndpoint(endpoint);
+        RateLimitDecision decision = consume(clientKey, clientLimit, now);
+
+        if (decision.allowed() && customerId != null) {
+            RateLimitDecision perCustomer = consume("customer:" + endpoint + ":" + customerId,
+                    properties.getCustomer().forEndpoint(endpoint), now);
+            if (!perCustomer.allowed()) {
+                // el request no se atiende: un cliente final ruidoso no gasta la cuota de su integrador
+                store.refund(clientKey, clientLimit.getRefillPerSecond());
+                decision = perCustomer;
+            } else if (perCustomer.remaining() < decision.remaining()) {
+                decision = perCustomer;
+            }
+        }
+
+        if (!decision.allowed()) {
+            long retryAfter = Math.max(1, TimeUnit.MICROSECONDS.toSeconds(decision.retryAfterMicros() + 999_999));
+            throw new RateLimitExceededException("Rate limit exceeded for " + endpoint, decision.limit(), retryAfter);
+        }
+        return decision;
+    }
+
+    private RateLimitDecision consume(String key, RateLimitProperties.Limit limit, long now) {
+        return store.tryConsume(key, limit.getCapacity(), limit.getRefillPerSecond(), now);
+    }
+
+    static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String clientId(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : "ip:" + request.getRemoteAddr();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> uriVariables(HttpServletRequest request) {
+        Object vars = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return vars instanceof Map<?, ?> map ? (Map<String, String>) map : Map.of();
+    }
+}
@@ -0,0 +1,67 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "payment.rate-limit")
+public class RateLimitProperties {
+
+    //Opt-in: límites por cliente final (customerId) y por integrador en cada endpoint
+    private boolean enabled = false;
+
+    //local = en memoria; jdbc = compartido entre instancias en PostgreSQL
+    private String store = "local";
+
+    //Máximo de buckets en memoria (store local)
+    private int maxEntries = 100_000;
+
+    //Pool propio del store jdbc: el rate limit no toma conexiones del pool de registerPayment
+    private int poolSize = 4;
+
+    //Cada cuánto se borran los buckets inactivos (llenos) del store
+    private Duration purgeInterval = Duration.ofMinutes(1);
+
+    //Por integrador: usuario autenticado o, sin autenticación, IP remota
+    private Limits client = new Limits(new Limit(60, 1.0));
+
+    //Por cliente final (path variable customerId), sumado al del integrador
+    private Limits customer = new Limits(new Limit(60, 1.0));
+
+    @Data
+    public static class Limits {
+        //Límite de los endpoints sin configuración propia
+        private Limit defaultLimit;
+        //Por nombre de método del controller, ej. client.endpoints.getPaymentsByCustomer.capacity=20
+        private Map<String, Limit> endpoints = new HashMap<>();
+
+        public Limits() {
+        }
+
+        public Limits(Limit defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+
+        public Limit forEndpoint(String endpoint) {
+            return endpoints.getOrDefault(endpoint, defaultLimit);
+        }
+    }
+
+    @Data
+    public static class Limit {
+        private int capacity;
+        private double refillPerSecond;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
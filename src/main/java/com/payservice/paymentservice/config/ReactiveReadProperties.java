@@ -0,0 +1,34 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "payment.reactive-read")
+public class ReactiveReadProperties {
+
+    //Opt-in (perfil reactive-read): lecturas no bloqueantes en un puerto propio, junto al stack servlet
+    private boolean enabled = false;
+    private int port = 8089;
+
+    //R2DBC contra la misma base que spring.datasource
+    private String url = "r2dbc:postgresql://localhost:5432/payment_service";
+    private String username;
+    private String password;
+
+    private Pool pool = new Pool();
+
+    //Filas pedidas por lote a la base y al cliente HTTP (backpressure de punta a punta)
+    private int prefetch = 64;
+
+    @Data
+    public static class Pool {
+        private int initialSize = 4;
+        private int maxSize = 20;
+        //Cola acotada de adquisiciones: al llenarse el request falla en vez de esperar sin límite
+        private int maxPendingAcquire = 200;
+        private Duration maxAcquireTime = Duration.ofSeconds(2);
+    }
+}
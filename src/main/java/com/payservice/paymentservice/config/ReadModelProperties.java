@@ -0,0 +1,29 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "payment.read-model")
+public class ReadModelProperties {
+
+    //Opt-in: con false los listados leen siempre de la base
+    private boolean enabled = false;
+
+    //Hilos de la carga inicial; cada uno carga un rango de customer_id
+    private int loadWorkers = 4;
+    private int rangeSize = 50_000;
+
+    //Últimos pagos por cliente que se guardan en memoria
+    private int lastPayments = 10;
+
+    //Verificación por muestreo contra la base
+    private Duration checkInterval = Duration.ofMinutes(1);
+    private int checkSampleSize = 50;
+
+    //Avisos de otras instancias (LISTEN): espera por ciclo y pausa antes de reconectar
+    private Duration listenTimeout = Duration.ofSeconds(1);
+    private Duration listenRetry = Duration.ofSeconds(5);
+}
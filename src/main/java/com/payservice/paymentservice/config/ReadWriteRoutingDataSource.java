@@ -0,0 +1,50 @@
+package com.payservice.paymentservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Transacciones readOnly -> réplicas (round-robin) o pool de lectura del primario; el resto -> pool de escritura
+//Debe usarse detrás de LazyConnectionDataSourceProxy para decidir con la transacción ya iniciada
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String PRIMARY_READ = "primary-read";
+    public static final String REPLICA_PREFIX = "replica-";
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private final int replicaCount;
+    private final boolean separateReadPool;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(int replicaCount) {
+        this(replicaCount, false);
+    }
+
+    //separateReadPool: bulkhead de conexiones, las lecturas al primario no usan el pool de escritura
+    public ReadWriteRoutingDataSource(int replicaCount, boolean separateReadPool) {
+        this.replicaCount = replicaCount;
+        this.separateReadPool = separateReadPool;
+    }
+
+    public static void pinPrimary() {
+        PRIMARY_PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpinPrimary() {
+        PRIMARY_PINNED.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (replicaCount == 0 || PRIMARY_PINNED.get() != null) {
+            return separateReadPool ? PRIMARY_READ : PRIMARY;
+        }
+        return REPLICA_PREFIX + Math.floorMod(next.getAndIncrement(), replicaCount);
+    }
+}
@@ -0,0 +1,15 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "payment.receipt-import")
+public class ReceiptImportProperties {
+
+    //Líneas por chunk: cada uno valida sus referencias, hace un COPY y confirma en su propia transacción
+    private int chunkSize = 5000;
+
+    //Máximo de errores detallados en la respuesta (el total siempre se informa)
+    private int maxReportedErrors = 1000;
+}
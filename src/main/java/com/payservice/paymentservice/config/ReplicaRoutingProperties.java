@@ -0,0 +1,32 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "payment.datasource.replica")
+public class ReplicaRoutingProperties {
+
+    //Sin esto todo va al DataSource de spring.datasource.* como antes
+    private boolean enabled = false;
+
+    //JDBC urls de las réplicas; las transacciones readOnly se reparten en round-robin
+    private List<String> urls = new ArrayList<>();
+
+    //Si se omiten se usan las credenciales de spring.datasource.*
+    private String username;
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    //Un cliente que pagó hace menos que esto lee del primario (lag de replicación)
+    private Duration stalenessBound = Duration.ofSeconds(5);
+
+    //LISTEN de los pagos de otras instancias: espera por vuelta y pausa antes de reconectar
+    private Duration listenTimeout = Duration.ofSeconds(1);
+    private Duration listenRetry = Duration.ofSeconds(5);
+}
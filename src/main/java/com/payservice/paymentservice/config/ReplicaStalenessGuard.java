@@ -0,0 +1,132 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.event.PaymentCommittedEvent;
+import com.payservice.paymentservice.repository.WriteNoticeRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Cota de staleness: un cliente que acaba de pagar lee del primario hasta que pase stalenessBound
+//Vale entre instancias: cada pago se avisa por NOTIFY (WriteNoticeRepository) y todas marcan al cliente
+//Sin el LISTEN conectado no se sabe qué pagó otra instancia: todas las lecturas van al primario
+@Component
+public class ReplicaStalenessGuard {
+
+    private final ReplicaRoutingProperties properties;
+    private final WriteNoticeRepository notices;
+
+    private final Map<Integer, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+    private volatile boolean listening;
+    private volatile Thread listener;
+
+    public ReplicaStalenessGuard(ReplicaRoutingProperties properties, WriteNoticeRepository notices) {
+        this.properties = properties;
+        this.notices = notices;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            Thread t = new Thread(this::listen, "replica-guard-listener");
+            t.setDaemon(true);
+            listener = t;
+            t.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread t = listener;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    //El aviso viaja en la transacción del pago: solo se recibe si hay commit
+    //Si no se puede emitir, el pago sigue; esta instancia igual marca al cliente en AFTER_COMMIT
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void announcePayment(PaymentCommittedEvent event) {
+        if (!properties.isEnabled() || event.customerId() == null) return;
+        try {
+            notices.publish(event.customerId());
+        } catch (RuntimeException e) {
+            // sin aviso las otras instancias pueden leer una réplica atrasada hasta stalenessBound
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPaymentCommitted(PaymentCommittedEvent event) {
+        if (!properties.isEnabled()) return;
+        markWritten(event.customerId());
+    }
+
+    //Se llama al inicio de un método readOnly, antes de la primera query
+    public void pinPrimaryIfRecentlyWritten(Integer customerId) {
+        if (!properties.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        if (listening) {
+            Long written = lastWriteNanos.get(customerId);
+            if (written == null || System.nanoTime() - written > properties.getStalenessBound().toNanos()) return;
+        }
+
+        ReadWriteRoutingDataSource.pinPrimary();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ReadWriteRoutingDataSource.unpinPrimary();
+            }
+        });
+    }
+
+    void markWritten(Integer customerId) {
+        if (customerId == null) return;
+        long now = System.nanoTime();
+        lastWriteNanos.put(customerId, now);
+
+        // cada 256 escrituras se purgan las que ya salieron de la ventana
+        if (writes.incrementAndGet() % 256 == 0) {
+            long bound = properties.getStalenessBound().toNanos();
+            lastWriteNanos.values().removeIf(t -> now - t > bound);
+        }
+    }
+
+    void onListenerConnected() {
+        listening = true;
+    }
+
+    void onListenerLost() {
+        listening = false;
+    }
+
+    private void listen() {
+        int timeout = (int) properties.getListenTimeout().toMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection con = notices.listen()) {
+                onListenerConnected();
+                while (!Thread.currentThread().isInterrupted()) {
+                    notices.awaitNotices(con, timeout).forEach(this::markWritten);
+                }
+                return;
+            } catch (SQLException | RuntimeException e) {
+                onListenerLost();
+            }
+            try {
+                Thread.sleep(properties.getListenRetry().toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
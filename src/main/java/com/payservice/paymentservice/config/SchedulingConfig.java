@@ -0,0 +1,10 @@
+package com.payservice.paymentservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//Habilita los @Scheduled de los jobs (cada job decide si corre según su propiedad enabled)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,94 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.timing.ServerTimingContext;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+//Envuelve el DataSource para medir tiempo y número de queries JDBC del request muestreado
+//Fuera de un request muestreado el costo es una lectura de ThreadLocal por ejecución
+@Component
+@ConditionalOnProperty(prefix = "payment.server-timing", name = "enabled", havingValue = "true")
+public class ServerTimingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TimingDataSource)) {
+            return new TimingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    static class TimingDataSource extends DelegatingDataSource {
+
+        TimingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private Connection wrap(Connection connection) {
+            return proxy(Connection.class, connection, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                if (result instanceof CallableStatement cs) return proxy(CallableStatement.class, cs, timed());
+                if (result instanceof PreparedStatement ps) return proxy(PreparedStatement.class, ps, timed());
+                if (result instanceof Statement st) return proxy(Statement.class, st, timed());
+                return result;
+            });
+        }
+
+        private static JdbcHandler timed() {
+            return (target, method, args) -> {
+                ServerTimingContext ctx = ServerTimingContext.current();
+                if (ctx == null || !method.getName().startsWith("execute")) {
+                    return invoke(target, method, args);
+                }
+                long start = System.nanoTime();
+                try {
+                    return invoke(target, method, args);
+                } finally {
+                    ctx.recordQuery(System.nanoTime() - start);
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, Object target, JdbcHandler handler) {
+            InvocationHandler ih = (p, method, args) -> handler.handle(target, method, args);
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, ih);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface JdbcHandler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,53 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.timing.ServerTimingContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Agrega el header Server-Timing (db, map, ser, total) a una fracción muestreada de requests
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "payment.server-timing", name = "enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private final ServerTimingProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getPathPrefixes().stream().noneMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+
+        if (ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        //Se bufferiza el body para poder escribir el header después de serializar
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        ServerTimingContext ctx = ServerTimingContext.start();
+        try {
+            chain.doFilter(request, wrapper);
+            wrapper.setHeader(HEADER, ctx.toHeaderValue(System.nanoTime()));
+        } finally {
+            ServerTimingContext.clear();
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
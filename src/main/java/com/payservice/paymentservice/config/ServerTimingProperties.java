@@ -0,0 +1,20 @@
+package com.payservice.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "payment.server-timing")
+public class ServerTimingProperties {
+
+    //Opt-in: sin esto no se instala el filtro ni el proxy del DataSource
+    private boolean enabled = false;
+
+    //Fracción de requests que llevan el header (0.0 - 1.0)
+    private double sampleRate = 1.0;
+
+    //Rutas de PaymentController, ReceiptController y ServiceController
+    private List<String> pathPrefixes = List.of("/payments", "/receipts", "/services");
+}
@@ -0,0 +1,33 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.timing.ServerTimingContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+//Marca el inicio de la serialización JSON: separa "map" de "ser" en Server-Timing
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "payment.server-timing", name = "enabled", havingValue = "true")
+public class ServerTimingResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        ServerTimingContext ctx = ServerTimingContext.current();
+        if (ctx != null) {
+            ctx.markSerializationStart();
+        }
+        return body;
+    }
+}
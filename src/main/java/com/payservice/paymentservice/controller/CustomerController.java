@@ -0,0 +1,27 @@
+package com.payservice.paymentservice.controller;
+
+import com.payservice.paymentservice.dto.CustomerDashboardDTO;
+import com.payservice.paymentservice.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/customers")
+@RequiredArgsConstructor
+public class CustomerController {
+
+    private final DashboardService dashboardService;
+
+    //Reemplaza servicios + recibos por servicio + pagos desde el navegador; partial=true si faltó una sección
+    @GetMapping("/{customerId}/dashboard")
+    public ResponseEntity<CustomerDashboardDTO> getDashboard(
+            @PathVariable Integer customerId,
+            @RequestParam(required = false) Integer payments) {
+        return ResponseEntity.ok(dashboardService.getCustomerDashboard(customerId, payments));
+    }
+}
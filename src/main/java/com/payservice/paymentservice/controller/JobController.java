@@ -0,0 +1,106 @@
+package com.payservice.paymentservice.controller;
+
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.dto.JournalReplayReportDTO;
+import com.payservice.paymentservice.dto.LedgerRebuildReportDTO;
+import com.payservice.paymentservice.dto.ReconciliationReportDTO;
+import com.payservice.paymentservice.dto.SettlementDTO;
+import com.payservice.paymentservice.job.AgingRefreshJob;
+import com.payservice.paymentservice.job.AutopayJob;
+import com.payservice.paymentservice.job.BillingRunJob;
+import com.payservice.paymentservice.job.OverdueSweepJob;
+import com.payservice.paymentservice.job.PaymentArchivalJob;
+import com.payservice.paymentservice.job.ReceiptArchivalJob;
+import com.payservice.paymentservice.job.ReceiptLedgerRebuildJob;
+import com.payservice.paymentservice.job.ReconciliationJob;
+import com.payservice.paymentservice.job.SettlementCloseJob;
+import com.payservice.paymentservice.journal.PaymentJournalReplayer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+//Disparo manual de los jobs batch (reintentos, corridas atrasadas); el programado usa el mismo código
+@RestController
+@RequestMapping("/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final AutopayJob autopayJob;
+    private final OverdueSweepJob overdueSweepJob;
+    private final BillingRunJob billingRunJob;
+    private final ReconciliationJob reconciliationJob;
+    private final AgingRefreshJob agingRefreshJob;
+    private final SettlementCloseJob settlementCloseJob;
+    private final PaymentArchivalJob paymentArchivalJob;
+    private final ReceiptArchivalJob receiptArchivalJob;
+    private final ReceiptLedgerRebuildJob receiptLedgerRebuildJob;
+    private final PaymentJournalReplayer paymentJournalReplayer;
+
+    @PostMapping("/autopay/run")
+    public ResponseEntity<JobRunReportDTO> runAutopay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        return ResponseEntity.ok(autopayJob.run(date == null ? LocalDate.now() : date));
+    }
+
+    @PostMapping("/overdue/run")
+    public ResponseEntity<JobRunReportDTO> runOverdueSweep(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate cutoff) {
+
+        return ResponseEntity.ok(overdueSweepJob.run(cutoff == null ? LocalDate.now() : cutoff));
+    }
+
+    //period=2026-11 (yyyy-MM); por defecto el mes actual
+    @PostMapping("/billing/run")
+    public ResponseEntity<JobRunReportDTO> runBilling(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+
+        return ResponseEntity.ok(billingRunJob.run(period == null ? YearMonth.now() : period));
+    }
+
+    @PostMapping("/reconciliation/run")
+    public ResponseEntity<ReconciliationReportDTO> runReconciliation() {
+        return ResponseEntity.ok(reconciliationJob.run());
+    }
+
+    @PostMapping("/aging/run")
+    public ResponseEntity<JobRunReportDTO> runAgingRefresh() {
+        return ResponseEntity.ok(agingRefreshJob.run(LocalDate.now()));
+    }
+
+    //date: día a cerrar; por defecto ayer
+    @PostMapping("/settlement/run")
+    public ResponseEntity<SettlementDTO> runSettlement(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        return ResponseEntity.ok(settlementCloseJob.run(date == null ? LocalDate.now().minusDays(1) : date));
+    }
+
+    @PostMapping("/payment-archive/run")
+    public ResponseEntity<JobRunReportDTO> runPaymentArchive() {
+        return ResponseEntity.ok(paymentArchivalJob.run(LocalDate.now()));
+    }
+
+    @PostMapping("/receipt-archive/run")
+    public ResponseEntity<JobRunReportDTO> runReceiptArchive() {
+        return ResponseEntity.ok(receiptArchivalJob.run(LocalDate.now()));
+    }
+
+    //repair=true corrige pending_amount / receipt_status de los recibos que no coinciden con el ledger
+    @PostMapping("/receipt-ledger/rebuild")
+    public ResponseEntity<LedgerRebuildReportDTO> rebuildReceiptLedger(
+            @RequestParam(defaultValue = "false") boolean repair) {
+
+        return ResponseEntity.ok(receiptLedgerRebuildJob.run(repair));
+    }
+
+    //Reaplica ya lo pendiente del journal local sin esperar al intervalo programado
+    @PostMapping("/payment-journal/replay")
+    public ResponseEntity<JournalReplayReportDTO> replayPaymentJournal() {
+        return ResponseEntity.ok(paymentJournalReplayer.run());
+    }
+}
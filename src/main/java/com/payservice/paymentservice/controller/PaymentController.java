@@ -1,12 +1,17 @@
 package com.payservice.paymentservice.controller;
 
 import com.payservice.paymentservice.dto.*;
+import com.payservice.paymentservice.journal.ConnectionFailures;
+import com.payservice.paymentservice.journal.JournalEntry;
+import com.payservice.paymentservice.journal.PaymentJournal;
 import com.payservice.paymentservice.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -15,22 +20,54 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentJournal paymentJournal;
 
+    //201 con el pago registrado; 202 si no se pudo conectar a la base y el journal local está habilitado
     @PostMapping("/receipts/{receiptId}/customer/{customerId}")
-    public ResponseEntity<PaymentResponseDTO> registerPayment(
+    public ResponseEntity<?> registerPayment(
             @PathVariable Integer receiptId,
             @PathVariable Integer customerId,
             @Valid @RequestBody PaymentRequestDTO request) {
 
-        PaymentResponseDTO resp = paymentService.registerPayment(receiptId, customerId, request);
+        try {
+            PaymentResponseDTO resp = paymentService.registerPayment(receiptId, customerId, request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(resp);
+        } catch (RuntimeException ex) {
+            // solo si la conexión no llegó a establecerse: sin escrituras, el journal no puede duplicar el pago
+            // un pool agotado con la base sana no entra: las reglas (RN3, RN6) se siguen validando en línea
+            if (!paymentJournal.isEnabled() || !ConnectionFailures.beforeAnyWrite(ex)) throw ex;
+            JournalEntry entry = paymentJournal.append(receiptId, customerId,
+                    request.getAmount(), request.getPaymentCurrency());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(PaymentQueuedDTO.builder()
+                    .journalId(entry.journalId().toString())
+                    .receiptId(receiptId)
+                    .customerId(customerId)
+                    .amount(entry.amount())
+                    .paymentCurrency(entry.paymentCurrency())
+                    .acceptedAt(entry.acceptedAt())
+                    .status("QUEUED")
+                    .build());
+        }
+    }
+
+    @PostMapping("/services/{serviceId}/customer/{customerId}/allocate")
+    public ResponseEntity<PaymentAllocationResponseDTO> allocatePayment(
+            @PathVariable Integer serviceId,
+            @PathVariable Integer customerId,
+            @Valid @RequestBody PaymentRequestDTO request) {
+
+        PaymentAllocationResponseDTO resp = paymentService.allocatePayment(serviceId, customerId, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(resp);
     }
 
+    //Sin rango: solo la ventana caliente; from anterior a la ventana también lee el archivo
     @GetMapping("/customers/{customerId}")
     public ResponseEntity<List<PaymentResponseDTO>> getPaymentsByCustomer(
-            @PathVariable Integer customerId) {
+            @PathVariable Integer customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
 
-        List<PaymentResponseDTO> list = paymentService.getPaymentsByCustomer(customerId);
+        List<PaymentResponseDTO> list = paymentService.getPaymentsByCustomer(customerId, from, to);
         return ResponseEntity.ok(list);
     }
 
@@ -1,11 +1,20 @@
 package com.payservice.paymentservice.controller;
 
+import com.payservice.paymentservice.dto.ReceiptImportResultDTO;
+import com.payservice.paymentservice.dto.ReceiptLedgerDTO;
 import com.payservice.paymentservice.dto.ReceiptResponseDTO;
+import com.payservice.paymentservice.service.ReceiptImportService;
 import com.payservice.paymentservice.service.ReceiptService;
+import com.payservice.paymentservice.util.RequestCoalescer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,15 +23,44 @@ import java.util.List;
 public class ReceiptController {
 
     private final ReceiptService receiptService;
+    private final RequestCoalescer requestCoalescer;
+    private final ReceiptImportService receiptImportService;
 
     @GetMapping("/service/{serviceId}/customer/{customerId}")
     public ResponseEntity<List<ReceiptResponseDTO>> getReceipts(
             @PathVariable Integer serviceId,
-            @PathVariable Integer customerId
+            @PathVariable Integer customerId,
+            @RequestParam(defaultValue = "false") boolean fullHistory,
+            WebRequest webRequest
     ) {
-        List<ReceiptResponseDTO> result =
-                receiptService.getReceiptsByServiceAndCustomer(serviceId, customerId);
+        // If-None-Match: si el ETag no cambió se responde 304 sin cargar recibos
+        String etag = receiptService.getReceiptsEtag(serviceId, customerId);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        // fullHistory=true también lee receipts_archive; se coalesce aparte de la lectura normal
+        List<ReceiptResponseDTO> result = requestCoalescer.execute(
+                fullHistory ? "GET /receipts/service/{serviceId}/customer/{customerId}?fullHistory"
+                        : "GET /receipts/service/{serviceId}/customer/{customerId}", customerId, serviceId,
+                () -> receiptService.getReceiptsByServiceAndCustomer(serviceId, customerId, fullHistory));
 
         return ResponseEntity.ok(result);
     }
+
+    //Saldo y estado derivados del ledger; asOf=2026-01-15T10:00:00 reconstruye el recibo a ese momento
+    @GetMapping("/{receiptId}/ledger")
+    public ResponseEntity<ReceiptLedgerDTO> getReceiptLedger(
+            @PathVariable Integer receiptId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf
+    ) {
+        return ResponseEntity.ok(receiptService.getReceiptLedger(receiptId, asOf));
+    }
+
+    //Cuerpo text/csv leído en streaming (curl --data-binary @recibos.csv -H "Content-Type: text/csv")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ReceiptImportResultDTO> importReceipts(InputStream body) {
+        ReceiptImportResultDTO result = receiptImportService.importReceipts(body);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
 }
@@ -0,0 +1,36 @@
+package com.payservice.paymentservice.controller;
+
+import com.payservice.paymentservice.dto.AgingReportDTO;
+import com.payservice.paymentservice.dto.SettlementDTO;
+import com.payservice.paymentservice.service.AgingReportService;
+import com.payservice.paymentservice.service.SettlementService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final AgingReportService agingReportService;
+    private final SettlementService settlementService;
+
+    @GetMapping("/aging")
+    public ResponseEntity<AgingReportDTO> getAgingReport(
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) Integer serviceId) {
+
+        return ResponseEntity.ok(agingReportService.getAgingReport(currency, serviceId));
+    }
+
+    @GetMapping("/settlements/{date}")
+    public ResponseEntity<SettlementDTO> getSettlement(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        return ResponseEntity.ok(settlementService.getSettlement(date));
+    }
+}
@@ -2,12 +2,14 @@ package com.payservice.paymentservice.controller;
 
 import com.payservice.paymentservice.dto.ServiceResponseDTO;
 import com.payservice.paymentservice.service.ServiceService;
+import com.payservice.paymentservice.util.RequestCoalescer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,12 +19,22 @@ import java.util.List;
 public class ServiceController {
 
     private final ServiceService serviceService;
+    private final RequestCoalescer requestCoalescer;
 
     @GetMapping("/customers/{customerId}")
     public ResponseEntity<List<ServiceResponseDTO>> listServicesByCustomer(
-            @PathVariable Integer customerId) {
+            @PathVariable Integer customerId,
+            WebRequest webRequest) {
 
-        List<ServiceResponseDTO> result = serviceService.getServicesByCustomer(customerId);
+        // If-None-Match: si el ETag no cambió se responde 304 sin cargar servicios ni recibos
+        String etag = serviceService.getServicesEtag(customerId);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        List<ServiceResponseDTO> result = requestCoalescer.execute(
+                "GET /services/customers/{customerId}", customerId, null,
+                () -> serviceService.getServicesByCustomer(customerId));
         return ResponseEntity.ok(result);
     }
 }
@@ -0,0 +1,16 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class AgingReportDTO {
+
+    //Fecha de corte de los buckets y momento del último refresco del rollup
+    private LocalDate asOf;
+    private LocalDateTime refreshedAt;
+    private List<AgingRowDTO> rows;
+}
@@ -0,0 +1,20 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class AgingRowDTO {
+
+    //Saldo pendiente por antigüedad (días después de dueDate) para una moneda y servicio
+    private String currency;
+    private Integer serviceId;
+    private BigDecimal current;
+    private BigDecimal days1To30;
+    private BigDecimal days31To60;
+    private BigDecimal days61To90;
+    private BigDecimal days90Plus;
+    private BigDecimal total;
+    private long receiptCount;
+}
@@ -0,0 +1,18 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class CustomerDashboardDTO {
+    private CustomerSummaryDTO customer;
+    private List<ServiceSummaryDTO> services;
+
+    //null si la sección no llegó dentro del plazo (figura en unavailableSections)
+    private List<ReceiptResponseDTO> openReceipts;
+    private List<PaymentResponseDTO> lastPayments;
+
+    private boolean partial;
+    private List<String> unavailableSections;
+}
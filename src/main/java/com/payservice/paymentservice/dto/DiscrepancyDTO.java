@@ -0,0 +1,18 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class DiscrepancyDTO {
+
+    //BALANCE: receipt_amount - pagos convertidos != pending_amount
+    //CHAIN: previous_pending_amount de un pago != new_pending_amount del pago anterior
+    //FINAL: new_pending_amount del último pago != pending_amount del recibo
+    private Integer receiptId;
+    private Integer paymentId;
+    private String type;
+    private BigDecimal expected;
+    private BigDecimal actual;
+}
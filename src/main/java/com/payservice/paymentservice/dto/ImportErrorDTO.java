@@ -0,0 +1,9 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ImportErrorDTO {
+    private long line;
+    private String message;
+}
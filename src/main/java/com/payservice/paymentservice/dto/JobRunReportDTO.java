@@ -0,0 +1,17 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class JobRunReportDTO {
+
+    //Resultado de una corrida de un job batch
+    private String jobName;
+    private String runKey;
+    private int partitions;
+    private long chunks;
+    private long processed;
+    private long skipped;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
@@ -0,0 +1,19 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class JournalConflictDTO {
+
+    //Pago aceptado en modo degradado que una regla rechazó al reaplicarlo (p. ej. RN3 sobrepago)
+    private String journalId;
+    private Integer receiptId;
+    private Integer customerId;
+    private BigDecimal amount;
+    private String paymentCurrency;
+    private LocalDateTime acceptedAt;
+    private String reason;
+}
@@ -0,0 +1,26 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class JournalReplayReportDTO {
+
+    //Resultado de un replay del journal local de pagos
+    private long applied;
+    //Aplicadas con la fecha del replay: el día en que se aceptaron ya estaba cerrado (settlements)
+    private long late;
+    //Ya reaplicadas en un replay anterior (idempotencia)
+    private long duplicates;
+    private long rejected;
+    //Registros con CRC inválido: se descartan y se informan
+    private long corrupt;
+    //Quedan en el journal (la base volvió a fallar a mitad del replay)
+    private long remaining;
+    private long elapsedMillis;
+
+    //Detalle hasta payment.journal.max-reported
+    private List<JournalConflictDTO> conflicts;
+    private boolean conflictsTruncated;
+}
@@ -0,0 +1,22 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class LedgerRebuildReportDTO {
+
+    //Resultado de un replay completo del ledger de recibos
+    private int ranges;
+    private int workers;
+    private long receipts;
+    private long events;
+    private long snapshotsWritten;
+
+    //Recibos cuya proyección (pending_amount / receipt_status) no coincide con el ledger
+    private long mismatches;
+    //Recibos corregidos (solo con repair=true; los archivados no se tocan)
+    private long repaired;
+
+    private long elapsedMillis;
+    private double eventsPerSecond;
+}
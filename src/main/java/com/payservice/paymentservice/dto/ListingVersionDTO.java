@@ -0,0 +1,22 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+//Versión barata de un listado: max(date_modifi) y count de los recibos
+//lastModified también cubre los datos embebidos en la respuesta (nombre de servicio o cliente)
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ListingVersionDTO {
+    private LocalDateTime lastModified;
+    private Long count;
+
+    //Misma cuenta, el date_modifi más reciente entre los recibos y las filas embebidas
+    public ListingVersionDTO including(LocalDateTime... modified) {
+        LocalDateTime max = lastModified;
+        for (LocalDateTime m : modified) {
+            if (m != null && (max == null || m.isAfter(max))) max = m;
+        }
+        return new ListingVersionDTO(max, count);
+    }
+}
@@ -0,0 +1,20 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class PaymentAllocationResponseDTO {
+
+    //Respuesta del pago en cascada: un monto repartido entre varios recibos
+    private CustomerSummaryDTO customer;
+    private ServiceSummaryDTO service;
+
+    private BigDecimal amount;
+    private String paymentCurrency;
+    private LocalDateTime paymentDate;
+    private List<ReceiptAllocationDTO> allocations;
+}
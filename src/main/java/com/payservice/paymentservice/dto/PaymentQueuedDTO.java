@@ -0,0 +1,19 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class PaymentQueuedDTO {
+
+    //Pago aceptado sin base (202): se reaplica con las reglas de siempre cuando la base vuelve
+    private String journalId;
+    private Integer receiptId;
+    private Integer customerId;
+    private BigDecimal amount;
+    private String paymentCurrency;
+    private LocalDateTime acceptedAt;
+    private String status;
+}
@@ -0,0 +1,22 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ReceiptAllocationDTO {
+
+    //Parte del pago aplicada a un recibo (appliedAmount en moneda del pago, convertedAmount en moneda del recibo)
+    private String receiptNumber;
+    private String periodLabel;
+    private LocalDate dueDate;
+    private String currency;
+    private BigDecimal appliedAmount;
+    private BigDecimal convertedAmount;
+    private BigDecimal exchangeRate;
+    private BigDecimal previousPendingAmount;
+    private BigDecimal newPendingAmount;
+    private String receiptStatus;
+}
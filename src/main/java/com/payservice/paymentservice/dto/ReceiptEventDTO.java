@@ -0,0 +1,18 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ReceiptEventDTO {
+
+    //Evento del ledger; amount en la moneda del recibo, receiptStatus = estado después del evento
+    private long eventId;
+    private String eventType;
+    private BigDecimal amount;
+    private String receiptStatus;
+    private Integer paymentId;
+    private LocalDateTime occurredAt;
+}
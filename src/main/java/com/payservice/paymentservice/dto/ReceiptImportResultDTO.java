@@ -0,0 +1,21 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReceiptImportResultDTO {
+
+    //Estadísticas de un archivo importado
+    private long totalRows;
+    private long imported;
+    private long rejected;
+    private long duplicates;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    //Filas rechazadas (hasta payment.receipt-import.max-reported-errors)
+    private List<ImportErrorDTO> errors;
+    private boolean errorsTruncated;
+}
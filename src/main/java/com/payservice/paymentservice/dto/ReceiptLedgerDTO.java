@@ -0,0 +1,23 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReceiptLedgerDTO {
+
+    //Recibo reconstruido desde el ledger al momento asOf
+    private Integer receiptId;
+    private LocalDateTime asOf;
+    private BigDecimal pendingAmount;
+    private String receiptStatus;
+    private int eventCount;
+
+    //Último evento incluido en el snapshot desde el que se partió (0 = replay desde el primer evento)
+    private long snapshotEventId;
+    //Eventos aplicados sobre el snapshot, en orden
+    private List<ReceiptEventDTO> events;
+}
@@ -0,0 +1,22 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReconciliationReportDTO {
+
+    //Resultado de una conciliación; todo se leyó desde el mismo snapshot
+    private String snapshotId;
+    private int ranges;
+    private long receiptsChecked;
+    private long paymentsChecked;
+    private long discrepancyCount;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    //Detalle hasta payment.jobs.reconciliation.max-reported
+    private List<DiscrepancyDTO> discrepancies;
+    private boolean discrepanciesTruncated;
+}
@@ -0,0 +1,10 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ServiceItemDTO {
+    private Integer serviceId;
+    private String serviceName;
+    private String description;
+}
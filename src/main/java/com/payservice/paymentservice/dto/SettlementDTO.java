@@ -0,0 +1,17 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class SettlementDTO {
+
+    //Cierre diario congelado (no cambia después de confirmado)
+    private LocalDate settlementDate;
+    private LocalDateTime closedAt;
+    private long paymentCount;
+    private List<SettlementLineDTO> lines;
+}
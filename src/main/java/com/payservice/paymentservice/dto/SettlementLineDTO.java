@@ -0,0 +1,17 @@
+package com.payservice.paymentservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class SettlementLineDTO {
+
+    //amountTotal en moneda del pago; receiptAmountTotal es lo descontado de los recibos en su moneda
+    private String paymentCurrency;
+    private BigDecimal exchangeRate;
+    private String receiptCurrency;
+    private long paymentCount;
+    private BigDecimal amountTotal;
+    private BigDecimal receiptAmountTotal;
+}
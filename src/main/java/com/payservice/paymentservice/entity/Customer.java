@@ -21,6 +21,9 @@ public class Customer {
 
     private String email;
 
+    @Column(name = "autopay_enabled")
+    private Boolean autopayEnabled;
+
     @Column(name = "date_regist", updatable = false)
     private LocalDateTime dateRegist;
 
@@ -0,0 +1,5 @@
+package com.payservice.paymentservice.event;
+
+//Evento en proceso publicado al registrar un pago; los listeners AFTER_COMMIT lo reciben tras el commit
+public record PaymentCommittedEvent(Integer customerId, Integer serviceId, Integer receiptId) {
+}
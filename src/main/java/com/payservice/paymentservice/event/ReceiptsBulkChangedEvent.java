@@ -0,0 +1,5 @@
+package com.payservice.paymentservice.event;
+
+//Evento en proceso de los jobs e importaciones que cambian recibos en lote (sin un evento por recibo)
+public record ReceiptsBulkChangedEvent(String source, long rows) {
+}
@@ -0,0 +1,5 @@
+package com.payservice.paymentservice.graphql;
+
+//Tipo Customer del esquema GraphQL: columnas leídas por GraphRepository, sin entidad administrada
+public record CustomerNode(Integer customerId, String names, String lastname, String email) {
+}
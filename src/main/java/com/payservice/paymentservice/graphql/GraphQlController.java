@@ -0,0 +1,179 @@
+package com.payservice.paymentservice.graphql;
+
+import com.payservice.paymentservice.config.GraphQlLimitsProperties;
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.repository.GraphRepository;
+import com.payservice.paymentservice.util.PaymentPartitions;
+import graphql.schema.DataFetchingEnvironment;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//API GraphQL sobre clientes, servicios, recibos y pagos (schema.graphqls)
+//Listas hijas con @BatchMapping y referencias por id con DataLoaders del request: una consulta por tipo y nivel
+//Los DataLoaders cachean por request; el mismo cliente o servicio se lee una sola vez aunque aparezca en varias ramas
+@Controller
+public class GraphQlController {
+
+    static final String CUSTOMER_PAYMENTS = "customerPayments";
+
+    private final GraphRepository repository;
+    private final GraphQlLimitsProperties limits;
+    private final JobProperties jobProperties;
+
+    public GraphQlController(GraphRepository repository, GraphQlLimitsProperties limits,
+                             JobProperties jobProperties, BatchLoaderRegistry registry) {
+        this.repository = repository;
+        this.limits = limits;
+        this.jobProperties = jobProperties;
+
+        registry.forTypePair(Integer.class, CustomerNode.class).registerMappedBatchLoader((ids, env) ->
+                Mono.fromCallable(() -> byId(repository.findCustomers(ids), CustomerNode::customerId)));
+        registry.forTypePair(Integer.class, ServiceNode.class).registerMappedBatchLoader((ids, env) ->
+                Mono.fromCallable(() -> byId(repository.findServices(ids), ServiceNode::serviceId)));
+        registry.forTypePair(Integer.class, ReceiptNode.class).registerMappedBatchLoader((ids, env) ->
+                Mono.fromCallable(() -> byId(repository.findReceipts(ids), ReceiptNode::receiptId)));
+
+        // Customer.payments(limit): una consulta por cada limit distinto del nivel
+        registry.<PaymentsKey, List<PaymentNode>>forName(CUSTOMER_PAYMENTS).registerMappedBatchLoader((keys, env) ->
+                Mono.fromCallable(() -> latestPayments(keys)));
+    }
+
+    @QueryMapping
+    public CompletableFuture<CustomerNode> customer(@Argument Integer id, DataLoader<Integer, CustomerNode> customers) {
+        return customers.load(id);
+    }
+
+    @QueryMapping
+    public CompletableFuture<List<CustomerNode>> customers(@Argument List<Integer> ids,
+                                                           DataLoader<Integer, CustomerNode> customers) {
+        if (ids.size() > limits.getMaxIds()) {
+            throw new IllegalArgumentException("ids must have at most " + limits.getMaxIds() + " elements");
+        }
+        // los ids inexistentes se omiten
+        return customers.loadMany(ids).thenApply(list -> list.stream().filter(Objects::nonNull).toList());
+    }
+
+    @QueryMapping
+    public CompletableFuture<ReceiptNode> receipt(@Argument Integer id, DataLoader<Integer, ReceiptNode> receipts) {
+        return receipts.load(id);
+    }
+
+    @BatchMapping(typeName = "Customer")
+    public List<List<ServiceNode>> services(List<CustomerNode> customers) {
+        Map<Integer, List<ServiceNode>> byCustomer = repository.findServicesByCustomers(ids(customers, CustomerNode::customerId))
+                .stream().collect(Collectors.groupingBy(ServiceNode::customerId));
+        return children(customers, CustomerNode::customerId, byCustomer);
+    }
+
+    @BatchMapping(typeName = "Customer", field = "receipts")
+    public List<List<ReceiptNode>> customerReceipts(List<CustomerNode> customers) {
+        Map<Integer, List<ReceiptNode>> byCustomer = repository.findReceiptsByCustomers(ids(customers, CustomerNode::customerId))
+                .stream().collect(Collectors.groupingBy(ReceiptNode::customerId));
+        return children(customers, CustomerNode::customerId, byCustomer);
+    }
+
+    @SchemaMapping(typeName = "Customer")
+    public CompletableFuture<List<PaymentNode>> payments(CustomerNode customer, @Argument Integer limit,
+                                                        DataFetchingEnvironment env) {
+        if (limit == null || limit < 1 || limit > limits.getMaxIds()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + limits.getMaxIds());
+        }
+        DataLoader<PaymentsKey, List<PaymentNode>> loader = env.getDataLoader(CUSTOMER_PAYMENTS);
+        return loader.load(new PaymentsKey(customer.customerId(), limit));
+    }
+
+    @SchemaMapping(typeName = "Service")
+    public CompletableFuture<CustomerNode> customer(ServiceNode service, DataLoader<Integer, CustomerNode> customers) {
+        return load(customers, service.customerId());
+    }
+
+    @BatchMapping(typeName = "Service", field = "receipts")
+    public List<List<ReceiptNode>> serviceReceipts(List<ServiceNode> services) {
+        Map<Integer, List<ReceiptNode>> byService = repository.findReceiptsByServices(ids(services, ServiceNode::serviceId))
+                .stream().collect(Collectors.groupingBy(ReceiptNode::serviceId));
+        return children(services, ServiceNode::serviceId, byService);
+    }
+
+    @SchemaMapping(typeName = "Receipt")
+    public CompletableFuture<ServiceNode> service(ReceiptNode receipt, DataLoader<Integer, ServiceNode> services) {
+        return load(services, receipt.serviceId());
+    }
+
+    @SchemaMapping(typeName = "Receipt")
+    public CompletableFuture<CustomerNode> customer(ReceiptNode receipt, DataLoader<Integer, CustomerNode> customers) {
+        return load(customers, receipt.customerId());
+    }
+
+    @BatchMapping(typeName = "Receipt", field = "payments")
+    public List<List<PaymentNode>> receiptPayments(List<ReceiptNode> receipts) {
+        Map<Integer, List<PaymentNode>> byReceipt = repository.findPaymentsByReceipts(
+                        ids(receipts, ReceiptNode::receiptId), hotHorizon())
+                .stream().collect(Collectors.groupingBy(PaymentNode::receiptId));
+        return children(receipts, ReceiptNode::receiptId, byReceipt);
+    }
+
+    @SchemaMapping(typeName = "Payment")
+    public CompletableFuture<ReceiptNode> receipt(PaymentNode payment, DataLoader<Integer, ReceiptNode> receipts) {
+        return load(receipts, payment.receiptId());
+    }
+
+    @SchemaMapping(typeName = "Payment")
+    public CompletableFuture<CustomerNode> customer(PaymentNode payment, DataLoader<Integer, CustomerNode> customers) {
+        return load(customers, payment.customerId());
+    }
+
+    private Map<PaymentsKey, List<PaymentNode>> latestPayments(Collection<PaymentsKey> keys) {
+        LocalDateTime from = hotHorizon();
+        Map<Integer, List<Integer>> customersByLimit = keys.stream().collect(Collectors.groupingBy(PaymentsKey::limit,
+                Collectors.mapping(PaymentsKey::customerId, Collectors.toList())));
+
+        Map<PaymentsKey, List<PaymentNode>> result = keys.stream()
+                .collect(Collectors.toMap(Function.identity(), k -> new ArrayList<>()));
+        customersByLimit.forEach((limit, customerIds) -> repository.findLatestPayments(customerIds, from, limit)
+                .forEach(p -> result.get(new PaymentsKey(p.customerId(), limit)).add(p)));
+        return result;
+    }
+
+    private LocalDateTime hotHorizon() {
+        return PaymentPartitions.hotHorizon(LocalDate.now(),
+                jobProperties.getPaymentArchive().getHotMonths()).atStartOfDay();
+    }
+
+    private static <T> CompletableFuture<T> load(DataLoader<Integer, T> loader, Integer id) {
+        return id == null ? CompletableFuture.completedFuture(null) : loader.load(id);
+    }
+
+    private static <T> Map<Integer, T> byId(List<T> rows, Function<T, Integer> id) {
+        return rows.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static <T> List<Integer> ids(List<T> parents, Function<T, Integer> id) {
+        return parents.stream().map(id).distinct().toList();
+    }
+
+    //Hijos en el mismo orden que los padres; padre sin filas → lista vacía
+    private static <P, C> List<List<C>> children(List<P> parents, Function<P, Integer> id, Map<Integer, List<C>> byParent) {
+        return parents.stream().map(p -> byParent.getOrDefault(id.apply(p), List.of())).toList();
+    }
+
+    //Clave del DataLoader de Customer.payments: el mismo cliente con otro limit es otra entrada
+    record PaymentsKey(Integer customerId, int limit) {
+    }
+}
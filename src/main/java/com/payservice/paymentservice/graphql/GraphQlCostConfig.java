@@ -0,0 +1,43 @@
+package com.payservice.paymentservice.graphql;
+
+import com.payservice.paymentservice.config.GraphQlLimitsProperties;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+
+//Límites de costo del API GraphQL: se validan sobre el documento, antes de ejecutar ninguna consulta
+@Configuration
+public class GraphQlCostConfig {
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(GraphQlLimitsProperties limits) {
+        return new MaxQueryDepthInstrumentation(limits.getMaxDepth());
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(GraphQlLimitsProperties limits) {
+        return new MaxQueryComplexityInstrumentation(limits.getMaxComplexity(), listMultiplier(limits));
+    }
+
+    //Campo escalar u objeto: 1 + hijos. Lista: 1 + hijos × elementos esperados
+    //Elementos esperados: limit o ids si la consulta los trae, si no defaultListSize
+    static FieldComplexityCalculator listMultiplier(GraphQlLimitsProperties limits) {
+        return (env, childComplexity) -> {
+            if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()))) {
+                return 1 + childComplexity;
+            }
+            int size = limits.getDefaultListSize();
+            if (env.getArguments().get("limit") instanceof Number limit) {
+                size = limit.intValue();
+            } else if (env.getArguments().get("ids") instanceof Collection<?> ids) {
+                size = ids.size();
+            }
+            return 1 + childComplexity * Math.max(1, size);
+        };
+    }
+}
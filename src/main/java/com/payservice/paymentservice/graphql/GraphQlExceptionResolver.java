@@ -0,0 +1,29 @@
+package com.payservice.paymentservice.graphql;
+
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+//Mismas categorías que GlobalExceptionHandler, como errores GraphQL; el resto queda INTERNAL_ERROR
+@Component
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        if (ex instanceof IllegalArgumentException) {
+            return error(env, ErrorType.BAD_REQUEST, ex.getMessage());
+        }
+        if (ex instanceof ResourceNotFoundException) {
+            return error(env, ErrorType.NOT_FOUND, ex.getMessage());
+        }
+        return null;
+    }
+
+    private static GraphQLError error(DataFetchingEnvironment env, ErrorType type, String message) {
+        return GraphqlErrorBuilder.newError(env).errorType(type).message(message).build();
+    }
+}
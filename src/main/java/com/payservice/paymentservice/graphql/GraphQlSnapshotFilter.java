@@ -0,0 +1,48 @@
+package com.payservice.paymentservice.graphql;
+
+import com.payservice.paymentservice.repository.GraphRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+//Una transacción REPEATABLE READ de solo lectura por request a /graphql
+//La ejecución y los DataLoaders corren en el hilo del request: cada nivel se une a esta transacción y ve el mismo snapshot
+//Si la ejecución pasara a otro hilo, cada consulta abre la suya (GraphRepository)
+@Component
+public class GraphQlSnapshotFilter extends OncePerRequestFilter {
+
+    static final String PATH = "/graphql";
+
+    private final GraphRepository repository;
+    private final PlatformTransactionManager transactionManager;
+
+    public GraphQlSnapshotFilter(GraphRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        TransactionStatus status = transactionManager.getTransaction(repository.snapshotDefinition());
+        try {
+            chain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+        transactionManager.commit(status);
+    }
+}
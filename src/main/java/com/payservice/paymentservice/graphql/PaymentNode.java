@@ -0,0 +1,9 @@
+package com.payservice.paymentservice.graphql;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record PaymentNode(Integer paymentId, Integer receiptId, Integer customerId, LocalDateTime paymentDate,
+                          BigDecimal amount, String paymentCurrency, BigDecimal exchangeRate,
+                          BigDecimal previousPendingAmount, BigDecimal newPendingAmount, String paymentStatus) {
+}
@@ -0,0 +1,9 @@
+package com.payservice.paymentservice.graphql;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ReceiptNode(Integer receiptId, Integer serviceId, Integer customerId, String receiptNumber,
+                          String periodLabel, LocalDate dueDate, BigDecimal receiptAmount, BigDecimal pendingAmount,
+                          String currency, String receiptStatus) {
+}
@@ -0,0 +1,5 @@
+package com.payservice.paymentservice.graphql;
+
+public record ServiceNode(Integer serviceId, Integer customerId, String serviceName, String description,
+                          Boolean active) {
+}
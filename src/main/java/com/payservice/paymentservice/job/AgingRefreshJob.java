@@ -0,0 +1,75 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.repository.AgingRepository;
+import com.payservice.paymentservice.repository.AgingRepository.Watermark;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Refresco del rollup de antigüedad de saldos
+//Primera corrida: reconstrucción completa; luego solo recibos modificados o que cruzaron un límite de bucket
+@Component
+public class AgingRefreshJob {
+
+    public static final String JOB_NAME = "aging";
+
+    private final JobProperties properties;
+    private final AgingRepository agingRepository;
+    private final JobMetrics metrics;
+    private final TransactionTemplate refreshTx;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AgingRefreshJob(JobProperties properties, AgingRepository agingRepository,
+                           JobMetrics metrics, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.agingRepository = agingRepository;
+        this.metrics = metrics;
+        this.refreshTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${payment.jobs.aging.cron:0 */15 * * * *}")
+    public void scheduledRun() {
+        if (properties.getAging().isEnabled()) {
+            run(LocalDate.now());
+        }
+    }
+
+    public JobRunReportDTO run(LocalDate today) {
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Aging refresh already in progress");
+        }
+
+        try {
+            long start = System.nanoTime();
+
+            // el rollup, el estado por recibo y la marca de agua cambian juntos o no cambian
+            Integer touched = refreshTx.execute(status -> {
+                LocalDateTime startedAt = agingRepository.dbNow();
+                Optional<Watermark> watermark = agingRepository.findWatermark();
+
+                int changed = watermark.isEmpty() || today.isBefore(watermark.get().asOf())
+                        ? agingRepository.rebuild(today)
+                        : agingRepository.refresh(
+                                watermark.get().refreshedAt().minus(properties.getAging().getOverlap()),
+                                watermark.get().asOf(), today);
+
+                agingRepository.saveWatermark(startedAt, today);
+                return changed;
+            });
+
+            return metrics.report(JOB_NAME, today.toString(), 1, 1, touched == null ? 0 : touched, 0, start);
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.config.ReadWriteRoutingDataSource;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.dto.PaymentRequestDTO;
+import com.payservice.paymentservice.repository.JobCheckpointRepository;
+import com.payservice.paymentservice.repository.ReceiptCursorRepository;
+import com.payservice.paymentservice.repository.ReceiptCursorRepository.AutopayCandidate;
+import com.payservice.paymentservice.service.PaymentService;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import com.payservice.paymentservice.util.exception.OverpaymentException;
+import com.payservice.paymentservice.util.exception.PendingReceiptException;
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+//Pago automático de los recibos que vencen en el día para clientes con autopay
+//Cada worker toma una partición de clientes (mod(customer_id, workers)): los recibos de un cliente
+//se pagan siempre en el mismo hilo y en orden, así RN6 no compite entre workers
+//Entre instancias: advisory lock por partición y cada recibo se paga con su fila bloqueada (FOR UPDATE SKIP LOCKED)
+@Component
+public class AutopayJob {
+
+    public static final String JOB_NAME = "autopay";
+
+    private final JobProperties properties;
+    private final ReceiptCursorRepository cursorRepository;
+    private final PaymentService paymentService;
+    private final JobCheckpointRepository checkpoints;
+    private final JobMetrics metrics;
+    private final TransactionTemplate readTx;
+    private final TransactionTemplate chunkTx;
+    private final TransactionTemplate paymentTx;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder chunks = new LongAdder();
+
+    public AutopayJob(JobProperties properties, ReceiptCursorRepository cursorRepository,
+                      PaymentService paymentService,
+                      JobCheckpointRepository checkpoints, JobMetrics metrics,
+                      PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.cursorRepository = cursorRepository;
+        this.paymentService = paymentService;
+        this.checkpoints = checkpoints;
+        this.metrics = metrics;
+
+        // el cursor vive en su propia transacción de lectura (en el primario, ver runPartition);
+        // cada recibo se paga en su transacción y cada chunk confirma su checkpoint en otra
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.paymentTx = new TransactionTemplate(transactionManager);
+        this.paymentTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(cron = "${payment.jobs.autopay.cron:0 0 1 * * *}")
+    public void scheduledRun() {
+        if (properties.getAutopay().isEnabled()) {
+            run(LocalDate.now());
+        }
+    }
+
+    public JobRunReportDTO run(LocalDate dueDate) {
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Autopay run already in progress");
+        }
+
+        try {
+            long start = System.nanoTime();
+            chunks.reset();
+            String runKey = dueDate.toString();
+            int workers = Math.max(1, properties.getAutopay().getWorkers());
+
+            AtomicInteger threadNo = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(workers,
+                    r -> new Thread(r, "autopay-" + threadNo.getAndIncrement()));
+            try {
+                List<Future<JobCheckpoint>> partitions = new ArrayList<>();
+                for (int p = 0; p < workers; p++) {
+                    int partition = p;
+                    partitions.add(pool.submit(() -> runPartition(dueDate, runKey, workers, partition)));
+                }
+
+                long processed = 0;
+                long skipped = 0;
+                for (Future<JobCheckpoint> f : partitions) {
+                    JobCheckpoint done = await(f);
+                    processed += done.processed();
+                    skipped += done.skipped();
+                }
+                return metrics.report(JOB_NAME, runKey, workers, chunks.sum(), processed, skipped, start);
+            } finally {
+                pool.shutdownNow();
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    //Una partición: continúa desde su checkpoint y confirma el checkpoint después de cada chunk
+    //Si otra instancia tiene la partición, se devuelve el checkpoint sin completarla
+    JobCheckpoint runPartition(LocalDate dueDate, String runKey, int partitions, int partition) {
+        JobCheckpoint start = checkpoints.find(JOB_NAME, runKey, partition);
+        if (start.completed()) return start;
+
+        int chunkSize = Math.max(1, properties.getAutopay().getChunkSize());
+
+        // candidatos desde el primario: una réplica atrasada ofrecería recibos ya pagados
+        ReadWriteRoutingDataSource.pinPrimary();
+        try {
+            JobCheckpoint last = readTx.execute(status -> {
+                if (!cursorRepository.tryLockPartition(JOB_NAME + ":" + runKey, partition)) {
+                    return null;
+                }
+                JobCheckpoint cp = start;
+                List<AutopayCandidate> chunk = new ArrayList<>(chunkSize);
+
+                try (Stream<AutopayCandidate> rows = cursorRepository
+                        .streamAutopayCandidates(dueDate, partitions, partition, start.lastId())) {
+                    for (AutopayCandidate row : (Iterable<AutopayCandidate>) rows::iterator) {
+                        chunk.add(row);
+                        if (chunk.size() == chunkSize) {
+                            cp = commitChunk(runKey, partition, cp, chunk);
+                            chunk.clear();
+                        }
+                    }
+                }
+                return commitChunk(runKey, partition, cp, chunk);
+            });
+            if (last == null) return start;
+
+            JobCheckpoint completed = last.complete();
+            chunkTx.executeWithoutResult(status -> checkpoints.save(JOB_NAME, runKey, partition, completed));
+            return completed;
+        } finally {
+            ReadWriteRoutingDataSource.unpinPrimary();
+        }
+    }
+
+    //Un reinicio antes del checkpoint vuelve a ver los recibos del chunk: los ya pagados no pasan lockPayable
+    private JobCheckpoint commitChunk(String runKey, int partition, JobCheckpoint cp, List<AutopayCandidate> chunk) {
+        if (chunk.isEmpty()) return cp;
+
+        long processed = 0;
+        long skipped = 0;
+        for (AutopayCandidate candidate : chunk) {
+            if (payInFull(candidate)) processed++;
+            else skipped++;
+        }
+
+        JobCheckpoint next = cp.advance(chunk.get(chunk.size() - 1).receiptId(), processed, skipped);
+        chunkTx.executeWithoutResult(status -> checkpoints.save(JOB_NAME, runKey, partition, next));
+        chunks.increment();
+        return next;
+    }
+
+    //Paga el saldo actual del recibo en su moneda con las mismas reglas que el API (RN5, RN6, RN3)
+    //El saldo se lee con la fila bloqueada y el pago confirma en la misma transacción: nunca se cobra dos veces
+    //Un recibo pagado, bloqueado por otro o rechazado por una regla se omite; el chunk sigue
+    private boolean payInFull(AutopayCandidate candidate) {
+        try {
+            return Boolean.TRUE.equals(paymentTx.execute(status -> cursorRepository.lockPayable(candidate.receiptId())
+                    .map(payable -> {
+                        paymentService.registerPayment(candidate.receiptId(), candidate.customerId(),
+                                new PaymentRequestDTO(payable.pendingAmount(), payable.currency()));
+                        return true;
+                    })
+                    .orElse(false)));
+        } catch (IllegalArgumentException | ResourceNotFoundException
+                 | PendingReceiptException | OverpaymentException ex) {
+            return false;
+        }
+    }
+
+    private static JobCheckpoint await(Future<JobCheckpoint> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Autopay run interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.entity.Receipt;
+import com.payservice.paymentservice.event.ReceiptsBulkChangedEvent;
+import com.payservice.paymentservice.repository.JobCheckpointRepository;
+import com.payservice.paymentservice.repository.ReceiptBatchRepository;
+import com.payservice.paymentservice.repository.ReceiptBatchRepository.BillingSource;
+import com.payservice.paymentservice.util.PeriodLabels;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Corrida de facturación: genera el recibo del período para cada servicio activo
+//Monto, moneda y día de vencimiento se repiten del último recibo del servicio
+//Idempotente por período (se omiten servicios ya facturados + índice único) y reanudable por checkpoint
+@Component
+public class BillingRunJob {
+
+    public static final String JOB_NAME = "billing";
+
+    private final JobProperties properties;
+    private final ReceiptBatchRepository receiptBatchRepository;
+    private final JobCheckpointRepository checkpoints;
+    private final JobMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate pageTx;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BillingRunJob(JobProperties properties, ReceiptBatchRepository receiptBatchRepository,
+                         JobCheckpointRepository checkpoints, JobMetrics metrics,
+                         ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.receiptBatchRepository = receiptBatchRepository;
+        this.checkpoints = checkpoints;
+        this.metrics = metrics;
+        this.eventPublisher = eventPublisher;
+        this.pageTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${payment.jobs.billing.cron:0 0 2 1 * *}")
+    public void scheduledRun() {
+        if (properties.getBilling().isEnabled()) {
+            run(YearMonth.now());
+        }
+    }
+
+    public JobRunReportDTO run(YearMonth period) {
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Billing run already in progress");
+        }
+
+        try {
+            long start = System.nanoTime();
+            String runKey = period.toString();
+            String periodLabel = PeriodLabels.of(period);
+            int pageSize = Math.max(1, properties.getBilling().getPageSize());
+
+            JobCheckpoint cp = checkpoints.find(JOB_NAME, runKey, 0);
+            JobCheckpoint startCp = cp;
+            long pages = 0;
+
+            while (!cp.completed()) {
+                JobCheckpoint current = cp;
+                cp = pageTx.execute(status -> billPage(runKey, period, periodLabel, pageSize, current));
+                pages++;
+            }
+
+            eventPublisher.publishEvent(new ReceiptsBulkChangedEvent(JOB_NAME, cp.processed() - startCp.processed()));
+            return metrics.report(JOB_NAME, runKey, 1, pages,
+                    cp.processed() - startCp.processed(), cp.skipped() - startCp.skipped(), start);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    //Una página: lee, construye los recibos, inserta en lote y guarda el checkpoint en la misma transacción
+    private JobCheckpoint billPage(String runKey, YearMonth period, String periodLabel, int pageSize, JobCheckpoint cp) {
+        List<BillingSource> page = receiptBatchRepository.findBillingPage(cp.lastId(), periodLabel, pageSize);
+        JobProperties.Billing billing = properties.getBilling();
+
+        List<Receipt> receipts = new ArrayList<>(page.size());
+        long skipped = 0;
+        for (BillingSource source : page) {
+            if (source.lastDueDate() == null) {
+                // servicio sin recibos: el primero sale de la configuración, si hay monto configurado
+                if (billing.getFirstReceiptAmount() == null) {
+                    skipped++;
+                    continue;
+                }
+                source = new BillingSource(source.serviceId(), source.customerId(),
+                        period.atDay(Math.min(billing.getFirstReceiptDueDay(), period.lengthOfMonth())),
+                        billing.getFirstReceiptAmount(), billing.getFirstReceiptCurrency());
+            } else if (!YearMonth.from(source.lastDueDate()).isBefore(period)) {
+                // el último recibo ya es de este período o posterior (facturado con otra etiqueta)
+                skipped++;
+                continue;
+            }
+            receipts.add(newReceipt(source, period, periodLabel));
+        }
+
+        int inserted = receiptBatchRepository.insertAll(receipts);
+        skipped += receipts.size() - inserted;
+
+        long lastId = page.isEmpty() ? cp.lastId() : page.get(page.size() - 1).serviceId();
+        JobCheckpoint next = cp.advance(lastId, inserted, skipped);
+        if (page.size() < pageSize) next = next.complete();
+
+        checkpoints.save(JOB_NAME, runKey, 0, next);
+        return next;
+    }
+
+    private static Receipt newReceipt(BillingSource source, YearMonth period, String periodLabel) {
+        // mismo día de vencimiento, ajustado al último día si el mes es más corto
+        int day = Math.min(source.lastDueDate().getDayOfMonth(), period.lengthOfMonth());
+
+        Receipt r = new Receipt();
+        r.setServiceId(source.serviceId());
+        r.setCustomerId(source.customerId());
+        r.setPeriodLabel(periodLabel);
+        r.setDueDate(LocalDate.of(period.getYear(), period.getMonth(), day));
+        r.setReceiptAmount(source.receiptAmount());
+        r.setCurrency(source.currency());
+        r.setPendingAmount(source.receiptAmount());
+        r.setReceiptStatus("PENDING");
+        r.setDateRegist(LocalDateTime.now());
+        r.setUserRegist(1); //System user
+        return r;
+    }
+}
@@ -0,0 +1,15 @@
+package com.payservice.paymentservice.job;
+
+//Progreso confirmado de una partición de un job (tabla operation.job_checkpoints)
+public record JobCheckpoint(long lastId, long processed, long skipped, boolean completed) {
+
+    public static final JobCheckpoint START = new JobCheckpoint(0, 0, 0, false);
+
+    public JobCheckpoint advance(long lastId, long processed, long skipped) {
+        return new JobCheckpoint(lastId, this.processed + processed, this.skipped + skipped, false);
+    }
+
+    public JobCheckpoint complete() {
+        return new JobCheckpoint(lastId, processed, skipped, true);
+    }
+}
@@ -0,0 +1,40 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+//Reporte de una corrida: se devuelve al que la disparó y se publica en /actuator/metrics
+@Component
+@RequiredArgsConstructor
+public class JobMetrics {
+
+    private final MeterRegistry registry;
+
+    public JobRunReportDTO report(String jobName, String runKey, int partitions, long chunks,
+                                  long processed, long skipped, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : (processed + skipped) * 1e9 / elapsedNanos;
+
+        Timer.builder("payment.jobs.duration").tag("job", jobName)
+                .register(registry).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        registry.counter("payment.jobs.rows", "job", jobName, "outcome", "processed").increment(processed);
+        registry.counter("payment.jobs.rows", "job", jobName, "outcome", "skipped").increment(skipped);
+
+        return JobRunReportDTO.builder()
+                .jobName(jobName)
+                .runKey(runKey)
+                .partitions(partitions)
+                .chunks(chunks)
+                .processed(processed)
+                .skipped(skipped)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(Math.round(rowsPerSecond * 10) / 10.0)
+                .build();
+    }
+}
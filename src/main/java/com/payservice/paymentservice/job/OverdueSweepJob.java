@@ -0,0 +1,80 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.event.ReceiptsBulkChangedEvent;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Marca como OVERDUE los recibos con saldo cuyo due_date ya pasó
+//UPDATE por lotes sobre el índice parcial de db/003; cada sentencia confirma sola (autocommit)
+@Component
+@RequiredArgsConstructor
+public class OverdueSweepJob {
+
+    public static final String JOB_NAME = "overdue";
+
+    //SKIP LOCKED: un recibo que se está pagando en este momento queda para la próxima corrida
+    //El cambio de estado y su evento en el ledger (db/011) van en la misma sentencia; devuelve los recibos marcados
+    private static final String SWEEP_SQL = """
+            WITH swept AS (
+                UPDATE operation.receipts
+                SET receipt_status = 'OVERDUE', date_modifi = now(), user_modifi = 1
+                WHERE receipt_id IN (
+                    SELECT receipt_id FROM operation.receipts
+                    WHERE due_date < ? AND (receipt_status IS NULL OR receipt_status NOT IN ('PAID', 'OVERDUE'))
+                    ORDER BY due_date, receipt_id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING receipt_id)
+            INSERT INTO operation.receipt_events (receipt_id, event_type, receipt_status)
+            SELECT receipt_id, 'STATUS_CHANGED', 'OVERDUE' FROM swept
+            """;
+
+    private final JobProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final JobMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${payment.jobs.overdue.cron:0 5 0 * * *}")
+    public void scheduledRun() {
+        if (properties.getOverdue().isEnabled()) {
+            run(LocalDate.now());
+        }
+    }
+
+    //Vencido = due_date anterior a la fecha de corte
+    public JobRunReportDTO run(LocalDate cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Overdue sweep already in progress");
+        }
+
+        try {
+            long start = System.nanoTime();
+            int chunkSize = Math.max(1, properties.getOverdue().getChunkSize());
+
+            long updated = 0;
+            int chunks = 0;
+            int n;
+            do {
+                n = jdbcTemplate.update(SWEEP_SQL, cutoff, chunkSize);
+                updated += n;
+                chunks++;
+            } while (n == chunkSize);
+
+            eventPublisher.publishEvent(new ReceiptsBulkChangedEvent(JOB_NAME, updated));
+            return metrics.report(JOB_NAME, cutoff.toString(), 1, chunks, updated, 0, start);
+        } finally {
+            running.set(false);
+        }
+    }
+}
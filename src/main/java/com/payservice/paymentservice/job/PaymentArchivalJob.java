@@ -0,0 +1,79 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.repository.PaymentArchiveRepository;
+import com.payservice.paymentservice.util.PaymentPartitions;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Mantenimiento de las particiones mensuales de payments (db/008)
+//Crea los meses próximos y mueve al archivo frío los que salieron de la ventana caliente
+@Component
+public class PaymentArchivalJob {
+
+    public static final String JOB_NAME = "payment-archive";
+
+    private final JobProperties properties;
+    private final PaymentArchiveRepository archiveRepository;
+    private final JobMetrics metrics;
+    private final TransactionTemplate archiveTx;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PaymentArchivalJob(JobProperties properties, PaymentArchiveRepository archiveRepository,
+                              JobMetrics metrics, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.archiveRepository = archiveRepository;
+        this.metrics = metrics;
+        this.archiveTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${payment.jobs.payment-archive.cron:0 0 3 2 * *}")
+    public void scheduledRun() {
+        if (properties.getPaymentArchive().isEnabled()) {
+            run(LocalDate.now());
+        }
+    }
+
+    public JobRunReportDTO run(LocalDate today) {
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Payment archival already in progress");
+        }
+
+        try {
+            long start = System.nanoTime();
+            JobProperties.PaymentArchive config = properties.getPaymentArchive();
+
+            YearMonth current = YearMonth.from(today);
+            for (int i = 0; i <= config.getMonthsAhead(); i++) {
+                archiveRepository.ensurePartition(current.plusMonths(i));
+            }
+
+            YearMonth horizon = YearMonth.from(PaymentPartitions.hotHorizon(today, config.getHotMonths()));
+
+            // por mes: copia con la partición adjunta, DETACH CONCURRENTLY y drop de la tabla ya separada
+            // ningún paso toma un lock exclusivo sobre payments; cada uno se puede repetir si la corrida se corta
+            int partitions = 0;
+            long moved = 0;
+            for (YearMonth month : archiveRepository.findPartitionsBefore(horizon)) {
+                Integer copied = archiveTx.execute(status -> archiveRepository.copyToArchive(month));
+                archiveRepository.detachPartition(month);
+                Integer late = archiveTx.execute(status -> archiveRepository.dropArchived(month));
+                moved += (copied == null ? 0 : copied) + (late == null ? 0 : late);
+                partitions++;
+            }
+
+            return metrics.report(JOB_NAME, horizon.toString(), partitions, partitions, moved, 0, start);
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.event.ReceiptsBulkChangedEvent;
+import com.payservice.paymentservice.repository.ReceiptArchiveRepository;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Mueve a receipts_archive los recibos PAID más antiguos que minAgeMonths
+//Lotes chicos con autocommit: receipts y sus índices quedan con lo que todavía se consulta o se paga
+@Component
+@RequiredArgsConstructor
+public class ReceiptArchivalJob {
+
+    public static final String JOB_NAME = "receipt-archive";
+
+    private final JobProperties properties;
+    private final ReceiptArchiveRepository archiveRepository;
+    private final JobMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${payment.jobs.receipt-archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (properties.getReceiptArchive().isEnabled()) {
+            run(LocalDate.now());
+        }
+    }
+
+    public JobRunReportDTO run(LocalDate today) {
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Receipt archival already in progress");
+        }
+
+        try {
+            long start = System.nanoTime();
+            JobProperties.ReceiptArchive config = properties.getReceiptArchive();
+            LocalDate dueBefore = today.minusMonths(config.getMinAgeMonths());
+            int batchSize = Math.max(1, config.getBatchSize());
+
+            long moved = 0;
+            int chunks = 0;
+            int n;
+            do {
+                n = archiveRepository.moveBatch(dueBefore, batchSize);
+                moved += n;
+                chunks++;
+            } while (n == batchSize);
+
+            eventPublisher.publishEvent(new ReceiptsBulkChangedEvent(JOB_NAME, moved));
+            return metrics.report(JOB_NAME, dueBefore.toString(), 1, chunks, moved, 0, start);
+        } finally {
+            running.set(false);
+        }
+    }
+}
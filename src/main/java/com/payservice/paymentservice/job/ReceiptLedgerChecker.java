@@ -0,0 +1,79 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.dto.DiscrepancyDTO;
+import com.payservice.paymentservice.util.CurrencyConversion;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+//Verifica un recibo a partir de sus pagos en orden de payment_id (una pasada, sin acumular filas)
+//Uso: start(recibo) -> payment(...)* -> finish(); no es thread-safe, una instancia por worker
+public class ReceiptLedgerChecker {
+
+    //Redondeo de la conversión USD/PEN: hasta 0.01 por pago en la moneda del pago
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    private final Consumer<DiscrepancyDTO> sink;
+
+    private Integer receiptId;
+    private BigDecimal receiptAmount;
+    private BigDecimal pendingAmount;
+    private String currency;
+
+    private BigDecimal running;
+    private BigDecimal converted;
+    private BigDecimal tolerance;
+    private int payments;
+    private boolean chainBroken;
+
+    public ReceiptLedgerChecker(Consumer<DiscrepancyDTO> sink) {
+        this.sink = sink;
+    }
+
+    public void start(Integer receiptId, BigDecimal receiptAmount, BigDecimal pendingAmount, String currency) {
+        this.receiptId = receiptId;
+        this.receiptAmount = receiptAmount;
+        this.pendingAmount = pendingAmount;
+        this.currency = currency;
+        this.running = receiptAmount;
+        this.converted = BigDecimal.ZERO;
+        this.tolerance = BigDecimal.ZERO;
+        this.payments = 0;
+        this.chainBroken = false;
+    }
+
+    public void payment(Integer paymentId, BigDecimal amount, String paymentCurrency, BigDecimal rate,
+                        BigDecimal previousPending, BigDecimal newPending) {
+        payments++;
+
+        if (running != null && previousPending != null && running.compareTo(previousPending) != 0) {
+            sink.accept(new DiscrepancyDTO(receiptId, paymentId, "CHAIN", running, previousPending));
+            chainBroken = true;
+        }
+        running = newPending;
+
+        converted = converted.add(CurrencyConversion.toReceiptCurrency(amount, paymentCurrency, currency, rate));
+        tolerance = tolerance.add(CurrencyConversion.toReceiptCurrency(CENT, paymentCurrency, currency, rate).max(CENT));
+    }
+
+    //Devuelve true si el recibo cuadra
+    public boolean finish() {
+        boolean ok = !chainBroken;
+
+        BigDecimal expected = receiptAmount.subtract(converted);
+        if (expected.subtract(pendingAmount).abs().compareTo(tolerance) > 0) {
+            sink.accept(new DiscrepancyDTO(receiptId, null, "BALANCE", expected, pendingAmount));
+            ok = false;
+        }
+
+        if (payments > 0 && (running == null || running.compareTo(pendingAmount) != 0)) {
+            sink.accept(new DiscrepancyDTO(receiptId, null, "FINAL", running, pendingAmount));
+            ok = false;
+        }
+        return ok;
+    }
+
+    public int payments() {
+        return payments;
+    }
+}
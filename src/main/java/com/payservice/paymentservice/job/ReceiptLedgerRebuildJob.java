@@ -0,0 +1,207 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.dto.LedgerRebuildReportDTO;
+import com.payservice.paymentservice.event.ReceiptsBulkChangedEvent;
+import com.payservice.paymentservice.ledger.ReceiptState;
+import com.payservice.paymentservice.repository.ReceiptLedgerRepository;
+import com.payservice.paymentservice.repository.ReceiptLedgerRepository.LedgerRow;
+import com.payservice.paymentservice.repository.ReceiptLedgerRepository.Repair;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+//Replay completo del ledger de recibos: rangos de receipt_id en paralelo, eventos de cada recibo en orden
+//Por recibo: snapshot del estado final (si tiene historia larga) y comparación con la proyección en receipts
+//repair=true sobrescribe la proyección con lo que dice el ledger
+//Los snapshots se cortan en un horizonte confirmado: un event_id menor que confirme después no queda afuera
+@Component
+public class ReceiptLedgerRebuildJob {
+
+    public static final String JOB_NAME = "receipt-ledger";
+
+    private final JobProperties properties;
+    private final ReceiptLedgerRepository repository;
+    private final JobMetrics metrics;
+    private final TransactionTemplate rangeTx;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReceiptLedgerRebuildJob(JobProperties properties, ReceiptLedgerRepository repository,
+                                   JobMetrics metrics, PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.repository = repository;
+        this.metrics = metrics;
+        this.rangeTx = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    //Snapshots periódicos: acotan el replay de las consultas "al momento X"
+    @Scheduled(cron = "${payment.jobs.receipt-ledger.cron:0 0 5 * * *}")
+    public void scheduledRun() {
+        if (properties.getReceiptLedger().isEnabled()) {
+            run(false);
+        }
+    }
+
+    public LedgerRebuildReportDTO run(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Receipt ledger rebuild already in progress");
+        }
+
+        try {
+            long start = System.nanoTime();
+            JobProperties.ReceiptLedger config = properties.getReceiptLedger();
+
+            Queue<long[]> ranges = new ConcurrentLinkedQueue<>();
+            long[] bounds = repository.receiptIdBounds();
+            if (bounds != null) {
+                long size = Math.max(1, config.getRangeSize());
+                for (long from = bounds[0]; from <= bounds[1]; from += size) {
+                    ranges.add(new long[]{from, Math.min(from + size, bounds[1] + 1)});
+                }
+            }
+            int rangeCount = ranges.size();
+            long horizon = bounds == null ? 0 : repository.snapshotHorizon(config.getSnapshotMargin());
+
+            Totals totals = new Totals();
+            int workers = Math.max(1, Math.min(config.getWorkers(), Math.max(1, rangeCount)));
+
+            AtomicInteger threadNo = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(workers,
+                    r -> new Thread(r, "receipt-ledger-" + threadNo.getAndIncrement()));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < workers; i++) {
+                    futures.add(pool.submit(() -> {
+                        long[] range;
+                        while ((range = ranges.poll()) != null) {
+                            long[] current = range;
+                            rangeTx.executeWithoutResult(status -> replayRange(current, horizon, repair, totals));
+                        }
+                    }));
+                }
+                for (Future<?> f : futures) {
+                    await(f);
+                }
+            } finally {
+                pool.shutdownNow();
+                // cada rango confirma sus correcciones: aunque otro falle, los read models deben enterarse
+                long repaired = totals.repaired.sum();
+                if (repaired > 0) {
+                    eventPublisher.publishEvent(new ReceiptsBulkChangedEvent(JOB_NAME, repaired));
+                }
+            }
+
+            JobRunReportDTO run = metrics.report(JOB_NAME, repair ? "repair" : "verify", workers, rangeCount,
+                    totals.events.sum(), 0, start);
+
+            return LedgerRebuildReportDTO.builder()
+                    .ranges(rangeCount)
+                    .workers(workers)
+                    .receipts(totals.receipts.sum())
+                    .events(totals.events.sum())
+                    .snapshotsWritten(totals.snapshots.sum())
+                    .mismatches(totals.mismatches.sum())
+                    .repaired(totals.repaired.sum())
+                    .elapsedMillis(run.getElapsedMillis())
+                    .eventsPerSecond(run.getRowsPerSecond())
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    //Filas ordenadas por (receipt_id, event_id): el estado de un recibo se cierra al cambiar de receipt_id
+    //Snapshots y correcciones se escriben en lote al final del rango, en la misma transacción
+    //El snapshot es el estado hasta el último evento bajo el horizonte; la comparación usa todos
+    private void replayRange(long[] range, long horizon, boolean repair, Totals totals) {
+        int minEvents = Math.max(1, properties.getReceiptLedger().getSnapshotMinEvents());
+        List<ReceiptState> snapshots = new ArrayList<>();
+        List<Repair> corrections = new ArrayList<>();
+        ReceiptState[] state = {null};
+        ReceiptState[] settled = {null};
+        LedgerRow[] last = {null};
+
+        repository.streamRange(range[0], range[1], row -> {
+            if (state[0] != null && state[0].receiptId() != row.event().receiptId()) {
+                close(state[0], settled[0], last[0], minEvents, snapshots, corrections, totals);
+                state[0] = null;
+            }
+            if (state[0] == null) {
+                state[0] = ReceiptState.empty(row.event().receiptId());
+                settled[0] = state[0];
+            }
+            state[0] = state[0].apply(row.event());
+            if (row.event().eventId() <= horizon) {
+                settled[0] = state[0];
+            }
+            last[0] = row;
+            totals.events.increment();
+        });
+        if (state[0] != null) {
+            close(state[0], settled[0], last[0], minEvents, snapshots, corrections, totals);
+        }
+
+        totals.snapshots.add(repository.saveSnapshots(snapshots));
+        if (repair) {
+            totals.repaired.add(repository.repairProjection(corrections));
+        }
+    }
+
+    private static void close(ReceiptState state, ReceiptState settled, LedgerRow row, int minEvents,
+                              List<ReceiptState> snapshots, List<Repair> corrections, Totals totals) {
+        totals.receipts.increment();
+        if (settled.eventCount() >= minEvents) {
+            snapshots.add(settled);
+        }
+
+        boolean matches = row.projectedPending() != null
+                && row.projectedPending().compareTo(state.pendingAmount()) == 0
+                && state.receiptStatus().equalsIgnoreCase(String.valueOf(row.projectedStatus()));
+        if (!matches && row.projectedPending() != null) {
+            totals.mismatches.increment();
+            // un recibo archivado ya está cerrado: se informa pero no se reescribe
+            if (row.hot()) corrections.add(new Repair(state, row.projectedPending(), row.projectedStatus()));
+        }
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Receipt ledger rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    //Contadores compartidos entre workers
+    private static final class Totals {
+        final LongAdder receipts = new LongAdder();
+        final LongAdder events = new LongAdder();
+        final LongAdder snapshots = new LongAdder();
+        final LongAdder mismatches = new LongAdder();
+        final LongAdder repaired = new LongAdder();
+    }
+}
@@ -0,0 +1,198 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.config.ReadWriteRoutingDataSource;
+import com.payservice.paymentservice.dto.DiscrepancyDTO;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.dto.ReconciliationReportDTO;
+import com.payservice.paymentservice.repository.ReconciliationRepository;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+//Conciliación de saldos: recorre recibos y pagos por rangos de receipt_id en paralelo
+//El coordinador exporta un snapshot (pg_export_snapshot) y cada worker lo importa:
+//todos ven exactamente el mismo estado aunque haya pagos concurrentes
+@Component
+public class ReconciliationJob {
+
+    public static final String JOB_NAME = "reconciliation";
+
+    private final JobProperties properties;
+    private final ReconciliationRepository repository;
+    private final JobMetrics metrics;
+    private final TransactionTemplate snapshotTx;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReconciliationJob(JobProperties properties, ReconciliationRepository repository,
+                             JobMetrics metrics, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.repository = repository;
+        this.metrics = metrics;
+
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTx.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${payment.jobs.reconciliation.cron:0 0 4 * * *}")
+    public void scheduledRun() {
+        if (properties.getReconciliation().isEnabled()) {
+            run();
+        }
+    }
+
+    public ReconciliationReportDTO run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Reconciliation already in progress");
+        }
+
+        try {
+            return onPrimary(() -> snapshotTx.execute(status -> runOnSnapshot(System.nanoTime())));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    //Se ejecuta dentro de la transacción del coordinador, que mantiene vivo el snapshot exportado
+    private ReconciliationReportDTO runOnSnapshot(long start) {
+        JobProperties.Reconciliation config = properties.getReconciliation();
+        String snapshotId = repository.exportSnapshot();
+
+        Queue<long[]> ranges = new ConcurrentLinkedQueue<>();
+        long[] bounds = repository.receiptIdBounds();
+        if (bounds != null) {
+            long size = Math.max(1, config.getRangeSize());
+            for (long from = bounds[0]; from <= bounds[1]; from += size) {
+                ranges.add(new long[]{from, Math.min(from + size, bounds[1] + 1)});
+            }
+        }
+        int rangeCount = ranges.size();
+
+        Findings findings = new Findings(config.getMaxReported());
+        int workers = Math.max(1, Math.min(config.getWorkers(), Math.max(1, rangeCount)));
+
+        AtomicInteger threadNo = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                r -> new Thread(r, "reconciliation-" + threadNo.getAndIncrement()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(pool.submit(() -> onPrimary(() -> snapshotTx.execute(status -> {
+                    repository.importSnapshot(snapshotId);
+                    long[] range;
+                    while ((range = ranges.poll()) != null) {
+                        checkRange(range, findings);
+                    }
+                    return null;
+                }))));
+            }
+            for (Future<?> f : futures) {
+                await(f);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        JobRunReportDTO run = metrics.report(JOB_NAME, snapshotId, workers, rangeCount,
+                findings.receipts.sum(), 0, start);
+
+        return ReconciliationReportDTO.builder()
+                .snapshotId(snapshotId)
+                .ranges(rangeCount)
+                .receiptsChecked(findings.receipts.sum())
+                .paymentsChecked(findings.payments.sum())
+                .discrepancyCount(findings.count.sum())
+                .elapsedMillis(run.getElapsedMillis())
+                .rowsPerSecond(run.getRowsPerSecond())
+                .discrepancies(new ArrayList<>(findings.reported))
+                .discrepanciesTruncated(findings.count.sum() > findings.reported.size())
+                .build();
+    }
+
+    //Filas ordenadas por (receipt_id, payment_id): se verifica cada recibo al cambiar de receipt_id
+    private void checkRange(long[] range, Findings findings) {
+        ReceiptLedgerChecker checker = new ReceiptLedgerChecker(findings::add);
+        long[] current = {Long.MIN_VALUE};
+
+        repository.streamLedger(range[0], range[1], rs -> {
+            int receiptId = rs.getInt(1);
+            if (receiptId != current[0]) {
+                if (current[0] != Long.MIN_VALUE) finish(checker, findings);
+                current[0] = receiptId;
+                checker.start(receiptId, rs.getBigDecimal(2), rs.getBigDecimal(3), rs.getString(4));
+            }
+
+            int paymentId = rs.getInt(5);
+            if (!rs.wasNull()) {
+                checker.payment(paymentId, rs.getBigDecimal(6), rs.getString(7), rs.getBigDecimal(8),
+                        rs.getBigDecimal(9), rs.getBigDecimal(10));
+            }
+        });
+
+        if (current[0] != Long.MIN_VALUE) finish(checker, findings);
+    }
+
+    private static void finish(ReceiptLedgerChecker checker, Findings findings) {
+        checker.finish();
+        findings.receipts.increment();
+        findings.payments.add(checker.payments());
+    }
+
+    //Las lecturas van al primario: réplicas distintas no pueden compartir un snapshot exportado
+    private static <T> T onPrimary(Supplier<T> work) {
+        ReadWriteRoutingDataSource.pinPrimary();
+        try {
+            return work.get();
+        } finally {
+            ReadWriteRoutingDataSource.unpinPrimary();
+        }
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    //Contadores compartidos entre workers; el detalle se corta en maxReported
+    private static final class Findings {
+        final LongAdder receipts = new LongAdder();
+        final LongAdder payments = new LongAdder();
+        final LongAdder count = new LongAdder();
+        final Queue<DiscrepancyDTO> reported = new ConcurrentLinkedQueue<>();
+        final AtomicInteger slots;
+
+        Findings(int maxReported) {
+            this.slots = new AtomicInteger(maxReported);
+        }
+
+        void add(DiscrepancyDTO d) {
+            count.increment();
+            if (slots.getAndDecrement() > 0) reported.add(d);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.dto.SettlementLineDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Totales del cierre por (moneda de pago, tipo de cambio, moneda del recibo) en céntimos long
+//Pocos grupos y millones de filas: arreglos primitivos en vez de BigDecimal por fila
+public class SettlementAccumulator {
+
+    private final Map<String, Integer> index = new HashMap<>();
+    private String[] keys = new String[8];
+    private long[] counts = new long[8];
+    private long[] amountCents = new long[8];
+    private long[] receiptCents = new long[8];
+    private int size;
+
+    public void add(String paymentCurrency, BigDecimal exchangeRate, String receiptCurrency,
+                    long amountCents, long receiptCents) {
+        String key = paymentCurrency.toUpperCase() + "|" + exchangeRate.setScale(2, RoundingMode.HALF_UP).toPlainString()
+                + "|" + receiptCurrency.toUpperCase();
+        int i = index.computeIfAbsent(key, k -> newGroup(k));
+        counts[i]++;
+        this.amountCents[i] += amountCents;
+        this.receiptCents[i] += receiptCents;
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (int i = 0; i < size; i++) total += counts[i];
+        return total;
+    }
+
+    public List<SettlementLineDTO> lines() {
+        List<SettlementLineDTO> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String[] k = keys[i].split("\\|");
+            lines.add(new SettlementLineDTO(k[0], new BigDecimal(k[1]), k[2], counts[i],
+                    BigDecimal.valueOf(amountCents[i], 2), BigDecimal.valueOf(receiptCents[i], 2)));
+        }
+        return lines;
+    }
+
+    //Formato del checkpoint: "PEN|1.00|PEN|count|amountCents|receiptCents;..."
+    public String serialize() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(';');
+            sb.append(keys[i]).append('|').append(counts[i]).append('|')
+                    .append(amountCents[i]).append('|').append(receiptCents[i]);
+        }
+        return sb.toString();
+    }
+
+    public static SettlementAccumulator parse(String state) {
+        SettlementAccumulator acc = new SettlementAccumulator();
+        if (state == null || state.isEmpty()) return acc;
+
+        for (String group : state.split(";")) {
+            String[] f = group.split("\\|");
+            int i = acc.newGroup(f[0] + "|" + f[1] + "|" + f[2]);
+            acc.index.put(acc.keys[i], i);
+            acc.counts[i] = Long.parseLong(f[3]);
+            acc.amountCents[i] = Long.parseLong(f[4]);
+            acc.receiptCents[i] = Long.parseLong(f[5]);
+        }
+        return acc;
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private int newGroup(String key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+            amountCents = Arrays.copyOf(amountCents, size * 2);
+            receiptCents = Arrays.copyOf(receiptCents, size * 2);
+        }
+        keys[size] = key;
+        return size++;
+    }
+}
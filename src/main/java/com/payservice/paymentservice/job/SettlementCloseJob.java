@@ -0,0 +1,133 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.config.ReadWriteRoutingDataSource;
+import com.payservice.paymentservice.dto.SettlementDTO;
+import com.payservice.paymentservice.repository.JobCheckpointRepository;
+import com.payservice.paymentservice.repository.SettlementRepository;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Cierre diario: totaliza los pagos del día y congela el resultado en operation.settlements
+//Los acumuladores parciales se guardan con el checkpoint: una corrida interrumpida continúa
+//desde el último payment_id confirmado sin releer lo anterior
+//El replay del journal registra pagos con la fecha en que se aceptaron: el cierre toma el lock del día
+//y suma lo que haya confirmado después de su lectura; un replay posterior ve el día cerrado (PaymentJournalReplayer)
+@Component
+public class SettlementCloseJob {
+
+    public static final String JOB_NAME = "settlement";
+
+    private final JobProperties properties;
+    private final SettlementRepository settlementRepository;
+    private final JobCheckpointRepository checkpoints;
+    private final JobMetrics metrics;
+    private final TransactionTemplate readTx;
+    private final TransactionTemplate writeTx;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SettlementCloseJob(JobProperties properties, SettlementRepository settlementRepository,
+                              JobCheckpointRepository checkpoints, JobMetrics metrics,
+                              PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.settlementRepository = settlementRepository;
+        this.checkpoints = checkpoints;
+        this.metrics = metrics;
+
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(cron = "${payment.jobs.settlement.cron:0 30 0 * * *}")
+    public void scheduledRun() {
+        if (properties.getSettlement().isEnabled()) {
+            run(LocalDate.now().minusDays(1));
+        }
+    }
+
+    //Idempotente: si el día ya está cerrado devuelve el snapshot existente
+    public SettlementDTO run(LocalDate day) {
+        if (!day.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot close a day that has not ended");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Settlement close already in progress");
+        }
+
+        try {
+            Optional<SettlementDTO> closed = settlementRepository.findSettlement(day);
+            if (closed.isPresent()) return closed.get();
+
+            long start = System.nanoTime();
+            String runKey = day.toString();
+            int chunkSize = Math.max(1, properties.getSettlement().getChunkSize());
+
+            JobCheckpoint resumed = checkpoints.find(JOB_NAME, runKey, 0);
+            SettlementAccumulator acc = SettlementAccumulator.parse(
+                    resumed.lastId() > 0 ? checkpoints.findState(JOB_NAME, runKey, 0) : null);
+
+            JobCheckpoint[] cp = {resumed};
+            long[] sinceCheckpoint = {0};
+            long[] lastId = {resumed.lastId()};
+
+            // del primario: una réplica atrasada congelaría un cierre sin los últimos pagos del día
+            ReadWriteRoutingDataSource.pinPrimary();
+            try {
+                readTx.executeWithoutResult(status -> settlementRepository.streamDayPayments(day, resumed.lastId(), rs -> {
+                    lastId[0] = rs.getLong(1);
+                    add(acc, rs);
+
+                    if (++sinceCheckpoint[0] == chunkSize) {
+                        cp[0] = cp[0].advance(lastId[0], sinceCheckpoint[0], 0);
+                        String state = acc.serialize();
+                        writeTx.executeWithoutResult(s -> checkpoints.save(JOB_NAME, runKey, 0, cp[0], state));
+                        sinceCheckpoint[0] = 0;
+                    }
+                }));
+            } finally {
+                ReadWriteRoutingDataSource.unpinPrimary();
+            }
+
+            // snapshot y checkpoint final en la misma transacción
+            // con el lock exclusivo no hay replays del día en curso: los ya confirmados se suman antes de congelar
+            JobCheckpoint[] done = {null};
+            writeTx.executeWithoutResult(status -> {
+                settlementRepository.lockDay(day, true);
+                settlementRepository.streamDayPayments(day, lastId[0], rs -> {
+                    lastId[0] = rs.getLong(1);
+                    add(acc, rs);
+                    sinceCheckpoint[0]++;
+                });
+                done[0] = cp[0].advance(lastId[0], sinceCheckpoint[0], 0).complete();
+                settlementRepository.insertSettlement(day, acc.totalCount(), acc.lines());
+                checkpoints.save(JOB_NAME, runKey, 0, done[0], acc.serialize());
+            });
+
+            metrics.report(JOB_NAME, runKey, 1, 1, done[0].processed() - resumed.processed(), 0, start);
+            return settlementRepository.findSettlement(day).orElseThrow();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static void add(SettlementAccumulator acc, ResultSet rs) throws SQLException {
+        BigDecimal receiptAmount = rs.getBigDecimal(6);
+        acc.add(rs.getString(3), rs.getBigDecimal(4), rs.getString(5),
+                SettlementAccumulator.toCents(rs.getBigDecimal(2)),
+                receiptAmount == null ? 0 : SettlementAccumulator.toCents(receiptAmount));
+    }
+}
@@ -0,0 +1,27 @@
+package com.payservice.paymentservice.journal;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+//Fallas en las que el pago no llegó a escribir nada: no se pudo establecer la conexión a la base
+//SQLState 08001/08004 solo aparecen al conectar, y una transacción conecta una sola vez antes de su primera
+//sentencia; con LazyConnectionDataSourceProxy eso pasa en la primera lectura, no al abrir la transacción
+//Un timeout del pool (Hikari) solo trae SQLState si el último intento de conectar falló: sin él es carga, no caída
+public final class ConnectionFailures {
+
+    private static final Set<String> CONNECT_STATES = Set.of("08001", "08004");
+
+    private ConnectionFailures() {
+        // Evita que esta clase sea instanciada
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static boolean beforeAnyWrite(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof SQLException sql && CONNECT_STATES.contains(String.valueOf(sql.getSQLState()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.payservice.paymentservice.journal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+//Pago aceptado sin base; journalId es la clave de idempotencia del replay
+public record JournalEntry(UUID journalId, int receiptId, int customerId, BigDecimal amount,
+                           String paymentCurrency, LocalDateTime acceptedAt) {
+}
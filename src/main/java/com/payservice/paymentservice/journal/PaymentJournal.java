@@ -0,0 +1,326 @@
+package com.payservice.paymentservice.journal;
+
+import com.payservice.paymentservice.config.PaymentJournalProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+//Journal local de pagos aceptados sin base: segmentos append-only mapeados en memoria
+//Un registro = 64 bytes fijos escritos directo en el mapeo (sin buffers intermedios ni serialización)
+//fsync agrupado cada fsyncInterval en un hilo aparte: append() no espera al disco
+//
+//Segmento: [cabecera 64 bytes][registro]*
+// cabecera: magic(4) version(4) segmento(8) replayedOffset(8) reservado
+// registro: length(4) crc32c(4) | cuerpo: idMsb(8) idLsb(8) acceptedAt(8) unscaled(8)
+//           receiptId(4) customerId(4) scale(4) currency(4) reservado(8)
+//length se escribe al final: un registro a medio escribir queda con length 0 o con CRC inválido
+@Component
+public class PaymentJournal {
+
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+
+    private static final int MAGIC = 0x504A4E4C; // "PJNL"
+    private static final int VERSION = 1;
+    private static final int H_SEGMENT = 8;
+    private static final int H_REPLAYED = 16;
+
+    private static final int R_LENGTH = 0;
+    private static final int R_CRC = 4;
+    private static final int R_BODY = 8;
+    private static final int BODY_SIZE = RECORD_SIZE - R_BODY;
+
+    private final PaymentJournalProperties properties;
+
+    private final Object lock = new Object();
+    private final List<Segment> segments = new ArrayList<>();
+    private final CRC32C appendCrc = new CRC32C();
+    private Segment active;
+    private volatile boolean open;
+
+    private ScheduledExecutorService syncer;
+
+    public PaymentJournal(PaymentJournalProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!properties.isEnabled()) return;
+
+        Path dir = Path.of(properties.getDirectory());
+        try {
+            Files.createDirectories(dir);
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path p : files.filter(f -> f.getFileName().toString().endsWith(".journal")).sorted().toList()) {
+                    segments.add(Segment.recover(p));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open payment journal at " + dir, e);
+        }
+        active = segments.isEmpty() ? newSegment(0) : segments.get(segments.size() - 1);
+
+        syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "payment-journal-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, properties.getFsyncInterval().toNanos());
+        syncer.scheduleWithFixedDelay(this::sync, interval, interval, TimeUnit.NANOSECONDS);
+        open = true;
+    }
+
+    public boolean isEnabled() {
+        return open;
+    }
+
+    //Microsegundos: 64 bytes al mapeo bajo un lock; la durabilidad llega con el próximo fsync agrupado
+    public JournalEntry append(int receiptId, int customerId, BigDecimal amount, String paymentCurrency) {
+        if (!open) {
+            throw new IllegalStateException("Payment journal is not enabled");
+        }
+        //RN1: la única regla que no depende de la base se valida al aceptar
+        String currency = paymentCurrency == null ? null : paymentCurrency.toUpperCase();
+        if (!"PEN".equals(currency) && !"USD".equals(currency)) {
+            throw new IllegalArgumentException("RN1: Only PEN or USD allowed");
+        }
+        long unscaled;
+        try {
+            unscaled = amount.unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range");
+        }
+
+        UUID id = UUID.randomUUID();
+        long acceptedAt = System.currentTimeMillis();
+
+        synchronized (lock) {
+            if (active.published + RECORD_SIZE > active.buffer.capacity()) {
+                active.buffer.force();
+                active = newSegment(active.number + 1);
+            }
+            MappedByteBuffer b = active.buffer;
+            int pos = active.published;
+
+            b.putLong(pos + R_BODY, id.getMostSignificantBits());
+            b.putLong(pos + R_BODY + 8, id.getLeastSignificantBits());
+            b.putLong(pos + R_BODY + 16, acceptedAt);
+            b.putLong(pos + R_BODY + 24, unscaled);
+            b.putInt(pos + R_BODY + 32, receiptId);
+            b.putInt(pos + R_BODY + 36, customerId);
+            b.putInt(pos + R_BODY + 40, amount.scale());
+            b.put(pos + R_BODY + 44, (byte) currency.charAt(0));
+            b.put(pos + R_BODY + 45, (byte) currency.charAt(1));
+            b.put(pos + R_BODY + 46, (byte) currency.charAt(2));
+
+            appendCrc.reset();
+            appendCrc.update(b.slice(pos + R_BODY, BODY_SIZE));
+            b.putInt(pos + R_CRC, (int) appendCrc.getValue());
+            b.putInt(pos + R_LENGTH, RECORD_SIZE);
+
+            active.published = pos + RECORD_SIZE;
+        }
+
+        return new JournalEntry(id, receiptId, customerId, amount, currency, toLocalDateTime(acceptedAt));
+    }
+
+    //Registros aceptados y todavía no reaplicados (incluye los corruptos que el replay va a descartar)
+    public long pending() {
+        if (!open) return 0;
+        synchronized (lock) {
+            long records = 0;
+            for (Segment s : segments) {
+                records += (s.published - s.replayedOffset()) / RECORD_SIZE;
+            }
+            return records;
+        }
+    }
+
+    //Recorre lo pendiente en orden de aceptación; handler devuelve false para cortar sin avanzar
+    //Un único consumidor a la vez (PaymentJournalReplayer); los segmentos agotados se borran
+    public ReplayScan replayPending(Predicate<JournalEntry> handler) {
+        if (!open) return new ReplayScan(0, 0, false);
+
+        List<Segment> snapshot;
+        synchronized (lock) {
+            snapshot = new ArrayList<>(segments);
+        }
+
+        CRC32C crc = new CRC32C();
+        long consumed = 0;
+        long corrupt = 0;
+        for (Segment s : snapshot) {
+            int offset = s.replayedOffset();
+            int limit = s.published;
+            while (offset < limit) {
+                JournalEntry entry = read(s.buffer, offset, crc);
+                if (entry == null) {
+                    corrupt++;
+                } else if (!handler.test(entry)) {
+                    s.buffer.force(0, HEADER_SIZE);
+                    return new ReplayScan(consumed, corrupt, true);
+                } else {
+                    consumed++;
+                }
+                offset += RECORD_SIZE;
+                s.buffer.putInt(H_REPLAYED, offset);
+            }
+            s.buffer.force(0, HEADER_SIZE);
+            retireIfDone(s);
+        }
+        return new ReplayScan(consumed, corrupt, false);
+    }
+
+    //fsync de lo publicado desde el último sync; corre en el hilo payment-journal-sync
+    void sync() {
+        Segment s;
+        int published;
+        synchronized (lock) {
+            s = active;
+            published = s.published;
+        }
+        if (published > s.synced) {
+            s.buffer.force(s.synced, published - s.synced);
+            s.synced = published;
+        }
+    }
+
+    private void retireIfDone(Segment s) {
+        synchronized (lock) {
+            if (s == active || s.replayedOffset() < s.published) return;
+            segments.remove(s);
+        }
+        try {
+            s.channel.close();
+            // el mapeo se libera con el GC; en Linux el archivo se puede borrar mientras tanto
+            Files.deleteIfExists(s.path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete replayed journal segment " + s.path, e);
+        }
+    }
+
+    private Segment newSegment(long number) {
+        Path path = Path.of(properties.getDirectory(), "payments-%016d.journal".formatted(number));
+        int capacity = (int) Math.min(Integer.MAX_VALUE - RECORD_SIZE,
+                Math.max(HEADER_SIZE + RECORD_SIZE, properties.getSegmentSize().toBytes()));
+        capacity -= (capacity - HEADER_SIZE) % RECORD_SIZE;
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(H_SEGMENT, number);
+            buffer.putInt(H_REPLAYED, HEADER_SIZE);
+            buffer.force(0, HEADER_SIZE);
+
+            Segment s = new Segment(number, path, channel, buffer, HEADER_SIZE);
+            segments.add(s);
+            return s;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + path, e);
+        }
+    }
+
+    //null si el registro no pasa el CRC (escritura cortada o disco dañado)
+    private static JournalEntry read(MappedByteBuffer b, int pos, CRC32C crc) {
+        if (b.getInt(pos + R_LENGTH) != RECORD_SIZE) return null;
+        crc.reset();
+        crc.update(b.slice(pos + R_BODY, BODY_SIZE));
+        if ((int) crc.getValue() != b.getInt(pos + R_CRC)) return null;
+
+        UUID id = new UUID(b.getLong(pos + R_BODY), b.getLong(pos + R_BODY + 8));
+        long acceptedAt = b.getLong(pos + R_BODY + 16);
+        BigDecimal amount = BigDecimal.valueOf(b.getLong(pos + R_BODY + 24), b.getInt(pos + R_BODY + 40));
+        byte[] currency = {b.get(pos + R_BODY + 44), b.get(pos + R_BODY + 45), b.get(pos + R_BODY + 46)};
+        return new JournalEntry(id, b.getInt(pos + R_BODY + 32), b.getInt(pos + R_BODY + 36), amount,
+                new String(currency, StandardCharsets.US_ASCII), toLocalDateTime(acceptedAt));
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!open) return;
+        open = false;
+        syncer.shutdownNow();
+        synchronized (lock) {
+            for (Segment s : segments) {
+                s.buffer.force();
+                try {
+                    s.channel.close();
+                } catch (IOException ignored) {
+                    // el contenido ya está en disco
+                }
+            }
+            segments.clear();
+        }
+    }
+
+    //consumed: reaplicados o descartados por el handler; corrupt: registros con CRC inválido
+    public record ReplayScan(long consumed, long corrupt, boolean stopped) {
+    }
+
+    private static final class Segment {
+        final long number;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        //Fin del último registro completo; lo escribe append() bajo el lock
+        volatile int published;
+        int synced;
+
+        Segment(long number, Path path, FileChannel channel, MappedByteBuffer buffer, int published) {
+            this.number = number;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.published = published;
+            this.synced = published;
+        }
+
+        int replayedOffset() {
+            return buffer.getInt(H_REPLAYED);
+        }
+
+        //Al arrancar: el fin del segmento es el primer registro sin length
+        static Segment recover(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                channel.close();
+                throw new IllegalStateException("Not a payment journal segment: " + path);
+            }
+            int end = HEADER_SIZE;
+            while (end + RECORD_SIZE <= buffer.capacity() && buffer.getInt(end + R_LENGTH) != 0) {
+                end += RECORD_SIZE;
+            }
+            return new Segment(buffer.getLong(H_SEGMENT), path, channel, buffer, end);
+        }
+    }
+}
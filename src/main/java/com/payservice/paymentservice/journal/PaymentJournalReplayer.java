@@ -0,0 +1,170 @@
+package com.payservice.paymentservice.journal;
+
+import com.payservice.paymentservice.config.PaymentJournalProperties;
+import com.payservice.paymentservice.dto.JournalConflictDTO;
+import com.payservice.paymentservice.dto.JournalReplayReportDTO;
+import com.payservice.paymentservice.dto.PaymentRequestDTO;
+import com.payservice.paymentservice.repository.PaymentJournalRepository;
+import com.payservice.paymentservice.repository.SettlementRepository;
+import com.payservice.paymentservice.service.PaymentService;
+import com.payservice.paymentservice.util.exception.JobAlreadyRunningException;
+import com.payservice.paymentservice.util.exception.OverpaymentException;
+import com.payservice.paymentservice.util.exception.PendingReceiptException;
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Reaplica en orden los pagos del journal local con las reglas de PaymentServiceImpl
+//Idempotente: journal_id se registra en la misma transacción que el pago (db/012)
+//Un rechazo de regla al reaplicar es un conflicto: queda registrado y se informa; la base caída corta el replay
+@Component
+public class PaymentJournalReplayer {
+
+    private final PaymentJournalProperties properties;
+    private final PaymentJournal journal;
+    private final PaymentJournalRepository repository;
+    private final PaymentService paymentService;
+    private final SettlementRepository settlementRepository;
+    private final TransactionTemplate entryTx;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PaymentJournalReplayer(PaymentJournalProperties properties, PaymentJournal journal,
+                                  PaymentJournalRepository repository, PaymentService paymentService,
+                                  SettlementRepository settlementRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.journal = journal;
+        this.repository = repository;
+        this.paymentService = paymentService;
+        this.settlementRepository = settlementRepository;
+        this.entryTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.journal.replay-interval:PT5S}")
+    public void scheduledRun() {
+        if (journal.isEnabled() && journal.pending() > 0 && !running.get()) {
+            run();
+        }
+    }
+
+    public JournalReplayReportDTO run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new JobAlreadyRunningException("Payment journal replay already in progress");
+        }
+
+        try {
+            long start = System.nanoTime();
+            Tally tally = new Tally(properties.getMaxReported());
+            PaymentJournal.ReplayScan scan = journal.replayPending(entry -> apply(entry, tally));
+
+            return JournalReplayReportDTO.builder()
+                    .applied(tally.applied)
+                    .late(tally.late)
+                    .duplicates(tally.duplicates)
+                    .rejected(tally.rejected)
+                    .corrupt(scan.corrupt())
+                    .remaining(journal.pending())
+                    .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                    .conflicts(tally.conflicts)
+                    .conflictsTruncated(tally.rejected > tally.conflicts.size())
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    //false = la base no está disponible: la entrada queda pendiente para el próximo intento
+    private boolean apply(JournalEntry entry, Tally tally) {
+        try {
+            Outcome outcome;
+            String reason = null;
+            try {
+                outcome = entryTx.execute(status -> {
+                    if (!repository.claim(entry)) {
+                        return Outcome.DUPLICATE;
+                    }
+                    // payment_date = cuándo se aceptó, no cuándo se reaplica (cierre diario, orden del historial)
+                    // salvo que ese día ya esté cerrado: el cierre es inmutable y el pago entra en el día del replay
+                    // el lock compartido del día ordena este chequeo contra el cierre (SettlementCloseJob)
+                    LocalDate day = entry.acceptedAt().toLocalDate();
+                    settlementRepository.lockDay(day, false);
+                    boolean late = settlementRepository.isClosed(day);
+                    paymentService.registerPayment(entry.receiptId(), entry.customerId(), request(entry),
+                            late ? LocalDateTime.now() : entry.acceptedAt());
+                    repository.markApplied(entry.journalId());
+                    return late ? Outcome.APPLIED_LATE : Outcome.APPLIED;
+                });
+            } catch (IllegalArgumentException | ResourceNotFoundException
+                     | PendingReceiptException | OverpaymentException ex) {
+                // la regla revirtió la transacción del pago (y el claim): el rechazo se registra en otra
+                reason = ex.getMessage();
+                outcome = entryTx.execute(status -> {
+                    if (!repository.claim(entry)) {
+                        return Outcome.DUPLICATE;
+                    }
+                    repository.markRejected(entry.journalId(), ex.getMessage());
+                    return Outcome.REJECTED;
+                });
+            }
+            // se cuenta después del commit: un commit fallido vuelve a intentarse sin duplicar el reporte
+            switch (outcome) {
+                case APPLIED -> tally.applied++;
+                case APPLIED_LATE -> {
+                    tally.applied++;
+                    tally.late++;
+                }
+                case DUPLICATE -> tally.duplicates++;
+                case REJECTED -> tally.reject(entry, reason);
+            }
+            return true;
+        } catch (CannotCreateTransactionException | DataAccessResourceFailureException
+                 | TransientDataAccessException | RecoverableDataAccessException ex) {
+            return false;
+        }
+    }
+
+    private static PaymentRequestDTO request(JournalEntry entry) {
+        PaymentRequestDTO req = new PaymentRequestDTO();
+        req.setAmount(entry.amount());
+        req.setPaymentCurrency(entry.paymentCurrency());
+        return req;
+    }
+
+    private enum Outcome { APPLIED, APPLIED_LATE, DUPLICATE, REJECTED }
+
+    //Solo desde el hilo del replay
+    private static final class Tally {
+        long applied;
+        long late;
+        long duplicates;
+        long rejected;
+        final List<JournalConflictDTO> conflicts = new ArrayList<>();
+        final int maxReported;
+
+        Tally(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        void reject(JournalEntry e, String reason) {
+            rejected++;
+            if (conflicts.size() < maxReported) {
+                conflicts.add(new JournalConflictDTO(e.journalId().toString(), e.receiptId(), e.customerId(),
+                        e.amount(), e.paymentCurrency(), e.acceptedAt(), reason));
+            }
+        }
+    }
+}
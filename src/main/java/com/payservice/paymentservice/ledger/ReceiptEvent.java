@@ -0,0 +1,14 @@
+package com.payservice.paymentservice.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+//Evento inmutable del ledger; amount siempre en la moneda del recibo
+//eventId y occurredAt los asigna la base al insertar (0 / null antes de eso)
+public record ReceiptEvent(long eventId, int receiptId, ReceiptEventType type, BigDecimal amount,
+                           String receiptStatus, Integer paymentId, LocalDateTime occurredAt) {
+
+    public static ReceiptEvent paymentApplied(int receiptId, BigDecimal amount, String receiptStatus, Integer paymentId) {
+        return new ReceiptEvent(0, receiptId, ReceiptEventType.PAYMENT_APPLIED, amount, receiptStatus, paymentId, null);
+    }
+}
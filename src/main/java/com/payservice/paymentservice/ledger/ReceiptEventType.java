@@ -0,0 +1,8 @@
+package com.payservice.paymentservice.ledger;
+
+//Tipos de evento del ledger de recibos (operation.receipt_events, db/011)
+public enum ReceiptEventType {
+    ISSUED,
+    PAYMENT_APPLIED,
+    STATUS_CHANGED
+}
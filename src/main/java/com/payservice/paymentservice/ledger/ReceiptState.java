@@ -0,0 +1,35 @@
+package com.payservice.paymentservice.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+//Estado de un recibo plegando sus eventos en orden de event_id (también es la forma de un snapshot)
+//asOf: occurredAt del último evento aplicado
+public record ReceiptState(int receiptId, BigDecimal pendingAmount, String receiptStatus,
+                           long lastEventId, int eventCount, LocalDateTime asOf) {
+
+    public static ReceiptState empty(int receiptId) {
+        return new ReceiptState(receiptId, BigDecimal.ZERO, null, 0, 0, null);
+    }
+
+    public ReceiptState apply(ReceiptEvent event) {
+        if (event.receiptId() != receiptId) {
+            throw new IllegalArgumentException("Event " + event.eventId() + " belongs to receipt " + event.receiptId());
+        }
+        if (event.eventId() <= lastEventId) {
+            throw new IllegalStateException("Event " + event.eventId() + " out of order for receipt " + receiptId);
+        }
+
+        BigDecimal pending = switch (event.type()) {
+            case ISSUED -> event.amount();
+            case PAYMENT_APPLIED -> pendingAmount.subtract(event.amount());
+            case STATUS_CHANGED -> pendingAmount;
+        };
+        return new ReceiptState(receiptId, pending, event.receiptStatus(), event.eventId(), eventCount + 1,
+                event.occurredAt());
+    }
+
+    public boolean isEmpty() {
+        return eventCount == 0;
+    }
+}
@@ -1,6 +1,8 @@
 package com.payservice.paymentservice.mapper;
 
+import com.payservice.paymentservice.dto.PaymentAllocationResponseDTO;
 import com.payservice.paymentservice.dto.PaymentResponseDTO;
+import com.payservice.paymentservice.dto.ReceiptAllocationDTO;
 import com.payservice.paymentservice.entity.Customer;
 import com.payservice.paymentservice.entity.Payment;
 import com.payservice.paymentservice.entity.Receipt;
@@ -9,6 +11,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class PaymentMapper {
@@ -32,4 +38,32 @@ public class PaymentMapper {
         );
     }
 
+    public ReceiptAllocationDTO toReceiptAllocation(Receipt r, BigDecimal applied, BigDecimal converted,
+                                                    BigDecimal rate, BigDecimal previousPending) {
+        return new ReceiptAllocationDTO(
+                r.getReceiptNumber(),
+                r.getPeriodLabel(),
+                r.getDueDate(),
+                r.getCurrency(),
+                applied,
+                converted,
+                rate,
+                previousPending,
+                r.getPendingAmount(),
+                r.getReceiptStatus()
+        );
+    }
+
+    public PaymentAllocationResponseDTO toAllocationResponse(Customer c, ServiceEntity s, BigDecimal amount,
+                                                             String paymentCurrency, List<ReceiptAllocationDTO> allocations) {
+        return PaymentAllocationResponseDTO.builder()
+                .customer(customerMapper.toCustomer(c))
+                .service(serviceMapper.toService(s))
+                .amount(amount)
+                .paymentCurrency(paymentCurrency)
+                .paymentDate(LocalDateTime.now())
+                .allocations(allocations)
+                .build();
+    }
+
 }
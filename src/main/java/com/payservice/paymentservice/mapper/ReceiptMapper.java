@@ -1,12 +1,17 @@
 package com.payservice.paymentservice.mapper;
 
 import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.dto.ReceiptEventDTO;
 import com.payservice.paymentservice.dto.ReceiptInfoDTO;
 import com.payservice.paymentservice.dto.ReceiptResponseDTO;
 import com.payservice.paymentservice.dto.ServiceSummaryDTO;
 import com.payservice.paymentservice.entity.Customer;
 import com.payservice.paymentservice.entity.Receipt;
 import com.payservice.paymentservice.entity.ServiceEntity;
+import com.payservice.paymentservice.ledger.ReceiptEvent;
+import com.payservice.paymentservice.readmodel.CustomerView;
+import com.payservice.paymentservice.readmodel.ReceiptView;
+import com.payservice.paymentservice.readmodel.ServiceView;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -49,4 +54,39 @@ public class ReceiptMapper {
                 .build();
     }
 
+    //Mismo DTO desde las proyecciones de los repositorios (sin entidades)
+    public ReceiptResponseDTO toFullReceiptInfo(ReceiptInfoDTO r, CustomerSummaryDTO c, ServiceSummaryDTO s) {
+        return ReceiptResponseDTO.builder()
+                .customer(c)
+                .service(s)
+                .receiptNumber(r.getReceiptNumber())
+                .periodLabel(r.getPeriodLabel())
+                .dueDate(r.getDueDate())
+                .receiptAmount(r.getReceiptAmount())
+                .pendingAmount(r.getPendingAmount())
+                .currency(r.getCurrency())
+                .receiptStatus(r.getReceiptStatus())
+                .build();
+    }
+
+    //Mismo DTO desde la proyección en memoria (CustomerReadModel)
+    public ReceiptResponseDTO toFullReceiptInfoFromView(ReceiptView r, CustomerView c, ServiceView s) {
+        return ReceiptResponseDTO.builder()
+                .customer(new CustomerSummaryDTO(c.names(), c.lastname(), c.email()))
+                .service(s == null ? null : new ServiceSummaryDTO(s.serviceName(), s.description()))
+                .receiptNumber(r.receiptNumber())
+                .periodLabel(r.periodLabel())
+                .dueDate(r.dueDate())
+                .receiptAmount(r.receiptAmount())
+                .pendingAmount(r.pendingAmount())
+                .currency(r.currency())
+                .receiptStatus(r.receiptStatus())
+                .build();
+    }
+
+    public ReceiptEventDTO toReceiptEvent(ReceiptEvent e) {
+        if (e == null) return null;
+        return new ReceiptEventDTO(e.eventId(), e.type().name(), e.amount(), e.receiptStatus(),
+                e.paymentId(), e.occurredAt());
+    }
 }
@@ -1,5 +1,6 @@
 package com.payservice.paymentservice.mapper;
 
+import com.payservice.paymentservice.dto.ServiceItemDTO;
 import com.payservice.paymentservice.dto.ServiceResponseDTO;
 import com.payservice.paymentservice.dto.PaymentResponseDTO;
 import com.payservice.paymentservice.dto.ServiceSummaryDTO;
@@ -7,6 +8,7 @@ import com.payservice.paymentservice.entity.Customer;
 import com.payservice.paymentservice.entity.Payment;
 import com.payservice.paymentservice.entity.Receipt;
 import com.payservice.paymentservice.entity.ServiceEntity;
+import com.payservice.paymentservice.readmodel.ServiceView;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -22,7 +24,7 @@ public class ServiceMapper {
         );
     }
 
-    public ServiceResponseDTO toServiceResponseDTO(ServiceEntity s, String currency, BigDecimal amount, BigDecimal pendingAmount) {
+    public ServiceResponseDTO toServiceResponse(ServiceItemDTO s, String currency, BigDecimal amount, BigDecimal pendingAmount) {
         if (s == null) return null;
         return new ServiceResponseDTO(
                 s.getServiceName(),
@@ -33,4 +35,14 @@ public class ServiceMapper {
         );
     }
 
+    public ServiceResponseDTO toServiceResponseFromView(ServiceView s, String currency, BigDecimal amount, BigDecimal pendingAmount) {
+        return new ServiceResponseDTO(
+                s.serviceName(),
+                s.description(),
+                currency,
+                amount,
+                pendingAmount
+        );
+    }
+
 }
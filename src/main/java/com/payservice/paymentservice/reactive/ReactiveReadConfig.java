@@ -0,0 +1,102 @@
+package com.payservice.paymentservice.reactive;
+
+import com.payservice.paymentservice.config.ConcurrencyLimitProperties;
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.config.RateLimitInterceptor;
+import com.payservice.paymentservice.config.RateLimitProperties;
+import com.payservice.paymentservice.config.ReactiveReadProperties;
+import com.payservice.paymentservice.util.AdaptiveConcurrencyLimiter;
+import com.payservice.paymentservice.util.ratelimit.RateLimitStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.JacksonJsonDecoder;
+import org.springframework.http.codec.json.JacksonJsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import tools.jackson.databind.json.JsonMapper;
+
+//Stack de lectura WebFlux/R2DBC (perfil reactive-read): Netty en payment.reactive-read.port junto al servlet
+//Las escrituras y jobs siguen en el stack servlet; acá solo las tres lecturas
+//Los límites de concurrencia y de tasa del servlet también se aplican acá (ReactiveReadLimits)
+@Configuration
+@ConditionalOnProperty(prefix = "payment.reactive-read", name = "enabled", havingValue = "true")
+public class ReactiveReadConfig {
+
+    @Bean
+    public ReactiveReadRepository reactiveReadRepository(ReactiveReadProperties properties) {
+        return new ReactiveReadRepository(properties);
+    }
+
+    @Bean
+    public ReactiveReadHandler reactiveReadHandler(ReactiveReadRepository repository, JobProperties jobProperties) {
+        return new ReactiveReadHandler(repository, jobProperties);
+    }
+
+    //Los beans de los límites existen solo si están habilitados (payment.concurrency-limit / payment.rate-limit)
+    @Bean
+    public ReactiveReadLimits reactiveReadLimits(ObjectProvider<AdaptiveConcurrencyLimiter> limiter,
+                                                 ConcurrencyLimitProperties concurrencyProperties,
+                                                 ObjectProvider<RateLimitStore> rateLimitStore,
+                                                 RateLimitProperties rateLimitProperties) {
+        RateLimitStore store = rateLimitStore.getIfAvailable();
+        return new ReactiveReadLimits(limiter.getIfAvailable(),
+                Math.max(1, concurrencyProperties.getRetryAfter().toSeconds()),
+                store == null ? null : new RateLimitInterceptor(rateLimitProperties, store));
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveReadRoutes(ReactiveReadHandler handler, ReactiveReadLimits limits) {
+        return routes(handler, limits);
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveReadServer(RouterFunction<ServerResponse> reactiveReadRoutes,
+                                               ReactiveReadLimits limits,
+                                               ReactiveReadProperties properties, JsonMapper jsonMapper) {
+        ReactorHttpHandlerAdapter adapter = new ReactorHttpHandlerAdapter(
+                RouterFunctions.toHttpHandler(reactiveReadRoutes, strategies(jsonMapper, limits)));
+        return HttpServer.create()
+                .port(properties.getPort())
+                .handle(adapter)
+                .bindNow();
+    }
+
+    public static RouterFunction<ServerResponse> routes(ReactiveReadHandler handler) {
+        return routes(handler, ReactiveReadLimits.none());
+    }
+
+    //Nombres de endpoint = métodos de los controllers: la cuota por endpoint es la misma en los dos puertos
+    public static RouterFunction<ServerResponse> routes(ReactiveReadHandler handler, ReactiveReadLimits limits) {
+        return RouterFunctions.route()
+                .GET("/services/customers/{customerId}",
+                        limits.rateLimited("listServicesByCustomer", handler::servicesByCustomer))
+                .GET("/receipts/service/{serviceId}/customer/{customerId}",
+                        limits.rateLimited("getReceipts", handler::receiptsByServiceAndCustomer))
+                .GET("/payments/customers/{customerId}",
+                        limits.rateLimited("getPaymentsByCustomer", handler::paymentsByCustomer))
+                .build();
+    }
+
+    public static HandlerStrategies strategies(JsonMapper jsonMapper) {
+        return strategies(jsonMapper, ReactiveReadLimits.none());
+    }
+
+    //Mismo JsonMapper que el stack servlet: fechas y nulos se serializan igual en los dos puertos
+    public static HandlerStrategies strategies(JsonMapper jsonMapper, ReactiveReadLimits limits) {
+        return HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jacksonJsonEncoder(new JacksonJsonEncoder(jsonMapper));
+                    codecs.defaultCodecs().jacksonJsonDecoder(new JacksonJsonDecoder(jsonMapper));
+                })
+                .webFilter(limits)
+                .exceptionHandler(new ReactiveReadExceptionHandler(jsonMapper))
+                .build();
+    }
+}
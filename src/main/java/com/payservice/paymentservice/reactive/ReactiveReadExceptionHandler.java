@@ -0,0 +1,92 @@
+package com.payservice.paymentservice.reactive;
+
+import com.payservice.paymentservice.config.RateLimitInterceptor;
+import com.payservice.paymentservice.dto.ErrorResponseDTO;
+import com.payservice.paymentservice.util.exception.NoPaymentsFoundException;
+import com.payservice.paymentservice.util.exception.RateLimitExceededException;
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import com.payservice.paymentservice.util.exception.ServiceOverloadedException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+import reactor.pool.PoolAcquirePendingLimitException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+//Mismos códigos y cuerpo (ErrorResponseDTO) que GlobalExceptionHandler para las lecturas
+//Los listados no escriben "[" hasta la primera fila: un 404 de la cabecera todavía llega como 404
+@RequiredArgsConstructor
+public class ReactiveReadExceptionHandler implements WebExceptionHandler {
+
+    private final JsonMapper jsonMapper;
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            // error a mitad del streaming: solo queda cortar la conexión
+            return Mono.error(ex);
+        }
+
+        HttpStatus status;
+        String message;
+        if (ex instanceof ResourceNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+            message = ex.getMessage();
+        } else if (ex instanceof NumberFormatException || ex instanceof DateTimeParseException) {
+            // Type mismatch → Ej: enviar string donde va int
+            status = HttpStatus.BAD_REQUEST;
+            message = "Invalid parameter format";
+        } else if (ex instanceof IllegalArgumentException) {
+            status = HttpStatus.BAD_REQUEST;
+            message = ex.getMessage();
+        } else if (ex instanceof NoPaymentsFoundException) {
+            status = HttpStatus.NO_CONTENT;
+            message = ex.getMessage();
+        } else if (ex instanceof RateLimitExceededException limited) {
+            status = HttpStatus.TOO_MANY_REQUESTS;
+            message = ex.getMessage();
+            response.getHeaders().set(RateLimitInterceptor.LIMIT_HEADER, String.valueOf(limited.getLimit()));
+            response.getHeaders().set(RateLimitInterceptor.REMAINING_HEADER, "0");
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(limited.getRetryAfterSeconds()));
+        } else if (ex instanceof ServiceOverloadedException overloaded) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+            message = ex.getMessage();
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(overloaded.getRetryAfterSeconds()));
+        } else if (poolExhausted(ex)) {
+            // pool saturado: se rechaza rápido en vez de encolar sin límite
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+            message = "Read capacity exhausted";
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            message = "Internal server error";
+        }
+
+        ErrorResponseDTO error = new ErrorResponseDTO(status.value(), status.getReasonPhrase(), message,
+                exchange.getRequest().getPath().value(), LocalDateTime.now());
+
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(jsonMapper.writeValueAsBytes(error));
+        return response.writeWith(Mono.just(body));
+    }
+
+    //DatabaseClient (ConnectionFactoryUtils) envuelve la falla del pool en DataAccessResourceFailureException
+    private static boolean poolExhausted(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof PoolAcquirePendingLimitException || t instanceof R2dbcTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
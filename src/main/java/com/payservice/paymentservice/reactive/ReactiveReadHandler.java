@@ -0,0 +1,171 @@
+package com.payservice.paymentservice.reactive;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.dto.ListingVersionDTO;
+import com.payservice.paymentservice.dto.PaymentResponseDTO;
+import com.payservice.paymentservice.dto.ReceiptResponseDTO;
+import com.payservice.paymentservice.dto.ServiceResponseDTO;
+import com.payservice.paymentservice.dto.ServiceSummaryDTO;
+import com.payservice.paymentservice.reactive.ReactiveReadRepository.ServiceRow;
+import com.payservice.paymentservice.reactive.ReactiveReadRepository.ServiceTotalsRow;
+import com.payservice.paymentservice.util.PaymentPartitions;
+import com.payservice.paymentservice.util.WeakETag;
+import com.payservice.paymentservice.util.exception.NoPaymentsFoundException;
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+//Mismos contratos que ServiceController, ReceiptController y GET /payments/customers/{id}, sin bloquear hilos
+//Las búsquedas de cliente, servicio y recibos/pagos salen a la vez; los errores respetan el orden del stack bloqueante
+//Los listados se emiten en streaming: la base entrega filas al ritmo en que el socket las acepta
+@RequiredArgsConstructor
+public class ReactiveReadHandler {
+
+    private final ReactiveReadRepository repository;
+    private final JobProperties jobProperties;
+
+    public Mono<ServerResponse> servicesByCustomer(ServerRequest request) {
+        int customerId = pathInt(request, "customerId");
+
+        return withETag(request, repository.findListingVersion(null, customerId), ok -> {
+            Mono<Boolean> customer = repository.findCustomer(customerId).hasElement();
+            Mono<List<ServiceRow>> services = repository.findServices(customerId).collectList();
+            Mono<Map<Integer, ServiceTotalsRow>> totals = repository.findServiceTotals(customerId)
+                    .collectMap(ServiceTotalsRow::serviceId);
+
+            return Mono.zip(customer, services, totals)
+                    .map(t -> services(t.getT1(), t.getT2(), t.getT3()))
+                    .flatMap(ok::bodyValue);
+        });
+    }
+
+    public Mono<ServerResponse> receiptsByServiceAndCustomer(ServerRequest request) {
+        int serviceId = pathInt(request, "serviceId");
+        int customerId = pathInt(request, "customerId");
+        boolean fullHistory = request.queryParam("fullHistory").map(Boolean::parseBoolean).orElse(false);
+
+        return withETag(request, repository.findListingVersion(serviceId, customerId), ok -> {
+            Mono<Heads> heads = Mono.zip(optional(repository.findCustomer(customerId)),
+                            optional(repository.findService(serviceId)))
+                    .map(t -> Heads.of(t.getT1(), t.getT2()))
+                    .cache();
+
+            // zip con la cabecera repetida: los recibos se piden junto con cliente y servicio, con cola acotada
+            Flux<ReceiptResponseDTO> receipts = Flux.zip(heads.repeat(),
+                            repository.findReceipts(serviceId, customerId, fullHistory),
+                            (h, r) -> ReceiptResponseDTO.builder()
+                                    .customer(h.customer())
+                                    .service(h.service())
+                                    .receiptNumber(r.getReceiptNumber())
+                                    .periodLabel(r.getPeriodLabel())
+                                    .dueDate(r.getDueDate())
+                                    .receiptAmount(r.getReceiptAmount())
+                                    .pendingAmount(r.getPendingAmount())
+                                    .currency(r.getCurrency())
+                                    .receiptStatus(r.getReceiptStatus())
+                                    .build())
+                    // sin recibos: un cliente o servicio inexistente tiene prioridad sobre la lista vacía
+                    .switchIfEmpty(heads.then(Mono.error(
+                            new ResourceNotFoundException("No receipts found for this customer/service"))));
+
+            return ok.contentType(MediaType.APPLICATION_JSON).body(receipts, ReceiptResponseDTO.class);
+        });
+    }
+
+    public Mono<ServerResponse> paymentsByCustomer(ServerRequest request) {
+        int customerId = pathInt(request, "customerId");
+        LocalDate from = request.queryParam("from").map(LocalDate::parse).orElse(null);
+        LocalDate to = request.queryParam("to").map(LocalDate::parse).orElse(null);
+
+        Mono<CustomerSummaryDTO> customer = repository.findCustomer(customerId)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Customer not found")))
+                .cache();
+
+        if (from != null && to != null && from.isAfter(to)) {
+            return customer.then(Mono.error(new IllegalArgumentException("from must not be after to")));
+        }
+
+        // Misma ventana caliente que PaymentServiceImpl: el archivo solo si el rango empieza antes
+        LocalDate horizon = PaymentPartitions.hotHorizon(LocalDate.now(), jobProperties.getPaymentArchive().getHotMonths());
+        LocalDateTime lower = from != null ? from.atStartOfDay() : null;
+        LocalDateTime upper = to != null ? to.plusDays(1).atStartOfDay() : null;
+        boolean includeArchive = from != null && from.isBefore(horizon);
+
+        Flux<PaymentResponseDTO> payments = Flux.zip(customer.repeat(),
+                        repository.findPayments(customerId, lower, upper, includeArchive),
+                        (c, p) -> {
+                            p.setCustomer(c);
+                            return p;
+                        })
+                .switchIfEmpty(customer.then(Mono.error(
+                        new NoPaymentsFoundException("Customer has no registered payments"))));
+
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(payments, PaymentResponseDTO.class);
+    }
+
+    //Mismas reglas y mensajes que ServiceServiceImpl.getServicesByCustomer
+    private static List<ServiceResponseDTO> services(boolean customerExists, List<ServiceRow> services,
+                                                     Map<Integer, ServiceTotalsRow> totals) {
+        if (!customerExists) {
+            throw new ResourceNotFoundException("Customer not found");
+        }
+        if (services.isEmpty()) {
+            throw new ResourceNotFoundException("Customer has no registered services");
+        }
+
+        return services.stream().map(service -> {
+            ServiceTotalsRow t = totals.get(service.serviceId());
+            if (t == null) {
+                throw new ResourceNotFoundException(
+                        "Service " + service.serviceName() + " has no receipts for this customer"
+                );
+            }
+            return ServiceResponseDTO.builder()
+                    .serviceName(service.serviceName())
+                    .description(service.description())
+                    .currency(t.currency())
+                    .amount(t.amount())
+                    .pendingAmount(t.pendingAmount())
+                    .build();
+        }).toList();
+    }
+
+    //If-None-Match: 304 sin consultar el listado; sin recibos no hay ETag y la respuesta sigue (404)
+    private static Mono<ServerResponse> withETag(ServerRequest request, Mono<ListingVersionDTO> version,
+                                                 Function<ServerResponse.BodyBuilder, Mono<ServerResponse>> body) {
+        return version.mapNotNull(WeakETag::of)
+                .flatMap(etag -> request.checkNotModified(etag)
+                        .switchIfEmpty(Mono.defer(() -> body.apply(ServerResponse.ok().eTag(etag)))))
+                .switchIfEmpty(Mono.defer(() -> body.apply(ServerResponse.ok())));
+    }
+
+    private static <T> Mono<Optional<T>> optional(Mono<T> lookup) {
+        return lookup.map(Optional::of).defaultIfEmpty(Optional.empty());
+    }
+
+    private static int pathInt(ServerRequest request, String name) {
+        return Integer.parseInt(request.pathVariable(name));
+    }
+
+    private record Heads(CustomerSummaryDTO customer, ServiceSummaryDTO service) {
+
+        //Mismo orden de validación que ReceiptServiceImpl: primero cliente, después servicio
+        static Heads of(Optional<CustomerSummaryDTO> customer, Optional<ServiceSummaryDTO> service) {
+            return new Heads(
+                    customer.orElseThrow(() -> new ResourceNotFoundException("Customer not found")),
+                    service.orElseThrow(() -> new ResourceNotFoundException("Service not found")));
+        }
+    }
+}
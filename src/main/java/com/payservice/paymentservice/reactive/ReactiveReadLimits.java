@@ -0,0 +1,77 @@
+package com.payservice.paymentservice.reactive;
+
+import com.payservice.paymentservice.config.RateLimitInterceptor;
+import com.payservice.paymentservice.util.AdaptiveConcurrencyLimiter;
+import com.payservice.paymentservice.util.exception.ServiceOverloadedException;
+import com.payservice.paymentservice.util.ratelimit.RateLimitDecision;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+//Los límites del stack servlet aplicados al puerto reactivo, con el mismo estado que el servlet:
+//- límite adaptativo de concurrencia (ConcurrencyLimitInterceptor): el mismo limitador, un solo cupo para los dos puertos
+//- rate limit (RateLimitInterceptor): mismos buckets, el endpoint se nombra como el método del controller
+//- bulkhead de lecturas (BulkheadInterceptor): lo cumple el pool R2DBC, con tamaño y cola de espera acotados
+//null = esa protección está deshabilitada
+public class ReactiveReadLimits implements WebFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long retryAfterSeconds;
+    private final RateLimitInterceptor rateLimit;
+
+    public ReactiveReadLimits(AdaptiveConcurrencyLimiter limiter, long retryAfterSeconds, RateLimitInterceptor rateLimit) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rateLimit = rateLimit;
+    }
+
+    public static ReactiveReadLimits none() {
+        return new ReactiveReadLimits(null, 0, null);
+    }
+
+    //El cupo se libera cuando termina de escribirse la respuesta, no al armarla: los listados son streaming
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (limiter == null) {
+            return chain.filter(exchange);
+        }
+        if (!limiter.tryAcquire(false)) {
+            return Mono.error(new ServiceOverloadedException("Service overloaded, retry later", retryAfterSeconds));
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> limiter.onComplete(System.nanoTime() - start));
+    }
+
+    //Rate limit por ruta: necesita el nombre del endpoint y el customerId del path
+    public HandlerFunction<ServerResponse> rateLimited(String endpoint, HandlerFunction<ServerResponse> handler) {
+        if (rateLimit == null) {
+            return handler;
+        }
+        return request -> clientId(request).flatMap(client -> {
+            RateLimitDecision decision = rateLimit.check(endpoint, client,
+                    request.pathVariables().get("customerId"));
+            HttpHeaders headers = request.exchange().getResponse().getHeaders();
+            headers.set(RateLimitInterceptor.LIMIT_HEADER, String.valueOf(decision.limit()));
+            headers.set(RateLimitInterceptor.REMAINING_HEADER, String.valueOf(decision.remaining()));
+            return handler.handle(request);
+        });
+    }
+
+    //Como RateLimitInterceptor: usuario autenticado o IP remota
+    private static Mono<String> clientId(ServerRequest request) {
+        return request.principal()
+                .map(p -> "user:" + p.getName())
+                .switchIfEmpty(Mono.fromSupplier(() -> "ip:" + request.remoteAddress()
+                        .map(InetSocketAddress::getAddress)
+                        .map(InetAddress::getHostAddress)
+                        .orElse("unknown")));
+    }
+}
@@ -0,0 +1,243 @@
+package com.payservice.paymentservice.reactive;
+
+import com.payservice.paymentservice.config.ReactiveReadProperties;
+import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.dto.ListingVersionDTO;
+import com.payservice.paymentservice.dto.PaymentResponseDTO;
+import com.payservice.paymentservice.dto.ReceiptInfoDTO;
+import com.payservice.paymentservice.dto.ServiceSummaryDTO;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Lecturas R2DBC del stack reactivo: mismas tablas y columnas que los repositorios JPA
+//El pool no es un bean: con un ConnectionFactory en el contexto Boot deja de configurar el DataSource JDBC
+public class ReactiveReadRepository implements AutoCloseable {
+
+    //Identifica las conexiones del stack reactivo en pg_stat_activity
+    public static final String APPLICATION_NAME = "payment-service-reactive";
+
+    private static final String CUSTOMER_SQL =
+            "SELECT names, lastname, email FROM operation.customers WHERE customer_id = :customerId";
+
+    private static final String SERVICE_SQL =
+            "SELECT service_name, description FROM operation.services WHERE service_id = :serviceId";
+
+    private static final String SERVICES_SQL =
+            "SELECT service_id, service_name, description FROM operation.services WHERE customer_id = :customerId";
+
+    //Moneda y totales por servicio calculados en la base, sin traer los recibos
+    private static final String SERVICE_TOTALS_SQL = """
+            SELECT service_id,
+                   CASE WHEN count(DISTINCT currency) = 1 THEN min(currency) ELSE 'MULTIMONEDA' END AS currency,
+                   sum(receipt_amount) AS amount, sum(pending_amount) AS pending_amount
+            FROM operation.receipts
+            WHERE customer_id = :customerId
+            GROUP BY service_id
+            """;
+
+    private static final String RECEIPT_COLUMNS =
+            "receipt_number, period_label, due_date, receipt_amount, pending_amount, currency, receipt_status";
+
+    private static final String RECEIPTS_SQL = "SELECT " + RECEIPT_COLUMNS + " FROM operation.receipts " +
+            "WHERE service_id = :serviceId AND customer_id = :customerId ORDER BY due_date DESC";
+
+    //Historial completo: los pagados archivados pueden ser más nuevos que un impago caliente
+    private static final String RECEIPTS_FULL_HISTORY_SQL = "SELECT " + RECEIPT_COLUMNS + " FROM operation.receipts " +
+            "WHERE service_id = :serviceId AND customer_id = :customerId " +
+            "UNION ALL SELECT " + RECEIPT_COLUMNS + " FROM operation.receipts_archive " +
+            "WHERE service_id = :serviceId AND customer_id = :customerId " +
+            "ORDER BY due_date DESC NULLS LAST";
+
+    //Versiones para ETag: mismos valores que ReceiptServiceImpl/ServiceServiceImpl (recibos + filas embebidas)
+    private static final String LISTING_VERSION_SQL = """
+            SELECT greatest(max(date_modifi),
+                            (SELECT max(s.date_modifi) FROM operation.services s WHERE s.customer_id = :customerId))
+                   AS last_modified, count(*) AS total
+            FROM operation.receipts WHERE customer_id = :customerId
+            """;
+
+    private static final String SERVICE_LISTING_VERSION_SQL = """
+            SELECT greatest(max(date_modifi),
+                            (SELECT c.date_modifi FROM operation.customers c WHERE c.customer_id = :customerId),
+                            (SELECT s.date_modifi FROM operation.services s WHERE s.service_id = :serviceId))
+                   AS last_modified, count(*) AS total
+            FROM operation.receipts WHERE customer_id = :customerId AND service_id = :serviceId
+            """;
+
+    //El recibo de un pago archivado está en receipts_archive (sale de receipts cuando se archivan sus pagos)
+    //receipts_archive agrega archived_at: columnas explícitas para el UNION
+    private static final String ANY_RECEIPT = "(SELECT receipt_id, service_id, " + RECEIPT_COLUMNS +
+            " FROM operation.receipts UNION ALL SELECT receipt_id, service_id, " + RECEIPT_COLUMNS +
+            " FROM operation.receipts_archive)";
+
+    private static final String PAYMENT_SELECT = """
+            SELECT p.amount, p.payment_currency, p.exchange_rate, p.previous_pending_amount, p.new_pending_amount,
+                   p.payment_status, p.payment_date, s.service_id, s.service_name, s.description, r.receipt_id,
+                   r.receipt_number, r.period_label, r.due_date, r.receipt_amount, r.pending_amount, r.currency,
+                   r.receipt_status
+            FROM %s p
+            LEFT JOIN %s r ON r.receipt_id = p.receipt_id
+            LEFT JOIN operation.services s ON s.service_id = r.service_id
+            WHERE p.customer_id = :customerId AND p.payment_date >= coalesce(:from::timestamp, '-infinity')
+              AND p.payment_date < coalesce(:to::timestamp, 'infinity')
+            """;
+
+    //Recibo y servicio en la misma consulta: sin findById por pago como en el stack bloqueante
+    private static final String PAYMENTS_SQL = PAYMENT_SELECT.formatted("operation.payments", "operation.receipts") +
+            "ORDER BY p.payment_date DESC";
+
+    private static final String PAYMENTS_WITH_ARCHIVE_SQL =
+            PAYMENT_SELECT.formatted("operation.payments", "operation.receipts") + "UNION ALL " +
+            PAYMENT_SELECT.formatted("operation.payments_archive", ANY_RECEIPT) + "ORDER BY payment_date DESC";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+    private final int prefetch;
+
+    public ReactiveReadRepository(ReactiveReadProperties properties) {
+        this(pool(connectionFactory(properties), properties.getPool()), properties.getPrefetch());
+    }
+
+    ReactiveReadRepository(ConnectionPool pool, int prefetch) {
+        this.pool = pool;
+        this.client = DatabaseClient.create(pool);
+        this.prefetch = Math.max(1, prefetch);
+    }
+
+    private static ConnectionFactory connectionFactory(ReactiveReadProperties properties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate()
+                .option(Option.valueOf("applicationName"), APPLICATION_NAME);
+        if (properties.getUsername() != null && !properties.getUsername().isBlank()) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null && !properties.getPassword().isBlank()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        return ConnectionFactories.get(options.build());
+    }
+
+    static ConnectionPool pool(ConnectionFactory factory, ReactiveReadProperties.Pool config) {
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(factory)
+                .name("reactive-read")
+                .initialSize(config.getInitialSize())
+                .maxSize(config.getMaxSize())
+                .maxAcquireTime(config.getMaxAcquireTime())
+                .customizer(pool -> pool.maxPendingAcquire(config.getMaxPendingAcquire()))
+                .build());
+    }
+
+    public Mono<CustomerSummaryDTO> findCustomer(int customerId) {
+        return client.sql(CUSTOMER_SQL)
+                .bind("customerId", customerId)
+                .map(row -> new CustomerSummaryDTO(row.get("names", String.class),
+                        row.get("lastname", String.class), row.get("email", String.class)))
+                .one();
+    }
+
+    public Mono<ServiceSummaryDTO> findService(int serviceId) {
+        return client.sql(SERVICE_SQL)
+                .bind("serviceId", serviceId)
+                .map(row -> new ServiceSummaryDTO(row.get("service_name", String.class),
+                        row.get("description", String.class)))
+                .one();
+    }
+
+    public Flux<ServiceRow> findServices(int customerId) {
+        return client.sql(SERVICES_SQL)
+                .bind("customerId", customerId)
+                .map(row -> new ServiceRow(row.get("service_id", Integer.class),
+                        row.get("service_name", String.class), row.get("description", String.class)))
+                .all();
+    }
+
+    public Flux<ServiceTotalsRow> findServiceTotals(int customerId) {
+        return client.sql(SERVICE_TOTALS_SQL)
+                .bind("customerId", customerId)
+                .map(row -> new ServiceTotalsRow(row.get("service_id", Integer.class),
+                        row.get("currency", String.class), row.get("amount", BigDecimal.class),
+                        row.get("pending_amount", BigDecimal.class)))
+                .all();
+    }
+
+    //Filas pedidas a la base de a prefetch: el cursor avanza al ritmo del consumidor
+    public Flux<ReceiptInfoDTO> findReceipts(int serviceId, int customerId, boolean fullHistory) {
+        return client.sql(fullHistory ? RECEIPTS_FULL_HISTORY_SQL : RECEIPTS_SQL)
+                .filter(statement -> statement.fetchSize(prefetch))
+                .bind("serviceId", serviceId)
+                .bind("customerId", customerId)
+                .map(row -> receipt(row))
+                .all();
+    }
+
+    //serviceId null = todos los recibos del cliente
+    public Mono<ListingVersionDTO> findListingVersion(Integer serviceId, int customerId) {
+        DatabaseClient.GenericExecuteSpec spec = serviceId == null
+                ? client.sql(LISTING_VERSION_SQL)
+                : client.sql(SERVICE_LISTING_VERSION_SQL).bind("serviceId", serviceId);
+
+        return spec.bind("customerId", customerId)
+                .map(row -> new ListingVersionDTO(row.get("last_modified", LocalDateTime.class),
+                        row.get("total", Long.class)))
+                .one();
+    }
+
+    //Sin customer: el cliente se busca una vez en paralelo y se completa en el handler
+    //from / to null = sin esa cota
+    public Flux<PaymentResponseDTO> findPayments(int customerId, LocalDateTime from, LocalDateTime to,
+                                                 boolean includeArchive) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql(includeArchive ? PAYMENTS_WITH_ARCHIVE_SQL : PAYMENTS_SQL)
+                .filter(statement -> statement.fetchSize(prefetch))
+                .bind("customerId", customerId);
+        spec = from == null ? spec.bindNull("from", LocalDateTime.class) : spec.bind("from", from);
+        spec = to == null ? spec.bindNull("to", LocalDateTime.class) : spec.bind("to", to);
+
+        return spec.map(row -> PaymentResponseDTO.builder()
+                        .service(row.get("service_id") == null ? null : new ServiceSummaryDTO(
+                                row.get("service_name", String.class), row.get("description", String.class)))
+                        .receipt(row.get("receipt_id") == null ? null : receipt(row))
+                        .amount(row.get("amount", BigDecimal.class))
+                        .paymentCurrency(row.get("payment_currency", String.class))
+                        .exchangeRate(row.get("exchange_rate", BigDecimal.class))
+                        .previousPendingAmount(row.get("previous_pending_amount", BigDecimal.class))
+                        .newPendingAmount(row.get("new_pending_amount", BigDecimal.class))
+                        .paymentStatus(row.get("payment_status", String.class))
+                        .paymentDate(row.get("payment_date", LocalDateTime.class))
+                        .build())
+                .all();
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+
+    private static ReceiptInfoDTO receipt(Readable row) {
+        return new ReceiptInfoDTO(
+                row.get("receipt_number", String.class),
+                row.get("period_label", String.class),
+                row.get("due_date", LocalDate.class),
+                row.get("receipt_amount", BigDecimal.class),
+                row.get("pending_amount", BigDecimal.class),
+                row.get("currency", String.class),
+                row.get("receipt_status", String.class)
+        );
+    }
+
+    public record ServiceRow(Integer serviceId, String serviceName, String description) {
+    }
+
+    public record ServiceTotalsRow(Integer serviceId, String currency, BigDecimal amount, BigDecimal pendingAmount) {
+    }
+}
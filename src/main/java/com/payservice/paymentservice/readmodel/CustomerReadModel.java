@@ -0,0 +1,349 @@
+package com.payservice.paymentservice.readmodel;
+
+import com.payservice.paymentservice.config.ReadModelProperties;
+import com.payservice.paymentservice.event.PaymentCommittedEvent;
+import com.payservice.paymentservice.event.ReceiptsBulkChangedEvent;
+import com.payservice.paymentservice.repository.ReadModelRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//Proyección en memoria de cada cliente: servicios, recibos calientes y últimos pagos (lado lectura, CQRS)
+//Indexada por customer_id (ids densos de la secuencia): un arreglo, sin boxing ni hashing en la lectura
+//Todas las escrituras pasan por un único hilo (updater): recargas, reconstrucción y verificación no se pisan
+//Entre instancias: cada commit se avisa con NOTIFY y las demás recargan; sin la escucha activa no se sirve nada
+@Component
+public class CustomerReadModel {
+
+    private final ReadModelProperties properties;
+    private final ReadModelRepository repository;
+    private final Counter mismatches;
+    private final Counter failures;
+    private final Timer rebuildTimer;
+
+    //Prefijo de los avisos propios, que esta instancia ya aplicó y descarta al recibirlos
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile Thread listener;
+
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "read-model-updater");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile AtomicReferenceArray<CustomerView> views = new AtomicReferenceArray<>(0);
+    private volatile boolean ready;
+    //Conectado a los avisos de las demás instancias; sin esto la vista puede estar vieja
+    private volatile boolean listening;
+    private volatile boolean rebuildFailed;
+    //Mayor customer_id conocido: la muestra no recorre la holgura vacía del arreglo
+    private volatile int highestId = -1;
+
+    //Clientes con un commit todavía no aplicado: se leen de la base para no perder read-your-writes
+    private final Map<Integer, Integer> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    public CustomerReadModel(ReadModelProperties properties, ReadModelRepository repository, MeterRegistry registry) {
+        this.properties = properties;
+        this.repository = repository;
+        this.mismatches = registry.counter("payment.read-model.mismatches");
+        this.failures = registry.counter("payment.read-model.failures");
+        this.rebuildTimer = registry.timer("payment.read-model.rebuild");
+        registry.gauge("payment.read-model.ready", this, m -> m.ready ? 1 : 0);
+    }
+
+    //Vacío = leer de la base (deshabilitado, cargando o reconstruyendo, sin escucha de avisos,
+    //cliente desconocido o con un cambio en vuelo)
+    public Optional<CustomerView> find(Integer customerId) {
+        if (!ready || customerId == null || pending.containsKey(customerId)) {
+            return Optional.empty();
+        }
+        AtomicReferenceArray<CustomerView> current = views;
+        if (customerId < 0 || customerId >= current.length()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.get(customerId));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    //La carga inicial la pide el listener al conectarse
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            Thread t = new Thread(this::listen, "read-model-listener");
+            t.setDaemon(true);
+            listener = t;
+            t.start();
+        }
+    }
+
+    //El aviso viaja en la transacción del pago: las demás instancias lo reciben solo si hay commit
+    //Un aviso que no se pudo emitir no tumba el pago; la muestra periódica de cada instancia lo corrige
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void announcePayment(PaymentCommittedEvent event) {
+        if (properties.isEnabled() && event.customerId() != null) {
+            announce(String.valueOf(event.customerId()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void announceBulkChange(ReceiptsBulkChangedEvent event) {
+        if (properties.isEnabled() && event.rows() > 0) {
+            announce("*");
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPaymentCommitted(PaymentCommittedEvent event) {
+        if (properties.isEnabled() && event.customerId() != null) {
+            requestReload(event.customerId());
+        }
+    }
+
+    //Facturación, importación, barrido de vencidos, archivo: se recarga todo en paralelo
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReceiptsBulkChanged(ReceiptsBulkChangedEvent event) {
+        if (properties.isEnabled() && event.rows() > 0) {
+            requestRebuild();
+        }
+    }
+
+    //También reintenta una reconstrucción fallida; mientras tanto se lee de la base
+    @Scheduled(fixedDelayString = "${payment.read-model.check-interval:PT1M}")
+    public void scheduledCheck() {
+        if (!properties.isEnabled()) return;
+        if (ready) {
+            updater.submit(guarded(this::checkSample));
+        } else if (rebuildFailed && listening) {
+            requestRebuild();
+        }
+    }
+
+    public Future<?> requestReload(Integer customerId) {
+        pending.merge(customerId, 1, Integer::sum);
+        return updater.submit(guarded(() -> reload(customerId)));
+    }
+
+    //Varias peticiones mientras una espera se resuelven con una sola reconstrucción
+    //Desde el pedido hasta que termina la reconstrucción se lee de la base: las vistas viejas no se sirven
+    public synchronized Future<?> requestRebuild() {
+        ready = false;
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return updater.submit(guarded(this::rebuild));
+    }
+
+    //Al (re)conectar pudieron perderse avisos: se recarga todo
+    synchronized Future<?> onListenerConnected() {
+        listening = true;
+        return requestRebuild();
+    }
+
+    synchronized void onListenerLost() {
+        listening = false;
+        ready = false;
+        failures.increment();
+    }
+
+    //payload = instancia:customer_id, o instancia:* para una reconstrucción
+    void onChange(String payload) {
+        int sep = payload.indexOf(':');
+        if (sep < 0 || payload.substring(0, sep).equals(instanceId)) return;
+        String target = payload.substring(sep + 1);
+        if ("*".equals(target)) {
+            requestRebuild();
+        } else {
+            requestReload(Integer.valueOf(target));
+        }
+    }
+
+    private void listen() {
+        int timeout = (int) properties.getListenTimeout().toMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection con = repository.listen()) {
+                onListenerConnected();
+                while (!Thread.currentThread().isInterrupted()) {
+                    repository.awaitChanges(con, timeout).forEach(this::onChange);
+                }
+                return;
+            } catch (SQLException | RuntimeException e) {
+                onListenerLost();
+            }
+            try {
+                Thread.sleep(properties.getListenRetry().toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void announce(String target) {
+        try {
+            repository.publishChange(instanceId + ":" + target);
+        } catch (RuntimeException e) {
+            failures.increment();
+        }
+    }
+
+    //Un error en el updater se cuenta en payment.read-model.failures; el Future lo sigue reportando
+    private Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                failures.increment();
+                throw e;
+            }
+        };
+    }
+
+    //Los pagos de un mismo cliente encolados juntos se aplican con una sola lectura
+    //Si la recarga falla la vista se descarta: el cliente se lee de la base hasta la próxima carga
+    void reload(Integer customerId) {
+        Integer seen = pending.get(customerId);
+        if (seen == null) return;
+        try {
+            put(customerId, repository.loadCustomer(customerId).orElse(null));
+        } catch (RuntimeException e) {
+            put(customerId, null);
+            throw e;
+        } finally {
+            pending.computeIfPresent(customerId, (k, v) -> v <= seen ? null : v - seen);
+        }
+    }
+
+    void rebuild() {
+        rebuildQueued.set(false);
+        rebuildFailed = true;
+        long start = System.nanoTime();
+
+        int maxId = repository.maxCustomerId();
+        int rangeSize = Math.max(1, properties.getRangeSize());
+        int workers = Math.max(1, properties.getLoadWorkers());
+        AtomicReferenceArray<CustomerView> next = new AtomicReferenceArray<>(capacityFor(maxId));
+
+        AtomicInteger threadNo = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                r -> new Thread(r, "read-model-load-" + threadNo.getAndIncrement()));
+        try {
+            List<Future<?>> ranges = new ArrayList<>();
+            for (int from = 0; from <= maxId; from += rangeSize) {
+                int lo = from;
+                int hi = (int) Math.min((long) from + rangeSize, (long) maxId + 1);
+                ranges.add(pool.submit(() -> repository.loadRange(lo, hi)
+                        .forEach(v -> next.set(v.customerId(), v))));
+            }
+            for (Future<?> f : ranges) {
+                await(f);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        views = next;
+        highestId = maxId;
+        rebuildFailed = false;
+        markReady();
+        rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    //Otra reconstrucción pedida durante esta, o la escucha caída, dejan el modelo sin servir
+    private synchronized void markReady() {
+        ready = listening && !rebuildQueued.get();
+    }
+
+    //Compara una muestra de clientes con la base; una diferencia se corrige y se cuenta
+    void checkSample() {
+        AtomicReferenceArray<CustomerView> current = views;
+        int bound = Math.min(highestId + 1, current.length());
+        if (bound <= 0) return;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < properties.getCheckSampleSize(); i++) {
+            int customerId = random.nextInt(bound);
+            if (pending.containsKey(customerId)) continue;
+
+            CustomerView cached = current.get(customerId);
+            CustomerView actual = repository.loadCustomer(customerId).orElse(null);
+            if (cached == null ? actual != null : !cached.equals(actual)) {
+                mismatches.increment();
+                put(customerId, actual);
+            }
+        }
+    }
+
+    //Solo desde el hilo updater
+    private void put(int customerId, CustomerView view) {
+        if (view != null && customerId > highestId) {
+            highestId = customerId;
+        }
+        AtomicReferenceArray<CustomerView> current = views;
+        if (customerId >= current.length()) {
+            if (view == null) return;
+            AtomicReferenceArray<CustomerView> grown = new AtomicReferenceArray<>(capacityFor(customerId));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            grown.set(customerId, view);
+            views = grown;
+            return;
+        }
+        current.set(customerId, view);
+    }
+
+    //Holgura para clientes nuevos sin copiar el arreglo en cada alta
+    private static int capacityFor(int maxId) {
+        return (int) Math.min(Integer.MAX_VALUE - 8L, maxId + 1L + Math.max(1024, maxId / 8));
+    }
+
+    private static void await(Future<?> f) {
+        try {
+            f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Read model load interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread t = listener;
+        if (t != null) {
+            t.interrupt();
+        }
+        updater.shutdownNow();
+    }
+}
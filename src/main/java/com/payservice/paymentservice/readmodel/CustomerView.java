@@ -0,0 +1,54 @@
+package com.payservice.paymentservice.readmodel;
+
+import com.payservice.paymentservice.dto.ListingVersionDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+//Proyección inmutable de un cliente: se reemplaza completa, nunca se modifica
+//receipts: ordenados por (serviceId, dueDate desc), como findInfoByServiceIdAndCustomerId
+//lastPayments: los más recientes primero
+public record CustomerView(int customerId, String names, String lastname, String email, LocalDateTime dateModifi,
+                           List<ServiceView> services, List<ReceiptView> receipts, List<PaymentView> lastPayments) {
+
+    public CustomerView {
+        services = List.copyOf(services);
+        receipts = List.copyOf(receipts);
+        lastPayments = List.copyOf(lastPayments);
+    }
+
+    public Optional<ServiceView> service(int serviceId) {
+        return services.stream().filter(s -> s.serviceId() == serviceId).findFirst();
+    }
+
+    public List<ReceiptView> receipts(int serviceId) {
+        return receipts.stream().filter(r -> r.serviceId() == serviceId).toList();
+    }
+
+    //Mismos valores que los ETags de la base (recibos + filas embebidas): no cambia según de dónde se lea
+    //Listado de servicios: recibos del cliente y date_modifi de sus servicios
+    public ListingVersionDTO version() {
+        return version(r -> true).including(services.stream().map(ServiceView::dateModifi).toArray(LocalDateTime[]::new));
+    }
+
+    //Listado de recibos de un servicio: además el cliente y ese servicio
+    public ListingVersionDTO version(int serviceId) {
+        return version(r -> r.serviceId() == serviceId)
+                .including(dateModifi, service(serviceId).map(ServiceView::dateModifi).orElse(null));
+    }
+
+    private ListingVersionDTO version(Predicate<ReceiptView> filter) {
+        LocalDateTime max = null;
+        long count = 0;
+        for (ReceiptView r : receipts) {
+            if (!filter.test(r)) continue;
+            count++;
+            if (r.dateModifi() != null && (max == null || r.dateModifi().isAfter(max))) {
+                max = r.dateModifi();
+            }
+        }
+        return new ListingVersionDTO(max, count);
+    }
+}
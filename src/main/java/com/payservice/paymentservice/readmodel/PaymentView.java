@@ -0,0 +1,8 @@
+package com.payservice.paymentservice.readmodel;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record PaymentView(int paymentId, int receiptId, LocalDateTime paymentDate, BigDecimal amount,
+                          String paymentCurrency, String paymentStatus) {
+}
@@ -0,0 +1,11 @@
+package com.payservice.paymentservice.readmodel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//dateModifi se guarda para calcular el mismo ETag que la base (max(date_modifi), count)
+public record ReceiptView(int receiptId, int serviceId, String receiptNumber, String periodLabel, LocalDate dueDate,
+                          BigDecimal receiptAmount, BigDecimal pendingAmount, String currency,
+                          String receiptStatus, LocalDateTime dateModifi) {
+}
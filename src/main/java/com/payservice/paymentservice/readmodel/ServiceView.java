@@ -0,0 +1,7 @@
+package com.payservice.paymentservice.readmodel;
+
+import java.time.LocalDateTime;
+
+//dateModifi: entra en el ETag de los listados que muestran el nombre del servicio
+public record ServiceView(int serviceId, String serviceName, String description, LocalDateTime dateModifi) {
+}
@@ -0,0 +1,165 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.dto.AgingRowDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+//Rollup de antigüedad de saldos (tablas de db/006); los refrescos corren dentro de una transacción
+@Repository
+@RequiredArgsConstructor
+public class AgingRepository {
+
+    //Bucket de un recibo a la fecha de corte (?); NULL = no suma (pagado o sin saldo)
+    private static final String BUCKET_SQL = """
+            CASE WHEN r.receipt_status = 'PAID' OR r.pending_amount IS NULL OR r.pending_amount <= 0 THEN NULL
+                 WHEN r.due_date >= ?::date THEN 'CURRENT'
+                 WHEN ?::date - r.due_date <= 30 THEN '1_30'
+                 WHEN ?::date - r.due_date <= 60 THEN '31_60'
+                 WHEN ?::date - r.due_date <= 90 THEN '61_90'
+                 ELSE '90_PLUS' END
+            """;
+
+    //receipt_status NULL es un recibo impago (mismo criterio que ReceiptRepository)
+    private static final String UNPAID = "(r.receipt_status IS NULL OR r.receipt_status <> 'PAID')";
+
+    private static final String STAGE_SQL = """
+            CREATE TEMP TABLE aging_changed ON COMMIT DROP AS
+            SELECT r.receipt_id, r.service_id, r.currency, r.pending_amount, %s AS bucket
+            FROM operation.receipts r
+            WHERE %s
+            """;
+
+    //Modificados/creados desde "since" o que cruzaron un límite (1, 31, 61, 91 días) entre lastAsOf y today
+    private static final String CHANGED_WHERE = """
+            r.date_modifi > ? OR r.date_regist > ?
+               OR ((r.receipt_status IS NULL OR r.receipt_status <> 'PAID') AND (
+                      (r.due_date > ?::date - 1  AND r.due_date <= ?::date - 1)
+                   OR (r.due_date > ?::date - 31 AND r.due_date <= ?::date - 31)
+                   OR (r.due_date > ?::date - 61 AND r.due_date <= ?::date - 61)
+                   OR (r.due_date > ?::date - 91 AND r.due_date <= ?::date - 91)))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LocalDateTime dbNow() {
+        return jdbcTemplate.queryForObject("SELECT localtimestamp", LocalDateTime.class);
+    }
+
+    public Optional<Watermark> findWatermark() {
+        return jdbcTemplate.query(
+                "SELECT refreshed_at, as_of FROM operation.receipt_aging_refresh WHERE id = 1",
+                (rs, i) -> new Watermark(rs.getTimestamp(1).toLocalDateTime(), rs.getDate(2).toLocalDate())
+        ).stream().findFirst();
+    }
+
+    public void saveWatermark(LocalDateTime refreshedAt, LocalDate asOf) {
+        jdbcTemplate.update("""
+                INSERT INTO operation.receipt_aging_refresh (id, refreshed_at, as_of) VALUES (1, ?, ?)
+                ON CONFLICT (id) DO UPDATE SET refreshed_at = EXCLUDED.refreshed_at, as_of = EXCLUDED.as_of
+                """, Timestamp.valueOf(refreshedAt), Date.valueOf(asOf));
+    }
+
+    //Reconstrucción completa (primera corrida): devuelve los recibos con saldo
+    public int rebuild(LocalDate today) {
+        jdbcTemplate.execute("TRUNCATE operation.receipt_aging_state, operation.receipt_aging_rollup");
+        Date d = Date.valueOf(today);
+        jdbcTemplate.update(STAGE_SQL.formatted(BUCKET_SQL, UNPAID), d, d, d, d);
+        return applyChanged();
+    }
+
+    //Refresco incremental: solo los recibos que cambiaron o cruzaron un límite de bucket
+    public int refresh(LocalDateTime since, LocalDate lastAsOf, LocalDate today) {
+        Timestamp ts = Timestamp.valueOf(since);
+        Date last = Date.valueOf(lastAsOf);
+        Date d = Date.valueOf(today);
+        jdbcTemplate.update(STAGE_SQL.formatted(BUCKET_SQL, CHANGED_WHERE),
+                d, d, d, d,
+                ts, ts, last, d, last, d, last, d, last, d);
+        return applyChanged();
+    }
+
+    //Resta el aporte anterior de los recibos cambiados, guarda el nuevo estado y suma el nuevo aporte
+    private int applyChanged() {
+        jdbcTemplate.update("""
+                UPDATE operation.receipt_aging_rollup g
+                SET receipt_count = g.receipt_count - o.cnt, pending_total = g.pending_total - o.total
+                FROM (SELECT s.currency, s.service_id, s.bucket, count(*) AS cnt, sum(s.pending_amount) AS total
+                      FROM operation.receipt_aging_state s JOIN aging_changed c ON c.receipt_id = s.receipt_id
+                      GROUP BY s.currency, s.service_id, s.bucket) o
+                WHERE g.currency = o.currency AND g.service_id = o.service_id AND g.bucket = o.bucket
+                """);
+
+        jdbcTemplate.update("""
+                DELETE FROM operation.receipt_aging_state s USING aging_changed c WHERE s.receipt_id = c.receipt_id
+                """);
+
+        jdbcTemplate.update("""
+                INSERT INTO operation.receipt_aging_state (receipt_id, service_id, currency, bucket, pending_amount)
+                SELECT receipt_id, service_id, currency, bucket, pending_amount FROM aging_changed WHERE bucket IS NOT NULL
+                """);
+
+        jdbcTemplate.update("""
+                INSERT INTO operation.receipt_aging_rollup AS g (currency, service_id, bucket, receipt_count, pending_total)
+                SELECT currency, service_id, bucket, count(*), sum(pending_amount)
+                FROM aging_changed WHERE bucket IS NOT NULL
+                GROUP BY currency, service_id, bucket
+                ON CONFLICT (currency, service_id, bucket) DO UPDATE
+                    SET receipt_count = g.receipt_count + EXCLUDED.receipt_count,
+                        pending_total = g.pending_total + EXCLUDED.pending_total
+                """);
+
+        jdbcTemplate.update("DELETE FROM operation.receipt_aging_rollup WHERE receipt_count <= 0");
+
+        Integer changed = jdbcTemplate.queryForObject("SELECT count(*) FROM aging_changed", Integer.class);
+        jdbcTemplate.execute("DROP TABLE aging_changed");
+        return changed == null ? 0 : changed;
+    }
+
+    //Lectura del reporte: pivot de buckets sobre el rollup (filtros opcionales)
+    public List<AgingRowDTO> findReport(String currency, Integer serviceId) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT currency, service_id,
+                       coalesce(sum(pending_total) FILTER (WHERE bucket = 'CURRENT'), 0),
+                       coalesce(sum(pending_total) FILTER (WHERE bucket = '1_30'), 0),
+                       coalesce(sum(pending_total) FILTER (WHERE bucket = '31_60'), 0),
+                       coalesce(sum(pending_total) FILTER (WHERE bucket = '61_90'), 0),
+                       coalesce(sum(pending_total) FILTER (WHERE bucket = '90_PLUS'), 0),
+                       sum(pending_total), sum(receipt_count)
+                FROM operation.receipt_aging_rollup WHERE true
+                """);
+        List<Object> args = new ArrayList<>();
+        if (currency != null) {
+            sql.append(" AND currency = ?");
+            args.add(currency.toUpperCase());
+        }
+        if (serviceId != null) {
+            sql.append(" AND service_id = ?");
+            args.add(serviceId);
+        }
+        sql.append(" GROUP BY currency, service_id ORDER BY currency, service_id");
+
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> AgingRowDTO.builder()
+                .currency(rs.getString(1))
+                .serviceId(rs.getInt(2))
+                .current(rs.getBigDecimal(3))
+                .days1To30(rs.getBigDecimal(4))
+                .days31To60(rs.getBigDecimal(5))
+                .days61To90(rs.getBigDecimal(6))
+                .days90Plus(rs.getBigDecimal(7))
+                .total(rs.getBigDecimal(8))
+                .receiptCount(rs.getLong(9))
+                .build(), args.toArray());
+    }
+
+    public record Watermark(LocalDateTime refreshedAt, LocalDate asOf) {
+    }
+}
@@ -1,6 +1,22 @@
 package com.payservice.paymentservice.repository;
 
+import com.payservice.paymentservice.dto.CustomerSummaryDTO;
 import com.payservice.paymentservice.entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface CustomerRepository extends JpaRepository<Customer, Integer> {}
\ No newline at end of file
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface CustomerRepository extends JpaRepository<Customer, Integer> {
+
+    //Proyección para lecturas: solo las columnas del DTO, sin entidad administrada
+    @Query("select new com.payservice.paymentservice.dto.CustomerSummaryDTO(c.names, c.lastname, c.email) " +
+            "from Customer c where c.customerId = :customerId")
+    Optional<CustomerSummaryDTO> findSummaryById(@Param("customerId") Integer customerId);
+
+    //Parte de la versión del ETag de recibos: un cambio de nombre o email invalida el listado
+    @Query("select c.dateModifi from Customer c where c.customerId = :customerId")
+    LocalDateTime findDateModifiById(@Param("customerId") Integer customerId);
+}
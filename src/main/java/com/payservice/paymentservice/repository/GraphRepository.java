@@ -0,0 +1,163 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.graphql.CustomerNode;
+import com.payservice.paymentservice.graphql.PaymentNode;
+import com.payservice.paymentservice.graphql.ReceiptNode;
+import com.payservice.paymentservice.graphql.ServiceNode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+//Lecturas del API GraphQL: una consulta por tipo y nivel con todas las claves del lote (= ANY(?))
+//Sin entidades: los DataLoaders reparten las filas entre los padres
+//Cada consulta en una transacción REPEATABLE READ de solo lectura (pool de lecturas / réplica)
+//GraphQlSnapshotFilter abre esa transacción por request: todos los niveles leen el mismo snapshot
+@Repository
+public class GraphRepository {
+
+    private static final String CUSTOMERS_SQL = """
+            SELECT customer_id, names, lastname, email FROM operation.customers
+            WHERE customer_id = ANY(?)
+            """;
+
+    private static final String SERVICE_SELECT = """
+            SELECT service_id, customer_id, service_name, description, is_active FROM operation.services
+            WHERE %s = ANY(?)
+            ORDER BY service_id
+            """;
+
+    private static final String RECEIPT_SELECT = """
+            SELECT receipt_id, service_id, customer_id, receipt_number, period_label, due_date,
+                   receipt_amount, pending_amount, currency, receipt_status
+            FROM operation.receipts
+            WHERE %s = ANY(?)
+            ORDER BY due_date DESC, receipt_id DESC
+            """;
+
+    private static final String RECEIPT_COLUMNS = """
+            receipt_id, service_id, customer_id, receipt_number, period_label, due_date,
+            receipt_amount, pending_amount, currency, receipt_status
+            """;
+
+    //Por id (recibo de un pago) también el archivo: un pago archivado apunta a un recibo archivado
+    //El movimiento es atómico (ReceiptArchiveRepository): un id nunca está en las dos tablas
+    private static final String RECEIPTS_BY_ID_SQL = "SELECT " + RECEIPT_COLUMNS + """
+            FROM operation.receipts WHERE receipt_id = ANY(?)
+            UNION ALL
+            SELECT """ + RECEIPT_COLUMNS + """
+            FROM operation.receipts_archive WHERE receipt_id = ANY(?)
+            """;
+
+    private static final String PAYMENT_COLUMNS = """
+            payment_id, receipt_id, customer_id, payment_date, amount, payment_currency, exchange_rate,
+            previous_pending_amount, new_pending_amount, payment_status
+            """;
+
+    //payment_date acota las particiones leídas a la ventana caliente
+    private static final String PAYMENTS_BY_RECEIPTS_SQL = "SELECT " + PAYMENT_COLUMNS + """
+            FROM operation.payments
+            WHERE receipt_id = ANY(?) AND payment_date >= ?
+            ORDER BY payment_date DESC, payment_id DESC
+            """;
+
+    private static final String LATEST_PAYMENTS_SQL = "SELECT " + PAYMENT_COLUMNS + """
+            FROM (SELECT p.*, row_number() OVER (PARTITION BY customer_id
+                                                 ORDER BY payment_date DESC, payment_id DESC) AS rn
+                  FROM operation.payments p
+                  WHERE customer_id = ANY(?) AND payment_date >= ?) last
+            WHERE rn <= ?
+            ORDER BY customer_id, payment_date DESC, payment_id DESC
+            """;
+
+    private static final RowMapper<CustomerNode> CUSTOMER = (rs, i) -> new CustomerNode(
+            rs.getInt("customer_id"), rs.getString("names"), rs.getString("lastname"), rs.getString("email"));
+
+    private static final RowMapper<ServiceNode> SERVICE = (rs, i) -> new ServiceNode(
+            rs.getInt("service_id"), (Integer) rs.getObject("customer_id"), rs.getString("service_name"),
+            rs.getString("description"), (Boolean) rs.getObject("is_active"));
+
+    private static final RowMapper<ReceiptNode> RECEIPT = (rs, i) -> new ReceiptNode(
+            rs.getInt("receipt_id"), (Integer) rs.getObject("service_id"), (Integer) rs.getObject("customer_id"),
+            rs.getString("receipt_number"), rs.getString("period_label"),
+            rs.getDate("due_date") == null ? null : rs.getDate("due_date").toLocalDate(),
+            rs.getBigDecimal("receipt_amount"), rs.getBigDecimal("pending_amount"), rs.getString("currency"),
+            rs.getString("receipt_status"));
+
+    private static final RowMapper<PaymentNode> PAYMENT = (rs, i) -> new PaymentNode(
+            rs.getInt("payment_id"), (Integer) rs.getObject("receipt_id"), (Integer) rs.getObject("customer_id"),
+            toLocalDateTime(rs.getTimestamp("payment_date")), rs.getBigDecimal("amount"),
+            rs.getString("payment_currency"), rs.getBigDecimal("exchange_rate"),
+            rs.getBigDecimal("previous_pending_amount"), rs.getBigDecimal("new_pending_amount"),
+            rs.getString("payment_status"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTx;
+
+    public GraphRepository(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTx.setReadOnly(true);
+    }
+
+    //Definición de la transacción del request (GraphQlSnapshotFilter); las consultas se unen a ella
+    public TransactionDefinition snapshotDefinition() {
+        return snapshotTx;
+    }
+
+    public List<CustomerNode> findCustomers(Collection<Integer> customerIds) {
+        return query(CUSTOMERS_SQL, CUSTOMER, customerIds);
+    }
+
+    public List<ServiceNode> findServices(Collection<Integer> serviceIds) {
+        return query(SERVICE_SELECT.formatted("service_id"), SERVICE, serviceIds);
+    }
+
+    public List<ServiceNode> findServicesByCustomers(Collection<Integer> customerIds) {
+        return query(SERVICE_SELECT.formatted("customer_id"), SERVICE, customerIds);
+    }
+
+    public List<ReceiptNode> findReceipts(Collection<Integer> receiptIds) {
+        return query(RECEIPTS_BY_ID_SQL, RECEIPT, receiptIds, (Object) receiptIds.toArray(new Integer[0]));
+    }
+
+    public List<ReceiptNode> findReceiptsByCustomers(Collection<Integer> customerIds) {
+        return query(RECEIPT_SELECT.formatted("customer_id"), RECEIPT, customerIds);
+    }
+
+    public List<ReceiptNode> findReceiptsByServices(Collection<Integer> serviceIds) {
+        return query(RECEIPT_SELECT.formatted("service_id"), RECEIPT, serviceIds);
+    }
+
+    public List<PaymentNode> findPaymentsByReceipts(Collection<Integer> receiptIds, LocalDateTime from) {
+        return query(PAYMENTS_BY_RECEIPTS_SQL, PAYMENT, receiptIds, Timestamp.valueOf(from));
+    }
+
+    //Últimos limit pagos de cada cliente del lote
+    public List<PaymentNode> findLatestPayments(Collection<Integer> customerIds, LocalDateTime from, int limit) {
+        return query(LATEST_PAYMENTS_SQL, PAYMENT, customerIds, Timestamp.valueOf(from), limit);
+    }
+
+    private <T> List<T> query(String sql, RowMapper<T> mapper, Collection<Integer> ids, Object... args) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Object[] params = new Object[args.length + 1];
+        params[0] = ids.toArray(new Integer[0]);
+        System.arraycopy(args, 0, params, 1, args.length);
+        return snapshotTx.execute(status -> jdbcTemplate.query(sql, mapper, params));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+}
@@ -0,0 +1,56 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.job.JobCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+//Checkpoints de jobs batch; save() se llama dentro de la transacción del chunk que confirma
+@Repository
+@RequiredArgsConstructor
+public class JobCheckpointRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO operation.job_checkpoints
+                (job_name, run_key, partition_no, last_id, processed_count, skipped_count, completed, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (job_name, run_key, partition_no) DO UPDATE
+                SET last_id = EXCLUDED.last_id,
+                    processed_count = EXCLUDED.processed_count,
+                    skipped_count = EXCLUDED.skipped_count,
+                    completed = EXCLUDED.completed,
+                    updated_at = now()
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobCheckpoint find(String jobName, String runKey, int partition) {
+        List<JobCheckpoint> rows = jdbcTemplate.query(
+                "SELECT last_id, processed_count, skipped_count, completed FROM operation.job_checkpoints " +
+                        "WHERE job_name = ? AND run_key = ? AND partition_no = ?",
+                (rs, i) -> new JobCheckpoint(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getBoolean(4)),
+                jobName, runKey, partition);
+        return rows.isEmpty() ? JobCheckpoint.START : rows.get(0);
+    }
+
+    public void save(String jobName, String runKey, int partition, JobCheckpoint checkpoint) {
+        jdbcTemplate.update(UPSERT_SQL, jobName, runKey, partition, checkpoint.lastId(),
+                checkpoint.processed(), checkpoint.skipped(), checkpoint.completed());
+    }
+
+    //Estado serializado del job (ej. acumuladores del cierre diario) junto al checkpoint
+    public String findState(String jobName, String runKey, int partition) {
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT state FROM operation.job_checkpoints WHERE job_name = ? AND run_key = ? AND partition_no = ?",
+                String.class, jobName, runKey, partition);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public void save(String jobName, String runKey, int partition, JobCheckpoint checkpoint, String state) {
+        save(jobName, runKey, partition, checkpoint);
+        jdbcTemplate.update("UPDATE operation.job_checkpoints SET state = ? " +
+                "WHERE job_name = ? AND run_key = ? AND partition_no = ?", state, jobName, runKey, partition);
+    }
+}
@@ -0,0 +1,121 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.entity.Payment;
+import com.payservice.paymentservice.util.PaymentPartitions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+//Particiones mensuales de payments y archivo frío operation.payments_archive (db/008)
+@Repository
+@RequiredArgsConstructor
+public class PaymentArchiveRepository {
+
+    private static final String COLUMNS = "payment_id, receipt_id, customer_id, payment_date, amount, payment_currency, " +
+            "exchange_rate, previous_pending_amount, new_pending_amount, payment_status, " +
+            "date_regist, user_regist, date_modifi, user_modifi";
+
+    //to null = sin cota superior
+    private static final String FIND_BY_CUSTOMER_SQL = "SELECT " + COLUMNS + " FROM operation.payments_archive " +
+            "WHERE customer_id = ? AND payment_date >= ? AND payment_date < coalesce(?::timestamp, 'infinity') " +
+            "ORDER BY payment_date DESC";
+
+    private static final RowMapper<Payment> PAYMENT_ROW = (rs, i) -> {
+        Payment p = new Payment();
+        p.setPaymentId(rs.getInt("payment_id"));
+        p.setReceiptId(rs.getInt("receipt_id"));
+        p.setCustomerId(rs.getInt("customer_id"));
+        p.setPaymentDate(toLocalDateTime(rs.getTimestamp("payment_date")));
+        p.setAmount(rs.getBigDecimal("amount"));
+        p.setPaymentCurrency(rs.getString("payment_currency"));
+        p.setExchangeRate(rs.getBigDecimal("exchange_rate"));
+        p.setPreviousPendingAmount(rs.getBigDecimal("previous_pending_amount"));
+        p.setNewPendingAmount(rs.getBigDecimal("new_pending_amount"));
+        p.setPaymentStatus(rs.getString("payment_status"));
+        p.setDateRegist(toLocalDateTime(rs.getTimestamp("date_regist")));
+        p.setUserRegist(rs.getObject("user_regist", Integer.class));
+        p.setDateModifi(toLocalDateTime(rs.getTimestamp("date_modifi")));
+        p.setUserModifi(rs.getObject("user_modifi", Integer.class));
+        return p;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //Idempotente: devuelve el nombre de la partición del mes
+    public String ensurePartition(YearMonth month) {
+        return jdbcTemplate.queryForObject("SELECT operation.ensure_payments_partition(?)",
+                String.class, Date.valueOf(month.atDay(1)));
+    }
+
+    //Particiones mensuales anteriores a horizon, de la más antigua a la más nueva
+    //Por nombre y no por pg_inherits: incluye las que quedaron separadas sin borrar por una corrida interrumpida
+    public List<YearMonth> findPartitionsBefore(YearMonth horizon) {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname FROM pg_class c
+                        JOIN pg_namespace n ON n.oid = c.relnamespace
+                        WHERE n.nspname = 'operation' AND c.relkind = 'r' AND c.relname LIKE 'payments\\_p%'
+                        """, String.class).stream()
+                .map(PaymentPartitions::month)
+                .flatMap(Optional::stream)
+                .filter(m -> m.isBefore(horizon))
+                .sorted(Comparator.naturalOrder())
+                .toList();
+    }
+
+    //Paso 1, en la transacción del llamador: copia ordenada al archivo con la partición todavía adjunta
+    //Solo toma ACCESS SHARE sobre la partición; borra antes lo que una corrida interrumpida haya copiado del mes
+    //El nombre sale de PaymentPartitions.name (no de entrada externa): DDL no admite parámetros
+    public int copyToArchive(YearMonth month) {
+        String partition = "operation." + PaymentPartitions.name(month);
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        jdbcTemplate.update("DELETE FROM operation.payments_archive WHERE payment_date >= ? AND payment_date < ?",
+                from, to);
+        return jdbcTemplate.update("INSERT INTO operation.payments_archive (" + COLUMNS + ") " +
+                "SELECT " + COLUMNS + " FROM " + partition + " ORDER BY customer_id, payment_date");
+    }
+
+    //Paso 2, fuera de toda transacción (CONCURRENTLY no se admite dentro de una): SHARE UPDATE EXCLUSIVE
+    //sobre payments, que no bloquea lecturas ni pagos. Un detach concurrente interrumpido se completa con FINALIZE
+    public void detachPartition(YearMonth month) {
+        String partition = "operation." + PaymentPartitions.name(month);
+        List<Boolean> pending = jdbcTemplate.queryForList(
+                "SELECT inhdetachpending FROM pg_inherits WHERE inhrelid = ?::regclass", Boolean.class, partition);
+        if (pending.isEmpty()) return; // ya separada
+
+        jdbcTemplate.execute("ALTER TABLE operation.payments DETACH PARTITION " + partition
+                + (pending.get(0) ? " FINALIZE" : " CONCURRENTLY"));
+    }
+
+    //Paso 3, en la transacción del llamador: copia lo que llegó entre el paso 1 y el detach y borra la tabla
+    //La tabla ya no es partición: el lock exclusivo del DROP no toca payments
+    public int dropArchived(YearMonth month) {
+        String partition = "operation." + PaymentPartitions.name(month);
+        int late = jdbcTemplate.update("INSERT INTO operation.payments_archive (" + COLUMNS + ") " +
+                "SELECT " + COLUMNS + " FROM " + partition + " p WHERE NOT EXISTS (" +
+                "SELECT 1 FROM operation.payments_archive a " +
+                "WHERE a.receipt_id = p.receipt_id AND a.payment_id = p.payment_id) " +
+                "ORDER BY customer_id, payment_date");
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        return late;
+    }
+
+    public List<Payment> findByCustomer(Integer customerId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(FIND_BY_CUSTOMER_SQL, PAYMENT_ROW,
+                customerId, Timestamp.valueOf(from), to == null ? null : Timestamp.valueOf(to));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+}
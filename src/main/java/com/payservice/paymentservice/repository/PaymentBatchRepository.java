@@ -0,0 +1,65 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.entity.Payment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+//Inserciones en lote de pagos: con ids IDENTITY Hibernate no agrupa los INSERT, JDBC batch sí
+@Repository
+@RequiredArgsConstructor
+public class PaymentBatchRepository {
+
+    private static final String INSERT_SQL =
+            "insert into operation.payments (receipt_id, customer_id, payment_date, amount, payment_currency, " +
+            "exchange_rate, previous_pending_amount, new_pending_amount, payment_status, date_regist, user_regist) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //Devuelve los payment_id generados, en el orden de payments (el ledger los referencia)
+    public List<Integer> insertAll(List<Payment> payments) {
+        if (payments.isEmpty()) return List.of();
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"payment_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bind(ps, payments.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return payments.size();
+                    }
+                }, keys);
+
+        return keys.getKeyList().stream()
+                .map((Map<String, Object> row) -> ((Number) row.get("payment_id")).intValue())
+                .toList();
+    }
+
+    private static void bind(PreparedStatement ps, Payment p) throws SQLException {
+        ps.setObject(1, p.getReceiptId());
+        ps.setObject(2, p.getCustomerId());
+        ps.setTimestamp(3, p.getPaymentDate() == null ? null : Timestamp.valueOf(p.getPaymentDate()));
+        ps.setBigDecimal(4, p.getAmount());
+        ps.setString(5, p.getPaymentCurrency());
+        ps.setBigDecimal(6, p.getExchangeRate());
+        ps.setBigDecimal(7, p.getPreviousPendingAmount());
+        ps.setBigDecimal(8, p.getNewPendingAmount());
+        ps.setString(9, p.getPaymentStatus());
+        ps.setTimestamp(10, p.getDateRegist() == null ? null : Timestamp.valueOf(p.getDateRegist()));
+        ps.setObject(11, p.getUserRegist());
+    }
+}
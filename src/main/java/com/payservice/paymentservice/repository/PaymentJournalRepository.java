@@ -0,0 +1,41 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.journal.JournalEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+//Registro de entradas del journal ya reaplicadas (db/012); se llama dentro de la transacción del pago
+@Repository
+@RequiredArgsConstructor
+public class PaymentJournalRepository {
+
+    private static final String CLAIM_SQL = """
+            INSERT INTO operation.payment_journal_entries
+                (journal_id, receipt_id, customer_id, amount, payment_currency, accepted_at, outcome)
+            VALUES (?, ?, ?, ?, ?, ?, 'APPLYING')
+            ON CONFLICT (journal_id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //false = la entrada ya se reaplicó antes (replay repetido tras una caída)
+    public boolean claim(JournalEntry entry) {
+        return jdbcTemplate.update(CLAIM_SQL, entry.journalId(), entry.receiptId(), entry.customerId(),
+                entry.amount(), entry.paymentCurrency(), Timestamp.valueOf(entry.acceptedAt())) == 1;
+    }
+
+    public void markApplied(UUID journalId) {
+        jdbcTemplate.update("UPDATE operation.payment_journal_entries SET outcome = 'APPLIED' WHERE journal_id = ?",
+                journalId);
+    }
+
+    public void markRejected(UUID journalId, String message) {
+        jdbcTemplate.update("UPDATE operation.payment_journal_entries SET outcome = 'REJECTED', message = ? " +
+                        "WHERE journal_id = ?",
+                message == null ? null : message.substring(0, Math.min(500, message.length())), journalId);
+    }
+}
@@ -1,11 +1,32 @@
 package com.payservice.paymentservice.repository;
 
 import com.payservice.paymentservice.entity.Payment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PaymentRepository extends JpaRepository<Payment, Integer> {
+
+    //Con cota sobre payment_date Postgres descarta las particiones fuera del rango (db/008)
+    //Sin from se leen todas las particiones: los meses viejos siguen en payments hasta que se archivan
     List<Payment> findByCustomerIdOrderByPaymentDateDesc(Integer customerId);
 
-}
\ No newline at end of file
+    List<Payment> findByCustomerIdAndPaymentDateLessThanOrderByPaymentDateDesc(Integer customerId, LocalDateTime to);
+
+    List<Payment> findByCustomerIdAndPaymentDateGreaterThanEqualOrderByPaymentDateDesc(
+            Integer customerId, LocalDateTime from);
+
+    List<Payment> findByCustomerIdAndPaymentDateGreaterThanEqualAndPaymentDateLessThanOrderByPaymentDateDesc(
+            Integer customerId, LocalDateTime from, LocalDateTime to);
+
+    //Últimos pagos con recibo y servicio en la misma consulta (dashboard)
+    @Query("select p from Payment p left join fetch p.receipt r left join fetch r.service " +
+            "where p.customerId = :customerId and p.paymentDate >= :from order by p.paymentDate desc")
+    List<Payment> findLatestWithReceipt(@Param("customerId") Integer customerId,
+                                        @Param("from") LocalDateTime from, Limit limit);
+
+}
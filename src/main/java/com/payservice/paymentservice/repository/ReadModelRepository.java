@@ -0,0 +1,171 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.config.ReadModelProperties;
+import com.payservice.paymentservice.readmodel.CustomerView;
+import com.payservice.paymentservice.readmodel.PaymentView;
+import com.payservice.paymentservice.readmodel.ReceiptView;
+import com.payservice.paymentservice.readmodel.ServiceView;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+//Carga de la proyección en memoria (CustomerReadModel) por rangos de customer_id
+//Cuatro consultas por rango, sin entidades: clientes, servicios, recibos calientes y últimos pagos
+//Los cambios se avisan entre instancias con NOTIFY/LISTEN sobre el canal read_model
+@Repository
+public class ReadModelRepository {
+
+    private static final String CUSTOMERS_SQL = """
+            SELECT customer_id, names, lastname, email, date_modifi FROM operation.customers
+            WHERE customer_id >= ? AND customer_id < ?
+            ORDER BY customer_id
+            """;
+
+    private static final String SERVICES_SQL = """
+            SELECT customer_id, service_id, service_name, description, date_modifi FROM operation.services
+            WHERE customer_id >= ? AND customer_id < ?
+            ORDER BY customer_id, service_id
+            """;
+
+    private static final String RECEIPTS_SQL = """
+            SELECT customer_id, receipt_id, service_id, receipt_number, period_label, due_date,
+                   receipt_amount, pending_amount, currency, receipt_status, date_modifi
+            FROM operation.receipts
+            WHERE customer_id >= ? AND customer_id < ?
+            ORDER BY customer_id, service_id, due_date DESC, receipt_id DESC
+            """;
+
+    private static final String LAST_PAYMENTS_SQL = """
+            SELECT customer_id, payment_id, receipt_id, payment_date, amount, payment_currency, payment_status
+            FROM (SELECT p.*, row_number() OVER (PARTITION BY customer_id
+                                                 ORDER BY payment_date DESC, payment_id DESC) AS rn
+                  FROM operation.payments p
+                  WHERE customer_id >= ? AND customer_id < ?) last
+            WHERE rn <= ?
+            ORDER BY customer_id, payment_date DESC, payment_id DESC
+            """;
+
+    private static final String CHANNEL = "read_model";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadModelProperties properties;
+
+    public ReadModelRepository(DataSource dataSource, ReadModelProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(5000);
+        this.properties = properties;
+    }
+
+    public int maxCustomerId() {
+        Integer max = jdbcTemplate.queryForObject("SELECT max(customer_id) FROM operation.customers", Integer.class);
+        return max == null ? 0 : max;
+    }
+
+    public Optional<CustomerView> loadCustomer(int customerId) {
+        return loadRange(customerId, customerId + 1).stream().findFirst();
+    }
+
+    //[fromId, toId)
+    public List<CustomerView> loadRange(int fromId, int toId) {
+        Map<Integer, Parts> parts = new LinkedHashMap<>();
+
+        jdbcTemplate.query(CUSTOMERS_SQL, rs -> {
+            parts.put(rs.getInt(1), new Parts(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                    toLocalDateTime(rs.getTimestamp(5))));
+        }, fromId, toId);
+        if (parts.isEmpty()) {
+            return List.of();
+        }
+
+        jdbcTemplate.query(SERVICES_SQL, rs -> {
+            Parts p = parts.get(rs.getInt(1));
+            if (p != null) p.services.add(new ServiceView(rs.getInt(2), rs.getString(3), rs.getString(4),
+                    toLocalDateTime(rs.getTimestamp(5))));
+        }, fromId, toId);
+
+        jdbcTemplate.query(RECEIPTS_SQL, rs -> {
+            Parts p = parts.get(rs.getInt(1));
+            if (p != null) p.receipts.add(new ReceiptView(rs.getInt(2), rs.getInt(3), rs.getString(4),
+                    rs.getString(5), rs.getDate(6) == null ? null : rs.getDate(6).toLocalDate(),
+                    rs.getBigDecimal(7), rs.getBigDecimal(8), rs.getString(9), rs.getString(10),
+                    toLocalDateTime(rs.getTimestamp(11))));
+        }, fromId, toId);
+
+        jdbcTemplate.query(LAST_PAYMENTS_SQL, rs -> {
+            Parts p = parts.get(rs.getInt(1));
+            if (p != null) p.payments.add(new PaymentView(rs.getInt(2), rs.getInt(3),
+                    toLocalDateTime(rs.getTimestamp(4)), rs.getBigDecimal(5), rs.getString(6), rs.getString(7)));
+        }, fromId, toId, Math.max(0, properties.getLastPayments()));
+
+        return parts.values().stream()
+                .map(p -> new CustomerView(p.customerId, p.names, p.lastname, p.email, p.dateModifi,
+                        p.services, p.receipts, p.payments))
+                .toList();
+    }
+
+    //Dentro de una transacción el aviso sale recién con el commit (y no sale si hay rollback)
+    public void publishChange(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> { }, CHANNEL, payload);
+    }
+
+    //Conexión propia en autocommit, fuera de transacción: va al primario, donde se emiten los NOTIFY
+    public Connection listen() throws SQLException {
+        Connection con = jdbcTemplate.getDataSource().getConnection();
+        try (Statement st = con.createStatement()) {
+            st.execute("LISTEN " + CHANNEL);
+            return con;
+        } catch (SQLException e) {
+            con.close();
+            throw e;
+        }
+    }
+
+    //Espera hasta timeoutMillis; una conexión caída se reporta como SQLException
+    public List<String> awaitChanges(Connection con, int timeoutMillis) throws SQLException {
+        PGNotification[] notifications = con.unwrap(PGConnection.class).getNotifications(timeoutMillis);
+        if (notifications == null) {
+            return List.of();
+        }
+        List<String> payloads = new ArrayList<>(notifications.length);
+        for (PGNotification n : notifications) {
+            payloads.add(n.getParameter());
+        }
+        return payloads;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+
+    private static final class Parts {
+        final int customerId;
+        final String names;
+        final String lastname;
+        final String email;
+        final LocalDateTime dateModifi;
+        final List<ServiceView> services = new ArrayList<>();
+        final List<ReceiptView> receipts = new ArrayList<>();
+        final List<PaymentView> payments = new ArrayList<>();
+
+        Parts(int customerId, String names, String lastname, String email, LocalDateTime dateModifi) {
+            this.customerId = customerId;
+            this.names = names;
+            this.lastname = lastname;
+            this.email = email;
+            this.dateModifi = dateModifi;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.entity.Receipt;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+//Archivo frío de recibos pagados: operation.receipts_archive (db/009)
+@Repository
+@RequiredArgsConstructor
+public class ReceiptArchiveRepository {
+
+    private static final String COLUMNS = "receipt_id, receipt_number, service_id, customer_id, period_label, due_date, " +
+            "receipt_amount, currency, pending_amount, receipt_status, date_regist, user_regist, date_modifi, user_modifi";
+
+    //Mueve un lote en una sola sentencia (DELETE ... RETURNING -> INSERT): nunca queda en las dos tablas ni en ninguna
+    //Se quedan en receipts:
+    // - los que tienen pagos en payments (la FK apunta a receipts; salen cuando sus pagos se archivan)
+    // - el último recibo de cada servicio (BillingRunJob lo usa como plantilla del período siguiente)
+    //SKIP LOCKED: lo que otro proceso tenga tomado queda para el próximo lote
+    private static final String MOVE_BATCH_SQL = """
+            WITH moved AS (
+                DELETE FROM operation.receipts r
+                WHERE r.receipt_id IN (
+                    SELECT c.receipt_id FROM operation.receipts c
+                    WHERE c.receipt_status = 'PAID' AND c.due_date < ?
+                      AND NOT EXISTS (SELECT 1 FROM operation.payments p WHERE p.receipt_id = c.receipt_id)
+                      AND EXISTS (SELECT 1 FROM operation.receipts n
+                                  WHERE n.service_id = c.service_id AND n.due_date > c.due_date)
+                    ORDER BY c.due_date, c.receipt_id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING r.*)
+            INSERT INTO operation.receipts_archive (%1$s)
+            SELECT %1$s FROM moved
+            """.formatted(COLUMNS);
+
+    private static final String FIND_SQL = "SELECT " + COLUMNS + " FROM operation.receipts_archive " +
+            "WHERE service_id = ? AND customer_id = ? ORDER BY due_date DESC";
+
+    private static final String FIND_BY_IDS_SQL = "SELECT " + COLUMNS + " FROM operation.receipts_archive " +
+            "WHERE receipt_id = ANY(?)";
+
+    private static final RowMapper<Receipt> RECEIPT_ROW = (rs, i) -> {
+        Receipt r = new Receipt();
+        r.setReceiptId(rs.getInt("receipt_id"));
+        r.setReceiptNumber(rs.getString("receipt_number"));
+        r.setServiceId(rs.getInt("service_id"));
+        r.setCustomerId(rs.getInt("customer_id"));
+        r.setPeriodLabel(rs.getString("period_label"));
+        Date dueDate = rs.getDate("due_date");
+        r.setDueDate(dueDate == null ? null : dueDate.toLocalDate());
+        r.setReceiptAmount(rs.getBigDecimal("receipt_amount"));
+        r.setCurrency(rs.getString("currency"));
+        r.setPendingAmount(rs.getBigDecimal("pending_amount"));
+        r.setReceiptStatus(rs.getString("receipt_status"));
+        r.setDateRegist(toLocalDateTime(rs.getTimestamp("date_regist")));
+        r.setUserRegist(rs.getObject("user_regist", Integer.class));
+        r.setDateModifi(toLocalDateTime(rs.getTimestamp("date_modifi")));
+        r.setUserModifi(rs.getObject("user_modifi", Integer.class));
+        return r;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //Recibos movidos en el lote; menos que limit = no quedan candidatos
+    public int moveBatch(LocalDate dueBefore, int limit) {
+        return jdbcTemplate.update(MOVE_BATCH_SQL, Date.valueOf(dueBefore), limit);
+    }
+
+    public List<Receipt> findByServiceIdAndCustomerId(Integer serviceId, Integer customerId) {
+        return jdbcTemplate.query(FIND_SQL, RECEIPT_ROW, serviceId, customerId);
+    }
+
+    //Recibos de pagos archivados: al archivarse sus pagos el recibo también sale de receipts
+    public List<Receipt> findByIds(Collection<Integer> receiptIds) {
+        if (receiptIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(FIND_BY_IDS_SQL, RECEIPT_ROW, (Object) receiptIds.toArray(new Integer[0]));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+}
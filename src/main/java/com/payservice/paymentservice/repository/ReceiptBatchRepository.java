@@ -0,0 +1,107 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.entity.Receipt;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+//Generación masiva de recibos (BillingRunJob): lectura por páginas keyset e INSERT en lote
+@Repository
+@RequiredArgsConstructor
+public class ReceiptBatchRepository {
+
+    //Servicios activos después de afterServiceId con su último recibo (monto, moneda y vencimiento a repetir)
+    //Los que ya tienen recibo del período (vigente o archivado, db/009) no se devuelven
+    //Un servicio sin recibos viene con last.* NULL
+    private static final String BILLING_PAGE_SQL = """
+            SELECT s.service_id, s.customer_id, last.due_date, last.receipt_amount, last.currency
+            FROM operation.services s
+            LEFT JOIN LATERAL (
+                SELECT r.due_date, r.receipt_amount, r.currency
+                FROM operation.receipts r
+                WHERE r.service_id = s.service_id
+                ORDER BY r.due_date DESC, r.receipt_id DESC
+                LIMIT 1) last ON true
+            WHERE s.is_active
+              AND s.service_id > ?
+              AND NOT EXISTS (SELECT 1 FROM operation.receipts x
+                              WHERE x.service_id = s.service_id AND x.period_label = ?)
+              AND NOT EXISTS (SELECT 1 FROM operation.receipts_archive a
+                              WHERE a.service_id = s.service_id AND a.period_label = ?)
+            ORDER BY s.service_id
+            LIMIT ?
+            """;
+
+    //receipt_number sale de la secuencia (8 dígitos, como los recibos existentes)
+    //Toda la página en un solo INSERT multi-fila (unnest de arreglos por columna): un viaje a la base
+    //ON CONFLICT: el índice único (service_id, period_label) hace idempotente la corrida
+    //Un período ya archivado (db/009) no está en receipts: el NOT EXISTS lo descarta como conflicto
+    //Cada recibo insertado deja su evento ISSUED en el ledger (db/011); un conflicto no genera evento
+    //El conteo sale del RETURNING: solo las filas realmente insertadas
+    private static final String INSERT_SQL = """
+            WITH issued AS (
+                INSERT INTO operation.receipts
+                    (receipt_number, service_id, customer_id, period_label, due_date, receipt_amount,
+                     currency, pending_amount, receipt_status, date_regist, user_regist)
+                SELECT lpad(nextval('operation.receipt_number_seq')::text, 8, '0'), v.*
+                FROM unnest(?::integer[], ?::integer[], ?::varchar[], ?::date[], ?::numeric[],
+                            ?::varchar[], ?::numeric[], ?::varchar[], ?::timestamp[], ?::integer[])
+                     AS v(service_id, customer_id, period_label, due_date, receipt_amount,
+                          currency, pending_amount, receipt_status, date_regist, user_regist)
+                WHERE NOT EXISTS (SELECT 1 FROM operation.receipts_archive a
+                                  WHERE a.service_id = v.service_id AND a.period_label = v.period_label)
+                ON CONFLICT (service_id, period_label) DO NOTHING
+                RETURNING receipt_id, receipt_amount, receipt_status),
+            events AS (
+                INSERT INTO operation.receipt_events (receipt_id, event_type, amount, receipt_status)
+                SELECT receipt_id, 'ISSUED', receipt_amount, receipt_status FROM issued)
+            SELECT count(*) FROM issued
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<BillingSource> findBillingPage(long afterServiceId, String periodLabel, int limit) {
+        return jdbcTemplate.query(BILLING_PAGE_SQL,
+                (rs, i) -> new BillingSource(rs.getInt(1), rs.getInt(2), rs.getObject(3, LocalDate.class),
+                        rs.getBigDecimal(4), rs.getString(5)),
+                afterServiceId, periodLabel, periodLabel, limit);
+    }
+
+    //Devuelve las filas insertadas (los conflictos cuentan 0)
+    //numeric, date y timestamp viajan como texto: el driver solo arma arreglos de tipos básicos
+    public int insertAll(List<Receipt> receipts) {
+        if (receipts.isEmpty()) return 0;
+
+        Integer count = jdbcTemplate.queryForObject(INSERT_SQL, Integer.class,
+                column(receipts, Receipt::getServiceId, Integer[]::new),
+                column(receipts, Receipt::getCustomerId, Integer[]::new),
+                column(receipts, Receipt::getPeriodLabel, String[]::new),
+                column(receipts, r -> text(r.getDueDate()), String[]::new),
+                column(receipts, r -> text(r.getReceiptAmount()), String[]::new),
+                column(receipts, Receipt::getCurrency, String[]::new),
+                column(receipts, r -> text(r.getPendingAmount()), String[]::new),
+                column(receipts, Receipt::getReceiptStatus, String[]::new),
+                column(receipts, r -> text(r.getDateRegist()), String[]::new),
+                column(receipts, Receipt::getUserRegist, Integer[]::new));
+        return count == null ? 0 : count;
+    }
+
+    private static <T> T[] column(List<Receipt> receipts, Function<Receipt, T> getter, IntFunction<T[]> array) {
+        return receipts.stream().map(getter).toArray(array);
+    }
+
+    private static String text(Object value) {
+        if (value instanceof BigDecimal amount) return amount.toPlainString();
+        return value == null ? null : value.toString();
+    }
+
+    public record BillingSource(Integer serviceId, Integer customerId, LocalDate lastDueDate,
+                                BigDecimal receiptAmount, String currency) {
+    }
+}
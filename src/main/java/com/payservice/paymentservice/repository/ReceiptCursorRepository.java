@@ -0,0 +1,74 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.config.JobProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+//Lecturas en streaming para los jobs batch: cursor con fetchSize, sin cargar entidades
+//El stream debe consumirse dentro de una transacción (PostgreSQL solo usa cursor sin autocommit) y cerrarse
+@Repository
+public class ReceiptCursorRepository {
+
+    //Recibos con autopay que vencen en la fecha, de una partición de clientes, después del checkpoint
+    private static final String AUTOPAY_SQL = """
+            SELECT r.receipt_id, r.customer_id
+            FROM operation.receipts r
+            JOIN operation.customers c ON c.customer_id = r.customer_id
+            WHERE c.autopay_enabled
+              AND r.due_date = ?
+              AND (r.receipt_status IS NULL OR r.receipt_status <> 'PAID')
+              AND mod(r.customer_id, ?) = ?
+              AND r.receipt_id > ?
+            ORDER BY r.receipt_id
+            """;
+
+    //Una sola instancia procesa cada partición de una corrida; se libera al terminar la transacción del cursor
+    private static final String PARTITION_LOCK_SQL = """
+            SELECT pg_try_advisory_xact_lock(hashtext(?), ?)
+            """;
+
+    //Saldo actual del recibo bloqueado hasta el commit del pago; otro worker/instancia que lo tenga lo salta
+    private static final String LOCK_PAYABLE_SQL = """
+            SELECT pending_amount, currency
+            FROM operation.receipts
+            WHERE receipt_id = ?
+              AND (receipt_status IS NULL OR receipt_status <> 'PAID')
+              AND pending_amount > 0
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReceiptCursorRepository(DataSource dataSource, JobProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getAutopay().getFetchSize());
+    }
+
+    public Stream<AutopayCandidate> streamAutopayCandidates(LocalDate dueDate, int partitions, int partition, long afterId) {
+        return jdbcTemplate.queryForStream(AUTOPAY_SQL,
+                (rs, i) -> new AutopayCandidate(rs.getInt(1), rs.getInt(2)),
+                dueDate, partitions, partition, afterId);
+    }
+
+    public boolean tryLockPartition(String lockName, int partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(PARTITION_LOCK_SQL, Boolean.class, lockName, partition));
+    }
+
+    //Vacío si el recibo ya está pagado o lo tiene bloqueado otra transacción
+    public Optional<Payable> lockPayable(Integer receiptId) {
+        return jdbcTemplate.query(LOCK_PAYABLE_SQL,
+                (rs, i) -> new Payable(rs.getBigDecimal(1), rs.getString(2)), receiptId).stream().findFirst();
+    }
+
+    public record AutopayCandidate(Integer receiptId, Integer customerId) {
+    }
+
+    public record Payable(BigDecimal pendingAmount, String currency) {
+    }
+}
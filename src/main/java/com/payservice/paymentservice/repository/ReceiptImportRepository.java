@@ -0,0 +1,128 @@
+package com.payservice.paymentservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//Importación masiva de recibos: por chunk, COPY a una tabla temporal y un INSERT ... SELECT
+//createStage, stage y mergeStaged de un chunk van en la misma transacción (la tabla temporal es ON COMMIT DROP)
+@Repository
+@RequiredArgsConstructor
+public class ReceiptImportRepository {
+
+    private static final String CREATE_STAGE_SQL = """
+            CREATE TEMP TABLE IF NOT EXISTS receipts_import (
+                line_no         bigint,
+                receipt_number  varchar(50),
+                service_id      integer,
+                customer_id     integer,
+                period_label    varchar(50),
+                due_date        date,
+                receipt_amount  numeric(12, 2),
+                currency        varchar(3)
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL =
+            "COPY receipts_import (line_no, receipt_number, service_id, customer_id, period_label, due_date, " +
+            "receipt_amount, currency) FROM STDIN WITH (FORMAT csv)";
+
+    //ON CONFLICT: un recibo ya existente para (service_id, period_label) no se duplica
+    //El NOT EXISTS cubre los períodos ya archivados (db/009), que el índice único de receipts no ve
+    //Cada recibo insertado deja su evento ISSUED en el ledger (db/011)
+    private static final String MERGE_SQL = """
+            WITH issued AS (
+                INSERT INTO operation.receipts
+                    (receipt_number, service_id, customer_id, period_label, due_date, receipt_amount,
+                     currency, pending_amount, receipt_status, date_regist, user_regist)
+                SELECT receipt_number, service_id, customer_id, period_label, due_date, receipt_amount,
+                       currency, receipt_amount, 'PENDING', now(), 1
+                FROM receipts_import i
+                WHERE NOT EXISTS (SELECT 1 FROM operation.receipts_archive a
+                                  WHERE a.service_id = i.service_id AND a.period_label = i.period_label)
+                ORDER BY line_no
+                ON CONFLICT (service_id, period_label) DO NOTHING
+                RETURNING receipt_id, receipt_amount, receipt_status)
+            INSERT INTO operation.receipt_events (receipt_id, event_type, amount, receipt_status)
+            SELECT receipt_id, 'ISSUED', receipt_amount, receipt_status FROM issued ORDER BY receipt_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //Solo los ids del chunk: la validación no depende del tamaño de las tablas
+    public Set<Integer> findCustomerIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) return Set.of();
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT customer_id FROM operation.customers WHERE customer_id = ANY(?)",
+                Integer.class, (Object) ids.toArray(Integer[]::new)));
+    }
+
+    //service_id -> customer_id de los servicios del chunk, para validar existencia y pertenencia
+    public Map<Integer, Integer> findServiceOwners(Collection<Integer> ids) {
+        Map<Integer, Integer> owners = new HashMap<>();
+        if (ids.isEmpty()) return owners;
+        jdbcTemplate.query("SELECT service_id, customer_id FROM operation.services WHERE service_id = ANY(?)",
+                rs -> { owners.put(rs.getInt(1), rs.getInt(2)); }, (Object) ids.toArray(Integer[]::new));
+        return owners;
+    }
+
+    public void createStage() {
+        jdbcTemplate.execute(CREATE_STAGE_SQL);
+    }
+
+    //Un COPY por chunk de filas válidas (memoria acotada al chunk)
+    public long stage(List<ImportRow> rows) {
+        if (rows.isEmpty()) return 0;
+
+        StringBuilder csv = new StringBuilder(rows.size() * 64);
+        for (ImportRow r : rows) {
+            csv.append(r.lineNo()).append(',')
+                    .append(quote(r.receiptNumber())).append(',')
+                    .append(r.serviceId()).append(',')
+                    .append(r.customerId()).append(',')
+                    .append(quote(r.periodLabel())).append(',')
+                    .append(r.dueDate()).append(',')
+                    .append(r.receiptAmount().toPlainString()).append(',')
+                    .append(r.currency()).append('\n');
+        }
+
+        Connection con = DataSourceUtils.getConnection(jdbcTemplate.getDataSource());
+        try {
+            CopyManager copy = con.unwrap(PGConnection.class).getCopyAPI();
+            return copy.copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("COPY into receipts_import failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(con, jdbcTemplate.getDataSource());
+        }
+    }
+
+    //Devuelve las filas insertadas; el resto ya existía
+    public int mergeStaged() {
+        return jdbcTemplate.update(MERGE_SQL);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public record ImportRow(long lineNo, String receiptNumber, int serviceId, int customerId,
+                            String periodLabel, LocalDate dueDate, BigDecimal receiptAmount, String currency) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.ledger.ReceiptEvent;
+import com.payservice.paymentservice.ledger.ReceiptEventType;
+import com.payservice.paymentservice.ledger.ReceiptState;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+//Ledger de recibos (db/011): alta de eventos, snapshots y lecturas para replay
+//Usa la conexión de la transacción en curso: un evento confirma junto con el cambio que describe
+@Repository
+public class ReceiptLedgerRepository {
+
+    private static final String EVENT_COLUMNS = "receipt_id, event_id, event_type, amount, receipt_status, payment_id, occurred_at";
+
+    private static final String APPEND_SQL = """
+            INSERT INTO operation.receipt_events (receipt_id, event_type, amount, receipt_status, payment_id)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    //Último snapshot que no pasa de asOf
+    private static final String SNAPSHOT_SQL = """
+            SELECT receipt_id, pending_amount, receipt_status, last_event_id, event_count, as_of
+            FROM operation.receipt_snapshots
+            WHERE receipt_id = ? AND as_of <= ?
+            ORDER BY as_of DESC, last_event_id DESC
+            LIMIT 1
+            """;
+
+    private static final String EVENTS_SQL = "SELECT " + EVENT_COLUMNS + " FROM operation.receipt_events " +
+            "WHERE receipt_id = ? AND event_id > ? AND occurred_at <= ? ORDER BY event_id";
+
+    //Eventos del rango en orden junto con la proyección actual (receipts o, si ya se archivó, receipts_archive)
+    private static final String RANGE_SQL = """
+            SELECT e.receipt_id, e.event_id, e.event_type, e.amount, e.receipt_status, e.payment_id, e.occurred_at,
+                   coalesce(r.pending_amount, a.pending_amount), coalesce(r.receipt_status, a.receipt_status),
+                   r.receipt_id IS NOT NULL
+            FROM operation.receipt_events e
+            LEFT JOIN operation.receipts r ON r.receipt_id = e.receipt_id
+            LEFT JOIN operation.receipts_archive a ON a.receipt_id = e.receipt_id
+            WHERE e.receipt_id >= ? AND e.receipt_id < ?
+            ORDER BY e.receipt_id, e.event_id
+            """;
+
+    //Mayor event_id que ya no puede tener uno menor sin confirmar: ocurrido antes del inicio de toda
+    //transacción abierta (pg_stat_activity) y con margen, por la distancia entre nextval y clock_timestamp
+    private static final String HORIZON_SQL = """
+            SELECT coalesce(max(event_id), 0) FROM operation.receipt_events
+            WHERE occurred_at < least(
+                    clock_timestamp() - make_interval(secs => ?),
+                    coalesce((SELECT min(xact_start) FROM pg_stat_activity
+                              WHERE xact_start IS NOT NULL AND pid <> pg_backend_pid()), 'infinity')
+                        - make_interval(secs => ?))
+            """;
+
+    //PK (receipt_id, last_event_id): un recibo sin eventos nuevos no genera otro snapshot
+    //Un solo INSERT por lote (unnest); el conteo sale del RETURNING, sin contar los conflictos
+    private static final String SNAPSHOT_INSERT_SQL = """
+            WITH saved AS (
+                INSERT INTO operation.receipt_snapshots
+                    (receipt_id, last_event_id, event_count, pending_amount, receipt_status, as_of)
+                SELECT * FROM unnest(?::integer[], ?::bigint[], ?::integer[], ?::numeric[], ?::varchar[],
+                                     ?::timestamp[])
+                ON CONFLICT (receipt_id, last_event_id) DO NOTHING
+                RETURNING 1)
+            SELECT count(*) FROM saved
+            """;
+
+    //Compare-and-set: solo se corrige si la proyección sigue con los valores leídos junto con el ledger
+    //Un pago que confirmó después de la lectura cambia la fila y la corrección se descarta
+    private static final String REPAIR_SQL = """
+            WITH fixed AS (
+                UPDATE operation.receipts r
+                SET pending_amount = v.pending_amount, receipt_status = v.receipt_status,
+                    date_modifi = now(), user_modifi = 1
+                FROM unnest(?::integer[], ?::numeric[], ?::varchar[], ?::numeric[], ?::varchar[])
+                     AS v(receipt_id, pending_amount, receipt_status, seen_pending, seen_status)
+                WHERE r.receipt_id = v.receipt_id
+                  AND r.pending_amount = v.seen_pending
+                  AND r.receipt_status IS NOT DISTINCT FROM v.seen_status
+                RETURNING 1)
+            SELECT count(*) FROM fixed
+            """;
+
+    private static final RowMapper<ReceiptEvent> EVENT_ROW = (rs, i) -> event(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReceiptLedgerRepository(DataSource dataSource, JobProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getReceiptLedger().getFetchSize());
+    }
+
+    public void append(List<ReceiptEvent> events) {
+        if (events.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(APPEND_SQL, events, events.size(), (ps, e) -> {
+            ps.setInt(1, e.receiptId());
+            ps.setString(2, e.type().name());
+            ps.setBigDecimal(3, e.amount());
+            ps.setString(4, e.receiptStatus());
+            ps.setObject(5, e.paymentId());
+        });
+    }
+
+    public Optional<ReceiptState> findSnapshot(int receiptId, LocalDateTime asOf) {
+        return jdbcTemplate.query(SNAPSHOT_SQL, (rs, i) -> new ReceiptState(rs.getInt(1), rs.getBigDecimal(2),
+                        rs.getString(3), rs.getLong(4), rs.getInt(5), rs.getTimestamp(6).toLocalDateTime()),
+                receiptId, Timestamp.valueOf(asOf)).stream().findFirst();
+    }
+
+    public List<ReceiptEvent> findEvents(int receiptId, long afterEventId, LocalDateTime asOf) {
+        return jdbcTemplate.query(EVENTS_SQL, EVENT_ROW, receiptId, afterEventId, Timestamp.valueOf(asOf));
+    }
+
+    //{min, max} de receipt_id con eventos, o null si el ledger está vacío
+    public long[] receiptIdBounds() {
+        return jdbcTemplate.queryForObject(
+                "SELECT min(receipt_id), max(receipt_id) FROM operation.receipt_events",
+                (rs, i) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    //[fromId, toIdExclusive); con cursor (fetchSize) dentro de una transacción, sin acumular filas
+    public void streamRange(long fromId, long toIdExclusive, Consumer<LedgerRow> handler) {
+        jdbcTemplate.query(RANGE_SQL, rs -> {
+            handler.accept(new LedgerRow(event(rs), rs.getBigDecimal(8), rs.getString(9), rs.getBoolean(10)));
+        }, fromId, toIdExclusive);
+    }
+
+    //Los snapshots solo se toman hasta este event_id; margin cubre el desfase entre relojes y secuencia
+    public long snapshotHorizon(Duration margin) {
+        double seconds = margin.toMillis() / 1000.0;
+        Long horizon = jdbcTemplate.queryForObject(HORIZON_SQL, Long.class, seconds, seconds);
+        return horizon == null ? 0 : horizon;
+    }
+
+    //Devuelve los snapshots nuevos (los ya existentes cuentan 0)
+    //numeric y timestamp viajan como texto: el driver solo arma arreglos de tipos básicos
+    public int saveSnapshots(List<ReceiptState> states) {
+        if (states.isEmpty()) return 0;
+
+        return count(jdbcTemplate.queryForObject(SNAPSHOT_INSERT_SQL, Integer.class,
+                column(states, ReceiptState::receiptId, Integer[]::new),
+                column(states, ReceiptState::lastEventId, Long[]::new),
+                column(states, ReceiptState::eventCount, Integer[]::new),
+                column(states, s -> s.pendingAmount().toPlainString(), String[]::new),
+                column(states, ReceiptState::receiptStatus, String[]::new),
+                column(states, s -> s.asOf().toString(), String[]::new)));
+    }
+
+    //Sobrescribe la proyección con el estado del ledger; devuelve los recibos corregidos
+    public int repairProjection(List<Repair> repairs) {
+        if (repairs.isEmpty()) return 0;
+
+        return count(jdbcTemplate.queryForObject(REPAIR_SQL, Integer.class,
+                column(repairs, r -> r.state().receiptId(), Integer[]::new),
+                column(repairs, r -> r.state().pendingAmount().toPlainString(), String[]::new),
+                column(repairs, r -> r.state().receiptStatus(), String[]::new),
+                column(repairs, r -> r.seenPending().toPlainString(), String[]::new),
+                column(repairs, Repair::seenStatus, String[]::new)));
+    }
+
+    private static <S, T> T[] column(List<S> rows, Function<S, T> getter, IntFunction<T[]> array) {
+        return rows.stream().map(getter).toArray(array);
+    }
+
+    private static int count(Integer rows) {
+        return rows == null ? 0 : rows;
+    }
+
+    private static ReceiptEvent event(ResultSet rs) throws SQLException {
+        Timestamp occurredAt = rs.getTimestamp(7);
+        return new ReceiptEvent(rs.getLong(2), rs.getInt(1), ReceiptEventType.valueOf(rs.getString(3)),
+                rs.getBigDecimal(4), rs.getString(5), rs.getObject(6, Integer.class),
+                occurredAt == null ? null : occurredAt.toLocalDateTime());
+    }
+
+    //Estado del ledger y los valores de la proyección contra los que se comparó
+    public record Repair(ReceiptState state, BigDecimal seenPending, String seenStatus) {
+    }
+
+    //Evento con la proyección actual del recibo (null si el recibo ya no existe en ninguna tabla)
+    public record LedgerRow(ReceiptEvent event, BigDecimal projectedPending, String projectedStatus, boolean hot) {
+    }
+}
@@ -1,14 +1,45 @@
 package com.payservice.paymentservice.repository;
 
+import com.payservice.paymentservice.dto.ListingVersionDTO;
+import com.payservice.paymentservice.dto.ReceiptInfoDTO;
 import com.payservice.paymentservice.entity.Receipt;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
 
 public interface ReceiptRepository extends JpaRepository<Receipt, Integer> {
     List<Receipt> findByServiceIdAndCustomerIdAndDueDateBeforeOrderByDueDateAsc(Integer serviceId, Integer customerId, LocalDate dueDate);
-    List<Receipt> findByServiceIdAndCustomerIdOrderByDueDateDesc(Integer serviceId, Integer customerId);
-    List<Receipt> findByServiceIdAndCustomerId(Integer serviceId, Integer customerId);
+    //Listados de lectura: proyección con las columnas de ReceiptInfoDTO, sin entidades administradas
+    @Query("select new com.payservice.paymentservice.dto.ReceiptInfoDTO(r.receiptNumber, r.periodLabel, r.dueDate, " +
+            "r.receiptAmount, r.pendingAmount, r.currency, r.receiptStatus) " +
+            "from Receipt r where r.serviceId = :serviceId and r.customerId = :customerId order by r.dueDate desc")
+    List<ReceiptInfoDTO> findInfoByServiceIdAndCustomerId(@Param("serviceId") Integer serviceId,
+                                                          @Param("customerId") Integer customerId);
+
+    //Versiones para ETag: solo agregados, no se cargan entidades
+    @Query("select new com.payservice.paymentservice.dto.ListingVersionDTO(max(r.dateModifi), count(r)) " +
+            "from Receipt r where r.serviceId = :serviceId and r.customerId = :customerId")
+    ListingVersionDTO findListingVersion(@Param("serviceId") Integer serviceId, @Param("customerId") Integer customerId);
+
+    @Query("select new com.payservice.paymentservice.dto.ListingVersionDTO(max(r.dateModifi), count(r)) " +
+            "from Receipt r where r.customerId = :customerId")
+    ListingVersionDTO findListingVersionByCustomerId(@Param("customerId") Integer customerId);
+
+    //Recibos sin pagar del cliente (OVERDUE incluido), el que vence primero adelante
+    @Query("select r from Receipt r left join fetch r.service " +
+            "where r.customerId = :customerId and (r.receiptStatus is null or upper(r.receiptStatus) <> 'PAID') " +
+            "order by r.dueDate asc, r.receiptId asc")
+    List<Receipt> findOpenByCustomerIdWithService(@Param("customerId") Integer customerId);
+
+    //Pago en cascada: recibos con saldo del más antiguo al más nuevo, bloqueados hasta el commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Receipt r where r.serviceId = :serviceId and r.customerId = :customerId " +
+            "and (r.receiptStatus is null or upper(r.receiptStatus) <> 'PAID') order by r.dueDate asc, r.receiptId asc")
+    List<Receipt> findPendingForAllocation(@Param("serviceId") Integer serviceId, @Param("customerId") Integer customerId);
 
 }
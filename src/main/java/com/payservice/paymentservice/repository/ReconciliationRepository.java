@@ -0,0 +1,72 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.config.JobProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.regex.Pattern;
+
+//Lecturas de la conciliación; todas dentro de transacciones REPEATABLE READ que comparten snapshot
+@Repository
+public class ReconciliationRepository {
+
+    //Recibos del rango con sus pagos en orden; los recibos sin pagos también se verifican
+    //Los pagos archivados (db/008) cuentan: la cadena de saldos de un recibo viejo empieza en el archivo
+    //Los recibos archivados (db/009) también: con el snapshot compartido cada recibo está en una sola tabla
+    private static final String LEDGER_SQL = """
+            SELECT r.receipt_id, r.receipt_amount, r.pending_amount, r.currency,
+                   p.payment_id, p.amount, p.payment_currency, p.exchange_rate,
+                   p.previous_pending_amount, p.new_pending_amount
+            FROM (SELECT receipt_id, receipt_amount, pending_amount, currency FROM operation.receipts
+                  UNION ALL
+                  SELECT receipt_id, receipt_amount, pending_amount, currency FROM operation.receipts_archive) r
+            LEFT JOIN (SELECT receipt_id, payment_id, amount, payment_currency, exchange_rate,
+                              previous_pending_amount, new_pending_amount
+                       FROM operation.payments
+                       UNION ALL
+                       SELECT receipt_id, payment_id, amount, payment_currency, exchange_rate,
+                              previous_pending_amount, new_pending_amount
+                       FROM operation.payments_archive) p ON p.receipt_id = r.receipt_id
+            WHERE r.receipt_id >= ? AND r.receipt_id < ?
+            ORDER BY r.receipt_id, p.payment_id
+            """;
+
+    //Formato de pg_export_snapshot(): SET TRANSACTION SNAPSHOT no admite parámetros
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f]+-[0-9A-Fa-f]+(-[0-9]+)?");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReconciliationRepository(DataSource dataSource, JobProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getReconciliation().getFetchSize());
+    }
+
+    public String exportSnapshot() {
+        return jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+    }
+
+    //Debe ser la primera sentencia de la transacción del worker
+    public void importSnapshot(String snapshotId) {
+        if (!SNAPSHOT_ID.matcher(snapshotId).matches()) {
+            throw new IllegalArgumentException("Invalid snapshot id");
+        }
+        jdbcTemplate.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+    }
+
+    //{min, max} de receipt_id entre vigentes y archivados, o null si no hay recibos
+    public long[] receiptIdBounds() {
+        return jdbcTemplate.queryForObject("""
+                        SELECT least((SELECT min(receipt_id) FROM operation.receipts),
+                                     (SELECT min(receipt_id) FROM operation.receipts_archive)),
+                               greatest((SELECT max(receipt_id) FROM operation.receipts),
+                                        (SELECT max(receipt_id) FROM operation.receipts_archive))
+                        """,
+                (rs, i) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    public void streamLedger(long fromId, long toIdExclusive, RowCallbackHandler handler) {
+        jdbcTemplate.query(LEDGER_SQL, handler, fromId, toIdExclusive);
+    }
+}
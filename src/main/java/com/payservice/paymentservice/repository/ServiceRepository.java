@@ -1,10 +1,33 @@
 package com.payservice.paymentservice.repository;
 
+import com.payservice.paymentservice.dto.ServiceItemDTO;
+import com.payservice.paymentservice.dto.ServiceSummaryDTO;
 import com.payservice.paymentservice.entity.ServiceEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ServiceRepository extends JpaRepository<ServiceEntity, Integer> {
     List<ServiceEntity> findByCustomerId(Integer customerId);
+
+    //Proyecciones para lecturas: solo las columnas del DTO, sin entidad administrada
+    @Query("select new com.payservice.paymentservice.dto.ServiceSummaryDTO(s.serviceName, s.description) " +
+            "from ServiceEntity s where s.serviceId = :serviceId")
+    Optional<ServiceSummaryDTO> findSummaryById(@Param("serviceId") Integer serviceId);
+
+    //El id hace falta para buscar los recibos de cada servicio
+    @Query("select new com.payservice.paymentservice.dto.ServiceItemDTO(s.serviceId, s.serviceName, s.description) " +
+            "from ServiceEntity s where s.customerId = :customerId")
+    List<ServiceItemDTO> findItemsByCustomerId(@Param("customerId") Integer customerId);
+
+    //Partes de la versión de los ETags: nombre y descripción del servicio viajan en las respuestas
+    @Query("select s.dateModifi from ServiceEntity s where s.serviceId = :serviceId")
+    LocalDateTime findDateModifiById(@Param("serviceId") Integer serviceId);
+
+    @Query("select max(s.dateModifi) from ServiceEntity s where s.customerId = :customerId")
+    LocalDateTime findMaxDateModifiByCustomerId(@Param("customerId") Integer customerId);
 }
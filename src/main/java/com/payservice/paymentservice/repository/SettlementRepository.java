@@ -0,0 +1,97 @@
+package com.payservice.paymentservice.repository;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.SettlementDTO;
+import com.payservice.paymentservice.dto.SettlementLineDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+//Cierre diario: lectura en streaming de los pagos del día y snapshot inmutable (tablas de db/007)
+@Repository
+public class SettlementRepository {
+
+    //Rango semiabierto sobre payment_date (índice de db/007); keyset por payment_id para reanudar
+    private static final String DAY_PAYMENTS_SQL = """
+            SELECT p.payment_id, p.amount, p.payment_currency, p.exchange_rate, r.currency,
+                   p.previous_pending_amount - p.new_pending_amount
+            FROM operation.payments p
+            JOIN operation.receipts r ON r.receipt_id = p.receipt_id
+            WHERE p.payment_date >= ? AND p.payment_date < ?
+              AND p.payment_id > ?
+            ORDER BY p.payment_id
+            """;
+
+    //Lock por día, hasta el fin de la transacción: el replay del journal lo toma compartido al registrar un pago
+    //con fecha de aceptación y el cierre exclusivo antes de congelar el día
+    private static final String DAY_LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('settlement'), ?)";
+    private static final String DAY_LOCK_SHARED_SQL = "SELECT pg_advisory_xact_lock_shared(hashtext('settlement'), ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SettlementRepository(DataSource dataSource, JobProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getSettlement().getFetchSize());
+    }
+
+    public void streamDayPayments(LocalDate day, long afterPaymentId, RowCallbackHandler handler) {
+        jdbcTemplate.query(DAY_PAYMENTS_SQL, handler,
+                Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()),
+                afterPaymentId);
+    }
+
+    public void lockDay(LocalDate day, boolean exclusive) {
+        jdbcTemplate.query(exclusive ? DAY_LOCK_SQL : DAY_LOCK_SHARED_SQL, rs -> { }, (int) day.toEpochDay());
+    }
+
+    public boolean isClosed(LocalDate day) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM operation.settlements WHERE settlement_date = ?",
+                Integer.class, Date.valueOf(day)).isEmpty();
+    }
+
+    public void insertSettlement(LocalDate day, long paymentCount, List<SettlementLineDTO> lines) {
+        jdbcTemplate.update("INSERT INTO operation.settlements (settlement_date, payment_count) VALUES (?, ?)",
+                Date.valueOf(day), paymentCount);
+
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO operation.settlement_lines (settlement_date, payment_currency, exchange_rate,
+                    receipt_currency, payment_count, amount_total, receipt_amount_total)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, lines, lines.size() == 0 ? 1 : lines.size(), (ps, l) -> {
+            ps.setDate(1, Date.valueOf(day));
+            ps.setString(2, l.getPaymentCurrency());
+            ps.setBigDecimal(3, l.getExchangeRate());
+            ps.setString(4, l.getReceiptCurrency());
+            ps.setLong(5, l.getPaymentCount());
+            ps.setBigDecimal(6, l.getAmountTotal());
+            ps.setBigDecimal(7, l.getReceiptAmountTotal());
+        });
+    }
+
+    public Optional<SettlementDTO> findSettlement(LocalDate day) {
+        return jdbcTemplate.query(
+                "SELECT settlement_date, closed_at, payment_count FROM operation.settlements WHERE settlement_date = ?",
+                (rs, i) -> SettlementDTO.builder()
+                        .settlementDate(rs.getDate(1).toLocalDate())
+                        .closedAt(rs.getTimestamp(2).toLocalDateTime())
+                        .paymentCount(rs.getLong(3))
+                        .build(),
+                Date.valueOf(day)
+        ).stream().findFirst().map(s -> {
+            s.setLines(jdbcTemplate.query("""
+                    SELECT payment_currency, exchange_rate, receipt_currency, payment_count, amount_total, receipt_amount_total
+                    FROM operation.settlement_lines WHERE settlement_date = ?
+                    ORDER BY payment_currency, exchange_rate, receipt_currency
+                    """, (rs, i) -> new SettlementLineDTO(rs.getString(1), rs.getBigDecimal(2), rs.getString(3),
+                    rs.getLong(4), rs.getBigDecimal(5), rs.getBigDecimal(6)), Date.valueOf(day)));
+            return s;
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.payservice.paymentservice.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+//Avisos de escritura por cliente entre instancias (ReplicaStalenessGuard): NOTIFY/LISTEN sobre customer_writes
+@Repository
+public class WriteNoticeRepository {
+
+    private static final String CHANNEL = "customer_writes";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WriteNoticeRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    //Dentro de la transacción de la escritura: las demás instancias lo reciben en el commit
+    public void publish(int customerId) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> { }, CHANNEL, String.valueOf(customerId));
+    }
+
+    //Conexión propia en autocommit, fuera de transacción: va al primario, donde se emiten los NOTIFY
+    public Connection listen() throws SQLException {
+        Connection con = jdbcTemplate.getDataSource().getConnection();
+        try (Statement st = con.createStatement()) {
+            st.execute("LISTEN " + CHANNEL);
+            return con;
+        } catch (SQLException e) {
+            con.close();
+            throw e;
+        }
+    }
+
+    //Espera hasta timeoutMillis; una conexión caída se reporta como SQLException
+    public List<Integer> awaitNotices(Connection con, int timeoutMillis) throws SQLException {
+        PGNotification[] notifications = con.unwrap(PGConnection.class).getNotifications(timeoutMillis);
+        if (notifications == null) {
+            return List.of();
+        }
+        List<Integer> customerIds = new ArrayList<>(notifications.length);
+        for (PGNotification n : notifications) {
+            customerIds.add(Integer.valueOf(n.getParameter()));
+        }
+        return customerIds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.payservice.paymentservice.service;
+
+import com.payservice.paymentservice.dto.AgingReportDTO;
+
+public interface AgingReportService {
+    AgingReportDTO getAgingReport(String currency, Integer serviceId);
+}
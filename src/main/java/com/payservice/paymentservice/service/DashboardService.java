@@ -0,0 +1,7 @@
+package com.payservice.paymentservice.service;
+
+import com.payservice.paymentservice.dto.CustomerDashboardDTO;
+
+public interface DashboardService {
+    CustomerDashboardDTO getCustomerDashboard(Integer customerId, Integer payments);
+}
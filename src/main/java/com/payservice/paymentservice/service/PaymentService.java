@@ -1,11 +1,19 @@
 package com.payservice.paymentservice.service;
 
+import com.payservice.paymentservice.dto.PaymentAllocationResponseDTO;
 import com.payservice.paymentservice.dto.PaymentRequestDTO;
 import com.payservice.paymentservice.dto.PaymentResponseDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PaymentService {
     PaymentResponseDTO registerPayment(Integer receiptId, Integer customerId, PaymentRequestDTO request);
-    List<PaymentResponseDTO> getPaymentsByCustomer(Integer customerId);
+    //paymentDate: cuándo se aceptó el pago (replay del journal); registerPayment sin fecha usa el momento actual
+    PaymentResponseDTO registerPayment(Integer receiptId, Integer customerId, PaymentRequestDTO request,
+                                       LocalDateTime paymentDate);
+    List<PaymentResponseDTO> getPaymentsByCustomer(Integer customerId, LocalDate from, LocalDate to);
+    PaymentAllocationResponseDTO allocatePayment(Integer serviceId, Integer customerId, PaymentRequestDTO request);
 }
 
@@ -0,0 +1,9 @@
+package com.payservice.paymentservice.service;
+
+import com.payservice.paymentservice.dto.ReceiptImportResultDTO;
+
+import java.io.InputStream;
+
+public interface ReceiptImportService {
+    ReceiptImportResultDTO importReceipts(InputStream csv);
+}
@@ -1,9 +1,13 @@
 package com.payservice.paymentservice.service;
 
+import com.payservice.paymentservice.dto.ReceiptLedgerDTO;
 import com.payservice.paymentservice.dto.ReceiptResponseDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ReceiptService {
-    List<ReceiptResponseDTO> getReceiptsByServiceAndCustomer(Integer serviceId, Integer customerId);
+    List<ReceiptResponseDTO> getReceiptsByServiceAndCustomer(Integer serviceId, Integer customerId, boolean fullHistory);
+    String getReceiptsEtag(Integer serviceId, Integer customerId);
+    ReceiptLedgerDTO getReceiptLedger(Integer receiptId, LocalDateTime asOf);
 }
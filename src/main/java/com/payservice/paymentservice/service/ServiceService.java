@@ -6,4 +6,5 @@ import java.util.List;
 
 public interface ServiceService {
     List<ServiceResponseDTO> getServicesByCustomer(Integer customerId);
+    String getServicesEtag(Integer customerId);
 }
@@ -0,0 +1,9 @@
+package com.payservice.paymentservice.service;
+
+import com.payservice.paymentservice.dto.SettlementDTO;
+
+import java.time.LocalDate;
+
+public interface SettlementService {
+    SettlementDTO getSettlement(LocalDate day);
+}
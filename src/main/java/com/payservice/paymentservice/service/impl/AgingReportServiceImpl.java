@@ -0,0 +1,35 @@
+package com.payservice.paymentservice.service.impl;
+
+import com.payservice.paymentservice.dto.AgingReportDTO;
+import com.payservice.paymentservice.repository.AgingRepository;
+import com.payservice.paymentservice.repository.AgingRepository.Watermark;
+import com.payservice.paymentservice.service.AgingReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AgingReportServiceImpl implements AgingReportService {
+
+    private final AgingRepository agingRepository;
+
+    //Lee solo el rollup (pocas filas por servicio); nunca recorre receipts
+    @Override
+    public AgingReportDTO getAgingReport(String currency, Integer serviceId) {
+        Watermark watermark = agingRepository.findWatermark().orElse(null);
+        if (watermark == null) {
+            // todavía no corrió AgingRefreshJob
+            return AgingReportDTO.builder().rows(List.of()).build();
+        }
+
+        return AgingReportDTO.builder()
+                .asOf(watermark.asOf())
+                .refreshedAt(watermark.refreshedAt())
+                .rows(agingRepository.findReport(currency, serviceId))
+                .build();
+    }
+}
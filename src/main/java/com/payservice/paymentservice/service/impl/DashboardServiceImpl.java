@@ -0,0 +1,229 @@
+package com.payservice.paymentservice.service.impl;
+
+import com.payservice.paymentservice.config.DashboardProperties;
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.config.ReplicaStalenessGuard;
+import com.payservice.paymentservice.dto.CustomerDashboardDTO;
+import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.dto.PaymentResponseDTO;
+import com.payservice.paymentservice.dto.ReceiptResponseDTO;
+import com.payservice.paymentservice.dto.ServiceSummaryDTO;
+import com.payservice.paymentservice.entity.Payment;
+import com.payservice.paymentservice.mapper.CustomerMapper;
+import com.payservice.paymentservice.mapper.PaymentMapper;
+import com.payservice.paymentservice.mapper.ReceiptMapper;
+import com.payservice.paymentservice.mapper.ServiceMapper;
+import com.payservice.paymentservice.repository.CustomerRepository;
+import com.payservice.paymentservice.repository.PaymentRepository;
+import com.payservice.paymentservice.repository.ReceiptRepository;
+import com.payservice.paymentservice.repository.ServiceRepository;
+import com.payservice.paymentservice.service.DashboardService;
+import com.payservice.paymentservice.util.PaymentPartitions;
+import com.payservice.paymentservice.util.exception.BulkheadFullException;
+import com.payservice.paymentservice.util.exception.DeadlineExceededException;
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+//Home del portal en una sola respuesta: cliente, servicios, recibos abiertos y últimos pagos
+//Las cuatro secciones salen a la vez, cada una en su transacción de lectura, bajo un único plazo
+//Cliente y servicios son obligatorios (404 / 504); recibos y pagos se omiten si no llegan a tiempo
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    static final String OPEN_RECEIPTS = "openReceipts";
+    static final String LAST_PAYMENTS = "lastPayments";
+
+    private final DashboardProperties properties;
+    private final JobProperties jobProperties;
+    private final CustomerRepository customerRepository;
+    private final ServiceRepository serviceRepository;
+    private final ReceiptRepository receiptRepository;
+    private final PaymentRepository paymentRepository;
+    private final CustomerMapper customerMapper;
+    private final ServiceMapper serviceMapper;
+    private final ReceiptMapper receiptMapper;
+    private final PaymentMapper paymentMapper;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate readTx;
+    private final ExecutorService executor;
+
+    public DashboardServiceImpl(DashboardProperties properties, JobProperties jobProperties,
+                                CustomerRepository customerRepository, ServiceRepository serviceRepository,
+                                ReceiptRepository receiptRepository, PaymentRepository paymentRepository,
+                                CustomerMapper customerMapper, ServiceMapper serviceMapper,
+                                ReceiptMapper receiptMapper, PaymentMapper paymentMapper,
+                                ReplicaStalenessGuard stalenessGuard, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.jobProperties = jobProperties;
+        this.customerRepository = customerRepository;
+        this.serviceRepository = serviceRepository;
+        this.receiptRepository = receiptRepository;
+        this.paymentRepository = paymentRepository;
+        this.customerMapper = customerMapper;
+        this.serviceMapper = serviceMapper;
+        this.receiptMapper = receiptMapper;
+        this.paymentMapper = paymentMapper;
+        this.stalenessGuard = stalenessGuard;
+        this.transactionManager = transactionManager;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+
+        // cola acotada: con el pool ocupado las secciones no esperan turno más allá de su plazo
+        int poolSize = Math.max(1, properties.getPoolSize());
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())), r -> {
+            Thread t = new Thread(r, "dashboard-" + threadNo.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public CustomerDashboardDTO getCustomerDashboard(Integer customerId, Integer payments) {
+        int limit = payments != null ? payments : properties.getLastPayments();
+        if (limit < 1 || limit > properties.getMaxPayments()) {
+            throw new IllegalArgumentException("payments must be between 1 and " + properties.getMaxPayments());
+        }
+
+        long deadline = System.nanoTime() + properties.getDeadline().toNanos();
+        List<Future<?>> all = new ArrayList<>();
+        try {
+            return assemble(customerId, limit, deadline, all);
+        } finally {
+            // secciones que no llegaron: se cancelan si siguen en cola; las que corren terminan por el timeout
+            all.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private CustomerDashboardDTO assemble(Integer customerId, int limit, long deadline, List<Future<?>> all) {
+        Future<CustomerSummaryDTO> customer = submit(all, customerId, deadline, () -> customerMapper.toCustomer(
+                customerRepository.findById(customerId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Customer not found"))));
+
+        Future<List<ServiceSummaryDTO>> services = submit(all, customerId, deadline, () -> serviceRepository.findByCustomerId(customerId)
+                .stream().map(serviceMapper::toService).toList());
+
+        // servicio cargado en la misma consulta: sin findById por recibo
+        Future<List<ReceiptResponseDTO>> openReceipts = submit(all, customerId, deadline, () -> receiptRepository
+                .findOpenByCustomerIdWithService(customerId).stream()
+                .map(r -> receiptMapper.toFullReceiptInfo(r, null, r.getService()))
+                .toList());
+
+        // ventana caliente: los últimos pagos no están en el archivo y se leen pocas particiones
+        LocalDateTime since = PaymentPartitions.hotHorizon(LocalDate.now(),
+                jobProperties.getPaymentArchive().getHotMonths()).atStartOfDay();
+        Future<List<PaymentResponseDTO>> lastPayments = submit(all, customerId, deadline, () -> paymentRepository
+                .findLatestWithReceipt(customerId, since, Limit.of(limit)).stream()
+                .map(this::toPaymentResponse)
+                .toList());
+
+        CustomerSummaryDTO c = required("customer", customer, deadline);
+        List<ServiceSummaryDTO> s = required("services", services, deadline);
+
+        List<String> unavailable = new ArrayList<>();
+        List<ReceiptResponseDTO> receipts = optional(OPEN_RECEIPTS, openReceipts, deadline, unavailable);
+        List<PaymentResponseDTO> latest = optional(LAST_PAYMENTS, lastPayments, deadline, unavailable);
+
+        // el cliente se leyó una vez; se completa en cada recibo y pago
+        if (receipts != null) receipts.forEach(r -> r.setCustomer(c));
+        if (latest != null) latest.forEach(p -> p.setCustomer(c));
+
+        return CustomerDashboardDTO.builder()
+                .customer(c)
+                .services(s)
+                .openReceipts(receipts)
+                .lastPayments(latest)
+                .partial(!unavailable.isEmpty())
+                .unavailableSections(unavailable)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private PaymentResponseDTO toPaymentResponse(Payment p) {
+        return paymentMapper.toPaymentResponse(p, null,
+                p.getReceipt() != null ? p.getReceipt().getService() : null, p.getReceipt());
+    }
+
+    //Cada sección en su propia transacción de solo lectura (réplica si está habilitada)
+    //Interrumpir el hilo no corta una consulta de pgjdbc en curso: el timeout de la transacción sí
+    //(Spring lo aplica como query timeout JDBC y pgjdbc cancela la sentencia en el servidor)
+    private <T> Future<T> submit(List<Future<?>> all, Integer customerId, long deadline, Supplier<T> section) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long remaining = remaining(deadline);
+                if (remaining == 0) {
+                    throw new DeadlineExceededException("Dashboard deadline exceeded before the section started");
+                }
+                TransactionTemplate tx = new TransactionTemplate(transactionManager, readTx);
+                // el timeout es en segundos: se redondea hacia arriba lo que queda del plazo
+                tx.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L)));
+                return tx.execute(status -> {
+                    // recién pagó: leer del primario para no ver una réplica atrasada
+                    stalenessGuard.pinPrimaryIfRecentlyWritten(customerId);
+                    return section.get();
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            throw new BulkheadFullException("Dashboard capacity exhausted, retry later");
+        }
+        all.add(future);
+        return future;
+    }
+
+    private static <T> T required(String section, Future<T> future, long deadline) {
+        try {
+            return future.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Dashboard section " + section + " did not complete in time");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dashboard interrupted", e);
+        }
+    }
+
+    //Sección no obligatoria: fuera de plazo o con error se informa en unavailableSections
+    private static <T> T optional(String section, Future<T> future, long deadline, List<String> unavailable) {
+        try {
+            return future.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            unavailable.add(section);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dashboard interrupted", e);
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
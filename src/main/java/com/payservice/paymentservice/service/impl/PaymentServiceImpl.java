@@ -1,23 +1,38 @@
 package com.payservice.paymentservice.service.impl;
 
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.config.ReplicaStalenessGuard;
 import com.payservice.paymentservice.dto.*;
 import com.payservice.paymentservice.entity.*;
+import com.payservice.paymentservice.event.PaymentCommittedEvent;
+import com.payservice.paymentservice.ledger.ReceiptEvent;
 import com.payservice.paymentservice.mapper.PaymentMapper;
 import com.payservice.paymentservice.repository.*;
 import com.payservice.paymentservice.service.PaymentService;
+import com.payservice.paymentservice.util.CurrencyConversion;
 import com.payservice.paymentservice.util.ExchangeRateConstants;
+import com.payservice.paymentservice.util.PaymentPartitions;
 import com.payservice.paymentservice.util.exception.NoPaymentsFoundException;
 import com.payservice.paymentservice.util.exception.OverpaymentException;
 import com.payservice.paymentservice.util.exception.PendingReceiptException;
 import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
-import jakarta.transaction.Transactional;
+import com.payservice.paymentservice.util.jfr.HistoryMappedEvent;
+import com.payservice.paymentservice.util.jfr.PaymentRegisteredEvent;
+import com.payservice.paymentservice.util.jfr.RuleRejectedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -29,45 +44,96 @@ public class PaymentServiceImpl implements PaymentService {
     private final CustomerRepository customerRepository;
     private final ServiceRepository serviceRepository;
     private final PaymentRepository paymentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentBatchRepository paymentBatchRepository;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final PaymentArchiveRepository paymentArchiveRepository;
+    private final JobProperties jobProperties;
+    private final ReceiptLedgerRepository ledgerRepository;
+    private final ReceiptArchiveRepository receiptArchiveRepository;
 
     @Override
     public PaymentResponseDTO registerPayment(Integer receiptId, Integer customerId, PaymentRequestDTO req) {
+        return registerPayment(receiptId, customerId, req, LocalDateTime.now());
+    }
 
-        //RN1: Solo se permite pagar en PEN o USD
-        validateCurrency(req.getPaymentCurrency());
+    @Override
+    public PaymentResponseDTO registerPayment(Integer receiptId, Integer customerId, PaymentRequestDTO req,
+                                              LocalDateTime paymentDate) {
 
-        //cargar y validar recibo
-        Receipt receipt = loadAndValidateReceipt(receiptId, customerId);
+        //Evento JFR: la duración cubre todo el registro del pago
+        PaymentRegisteredEvent event = new PaymentRegisteredEvent();
+        event.begin();
 
-        //RN5: El servicio se considera “pagado” cuando el saldo pendiente llega a cero
-        validateNotAlreadyPaid(receipt);
+        try {
+            //RN1: Solo se permite pagar en PEN o USD
+            validateCurrency(req.getPaymentCurrency());
 
-        //RN6: No se puede pagar un recibo nuevo si el anterior no está pagado
-        validatePendingPreviousReceipts(receipt);
+            //cargar y validar recibo
+            Receipt receipt = loadAndValidateReceipt(receiptId, customerId);
 
-        //Se valida que el monto sea positivo
-        BigDecimal amount = validateAmount(req.getAmount());
+            //RN5: El servicio se considera “pagado” cuando el saldo pendiente llega a cero
+            validateNotAlreadyPaid(receipt);
+
+            //RN6: No se puede pagar un recibo nuevo si el anterior no está pagado
+            validatePendingPreviousReceipts(receipt);
 
-        //Obtenemos el tipo de cambio
-        BigDecimal exchangeRate = determineExchangeRate(
-                req.getPaymentCurrency(),
-                receipt.getCurrency()
-        );
+            //Se valida que el monto sea positivo
+            BigDecimal amount = validateAmount(req.getAmount());
 
-        //RN4: Pagos en moneda distinta están permitidos si no exceden saldo
-        BigDecimal amountConverted = convertAmount(amount, req.getPaymentCurrency(),
-                receipt.getCurrency(), exchangeRate);
+            //Obtenemos el tipo de cambio
+            BigDecimal exchangeRate = determineExchangeRate(
+                    req.getPaymentCurrency(),
+                    receipt.getCurrency()
+            );
 
-        //RN2: Un servicio puede pagarse parcial o totalmente
-        //RN3: Los pagos parciales no pueden exceder el saldo pendiente
-        validateNotExceedPending(amountConverted, receipt.getPendingAmount());
+            //RN4: Pagos en moneda distinta están permitidos si no exceden saldo
+            BigDecimal amountConverted = convertAmount(amount, req.getPaymentCurrency(),
+                    receipt.getCurrency(), exchangeRate);
 
-        Payment payment = processPayment(receipt, customerId, amount, exchangeRate, amountConverted, req.getPaymentCurrency());
+            //RN2: Un servicio puede pagarse parcial o totalmente
+            //RN3: Los pagos parciales no pueden exceder el saldo pendiente
+            validateNotExceedPending(amountConverted, receipt.getPendingAmount());
 
-        Customer customer = customerRepository.findById(customerId).orElse(null);
-        ServiceEntity service = serviceRepository.findById(receipt.getServiceId()).orElse(null);
+            Payment payment = processPayment(receipt, customerId, amount, exchangeRate, amountConverted,
+                    req.getPaymentCurrency(), paymentDate);
+
+            Customer customer = customerRepository.findById(customerId).orElse(null);
+            ServiceEntity service = serviceRepository.findById(receipt.getServiceId()).orElse(null);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.receiptId = receiptId;
+                event.customerId = customerId;
+                event.serviceId = receipt.getServiceId();
+                event.paymentCurrency = req.getPaymentCurrency();
+                event.amount = amount.doubleValue();
+                event.paymentStatus = payment.getPaymentStatus();
+                event.commit();
+            }
+
+            return paymentMapper.toPaymentResponse(payment, customer, service, receipt);
+        } catch (IllegalArgumentException | ResourceNotFoundException
+                 | PendingReceiptException | OverpaymentException ex) {
+            emitRuleRejected(receiptId, customerId, ex);
+            throw ex;
+        }
+    }
 
-        return paymentMapper.toPaymentResponse(payment, customer, service, receipt);
+    //Evento JFR con la regla que rechazó el pago (prefijo "RNx:" del mensaje)
+    private void emitRuleRejected(Integer receiptId, Integer customerId, RuntimeException ex) {
+        RuleRejectedEvent rejected = new RuleRejectedEvent();
+        if (!rejected.shouldCommit()) return;
+
+        String message = ex.getMessage() == null ? "" : ex.getMessage();
+        int colon = message.indexOf(':');
+        rejected.receiptId = receiptId == null ? 0 : receiptId;
+        rejected.customerId = customerId == null ? 0 : customerId;
+        rejected.rule = message.startsWith("RN") && colon > 0
+                ? message.substring(0, colon)
+                : ex.getClass().getSimpleName();
+        rejected.message = message;
+        rejected.commit();
     }
 
     // VALIDACIONES
@@ -94,6 +160,7 @@ public class PaymentServiceImpl implements PaymentService {
                         receipt.getServiceId(), receipt.getCustomerId(), receipt.getDueDate()
                 );
 
+        //OVERDUE cuenta como no pagado: solo PAID libera el recibo siguiente
         boolean anyUnpaid = previousReceipts
                 .stream()
                 .anyMatch(r -> !"PAID".equalsIgnoreCase(r.getReceiptStatus()));
@@ -110,6 +177,7 @@ public class PaymentServiceImpl implements PaymentService {
         return amount;
     }
 
+    //OVERDUE no bloquea: un recibo vencido se puede (y debe) seguir pagando
     private void validateNotAlreadyPaid(Receipt receipt) {
         if ("PAID".equalsIgnoreCase(receipt.getReceiptStatus())) {
             throw new IllegalArgumentException("RN5: Receipt already PAID; no further payments allowed");
@@ -142,74 +210,214 @@ public class PaymentServiceImpl implements PaymentService {
             String receiptCurrency,
             BigDecimal rate
     ) {
-
-        if (paymentCurrency.equalsIgnoreCase(receiptCurrency)) {
-            return amount;
-        }
-
-        if (paymentCurrency.equalsIgnoreCase("USD")) {
-            return amount.multiply(rate);
-        }
-
-        return amount.divide(rate, 2, RoundingMode.HALF_UP);
+        return CurrencyConversion.toReceiptCurrency(amount, paymentCurrency, receiptCurrency, rate);
     }
 
     private Payment processPayment(Receipt receipt, Integer customerId,
-                                   BigDecimal amount, BigDecimal rate, BigDecimal convertedAmount, String paymentCurrency) {
+                                   BigDecimal amount, BigDecimal rate, BigDecimal convertedAmount, String paymentCurrency,
+                                   LocalDateTime paymentDate) {
 
         BigDecimal previousPending = receipt.getPendingAmount();
-        BigDecimal newPending = previousPending.subtract(convertedAmount);
-
-        String newStatus = newPending.compareTo(BigDecimal.ZERO) == 0
-                ? "PAID"
-                : "PARTIALLY_PAID";
 
         // update receipt
+        applyToReceipt(receipt, convertedAmount);
+        receiptRepository.save(receipt);
+
+        // create payment
+        Payment payment = buildPayment(receipt, customerId, amount, rate, previousPending, paymentCurrency, paymentDate);
+
+        Payment saved = paymentRepository.save(payment);
+
+        // ledger: el pago aplicado queda registrado en la misma transacción que el nuevo saldo
+        // el flush manda antes el UPDATE del recibo: el evento se agrega con la fila ya bloqueada y su
+        // event_id no puede quedar por debajo del de otro pago al mismo recibo que confirme después
+        receiptRepository.flush();
+        ledgerRepository.append(List.of(ReceiptEvent.paymentApplied(
+                receipt.getReceiptId(), convertedAmount, receipt.getReceiptStatus(), saved.getPaymentId())));
+
+        // listeners AFTER_COMMIT (ej. RequestCoalescer) lo reciben solo si la transacción confirma
+        eventPublisher.publishEvent(new PaymentCommittedEvent(customerId, receipt.getServiceId(), receipt.getReceiptId()));
+
+        return saved;
+    }
+
+    //Descuenta el monto convertido del saldo y actualiza el estado del recibo
+    private void applyToReceipt(Receipt receipt, BigDecimal convertedAmount) {
+        BigDecimal newPending = receipt.getPendingAmount().subtract(convertedAmount);
+
+        //Un recibo vencido (OVERDUE) sigue vencido hasta que se paga por completo
+        String newStatus;
+        if (newPending.compareTo(BigDecimal.ZERO) == 0) {
+            newStatus = "PAID";
+        } else if ("OVERDUE".equalsIgnoreCase(receipt.getReceiptStatus())) {
+            newStatus = "OVERDUE";
+        } else {
+            newStatus = "PARTIALLY_PAID";
+        }
+
         receipt.setPendingAmount(newPending);
         receipt.setReceiptStatus(newStatus);
         receipt.setUserModifi(1); //System user
         receipt.setDateModifi(LocalDateTime.now());
-        receiptRepository.save(receipt);
+    }
 
-        // create payment
+    private Payment buildPayment(Receipt receipt, Integer customerId, BigDecimal amount, BigDecimal rate,
+                                 BigDecimal previousPending, String paymentCurrency, LocalDateTime paymentDate) {
         Payment payment = new Payment();
         payment.setReceiptId(receipt.getReceiptId());
         payment.setCustomerId(customerId);
-        payment.setPaymentDate(LocalDateTime.now());
+        payment.setPaymentDate(paymentDate);
         payment.setAmount(amount);
         payment.setPaymentCurrency(paymentCurrency);
         payment.setExchangeRate(rate);
         payment.setPreviousPendingAmount(previousPending);
-        payment.setNewPendingAmount(newPending);
-        payment.setPaymentStatus(newStatus);
+        payment.setNewPendingAmount(receipt.getPendingAmount());
+        payment.setPaymentStatus(receipt.getReceiptStatus());
         payment.setDateRegist(LocalDateTime.now());
         payment.setUserRegist(1); //System user
+        return payment;
+    }
+
+    //Api de pago en cascada: un monto se reparte entre los recibos pendientes del más antiguo al más nuevo
+    @Override
+    public PaymentAllocationResponseDTO allocatePayment(Integer serviceId, Integer customerId, PaymentRequestDTO req) {
 
-        return paymentRepository.save(payment);
+        //RN1: Solo se permite pagar en PEN o USD
+        validateCurrency(req.getPaymentCurrency());
+        BigDecimal amount = validateAmount(req.getAmount());
+
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
+        ServiceEntity service = serviceRepository.findById(serviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
+        if (!customerId.equals(service.getCustomerId())) {
+            throw new ResourceNotFoundException("Service does not belong to customer");
+        }
+
+        //RN6: una sola query ordenada por dueDate; pagar en ese orden cumple la regla por construcción
+        List<Receipt> pending = receiptRepository.findPendingForAllocation(serviceId, customerId);
+        if (pending.isEmpty()) {
+            throw new IllegalArgumentException("RN5: No pending receipts for this service");
+        }
+
+        String paymentCurrency = req.getPaymentCurrency();
+        BigDecimal remaining = amount; // en la moneda del pago
+        List<Payment> payments = new ArrayList<>();
+        List<BigDecimal> convertedAmounts = new ArrayList<>();
+        List<ReceiptAllocationDTO> allocations = new ArrayList<>();
+
+        for (Receipt receipt : pending) {
+            if (remaining.signum() == 0) break;
+
+            BigDecimal rate = determineExchangeRate(paymentCurrency, receipt.getCurrency());
+            BigDecimal pendingInPaymentCurrency = toPaymentCurrency(
+                    receipt.getPendingAmount(), paymentCurrency, receipt.getCurrency(), rate);
+
+            BigDecimal applied = remaining.min(pendingInPaymentCurrency);
+
+            // si cubre todo el saldo se descuenta el saldo exacto (evita residuos por redondeo)
+            BigDecimal converted = applied.compareTo(pendingInPaymentCurrency) == 0
+                    ? receipt.getPendingAmount()
+                    : convertAmount(applied, paymentCurrency, receipt.getCurrency(), rate);
+
+            //RN3: Los pagos parciales no pueden exceder el saldo pendiente
+            validateNotExceedPending(converted, receipt.getPendingAmount());
+
+            BigDecimal previousPending = receipt.getPendingAmount();
+            applyToReceipt(receipt, converted);
+            payments.add(buildPayment(receipt, customerId, applied, rate, previousPending, paymentCurrency,
+                    LocalDateTime.now()));
+            convertedAmounts.add(converted);
+            allocations.add(paymentMapper.toReceiptAllocation(receipt, applied, converted, rate, previousPending));
+
+            remaining = remaining.subtract(applied);
+        }
+
+        //RN3: el monto total no puede exceder la deuda pendiente del servicio
+        if (remaining.signum() > 0) {
+            throw new OverpaymentException("RN3: Payment exceeds total pending amount of the service");
+        }
+
+        // escrituras en lote: un UPDATE por recibo y un INSERT por pago en la misma ida a la base
+        List<Receipt> touched = pending.subList(0, payments.size());
+        receiptRepository.saveAll(touched);
+        // UPDATEs antes que el ledger, como en processPayment
+        receiptRepository.flush();
+        List<Integer> paymentIds = paymentBatchRepository.insertAll(payments);
+
+        // cada evento referencia el pago que lo generó, como en processPayment
+        List<ReceiptEvent> events = new ArrayList<>(touched.size());
+        for (int i = 0; i < touched.size(); i++) {
+            Receipt r = touched.get(i);
+            events.add(ReceiptEvent.paymentApplied(r.getReceiptId(), convertedAmounts.get(i), r.getReceiptStatus(),
+                    paymentIds.get(i)));
+        }
+        ledgerRepository.append(events);
+
+        touched.forEach(r -> eventPublisher.publishEvent(
+                new PaymentCommittedEvent(customerId, serviceId, r.getReceiptId())));
+
+        return paymentMapper.toAllocationResponse(customer, service, amount, paymentCurrency, allocations);
+    }
+
+    //Saldo del recibo expresado en la moneda del pago (inverso de convertAmount)
+    private BigDecimal toPaymentCurrency(BigDecimal pending, String paymentCurrency,
+                                         String receiptCurrency, BigDecimal rate) {
+        if (paymentCurrency.equalsIgnoreCase(receiptCurrency)) {
+            return pending;
+        }
+
+        if (paymentCurrency.equalsIgnoreCase("USD")) {
+            return pending.divide(rate, 2, RoundingMode.HALF_UP);
+        }
+
+        return pending.multiply(rate);
     }
 
     //Api historial de pago
     @Override
-    public List<PaymentResponseDTO> getPaymentsByCustomer(Integer customerId) {
+    @Transactional(readOnly = true)
+    public List<PaymentResponseDTO> getPaymentsByCustomer(Integer customerId, LocalDate from, LocalDate to) {
+
+        HistoryMappedEvent event = new HistoryMappedEvent();
+        event.begin();
+
+        // recién pagó: leer del primario para no ver una réplica atrasada
+        stalenessGuard.pinPrimaryIfRecentlyWritten(customerId);
 
         // Validar si el cliente existe
         customerRepository.findById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
 
-        // Obtener pagos
-        List<Payment> payments = paymentRepository
-                .findByCustomerIdOrderByPaymentDateDesc(customerId);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+
+        // Obtener pagos: rango por fecha para que solo se lean las particiones del período
+        LocalDate horizon = PaymentPartitions.hotHorizon(LocalDate.now(), jobProperties.getPaymentArchive().getHotMonths());
+        LocalDateTime lower = from != null ? from.atStartOfDay() : null;
+        LocalDateTime upper = to != null ? to.plusDays(1).atStartOfDay() : null;
+
+        List<Payment> payments = new ArrayList<>(findHotPayments(customerId, lower, upper));
+
+        // El archivo solo se lee si el rango pedido empieza antes de la ventana caliente
+        // Se archivan meses completos, del más antiguo al más nuevo: todo lo archivado es anterior a lo caliente
+        // Sin from el historial es el de payments, sin cota inferior: lo que el job aún no archivó sigue ahí
+        if (from != null && from.isBefore(horizon)) {
+            payments.addAll(paymentArchiveRepository.findByCustomer(customerId, lower, upper));
+        }
 
         if (payments.isEmpty()) {
             throw new NoPaymentsFoundException("Customer has no registered payments");
         }
 
+        Map<Integer, Receipt> receipts = findReceipts(payments);
+
         // Mapear todos los pagos a DTO
-        return payments.stream().map(payment -> {
+        List<PaymentResponseDTO> history = payments.stream().map(payment -> {
 
             // cargar recibo y servicio relacionados
-            Receipt receipt = receiptRepository.findById(payment.getReceiptId())
-                    .orElse(null);
+            Receipt receipt = receipts.get(payment.getReceiptId());
 
             ServiceEntity service = receipt != null ?
                     serviceRepository.findById(receipt.getServiceId()).orElse(null)
@@ -220,6 +428,40 @@ public class PaymentServiceImpl implements PaymentService {
             return paymentMapper.toPaymentResponse(payment, customer, service, receipt);
 
         }).toList();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.customerId = customerId;
+            event.rowCount = history.size();
+            event.commit();
+        }
+
+        return history;
+    }
+
+    //Recibos del historial; los que ya no están en receipts se buscan en el archivo en una sola consulta
+    private Map<Integer, Receipt> findReceipts(List<Payment> payments) {
+        Map<Integer, Receipt> receipts = new HashMap<>();
+        List<Integer> archived = new ArrayList<>();
+        payments.stream().map(Payment::getReceiptId).filter(Objects::nonNull).distinct()
+                .forEach(id -> receiptRepository.findById(id).ifPresentOrElse(
+                        r -> receipts.put(id, r), () -> archived.add(id)));
+
+        receiptArchiveRepository.findByIds(archived).forEach(r -> receipts.put(r.getReceiptId(), r));
+        return receipts;
+    }
+
+    //Cada cota presente acota las particiones leídas
+    private List<Payment> findHotPayments(Integer customerId, LocalDateTime lower, LocalDateTime upper) {
+        if (lower == null) {
+            return upper == null
+                    ? paymentRepository.findByCustomerIdOrderByPaymentDateDesc(customerId)
+                    : paymentRepository.findByCustomerIdAndPaymentDateLessThanOrderByPaymentDateDesc(customerId, upper);
+        }
+        return upper == null
+                ? paymentRepository.findByCustomerIdAndPaymentDateGreaterThanEqualOrderByPaymentDateDesc(customerId, lower)
+                : paymentRepository.findByCustomerIdAndPaymentDateGreaterThanEqualAndPaymentDateLessThanOrderByPaymentDateDesc(
+                        customerId, lower, upper);
     }
 
 }
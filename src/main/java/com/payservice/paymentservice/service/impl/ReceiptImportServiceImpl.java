@@ -0,0 +1,294 @@
+package com.payservice.paymentservice.service.impl;
+
+import com.payservice.paymentservice.config.ReceiptImportProperties;
+import com.payservice.paymentservice.dto.ImportErrorDTO;
+import com.payservice.paymentservice.dto.ReceiptImportResultDTO;
+import com.payservice.paymentservice.event.ReceiptsBulkChangedEvent;
+import com.payservice.paymentservice.repository.ReceiptImportRepository;
+import com.payservice.paymentservice.repository.ReceiptImportRepository.ImportRow;
+import com.payservice.paymentservice.service.ReceiptImportService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Importación de recibos desde CSV: se lee línea por línea y se procesa en chunks de líneas
+//Cada chunk se valida contra los clientes y servicios que menciona y se carga por COPY en su propia
+//transacción: un archivo grande no mantiene una transacción abierta y un fallo deja confirmados los chunks previos
+@Service
+public class ReceiptImportServiceImpl implements ReceiptImportService {
+
+    static final String HEADER = "receipt_number,service_id,customer_id,period_label,due_date,receipt_amount,currency";
+    private static final int COLUMNS = 7;
+
+    private final ReceiptImportRepository importRepository;
+    private final ReceiptImportProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate chunkTx;
+
+    public ReceiptImportServiceImpl(ReceiptImportRepository importRepository, ReceiptImportProperties properties,
+                                    ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.importRepository = importRepository;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public ReceiptImportResultDTO importReceipts(InputStream csv) {
+        long start = System.nanoTime();
+
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        List<Candidate> chunk = new ArrayList<>(chunkSize);
+        Progress progress = new Progress(properties.getMaxReportedErrors());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            validateHeader(reader.readLine());
+
+            String line;
+            long lineNo = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                progress.total++;
+
+                chunk.add(parseLine(lineNo, line));
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading import file", e);
+        }
+        importChunk(chunk, progress);
+
+        eventPublisher.publishEvent(new ReceiptsBulkChangedEvent("receipt-import", progress.imported));
+
+        long elapsedNanos = System.nanoTime() - start;
+        return ReceiptImportResultDTO.builder()
+                .totalRows(progress.total)
+                .imported(progress.imported)
+                .rejected(progress.rejected)
+                .duplicates(progress.staged - progress.imported)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .rowsPerSecond(elapsedNanos == 0 ? 0 : Math.round(progress.total * 1e10 / elapsedNanos) / 10.0)
+                .errors(progress.errors)
+                .errorsTruncated(progress.rejected > progress.errors.size())
+                .build();
+    }
+
+    //Valida las referencias del chunk con una consulta por tabla y confirma sus filas válidas
+    private void importChunk(List<Candidate> chunk, Progress progress) {
+        if (chunk.isEmpty()) return;
+
+        Set<Integer> customerIds = new HashSet<>();
+        Set<Integer> serviceIds = new HashSet<>();
+        for (Candidate c : chunk) {
+            if (c.row() != null) {
+                customerIds.add(c.row().customerId());
+                serviceIds.add(c.row().serviceId());
+            }
+        }
+        Set<Integer> customers = importRepository.findCustomerIds(customerIds);
+        Map<Integer, Integer> serviceOwners = importRepository.findServiceOwners(serviceIds);
+
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (Candidate c : chunk) {
+            try {
+                if (c.error() != null) throw new IllegalArgumentException(c.error());
+                validateReferences(c.row(), customers, serviceOwners);
+                progress.checkNotRepeated(c.row());
+                valid.add(c.row());
+            } catch (IllegalArgumentException ex) {
+                progress.reject(c.lineNo(), ex.getMessage());
+            }
+        }
+        if (valid.isEmpty()) return;
+
+        long[] counts = chunkTx.execute(status -> {
+            importRepository.createStage();
+            long staged = importRepository.stage(valid);
+            return new long[]{staged, importRepository.mergeStaged()};
+        });
+        progress.staged += counts[0];
+        progress.imported += counts[1];
+    }
+
+    private Candidate parseLine(long lineNo, String line) {
+        try {
+            return new Candidate(lineNo, parseRow(lineNo, line), null);
+        } catch (IllegalArgumentException ex) {
+            return new Candidate(lineNo, null, ex.getMessage());
+        }
+    }
+
+    private void validateHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        // BOM de archivos exportados desde Excel
+        String normalized = header.replace("\uFEFF", "").replace(" ", "").toLowerCase();
+        if (!HEADER.equals(normalized)) {
+            throw new IllegalArgumentException("Invalid CSV header; expected: " + HEADER);
+        }
+    }
+
+    // VALIDACIONES (cada fila inválida lanza IllegalArgumentException con el motivo)
+    private ImportRow parseRow(long lineNo, String line) {
+        List<String> cols = splitCsv(line);
+        if (cols.size() != COLUMNS) {
+            throw new IllegalArgumentException("Expected " + COLUMNS + " columns but found " + cols.size());
+        }
+
+        String receiptNumber = required(cols.get(0), "receipt_number");
+        int serviceId = parseId(cols.get(1), "service_id");
+        int customerId = parseId(cols.get(2), "customer_id");
+        String periodLabel = required(cols.get(3), "period_label");
+        LocalDate dueDate = parseDate(cols.get(4));
+        BigDecimal amount = parseAmount(cols.get(5));
+        String currency = cols.get(6).trim().toUpperCase();
+
+        //RN1: Solo se permite PEN o USD
+        if (!"PEN".equals(currency) && !"USD".equals(currency)) {
+            throw new IllegalArgumentException("RN1: Only PEN or USD allowed");
+        }
+
+        return new ImportRow(lineNo, receiptNumber, serviceId, customerId, periodLabel, dueDate, amount, currency);
+    }
+
+    private void validateReferences(ImportRow row, Set<Integer> customers, Map<Integer, Integer> serviceOwners) {
+        if (!customers.contains(row.customerId())) {
+            throw new IllegalArgumentException("Customer not found");
+        }
+        Integer owner = serviceOwners.get(row.serviceId());
+        if (owner == null) {
+            throw new IllegalArgumentException("Service not found");
+        }
+        if (owner != row.customerId()) {
+            throw new IllegalArgumentException("Service does not belong to customer");
+        }
+    }
+
+    private String required(String value, String column) {
+        String v = value.trim();
+        if (v.isEmpty()) throw new IllegalArgumentException(column + " is required");
+        return v;
+    }
+
+    private int parseId(String value, String column) {
+        try {
+            int id = Integer.parseInt(value.trim());
+            if (id <= 0) throw new NumberFormatException();
+            return id;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column);
+        }
+    }
+
+    private LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid due_date; expected yyyy-MM-dd");
+        }
+    }
+
+    private BigDecimal parseAmount(String value) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid receipt_amount");
+        }
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Amount must have at most 2 decimals");
+        }
+        return amount;
+    }
+
+    //CSV simple (RFC 4180): comas como separador, comillas dobles para campos con comas o comillas
+    static List<String> splitCsv(String line) {
+        List<String> cols = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cols.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        cols.add(field.toString());
+        return cols;
+    }
+
+    //Línea leída: la fila parseada o el motivo por el que no se pudo parsear
+    private record Candidate(long lineNo, ImportRow row, String error) {
+    }
+
+    //Contadores del archivo completo (un solo hilo)
+    private static final class Progress {
+        long total;
+        long rejected;
+        long staged;
+        long imported;
+        final List<ImportErrorDTO> errors = new ArrayList<>();
+        final int maxReported;
+        //(service_id, period_label) -> primera línea del archivo con ese recibo
+        final Map<String, Long> firstLine = new HashMap<>();
+
+        Progress(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        //Un recibo repetido dentro del archivo se rechaza con la línea original; los ya existentes son duplicados
+        void checkNotRepeated(ImportRow row) {
+            Long first = firstLine.putIfAbsent(row.serviceId() + "|" + row.periodLabel(), row.lineNo());
+            if (first != null) {
+                throw new IllegalArgumentException("Duplicate of line " + first + " (same service_id and period_label)");
+            }
+        }
+
+        void reject(long lineNo, String message) {
+            rejected++;
+            if (errors.size() < maxReported) {
+                errors.add(new ImportErrorDTO(lineNo, message));
+            }
+        }
+    }
+}
@@ -1,21 +1,38 @@
 package com.payservice.paymentservice.service.impl;
 
+import com.payservice.paymentservice.config.ReplicaStalenessGuard;
+import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.dto.ReceiptInfoDTO;
+import com.payservice.paymentservice.dto.ReceiptLedgerDTO;
 import com.payservice.paymentservice.dto.ReceiptResponseDTO;
-import com.payservice.paymentservice.entity.Customer;
+import com.payservice.paymentservice.dto.ServiceSummaryDTO;
 import com.payservice.paymentservice.entity.Receipt;
-import com.payservice.paymentservice.entity.ServiceEntity;
+import com.payservice.paymentservice.ledger.ReceiptEvent;
+import com.payservice.paymentservice.ledger.ReceiptState;
 import com.payservice.paymentservice.mapper.ReceiptMapper;
+import com.payservice.paymentservice.readmodel.CustomerReadModel;
+import com.payservice.paymentservice.readmodel.CustomerView;
+import com.payservice.paymentservice.readmodel.ReceiptView;
+import com.payservice.paymentservice.readmodel.ServiceView;
 import com.payservice.paymentservice.repository.CustomerRepository;
 import com.payservice.paymentservice.repository.PaymentRepository;
+import com.payservice.paymentservice.repository.ReceiptArchiveRepository;
+import com.payservice.paymentservice.repository.ReceiptLedgerRepository;
 import com.payservice.paymentservice.repository.ReceiptRepository;
 import com.payservice.paymentservice.repository.ServiceRepository;
 import com.payservice.paymentservice.service.ReceiptService;
+import com.payservice.paymentservice.util.WeakETag;
 import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
-import jakarta.transaction.Transactional;
+import com.payservice.paymentservice.util.jfr.ReceiptLoadedEvent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -26,34 +43,127 @@ public class ReceiptServiceImpl implements ReceiptService {
     private final CustomerRepository customerRepository;
     private final ServiceRepository serviceRepository;
     private final PaymentRepository paymentRepository;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final ReceiptArchiveRepository receiptArchiveRepository;
+    private final CustomerReadModel readModel;
+    private final ReceiptLedgerRepository ledgerRepository;
 
     @Override
-    public List<ReceiptResponseDTO> getReceiptsByServiceAndCustomer(Integer serviceId, Integer customerId) {
+    @Transactional(readOnly = true)
+    public List<ReceiptResponseDTO> getReceiptsByServiceAndCustomer(Integer serviceId, Integer customerId,
+                                                                    boolean fullHistory) {
 
-        // validar que el customer exista
-        customerRepository.findById(customerId)
+        // proyección en memoria: sin consultas si el cliente y el servicio están cargados
+        if (!fullHistory) {
+            Optional<CustomerView> view = readModel.find(customerId);
+            Optional<ServiceView> cachedService = view.flatMap(v -> v.service(serviceId));
+            if (cachedService.isPresent()) {
+                return receiptsFromView(view.get(), cachedService.get());
+            }
+        }
+
+        ReceiptLoadedEvent event = new ReceiptLoadedEvent();
+        event.begin();
+
+        // recién pagó: leer del primario para no ver una réplica atrasada
+        stalenessGuard.pinPrimaryIfRecentlyWritten(customerId);
+
+        // validar que el customer y el service existan; las proyecciones se reusan al mapear
+        CustomerSummaryDTO customer = customerRepository.findSummaryById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
 
-        // validar que el service exista
-        serviceRepository.findById(serviceId)
+        ServiceSummaryDTO service = serviceRepository.findSummaryById(serviceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
 
-        // obtener recibos
-        List<Receipt> receipts = receiptRepository
-                .findByServiceIdAndCustomerIdOrderByDueDateDesc(serviceId, customerId);
+        // obtener recibos (proyección, sin entidades que snapshotear para dirty checking)
+        List<ReceiptInfoDTO> receipts = receiptRepository.findInfoByServiceIdAndCustomerId(serviceId, customerId);
+
+        // historial completo: se suman los pagados archivados (pueden ser más nuevos que un impago caliente)
+        if (fullHistory) {
+            List<Receipt> archived = receiptArchiveRepository.findByServiceIdAndCustomerId(serviceId, customerId);
+            if (!archived.isEmpty()) {
+                List<ReceiptInfoDTO> merged = new ArrayList<>(receipts);
+                archived.stream().map(receiptMapper::toReceiptInfo).forEach(merged::add);
+                merged.sort(Comparator.comparing(ReceiptInfoDTO::getDueDate,
+                        Comparator.nullsLast(Comparator.reverseOrder())));
+                receipts = merged;
+            }
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "getReceiptsByServiceAndCustomer";
+            event.customerId = customerId;
+            event.serviceId = serviceId;
+            event.serviceCount = 1;
+            event.rowCount = receipts.size();
+            event.commit();
+        }
 
         if (receipts.isEmpty()) {
             throw new ResourceNotFoundException("No receipts found for this customer/service");
         }
 
-        // obtener customer y service para mapear
-        Customer customer = customerRepository.findById(customerId).orElse(null);
-        ServiceEntity service = serviceRepository.findById(serviceId).orElse(null);
-
         // construir respuesta
         return receipts.stream()
                 .map(r -> receiptMapper.toFullReceiptInfo(r, customer, service))
                 .toList();
     }
 
+    //ETag débil a partir de max(date_modifi) y count, sin cargar ni mapear recibos
+    //Incluye date_modifi del cliente y del servicio: sus nombres van embebidos en cada recibo
+    @Override
+    @Transactional(readOnly = true)
+    public String getReceiptsEtag(Integer serviceId, Integer customerId) {
+        Optional<CustomerView> view = readModel.find(customerId);
+        if (view.isPresent() && view.get().service(serviceId).isPresent()) {
+            return WeakETag.of(view.get().version(serviceId));
+        }
+
+        stalenessGuard.pinPrimaryIfRecentlyWritten(customerId);
+        return WeakETag.of(receiptRepository.findListingVersion(serviceId, customerId).including(
+                customerRepository.findDateModifiById(customerId),
+                serviceRepository.findDateModifiById(serviceId)));
+    }
+
+    //Saldo y estado derivados del ledger: último snapshot hasta asOf + eventos posteriores hasta asOf
+    //asOf null = ahora; incluye recibos ya archivados
+    @Override
+    @Transactional(readOnly = true)
+    public ReceiptLedgerDTO getReceiptLedger(Integer receiptId, LocalDateTime asOf) {
+        LocalDateTime at = asOf == null ? LocalDateTime.now() : asOf;
+
+        ReceiptState base = ledgerRepository.findSnapshot(receiptId, at)
+                .orElse(ReceiptState.empty(receiptId));
+        List<ReceiptEvent> events = ledgerRepository.findEvents(receiptId, base.lastEventId(), at);
+
+        ReceiptState state = base;
+        for (ReceiptEvent e : events) {
+            state = state.apply(e);
+        }
+        if (state.isEmpty()) {
+            throw new ResourceNotFoundException("Receipt not found in ledger as of " + at);
+        }
+
+        return ReceiptLedgerDTO.builder()
+                .receiptId(receiptId)
+                .asOf(at)
+                .pendingAmount(state.pendingAmount())
+                .receiptStatus(state.receiptStatus())
+                .eventCount(state.eventCount())
+                .snapshotEventId(base.lastEventId())
+                .events(events.stream().map(receiptMapper::toReceiptEvent).toList())
+                .build();
+    }
+
+    private List<ReceiptResponseDTO> receiptsFromView(CustomerView view, ServiceView service) {
+        List<ReceiptView> receipts = view.receipts(service.serviceId());
+        if (receipts.isEmpty()) {
+            throw new ResourceNotFoundException("No receipts found for this customer/service");
+        }
+        return receipts.stream()
+                .map(r -> receiptMapper.toFullReceiptInfoFromView(r, view, service))
+                .toList();
+    }
+
 }
@@ -1,23 +1,28 @@
 package com.payservice.paymentservice.service.impl;
 
+import com.payservice.paymentservice.config.ReplicaStalenessGuard;
+import com.payservice.paymentservice.dto.ReceiptInfoDTO;
+import com.payservice.paymentservice.dto.ServiceItemDTO;
 import com.payservice.paymentservice.dto.ServiceResponseDTO;
-import com.payservice.paymentservice.dto.ServiceSummaryDTO;
-import com.payservice.paymentservice.entity.Customer;
-import com.payservice.paymentservice.entity.Receipt;
-import com.payservice.paymentservice.entity.ServiceEntity;
 import com.payservice.paymentservice.mapper.ServiceMapper;
+import com.payservice.paymentservice.readmodel.CustomerReadModel;
+import com.payservice.paymentservice.readmodel.CustomerView;
+import com.payservice.paymentservice.readmodel.ReceiptView;
 import com.payservice.paymentservice.repository.CustomerRepository;
 import com.payservice.paymentservice.repository.ReceiptRepository;
 import com.payservice.paymentservice.repository.ServiceRepository;
 import com.payservice.paymentservice.service.ReceiptService;
 import com.payservice.paymentservice.service.ServiceService;
+import com.payservice.paymentservice.util.WeakETag;
 import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
-import jakarta.transaction.Transactional;
+import com.payservice.paymentservice.util.jfr.ReceiptLoadedEvent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,26 +35,43 @@ public class ServiceServiceImpl implements ServiceService {
     private final ReceiptRepository receiptRepository;
     private final CustomerRepository customerRepository;
     private final ServiceRepository serviceRepository;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final CustomerReadModel readModel;
 
     @Override
+    @Transactional(readOnly = true)
     public List<ServiceResponseDTO> getServicesByCustomer(Integer customerId) {
 
+        // proyección en memoria: sin consultas si el cliente está cargado
+        Optional<CustomerView> view = readModel.find(customerId);
+        if (view.isPresent()) {
+            return servicesFromView(view.get());
+        }
+
+        ReceiptLoadedEvent event = new ReceiptLoadedEvent();
+        event.begin();
+        int[] receiptCount = {0};
+
+        // recién pagó: leer del primario para no ver una réplica atrasada
+        stalenessGuard.pinPrimaryIfRecentlyWritten(customerId);
+
         // Validar cliente
-        customerRepository.findById(customerId)
+        customerRepository.findSummaryById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
 
-        // Buscar servicios asociados
-        List<ServiceEntity> services = serviceRepository.findByCustomerId(customerId);
+        // Buscar servicios asociados (proyecciones: id, nombre y descripción)
+        List<ServiceItemDTO> services = serviceRepository.findItemsByCustomerId(customerId);
 
         if (services.isEmpty()) {
             throw new ResourceNotFoundException("Customer has no registered services");
         }
 
         // Procesar cada servicio
-        return services.stream().map(service -> {
+        List<ServiceResponseDTO> result = services.stream().map(service -> {
 
-            List<Receipt> receipts = receiptRepository
-                    .findByServiceIdAndCustomerId(service.getServiceId(), customerId);
+            List<ReceiptInfoDTO> receipts = receiptRepository
+                    .findInfoByServiceIdAndCustomerId(service.getServiceId(), customerId);
+            receiptCount[0] += receipts.size();
 
             // Sin recibos para este servicio
             if (receipts.isEmpty()) {
@@ -60,7 +82,7 @@ public class ServiceServiceImpl implements ServiceService {
 
             // Calcular moneda
             Set<String> currencies = receipts.stream()
-                    .map(Receipt::getCurrency)
+                    .map(ReceiptInfoDTO::getCurrency)
                     .collect(Collectors.toSet());
 
             String currency = (currencies.size() == 1)
@@ -69,15 +91,15 @@ public class ServiceServiceImpl implements ServiceService {
 
             // 3.3 → Calcular montos
             BigDecimal totalAmount = receipts.stream()
-                    .map(Receipt::getReceiptAmount)
+                    .map(ReceiptInfoDTO::getReceiptAmount)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
 
             BigDecimal totalPending = receipts.stream()
-                    .map(Receipt::getPendingAmount)
+                    .map(ReceiptInfoDTO::getPendingAmount)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
 
             // Enviar datos
-            return serviceMapper.toServiceResponseDTO(
+            return serviceMapper.toServiceResponse(
                     service,
                     currency,
                     totalAmount,
@@ -85,5 +107,63 @@ public class ServiceServiceImpl implements ServiceService {
             );
 
         }).toList();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "getServicesByCustomer";
+            event.customerId = customerId;
+            event.serviceCount = services.size();
+            event.rowCount = receiptCount[0];
+            event.commit();
+        }
+
+        return result;
+    }
+
+    //ETag débil a partir de max(date_modifi) y count de los recibos del cliente
+    //Incluye date_modifi de los servicios: nombre y descripción van en la respuesta
+    @Override
+    @Transactional(readOnly = true)
+    public String getServicesEtag(Integer customerId) {
+        Optional<CustomerView> view = readModel.find(customerId);
+        if (view.isPresent()) {
+            return WeakETag.of(view.get().version());
+        }
+
+        stalenessGuard.pinPrimaryIfRecentlyWritten(customerId);
+        return WeakETag.of(receiptRepository.findListingVersionByCustomerId(customerId)
+                .including(serviceRepository.findMaxDateModifiByCustomerId(customerId)));
+    }
+
+    //Mismas reglas y mensajes que la lectura de la base
+    private List<ServiceResponseDTO> servicesFromView(CustomerView view) {
+        if (view.services().isEmpty()) {
+            throw new ResourceNotFoundException("Customer has no registered services");
+        }
+
+        return view.services().stream().map(service -> {
+            List<ReceiptView> receipts = view.receipts(service.serviceId());
+            if (receipts.isEmpty()) {
+                throw new ResourceNotFoundException(
+                        "Service " + service.serviceName() + " has no receipts for this customer"
+                );
+            }
+
+            Set<String> currencies = receipts.stream()
+                    .map(ReceiptView::currency)
+                    .collect(Collectors.toSet());
+            String currency = (currencies.size() == 1)
+                    ? currencies.iterator().next()
+                    : "MULTIMONEDA";
+
+            BigDecimal totalAmount = receipts.stream()
+                    .map(ReceiptView::receiptAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal totalPending = receipts.stream()
+                    .map(ReceiptView::pendingAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            return serviceMapper.toServiceResponseFromView(service, currency, totalAmount, totalPending);
+        }).toList();
     }
 }
@@ -0,0 +1,26 @@
+package com.payservice.paymentservice.service.impl;
+
+import com.payservice.paymentservice.dto.SettlementDTO;
+import com.payservice.paymentservice.repository.SettlementRepository;
+import com.payservice.paymentservice.service.SettlementService;
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SettlementServiceImpl implements SettlementService {
+
+    private final SettlementRepository settlementRepository;
+
+    //Lee el snapshot congelado del cierre; nunca recorre payments
+    @Override
+    public SettlementDTO getSettlement(LocalDate day) {
+        return settlementRepository.findSettlement(day)
+                .orElseThrow(() -> new ResourceNotFoundException("Settlement not found"));
+    }
+}
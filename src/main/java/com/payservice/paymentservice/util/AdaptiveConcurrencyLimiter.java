@@ -0,0 +1,104 @@
+package com.payservice.paymentservice.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Límite de concurrencia AIMD: +1 por ventana de requests rápidos, x backoffRatio ante una respuesta lenta
+//Una sola reducción por ventana: las respuestas lentas de requests que empezaron antes del último recorte
+//ya están contadas en él (una ráfaga lenta no lleva el límite al mínimo de golpe)
+//Las lecturas solo usan (1 - writeReserve) del límite; los pagos pueden usarlo completo
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final double writeReserve;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(NEVER);
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long latencyThresholdNanos, double backoffRatio, double writeReserve) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.writeReserve = writeReserve;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    //true si el request puede pasar; si no, hay que rechazarlo (503)
+    public boolean tryAcquire(boolean priority) {
+        double limit = getLimit();
+        int allowed = (int) (priority ? limit : limit * (1 - writeReserve));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= Math.max(1, allowed)) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    //Se llama al terminar cada request admitido con su latencia observada
+    public void onComplete(long latencyNanos) {
+        onComplete(latencyNanos, System.nanoTime());
+    }
+
+    //Libera el cupo sin muestra de latencia: requests largos por diseño (importación, dashboard)
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void onComplete(long latencyNanos, long nowNanos) {
+        int current = inFlight.getAndDecrement();
+        boolean congested = latencyNanos > latencyThresholdNanos;
+        if (congested && !claimDecrease(nowNanos - latencyNanos, nowNanos)) {
+            return;
+        }
+
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next;
+            if (congested) {
+                next = Math.max(minLimit, limit * backoffRatio);
+            } else if (current >= limit / 2) {
+                // solo crece si el límite se está usando
+                next = Math.min(maxLimit, limit + 1.0 / limit);
+            } else {
+                return;
+            }
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    //Solo el primer request lento que empezó después del último recorte abre una ventana nueva
+    private boolean claimDecrease(long startNanos, long nowNanos) {
+        while (true) {
+            long last = lastDecreaseNanos.get();
+            if (last != NEVER && startNanos - last < 0) {
+                return false;
+            }
+            if (lastDecreaseNanos.compareAndSet(last, nowNanos)) {
+                return true;
+            }
+        }
+    }
+
+    public double getLimit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
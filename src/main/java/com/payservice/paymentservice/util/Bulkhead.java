@@ -0,0 +1,95 @@
+package com.payservice.paymentservice.util;
+
+import com.payservice.paymentservice.util.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Compartimento con N turnos, cola acotada y timeout de espera
+//Se ejecuta en el mismo hilo del request (no hay handoff), así el contexto del hilo se conserva
+public class Bulkhead {
+
+    private final String name;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Duration timeout;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Counter rejected;
+    private final Timer waitTimer;
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue, Duration timeout, MeterRegistry registry) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.timeout = timeout;
+
+        Gauge.builder("payment.bulkhead.active", this, Bulkhead::getActive)
+                .tag("bulkhead", name).register(registry);
+        Gauge.builder("payment.bulkhead.queued", waiting, AtomicInteger::get)
+                .tag("bulkhead", name).register(registry);
+        this.rejected = Counter.builder("payment.bulkhead.rejected")
+                .tag("bulkhead", name).register(registry);
+        this.waitTimer = Timer.builder("payment.bulkhead.wait")
+                .tag("bulkhead", name).publishPercentiles(0.5, 0.99).register(registry);
+    }
+
+    public void acquire() {
+        if (permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        // cola llena: rechazo inmediato
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new BulkheadFullException("Bulkhead " + name + " is full, try again later");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!acquired) {
+            rejected.increment();
+            throw new BulkheadFullException("Bulkhead " + name + " timed out waiting for a slot");
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public double getRejectedCount() {
+        return rejected.count();
+    }
+}
@@ -0,0 +1,25 @@
+package com.payservice.paymentservice.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+//Conversión de un pago a la moneda del recibo (RN4); la usan el registro de pagos y la conciliación
+public class CurrencyConversion {
+    private CurrencyConversion() {
+        // Evita que esta clase sea instanciada
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static BigDecimal toReceiptCurrency(BigDecimal amount, String paymentCurrency,
+                                               String receiptCurrency, BigDecimal rate) {
+        if (paymentCurrency.equalsIgnoreCase(receiptCurrency)) {
+            return amount;
+        }
+
+        if (paymentCurrency.equalsIgnoreCase("USD")) {
+            return amount.multiply(rate);
+        }
+
+        return amount.divide(rate, 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,35 @@
+package com.payservice.paymentservice.util;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Particiones mensuales de operation.payments (db/008): nombre payments_pYYYYMM y ventana caliente
+public class PaymentPartitions {
+    private PaymentPartitions() {
+        // Evita que esta clase sea instanciada
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    private static final Pattern NAME = Pattern.compile("payments_p(\\d{4})(\\d{2})");
+
+    public static String name(YearMonth month) {
+        return String.format("payments_p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    //Vacío si no es una partición mensual (ej. payments_default)
+    public static Optional<YearMonth> month(String partitionName) {
+        Matcher m = NAME.matcher(partitionName);
+        if (!m.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))));
+    }
+
+    //Primer día caliente: el mes actual y los hotMonths - 1 anteriores quedan en payments
+    public static LocalDate hotHorizon(LocalDate today, int hotMonths) {
+        return YearMonth.from(today).minusMonths(Math.max(1, hotMonths) - 1L).atDay(1);
+    }
+}
@@ -0,0 +1,18 @@
+package com.payservice.paymentservice.util;
+
+import java.time.YearMonth;
+
+//periodLabel de los recibos generados: "ENE-2026", "FEB-2026", ...
+public class PeriodLabels {
+    private PeriodLabels() {
+        // Evita que esta clase sea instanciada
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    private static final String[] MONTHS =
+            {"ENE", "FEB", "MAR", "ABR", "MAY", "JUN", "JUL", "AGO", "SET", "OCT", "NOV", "DIC"};
+
+    public static String of(YearMonth period) {
+        return MONTHS[period.getMonthValue() - 1] + "-" + period.getYear();
+    }
+}
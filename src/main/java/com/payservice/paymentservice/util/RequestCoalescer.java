@@ -0,0 +1,88 @@
+package com.payservice.paymentservice.util;
+
+import com.payservice.paymentservice.event.PaymentCommittedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+//Single-flight: lecturas idénticas concurrentes (mismo endpoint y path variables)
+//comparten una sola ejecución y su resultado. No es un caché: al terminar se libera la clave.
+@Component
+public class RequestCoalescer {
+
+    //Espera máxima de un seguidor; si el líder no termina, el seguidor ejecuta su propia lectura
+    static final Duration FOLLOWER_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Duration followerTimeout;
+
+    public RequestCoalescer() {
+        this(FOLLOWER_TIMEOUT);
+    }
+
+    RequestCoalescer(Duration followerTimeout) {
+        this.followerTimeout = followerTimeout;
+    }
+
+    public <T> T execute(String endpoint, Integer customerId, Integer serviceId, Supplier<T> loader) {
+        FlightKey key = new FlightKey(endpoint, customerId, serviceId);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+
+        if (leader != null) {
+            return await(leader, loader);
+        }
+
+        try {
+            T result = loader.get();
+            mine.complete(result);
+            return result;
+        } catch (Throwable ex) {
+            // también Error: los seguidores nunca quedan esperando un futuro sin completar
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    //Un pago confirmado hace que las nuevas lecturas del cliente no se unan a ejecuciones previas al commit
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPaymentCommitted(PaymentCommittedEvent event) {
+        invalidateCustomer(event.customerId());
+    }
+
+    public void invalidateCustomer(Integer customerId) {
+        inFlight.keySet().removeIf(k -> k.customerId().equals(customerId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T await(CompletableFuture<Object> leader, Supplier<T> loader) {
+        try {
+            return (T) leader.get(followerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // líder colgado: no se encadena más espera, se lee sin coalescer
+            return loader.get();
+        } catch (ExecutionException ex) {
+            // se propaga la misma excepción del líder (ej. ResourceNotFoundException -> 404)
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            if (ex.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for coalesced read", ex);
+        }
+    }
+
+    private record FlightKey(String endpoint, Integer customerId, Integer serviceId) {
+    }
+}
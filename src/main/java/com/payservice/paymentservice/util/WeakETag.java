@@ -0,0 +1,26 @@
+package com.payservice.paymentservice.util;
+
+import com.payservice.paymentservice.dto.ListingVersionDTO;
+
+import java.time.ZoneOffset;
+
+public class WeakETag {
+    private WeakETag() {
+        // Evita que esta clase sea instanciada
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    //W/"<count>-<date_modifi en microsegundos>"; null si no hay recibos (esa respuesta es un 404)
+    public static String of(ListingVersionDTO version) {
+        if (version == null || version.getCount() == null || version.getCount() == 0) {
+            return null;
+        }
+
+        long micros = 0;
+        if (version.getLastModified() != null) {
+            micros = version.getLastModified().toEpochSecond(ZoneOffset.UTC) * 1_000_000L
+                    + version.getLastModified().getNano() / 1_000;
+        }
+        return "W/\"" + version.getCount() + "-" + Long.toHexString(micros) + "\"";
+    }
+}
@@ -0,0 +1,7 @@
+package com.payservice.paymentservice.util.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
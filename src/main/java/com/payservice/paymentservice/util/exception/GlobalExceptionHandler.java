@@ -1,5 +1,6 @@
 package com.payservice.paymentservice.util.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -41,6 +42,47 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    // Bulkhead lleno o sin turno a tiempo
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorResponseDTO> handleBulkheadFull(BulkheadFullException ex, WebRequest request) {
+        ErrorResponseDTO error = buildError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request);
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // Load shedding — límite adaptativo de concurrencia alcanzado
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleOverloaded(ServiceOverloadedException ex, WebRequest request) {
+        ErrorResponseDTO error = buildError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    // Sección obligatoria del dashboard fuera del plazo
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorResponseDTO> handleDeadline(DeadlineExceededException ex, WebRequest request) {
+        ErrorResponseDTO error = buildError(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage(), request);
+        return new ResponseEntity<>(error, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    // Rate limit por cliente/integrador excedido
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDTO> handleRateLimit(RateLimitExceededException ex, WebRequest request) {
+        ErrorResponseDTO error = buildError(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("X-RateLimit-Limit", String.valueOf(ex.getLimit()))
+                .header("X-RateLimit-Remaining", "0")
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    // Job batch ya en ejecución (programado o manual)
+    @ExceptionHandler(JobAlreadyRunningException.class)
+    public ResponseEntity<ErrorResponseDTO> handleJobRunning(JobAlreadyRunningException ex, WebRequest request) {
+        ErrorResponseDTO error = buildError(HttpStatus.CONFLICT, ex.getMessage(), request);
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
     // Error cuando no encuentra un recurso
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponseDTO> handleNotFound(ResourceNotFoundException ex, WebRequest request) {
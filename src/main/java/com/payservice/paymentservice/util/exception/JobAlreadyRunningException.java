@@ -0,0 +1,7 @@
+package com.payservice.paymentservice.util.exception;
+
+public class JobAlreadyRunningException extends RuntimeException {
+    public JobAlreadyRunningException(String message) {
+        super(message);
+    }
+}
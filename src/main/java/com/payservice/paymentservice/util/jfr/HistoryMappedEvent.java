@@ -0,0 +1,20 @@
+package com.payservice.paymentservice.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//Evento JFR emitido al construir el historial de pagos de un cliente
+@Name("com.payservice.HistoryMapped")
+@Label("Payment History Mapped")
+@Category({"Payment Service", "Payments"})
+@Description("Payment history loaded and mapped for a customer")
+public class HistoryMappedEvent extends jdk.jfr.Event {
+
+    @Label("Customer Id")
+    public int customerId;
+
+    @Label("Payments")
+    public int rowCount;
+}
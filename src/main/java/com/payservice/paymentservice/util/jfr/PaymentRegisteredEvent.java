@@ -0,0 +1,32 @@
+package com.payservice.paymentservice.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//Evento JFR emitido cuando un pago queda registrado (duración = registerPayment completo)
+@Name("com.payservice.PaymentRegistered")
+@Label("Payment Registered")
+@Category({"Payment Service", "Payments"})
+@Description("Payment registered against a receipt")
+public class PaymentRegisteredEvent extends jdk.jfr.Event {
+
+    @Label("Receipt Id")
+    public int receiptId;
+
+    @Label("Customer Id")
+    public int customerId;
+
+    @Label("Service Id")
+    public int serviceId;
+
+    @Label("Payment Currency")
+    public String paymentCurrency;
+
+    @Label("Amount")
+    public double amount;
+
+    @Label("Payment Status")
+    public String paymentStatus;
+}
@@ -0,0 +1,29 @@
+package com.payservice.paymentservice.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//Evento JFR emitido al cargar los recibos de un cliente (listado de recibos o de servicios)
+@Name("com.payservice.ReceiptLoaded")
+@Label("Receipts Loaded")
+@Category({"Payment Service", "Receipts"})
+@Description("Receipts loaded for a customer")
+public class ReceiptLoadedEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Customer Id")
+    public int customerId;
+
+    @Label("Service Id")
+    public int serviceId;
+
+    @Label("Services")
+    public int serviceCount;
+
+    @Label("Receipts")
+    public int rowCount;
+}
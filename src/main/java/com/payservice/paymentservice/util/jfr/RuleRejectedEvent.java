@@ -0,0 +1,26 @@
+package com.payservice.paymentservice.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//Evento JFR emitido cuando una regla de negocio (RN1..RN6) rechaza un pago
+@Name("com.payservice.RuleRejected")
+@Label("Payment Rule Rejected")
+@Category({"Payment Service", "Payments"})
+@Description("Payment rejected by a business rule")
+public class RuleRejectedEvent extends jdk.jfr.Event {
+
+    @Label("Receipt Id")
+    public int receiptId;
+
+    @Label("Customer Id")
+    public int customerId;
+
+    @Label("Rule")
+    public String rule;
+
+    @Label("Message")
+    public String message;
+}
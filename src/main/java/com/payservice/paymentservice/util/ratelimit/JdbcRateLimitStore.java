@@ -0,0 +1,65 @@
+package com.payservice.paymentservice.util.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+//Buckets compartidos entre instancias en PostgreSQL (tabla operation.rate_limit_buckets)
+//El mismo algoritmo GCRA que TokenBucket, resuelto en un único upsert atómico
+//Usa un pool propio (RateLimitConfig): una ráfaga de requests no agota las conexiones de registerPayment
+@RequiredArgsConstructor
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final String CONSUME_SQL = """
+            INSERT INTO operation.rate_limit_buckets AS b (bucket_key, tat_micros)
+            VALUES (?, ? + ?)
+            ON CONFLICT (bucket_key) DO UPDATE
+                SET tat_micros = GREATEST(b.tat_micros, ?) + ?
+                WHERE GREATEST(b.tat_micros, ?) + ? - ? <= ?
+            RETURNING tat_micros
+            """;
+
+    //Un bucket con tat en el pasado está lleno; el WHERE se reevalúa con el lock de la fila
+    private static final String PURGE_SQL = """
+            DELETE FROM operation.rate_limit_buckets WHERE tat_micros <= ?
+            """;
+
+    //Si la fila ya se purgó el bucket está lleno: no hay nada que devolver
+    private static final String REFUND_SQL = """
+            UPDATE operation.rate_limit_buckets SET tat_micros = tat_micros - ? WHERE bucket_key = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public RateLimitDecision tryConsume(String key, int capacity, double refillPerSecond, long nowMicros) {
+        long interval = TokenBucket.interval(refillPerSecond);
+        long burst = interval * capacity;
+
+        List<Long> tat = jdbcTemplate.queryForList(CONSUME_SQL, Long.class,
+                key, nowMicros, interval,
+                nowMicros, interval,
+                nowMicros, interval, nowMicros, burst);
+
+        if (!tat.isEmpty()) {
+            return RateLimitDecision.allowed(capacity, (burst - (tat.get(0) - nowMicros)) / interval);
+        }
+
+        // la fila pudo purgarse entre las dos sentencias: sin fila el bucket está lleno
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT tat_micros FROM operation.rate_limit_buckets WHERE bucket_key = ?", Long.class, key);
+        long backlog = Math.max(current.isEmpty() ? nowMicros : current.get(0), nowMicros) + interval - nowMicros;
+        return RateLimitDecision.rejected(capacity, Math.max(0, backlog - burst));
+    }
+
+    @Override
+    public void refund(String key, double refillPerSecond) {
+        jdbcTemplate.update(REFUND_SQL, TokenBucket.interval(refillPerSecond), key);
+    }
+
+    @Override
+    public int purgeIdle(long nowMicros) {
+        return jdbcTemplate.update(PURGE_SQL, nowMicros);
+    }
+}
@@ -0,0 +1,63 @@
+package com.payservice.paymentservice.util.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Buckets en memoria, mapa acotado a maxEntries; solo se descartan buckets inactivos (llenos)
+//Un bucket activo nunca se borra: eso le devolvería la ráfaga completa a quien ya la gastó
+//Con el mapa lleno de buckets activos, las claves nuevas comparten un bucket de desborde hasta que haya lugar
+public class LocalRateLimitStore implements RateLimitStore {
+
+    static final String OVERFLOW_KEY = "~overflow";
+
+    //entre barridos del mapa lleno, para no recorrerlo en cada clave nueva
+    private static final long SWEEP_INTERVAL_MICROS = 1_000_000;
+
+    private final int maxEntries;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflow = new TokenBucket();
+    private final AtomicLong nextSweepMicros = new AtomicLong(Long.MIN_VALUE);
+
+    public LocalRateLimitStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public RateLimitDecision tryConsume(String key, int capacity, double refillPerSecond, long nowMicros) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxEntries && !sweep(nowMicros)) {
+                return overflow.tryConsume(capacity, refillPerSecond, nowMicros);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket());
+        }
+        return bucket.tryConsume(capacity, refillPerSecond, nowMicros);
+    }
+
+    //Sin bucket propio la clave consumió del de desborde
+    @Override
+    public void refund(String key, double refillPerSecond) {
+        buckets.getOrDefault(key, overflow).refund(refillPerSecond);
+    }
+
+    @Override
+    public int purgeIdle(long nowMicros) {
+        int before = buckets.size();
+        buckets.values().removeIf(b -> b.isIdle(nowMicros));
+        return Math.max(0, before - buckets.size());
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    //true si después del barrido hay lugar para una clave nueva
+    private boolean sweep(long nowMicros) {
+        long next = nextSweepMicros.get();
+        if (nowMicros >= next && nextSweepMicros.compareAndSet(next, nowMicros + SWEEP_INTERVAL_MICROS)) {
+            purgeIdle(nowMicros);
+        }
+        return buckets.size() < maxEntries;
+    }
+}
@@ -0,0 +1,13 @@
+package com.payservice.paymentservice.util.ratelimit;
+
+//Resultado de consumir un token: cuota restante y, si se rechaza, cuánto esperar
+public record RateLimitDecision(boolean allowed, long limit, long remaining, long retryAfterMicros) {
+
+    public static RateLimitDecision allowed(long limit, long remaining) {
+        return new RateLimitDecision(true, limit, remaining, 0);
+    }
+
+    public static RateLimitDecision rejected(long limit, long retryAfterMicros) {
+        return new RateLimitDecision(false, limit, 0, retryAfterMicros);
+    }
+}
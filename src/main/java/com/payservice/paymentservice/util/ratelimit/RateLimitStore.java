@@ -0,0 +1,12 @@
+package com.payservice.paymentservice.util.ratelimit;
+
+//Dónde viven los buckets: en memoria (una instancia) o compartidos entre instancias
+public interface RateLimitStore {
+    RateLimitDecision tryConsume(String key, int capacity, double refillPerSecond, long nowMicros);
+
+    //Devuelve un token ya consumido (la otra cuota del mismo request lo rechazó)
+    void refund(String key, double refillPerSecond);
+
+    //Borra los buckets inactivos (llenos): equivalen a no tener bucket. Devuelve cuántos borró
+    int purgeIdle(long nowMicros);
+}
@@ -0,0 +1,42 @@
+package com.payservice.paymentservice.util.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Token bucket sin locks en forma GCRA: todo el estado es un AtomicLong con el
+//"theoretical arrival time" (TAT). Capacidad = ráfaga, refillPerSecond = tasa sostenida.
+public class TokenBucket {
+
+    private final AtomicLong tat = new AtomicLong();
+
+    public RateLimitDecision tryConsume(int capacity, double refillPerSecond, long nowMicros) {
+        long interval = interval(refillPerSecond);
+        long burst = interval * capacity;
+
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, nowMicros) + interval;
+            long backlog = next - nowMicros;
+
+            if (backlog > burst) {
+                return RateLimitDecision.rejected(capacity, backlog - burst);
+            }
+            if (tat.compareAndSet(current, next)) {
+                return RateLimitDecision.allowed(capacity, (burst - backlog) / interval);
+            }
+        }
+    }
+
+    //Retrocede el TAT un intervalo; un TAT en el pasado equivale a bucket lleno, no da más ráfaga
+    public void refund(double refillPerSecond) {
+        tat.addAndGet(-interval(refillPerSecond));
+    }
+
+    //Un bucket inactivo está lleno: descartarlo equivale a crearlo de nuevo
+    public boolean isIdle(long nowMicros) {
+        return tat.get() <= nowMicros;
+    }
+
+    static long interval(double refillPerSecond) {
+        return Math.max(1, (long) (1_000_000 / refillPerSecond));
+    }
+}
@@ -0,0 +1,62 @@
+package com.payservice.paymentservice.util.timing;
+
+//Acumula, por hilo de request, el tiempo de base de datos y las fases del request
+//Solo existe mientras el request fue muestreado por ServerTimingFilter
+public class ServerTimingContext {
+
+    private static final ThreadLocal<ServerTimingContext> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private long dbNanos;
+    private int queryCount;
+    private long serializationStartNanos;
+
+    private ServerTimingContext(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public static ServerTimingContext start() {
+        ServerTimingContext ctx = new ServerTimingContext(System.nanoTime());
+        CURRENT.set(ctx);
+        return ctx;
+    }
+
+    public static ServerTimingContext current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public void recordQuery(long nanos) {
+        dbNanos += nanos;
+        queryCount++;
+    }
+
+    public void markSerializationStart() {
+        if (serializationStartNanos == 0) {
+            serializationStartNanos = System.nanoTime();
+        }
+    }
+
+    //Construye el valor del header: db (con número de queries), map, ser y total
+    public String toHeaderValue(long endNanos) {
+        long handlerEnd = serializationStartNanos == 0 ? endNanos : serializationStartNanos;
+        long mapNanos = Math.max(0, handlerEnd - startNanos - dbNanos);
+        long serNanos = serializationStartNanos == 0 ? 0 : endNanos - serializationStartNanos;
+
+        return "db;dur=" + millis(dbNanos) + ";desc=\"" + queryCount + " queries\", "
+                + "map;dur=" + millis(mapNanos) + ", "
+                + "ser;dur=" + millis(serNanos) + ", "
+                + "total;dur=" + millis(endNanos - startNanos);
+    }
+
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(java.util.Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
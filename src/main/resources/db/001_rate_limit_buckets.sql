@@ -0,0 +1,8 @@
+-- Buckets de rate limiting compartidos entre instancias (payment.rate-limit.store=jdbc)
+-- tat_micros: "theoretical arrival time" del algoritmo GCRA, en microsegundos epoch
+CREATE TABLE IF NOT EXISTS operation.rate_limit_buckets (
+    bucket_key  varchar(200) PRIMARY KEY,
+    tat_micros  bigint       NOT NULL
+);
+
+-- Los buckets con tat_micros en el pasado están llenos; RateLimitConfig los borra cada payment.rate-limit.purge-interval
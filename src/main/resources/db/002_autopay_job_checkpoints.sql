@@ -0,0 +1,26 @@
+-- Autopay: el cliente se suscribe al pago automático de sus recibos al vencimiento
+ALTER TABLE operation.customers
+    ADD COLUMN IF NOT EXISTS autopay_enabled boolean NOT NULL DEFAULT false;
+
+-- Búsqueda de recibos que vencen en el día (job de autopay) sin recorrer los pagados
+-- receipt_status NULL es impago; el predicado es el mismo del WHERE de ReceiptCursorRepository
+CREATE INDEX IF NOT EXISTS idx_receipts_due_date_open
+    ON operation.receipts (due_date, receipt_id)
+    WHERE receipt_status IS NULL OR receipt_status <> 'PAID';
+
+-- Reemplazado por idx_receipts_due_date_open (no cubría receipt_status NULL)
+DROP INDEX IF EXISTS operation.idx_receipts_due_date_unpaid;
+
+-- Checkpoints de los jobs batch: una fila por (job, corrida, partición)
+-- last_id: último id confirmado; una corrida reiniciada continúa desde ahí
+CREATE TABLE IF NOT EXISTS operation.job_checkpoints (
+    job_name         varchar(50)  NOT NULL,
+    run_key          varchar(50)  NOT NULL,
+    partition_no     integer      NOT NULL,
+    last_id          bigint       NOT NULL DEFAULT 0,
+    processed_count  bigint       NOT NULL DEFAULT 0,
+    skipped_count    bigint       NOT NULL DEFAULT 0,
+    completed        boolean      NOT NULL DEFAULT false,
+    updated_at       timestamp    NOT NULL DEFAULT now(),
+    PRIMARY KEY (job_name, run_key, partition_no)
+);
@@ -0,0 +1,9 @@
+-- Estado OVERDUE: recibo con saldo cuyo due_date ya pasó (lo asigna OverdueSweepJob)
+-- Índice parcial del barrido: solo los recibos que aún pueden pasar a OVERDUE (incluye los sin estado)
+-- El predicado es el mismo del WHERE de OverdueSweepJob para que el planner lo use
+CREATE INDEX IF NOT EXISTS idx_receipts_overdue_open
+    ON operation.receipts (due_date, receipt_id)
+    WHERE receipt_status IS NULL OR receipt_status NOT IN ('PAID', 'OVERDUE');
+
+-- Reemplazado por idx_receipts_overdue_open (no cubría receipt_status NULL)
+DROP INDEX IF EXISTS operation.idx_receipts_overdue_candidates;
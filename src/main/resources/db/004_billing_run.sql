@@ -0,0 +1,19 @@
+-- Numeración de recibos generados por BillingRunJob (continúa después del mayor receipt_number existente)
+CREATE SEQUENCE IF NOT EXISTS operation.receipt_number_seq;
+SELECT setval('operation.receipt_number_seq',
+              GREATEST(1, (SELECT COALESCE(MAX(receipt_number::bigint), 0) FROM operation.receipts
+                           WHERE receipt_number ~ '^[0-9]+$')));
+
+-- Un recibo por servicio y período: hace idempotente la corrida mensual (ON CONFLICT DO NOTHING)
+-- Si falla por duplicados históricos, depurarlos antes de crear el índice
+CREATE UNIQUE INDEX IF NOT EXISTS uq_receipts_service_period
+    ON operation.receipts (service_id, period_label);
+
+-- Paginación keyset de servicios activos
+CREATE INDEX IF NOT EXISTS idx_services_active
+    ON operation.services (service_id)
+    WHERE is_active;
+
+-- Último recibo de cada servicio (JOIN LATERAL de la página de facturación)
+CREATE INDEX IF NOT EXISTS idx_receipts_service_due_date
+    ON operation.receipts (service_id, due_date DESC);
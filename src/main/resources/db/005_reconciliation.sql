@@ -0,0 +1,3 @@
+-- Conciliación: pagos de cada recibo en orden sin ordenar en memoria (LEFT JOIN ... ORDER BY receipt_id, payment_id)
+CREATE INDEX IF NOT EXISTS idx_payments_receipt_payment
+    ON operation.payments (receipt_id, payment_id);
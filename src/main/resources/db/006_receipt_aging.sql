@@ -0,0 +1,32 @@
+-- Reporte de antigüedad de saldos (AgingRefreshJob)
+-- receipt_aging_state: en qué bucket y con qué saldo se contó cada recibo en la última corrida
+-- (permite restar su aporte anterior cuando cambia, sin recalcular todo)
+CREATE TABLE IF NOT EXISTS operation.receipt_aging_state (
+    receipt_id      integer        PRIMARY KEY,
+    service_id      integer        NOT NULL,
+    currency        varchar(3)     NOT NULL,
+    bucket          varchar(10)    NOT NULL,
+    pending_amount  numeric(14, 2) NOT NULL
+);
+
+-- Rollup que lee el endpoint: una fila por (moneda, servicio, bucket)
+CREATE TABLE IF NOT EXISTS operation.receipt_aging_rollup (
+    currency        varchar(3)     NOT NULL,
+    service_id      integer        NOT NULL,
+    bucket          varchar(10)    NOT NULL,
+    receipt_count   bigint         NOT NULL,
+    pending_total   numeric(16, 2) NOT NULL,
+    PRIMARY KEY (currency, service_id, bucket)
+);
+
+-- Marca de agua de la última corrida (una sola fila)
+CREATE TABLE IF NOT EXISTS operation.receipt_aging_refresh (
+    id            integer    PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    refreshed_at  timestamp  NOT NULL,
+    as_of         date       NOT NULL
+);
+
+-- Recibos modificados o creados desde la última corrida
+CREATE INDEX IF NOT EXISTS idx_receipts_date_modifi ON operation.receipts (date_modifi);
+CREATE INDEX IF NOT EXISTS idx_receipts_date_regist ON operation.receipts (date_regist);
+-- Los que cruzan un límite de bucket (impagos por due_date) usan idx_receipts_due_date_open de db/002
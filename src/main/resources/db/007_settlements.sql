@@ -0,0 +1,39 @@
+-- Cierre diario: solo se leen los pagos del día
+CREATE INDEX IF NOT EXISTS idx_payments_payment_date
+    ON operation.payments (payment_date, payment_id);
+
+-- Acumuladores parciales del job (serializados) para reanudar sin releer lo ya procesado
+ALTER TABLE operation.job_checkpoints ADD COLUMN IF NOT EXISTS state text;
+
+-- Snapshot inmutable del cierre: los reportes leen esto en lugar de recorrer payments
+CREATE TABLE IF NOT EXISTS operation.settlements (
+    settlement_date  date       PRIMARY KEY,
+    payment_count    bigint     NOT NULL,
+    closed_at        timestamp  NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS operation.settlement_lines (
+    settlement_date       date           NOT NULL REFERENCES operation.settlements (settlement_date),
+    payment_currency      varchar(3)     NOT NULL,
+    exchange_rate         numeric(12, 2) NOT NULL,
+    receipt_currency      varchar(3)     NOT NULL,
+    payment_count         bigint         NOT NULL,
+    amount_total          numeric(16, 2) NOT NULL,
+    receipt_amount_total  numeric(16, 2) NOT NULL,
+    PRIMARY KEY (settlement_date, payment_currency, exchange_rate, receipt_currency)
+);
+
+-- Inmutabilidad: un cierre confirmado no se modifica ni se borra
+CREATE OR REPLACE FUNCTION operation.settlements_immutable() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'settlements are immutable';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_settlements_immutable ON operation.settlements;
+CREATE TRIGGER trg_settlements_immutable BEFORE UPDATE OR DELETE ON operation.settlements
+    FOR EACH ROW EXECUTE FUNCTION operation.settlements_immutable();
+
+DROP TRIGGER IF EXISTS trg_settlement_lines_immutable ON operation.settlement_lines;
+CREATE TRIGGER trg_settlement_lines_immutable BEFORE UPDATE OR DELETE ON operation.settlement_lines
+    FOR EACH ROW EXECUTE FUNCTION operation.settlements_immutable();
@@ -0,0 +1,95 @@
+-- payments particionada por mes sobre payment_date (PaymentArchivalJob)
+-- Correr en una ventana de mantenimiento: copia la tabla actual y la deja como payments_legacy
+-- Idempotente como 001..007: si payments ya está particionada la conversión no se repite
+BEGIN;
+
+-- Crea (si falta) la partición del mes de p_month; nombre payments_pYYYYMM
+CREATE OR REPLACE FUNCTION operation.ensure_payments_partition(p_month date)
+RETURNS text
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_start date := date_trunc('month', p_month)::date;
+    v_name  text := 'payments_p' || to_char(v_start, 'YYYYMM');
+BEGIN
+    IF to_regclass('operation.' || v_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE operation.%I PARTITION OF operation.payments FOR VALUES FROM (%L) TO (%L)',
+                       v_name, v_start, (v_start + interval '1 month')::date);
+    END IF;
+    RETURN v_name;
+END;
+$$;
+
+DO $$
+DECLARE
+    v_seq text;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'operation.payments'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE operation.payments RENAME TO payments_legacy;
+
+    -- La PK de una tabla particionada debe incluir la clave de partición; la entidad sigue usando payment_id
+    -- El default nextval de payment_id (serial) se copia con INCLUDING DEFAULTS
+    CREATE TABLE operation.payments (
+        LIKE operation.payments_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+        PRIMARY KEY (payment_id, payment_date)
+    ) PARTITION BY RANGE (payment_date);
+
+    ALTER TABLE operation.payments
+        ADD FOREIGN KEY (receipt_id) REFERENCES operation.receipts (receipt_id),
+        ADD FOREIGN KEY (customer_id) REFERENCES operation.customers (customer_id);
+
+    -- Meses con datos y los próximos tres
+    PERFORM operation.ensure_payments_partition(m::date)
+    FROM generate_series(
+            date_trunc('month', coalesce((SELECT min(payment_date) FROM operation.payments_legacy), now())),
+            date_trunc('month', now()) + interval '3 months',
+            interval '1 month') AS m;
+
+    INSERT INTO operation.payments SELECT * FROM operation.payments_legacy;
+
+    -- La secuencia pasa a la tabla nueva para poder borrar payments_legacy tras verificar
+    v_seq := pg_get_serial_sequence('operation.payments_legacy', 'payment_id');
+    IF v_seq IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY operation.payments.payment_id', v_seq);
+    END IF;
+END;
+$$;
+
+-- Índices particionados: se crean solos en cada partición nueva
+CREATE INDEX IF NOT EXISTS idx_payments_customer_date ON operation.payments (customer_id, payment_date DESC);
+CREATE INDEX IF NOT EXISTS idx_payments_receipt_payment_p ON operation.payments (receipt_id, payment_id);
+CREATE INDEX IF NOT EXISTS idx_payments_payment_date_p ON operation.payments (payment_date, payment_id);
+
+-- Sin partición DEFAULT: PostgreSQL no admite DETACH PARTITION CONCURRENTLY (PaymentArchivalJob) si existe
+-- El job crea los meses por adelantado (payment.jobs.payment-archive.months-ahead)
+-- Una DEFAULT de una versión anterior se elimina si está vacía; con filas, moverlas a su mes a mano
+DO $$
+DECLARE
+    v_rows boolean;
+BEGIN
+    IF to_regclass('operation.payments_default') IS NOT NULL THEN
+        EXECUTE 'SELECT EXISTS (SELECT 1 FROM operation.payments_default)' INTO v_rows;
+        IF NOT v_rows THEN
+            DROP TABLE operation.payments_default;
+        END IF;
+    END IF;
+END;
+$$;
+
+-- Archivo frío: meses fuera de la ventana caliente, sin particiones ni FKs
+-- fillfactor 100 (no se actualiza), filas insertadas en orden (customer_id, payment_date) y BRIN por fecha
+CREATE TABLE IF NOT EXISTS operation.payments_archive (
+    LIKE operation.payments,
+    archived_at timestamp NOT NULL DEFAULT now()
+) WITH (fillfactor = 100);
+
+CREATE INDEX IF NOT EXISTS idx_payments_archive_customer_date ON operation.payments_archive (customer_id, payment_date DESC);
+CREATE INDEX IF NOT EXISTS idx_payments_archive_receipt_payment ON operation.payments_archive (receipt_id, payment_id);
+CREATE INDEX IF NOT EXISTS idx_payments_archive_date_brin ON operation.payments_archive USING brin (payment_date);
+
+COMMIT;
+
+-- Tras verificar conteos: DROP TABLE operation.payments_legacy;
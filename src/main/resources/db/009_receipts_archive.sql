@@ -0,0 +1,19 @@
+-- Archivo frío de recibos pagados (ReceiptArchivalJob)
+-- Sin FKs ni updates: fillfactor 100; la lectura es por (service_id, customer_id) con historial completo
+CREATE TABLE IF NOT EXISTS operation.receipts_archive (
+    LIKE operation.receipts,
+    archived_at timestamp NOT NULL DEFAULT now(),
+    PRIMARY KEY (receipt_id)
+) WITH (fillfactor = 100);
+
+CREATE INDEX IF NOT EXISTS idx_receipts_archive_service_customer
+    ON operation.receipts_archive (service_id, customer_id, due_date DESC);
+
+-- Un período archivado sigue ocupado: billing e importación lo consultan aquí además de en receipts
+CREATE UNIQUE INDEX IF NOT EXISTS uq_receipts_archive_service_period
+    ON operation.receipts_archive (service_id, period_label);
+
+-- Candidatos del mover: pagados por antigüedad, sin recorrer los que tienen saldo
+CREATE INDEX IF NOT EXISTS idx_receipts_paid_due_date
+    ON operation.receipts (due_date, receipt_id)
+    WHERE receipt_status = 'PAID';
@@ -0,0 +1,3 @@
+-- Carga de la proyección en memoria (CustomerReadModel) por rangos de customer_id
+CREATE INDEX IF NOT EXISTS idx_services_customer ON operation.services (customer_id, service_id);
+CREATE INDEX IF NOT EXISTS idx_receipts_customer ON operation.receipts (customer_id, service_id, due_date DESC);
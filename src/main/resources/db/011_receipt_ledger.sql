@@ -0,0 +1,86 @@
+-- Ledger de recibos: eventos inmutables (emitido, pago aplicado, cambio de estado)
+-- receipts.pending_amount / receipt_status quedan como proyección; la fuente es receipt_events
+-- Sin FK a receipts: el ledger sobrevive al archivo (db/009)
+CREATE TABLE IF NOT EXISTS operation.receipt_events (
+    event_id        bigserial PRIMARY KEY,
+    receipt_id      integer       NOT NULL,
+    event_type      varchar(20)   NOT NULL CHECK (event_type IN ('ISSUED', 'PAYMENT_APPLIED', 'STATUS_CHANGED')),
+    -- ISSUED: monto del recibo; PAYMENT_APPLIED: monto aplicado en la moneda del recibo; STATUS_CHANGED: null
+    amount          numeric(12,2),
+    -- estado del recibo después del evento
+    receipt_status  varchar(20)   NOT NULL,
+    payment_id      integer,
+    -- clock_timestamp: dentro de un recibo (filas bloqueadas) el orden por event_id coincide con el del reloj
+    occurred_at     timestamp     NOT NULL DEFAULT clock_timestamp()
+) WITH (fillfactor = 100);
+
+-- Replay de un recibo y recorrido por rangos del rebuild
+CREATE INDEX IF NOT EXISTS idx_receipt_events_receipt
+    ON operation.receipt_events (receipt_id, event_id) INCLUDE (event_type, amount, receipt_status, occurred_at);
+
+-- Append-only: se rechaza cualquier UPDATE o DELETE
+CREATE OR REPLACE FUNCTION operation.receipt_events_append_only() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'receipt_events is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_receipt_events_append_only ON operation.receipt_events;
+CREATE TRIGGER trg_receipt_events_append_only
+    BEFORE UPDATE OR DELETE ON operation.receipt_events
+    FOR EACH ROW EXECUTE FUNCTION operation.receipt_events_append_only();
+
+-- Estado plegado hasta last_event_id (ReceiptLedgerRebuildJob); el replay arranca del último snapshot
+CREATE TABLE IF NOT EXISTS operation.receipt_snapshots (
+    receipt_id      integer       NOT NULL,
+    last_event_id   bigint        NOT NULL,
+    event_count     integer       NOT NULL,
+    pending_amount  numeric(12,2) NOT NULL,
+    receipt_status  varchar(20)   NOT NULL,
+    -- occurred_at del último evento incluido: sirve para reconstruir "al momento X"
+    as_of           timestamp     NOT NULL,
+    taken_at        timestamp     NOT NULL DEFAULT now(),
+    PRIMARY KEY (receipt_id, last_event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_receipt_snapshots_as_of
+    ON operation.receipt_snapshots (receipt_id, as_of DESC);
+
+-- Carga inicial desde lo que ya existe (recibos y pagos, calientes y archivados)
+-- Historia anterior al ledger: un pago aplica previous_pending - new_pending; si el estado final
+-- no coincide con el derivado (p. ej. OVERDUE) se agrega un STATUS_CHANGED
+INSERT INTO operation.receipt_events (receipt_id, event_type, amount, receipt_status, payment_id, occurred_at)
+SELECT receipt_id, event_type, amount, receipt_status, payment_id, occurred_at
+FROM (
+    SELECT r.receipt_id, 0 AS ord, 0 AS payment_ord, 'ISSUED' AS event_type, r.receipt_amount AS amount,
+           'PENDING' AS receipt_status, NULL::integer AS payment_id,
+           coalesce(r.date_regist, r.due_date::timestamp) AS occurred_at
+    FROM (SELECT receipt_id, receipt_amount, date_regist, due_date FROM operation.receipts
+          UNION ALL
+          SELECT receipt_id, receipt_amount, date_regist, due_date FROM operation.receipts_archive) r
+    UNION ALL
+    SELECT p.receipt_id, 1, p.payment_id, 'PAYMENT_APPLIED', p.previous_pending_amount - p.new_pending_amount,
+           coalesce(p.payment_status, CASE WHEN p.new_pending_amount = 0 THEN 'PAID' ELSE 'PARTIALLY_PAID' END),
+           p.payment_id, p.payment_date
+    FROM (SELECT receipt_id, payment_id, previous_pending_amount, new_pending_amount, payment_status, payment_date
+          FROM operation.payments
+          UNION ALL
+          SELECT receipt_id, payment_id, previous_pending_amount, new_pending_amount, payment_status, payment_date
+          FROM operation.payments_archive) p
+    UNION ALL
+    SELECT r.receipt_id, 2, 0, 'STATUS_CHANGED', NULL, r.receipt_status, NULL,
+           coalesce(r.date_modifi, r.date_regist, now())
+    FROM (SELECT receipt_id, receipt_status, date_regist, date_modifi FROM operation.receipts
+          UNION ALL
+          SELECT receipt_id, receipt_status, date_regist, date_modifi FROM operation.receipts_archive) r
+    WHERE r.receipt_status IS NOT NULL AND r.receipt_status <> coalesce(
+            (SELECT p.payment_status
+             FROM (SELECT receipt_id, payment_id, payment_status FROM operation.payments
+                   UNION ALL
+                   SELECT receipt_id, payment_id, payment_status FROM operation.payments_archive) p
+             WHERE p.receipt_id = r.receipt_id
+             ORDER BY p.payment_id DESC
+             LIMIT 1), 'PENDING')
+) backfill
+WHERE NOT EXISTS (SELECT 1 FROM operation.receipt_events e WHERE e.receipt_id = backfill.receipt_id)
+ORDER BY receipt_id, ord, payment_ord;
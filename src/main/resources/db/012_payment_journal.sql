@@ -0,0 +1,19 @@
+-- Pagos del journal local (PaymentJournal) ya reaplicados: clave de idempotencia del replay
+-- journal_id se inserta en la misma transacción que el pago; un replay repetido lo encuentra y lo salta
+CREATE TABLE IF NOT EXISTS operation.payment_journal_entries (
+    journal_id        uuid          PRIMARY KEY,
+    receipt_id        integer       NOT NULL,
+    customer_id       integer       NOT NULL,
+    amount            numeric(12,2) NOT NULL,
+    payment_currency  varchar(3)    NOT NULL,
+    accepted_at       timestamp     NOT NULL,
+    replayed_at       timestamp     NOT NULL DEFAULT now(),
+    -- APPLIED: el pago se registró; REJECTED: una regla lo rechazó recién al reaplicar (conflicto)
+    outcome           varchar(20)   NOT NULL CHECK (outcome IN ('APPLYING', 'APPLIED', 'REJECTED')),
+    message           varchar(500)
+);
+
+-- Conflictos para revisión / contacto con el cliente
+CREATE INDEX IF NOT EXISTS idx_payment_journal_rejected
+    ON operation.payment_journal_entries (accepted_at)
+    WHERE outcome = 'REJECTED';
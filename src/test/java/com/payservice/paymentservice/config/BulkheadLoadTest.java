@@ -0,0 +1,285 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.Bulkhead;
+import com.payservice.paymentservice.util.exception.BulkheadFullException;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+//Prueba de carga sobre los pools Hikari de DataSourceRoutingConfig y el BulkheadInterceptor reales
+//El driver de prueba simula la base: una lectura de historial tarda 50 ms, un registerPayment 1 ms
+//Con el compartimento de lectura saturado, la latencia de escritura se mantiene plana
+class BulkheadLoadTest {
+
+    private static final int WRITES = 200;
+    private static final long READ_WORK_MS = 50;
+    private static final long WRITE_WORK_MS = 1;
+
+    private DataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+    private DataSourceRoutingConfig routingConfig;
+    private HikariDataSource writePool;
+    private HikariDataSource readPool;
+    private TransactionTemplate writeTx;
+    private TransactionTemplate readTx;
+    private BulkheadInterceptor interceptor;
+    private Bulkhead writes;
+    private Bulkhead reads;
+
+    @BeforeEach
+    void setup() {
+        BulkheadProperties bulkheads = new BulkheadProperties();
+        bulkheads.setEnabled(true);
+        bulkheads.setWrite(new BulkheadProperties.Compartment(4, 16, Duration.ofSeconds(1), 4));
+        bulkheads.setRead(new BulkheadProperties.Compartment(4, 8, Duration.ofMillis(300), 4));
+
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:slow:payments");
+        properties.setDriverClassName(SlowDriver.class.getName());
+
+        // ajustes comunes de Hikari: tienen que llegar a los pools de cada compartimento
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.leak-detection-threshold", "60000")
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "50");
+
+        meterRegistry = new SimpleMeterRegistry();
+        routingConfig = new DataSourceRoutingConfig(new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry))
+                .getBeanProvider(MeterRegistry.class));
+        dataSource = routingConfig.dataSource(properties, new ReplicaRoutingProperties(), bulkheads, environment);
+        ReadWriteRoutingDataSource routing = (ReadWriteRoutingDataSource)
+                ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+        writePool = (HikariDataSource) routing.getResolvedDataSources().get(ReadWriteRoutingDataSource.PRIMARY);
+        readPool = (HikariDataSource) routing.getResolvedDataSources().get(ReadWriteRoutingDataSource.PRIMARY_READ);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTx = new TransactionTemplate(transactionManager);
+        readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+
+        BulkheadConfig config = new BulkheadConfig(bulkheads, new SimpleMeterRegistry());
+        writes = config.paymentWriteBulkhead();
+        reads = config.historyReadBulkhead();
+        interceptor = new BulkheadInterceptor(writes, reads);
+    }
+
+    @AfterEach
+    void tearDown() {
+        routingConfig.destroy();
+    }
+
+    //Los pools no son beans: los cierra la configuración y publican sus métricas por poolName
+    @Test
+    void compartmentPools_shouldPublishMetricsAndCloseWithContext() {
+        writeTx.executeWithoutResult(s -> query("payment"));
+        readTx.executeWithoutResult(s -> query("history"));
+
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "payment-writes").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "history-reads").gauge());
+
+        routingConfig.destroy();
+        assertTrue(writePool.isClosed());
+        assertTrue(readPool.isClosed());
+    }
+
+    @Test
+    void compartmentPools_shouldKeepCommonHikariSettings() {
+        assertEquals(60000, writePool.getLeakDetectionThreshold());
+        assertEquals(60000, readPool.getLeakDetectionThreshold());
+        // el tamaño de cada compartimento manda sobre spring.datasource.hikari.maximum-pool-size
+        assertEquals(4, writePool.getMaximumPoolSize());
+        assertEquals(4, readPool.getMaximumPoolSize());
+    }
+
+    @Test
+    void writeLatency_shouldStayFlat_underReadSaturation() throws Exception {
+        long baselineP99 = p99(measureWrites());
+
+        // 32 clientes de GET /payments/customers/{id} en bucle cerrado, 8x la capacidad del compartimento
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger readsRejected = new AtomicInteger();
+        ExecutorService readers = Executors.newFixedThreadPool(32);
+        for (int i = 0; i < 32; i++) {
+            readers.submit(() -> {
+                while (running.get()) {
+                    try {
+                        request("GET", "/payments/customers/1", () -> readTx.executeWithoutResult(s -> query("history")));
+                    } catch (BulkheadFullException ex) {
+                        // el cliente recibe 503 y reintenta tras una pausa corta
+                        readsRejected.incrementAndGet();
+                        sleep(5);
+                    }
+                }
+            });
+        }
+
+        try {
+            sleep(200);
+            long loadedP99 = p99(measureWrites());
+
+            assertTrue(readsRejected.get() > 0, "read compartment should be saturated");
+            assertTrue(readPool.getHikariPoolMXBean().getActiveConnections() > 0, "reads should hold read-pool connections");
+            // sin compartimentos cada escritura esperaría al menos READ_WORK_MS por una conexión
+            assertTrue(loadedP99 < baselineP99 + TimeUnit.MILLISECONDS.toNanos(READ_WORK_MS / 2),
+                    "write p99 under read saturation: " + loadedP99 / 1_000 + "us, baseline: " + baselineP99 / 1_000 + "us");
+        } finally {
+            running.set(false);
+            readers.shutdown();
+            readers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    //Solo los POST de pagos compiten por turnos de escritura; la importación de recibos no toma ninguno
+    @Test
+    void otherPosts_shouldNotTakePaymentWriteSlots() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/receipts/import");
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        assertEquals(0, writes.getActive());
+        assertEquals(0, reads.getActive());
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+    }
+
+    private List<Long> measureWrites() {
+        List<Long> latencies = new ArrayList<>(WRITES);
+        for (int i = 0; i < WRITES; i++) {
+            long start = System.nanoTime();
+            request("POST", "/payments/receipts/10/customer/1", () -> writeTx.executeWithoutResult(s -> query("payment")));
+            latencies.add(System.nanoTime() - start);
+        }
+        return latencies;
+    }
+
+    //Mismo ciclo que un request de Spring MVC: preHandle, handler, afterCompletion
+    private void request(String method, String uri, Runnable handler) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler);
+        try {
+            handler.run();
+        } finally {
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+    }
+
+    private void query(String sql) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.execute();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static long p99(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Driver JDBC de prueba: cada sentencia tarda lo que tardaría en la base según sea lectura o escritura
+    public static class SlowDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) return null;
+            try {
+                Connection connection = mock(Connection.class, withSettings().stubOnly());
+                when(connection.isValid(anyInt())).thenReturn(true);
+                when(connection.getAutoCommit()).thenReturn(true);
+                when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+                when(connection.prepareStatement(anyString())).thenAnswer(inv -> {
+                    long work = "history".equals(inv.getArgument(0)) ? READ_WORK_MS : WRITE_WORK_MS;
+                    PreparedStatement ps = mock(PreparedStatement.class, withSettings().stubOnly());
+                    when(ps.execute()).thenAnswer(e -> {
+                        sleep(work);
+                        return true;
+                    });
+                    return ps;
+                });
+                return connection;
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith("jdbc:slow:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
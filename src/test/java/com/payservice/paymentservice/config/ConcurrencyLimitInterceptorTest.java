@@ -0,0 +1,58 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.util.AdaptiveConcurrencyLimiter;
+import com.payservice.paymentservice.util.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void bulkImport_shouldNotUseThePaymentReserve() {
+        // límite 5 con 40% de reserva: las lecturas y los POST que no son pagos llegan a 3
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(5, 1, 5, Long.MAX_VALUE, 0.5, 0.4);
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(limiter, 1, List.of());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/payments/customers/1"), response, null));
+        }
+
+        assertThrows(ServiceOverloadedException.class, () ->
+                interceptor.preHandle(new MockHttpServletRequest("POST", "/receipts/import"), response, null));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/payments/receipts/1/customer/1"),
+                response, null));
+    }
+
+    @Test
+    void unsampledPath_shouldReleaseWithoutShrinkingTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100,
+                TimeUnit.MILLISECONDS.toNanos(1), 0.5, 0.2);
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(limiter, 1,
+                List.of("/receipts/import", "/customers/*/dashboard"));
+
+        MockHttpServletRequest dashboard = new MockHttpServletRequest("GET", "/customers/7/dashboard");
+        interceptor.preHandle(dashboard, response, null);
+        Thread.sleep(5);
+        interceptor.afterCompletion(dashboard, response, null, null);
+
+        assertEquals(20.0, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+
+        // la misma latencia en una lectura común sí es congestión
+        MockHttpServletRequest history = new MockHttpServletRequest("GET", "/payments/customers/7");
+        interceptor.preHandle(history, response, null);
+        Thread.sleep(5);
+        interceptor.afterCompletion(history, response, null, null);
+
+        assertEquals(10.0, limiter.getLimit());
+    }
+}
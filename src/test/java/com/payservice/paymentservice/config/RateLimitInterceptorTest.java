@@ -0,0 +1,145 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.controller.PaymentController;
+import com.payservice.paymentservice.journal.PaymentJournal;
+import com.payservice.paymentservice.service.PaymentService;
+import com.payservice.paymentservice.util.exception.GlobalExceptionHandler;
+import com.payservice.paymentservice.util.exception.RateLimitExceededException;
+import com.payservice.paymentservice.util.ratelimit.LocalRateLimitStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class RateLimitInterceptorTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        PaymentService paymentService = Mockito.mock(PaymentService.class);
+        when(paymentService.getPaymentsByCustomer(Mockito.anyInt(), Mockito.any(), Mockito.any())).thenReturn(List.of());
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(true);
+        properties.getCustomer().setEndpoints(Map.of("getPaymentsByCustomer", new RateLimitProperties.Limit(2, 0.001)));
+        properties.getClient().setEndpoints(Map.of("getPaymentsByCustomer", new RateLimitProperties.Limit(3, 0.001)));
+
+        // reloj fijo: no hay reposición durante la prueba
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(
+                properties, new LocalRateLimitStore(1_000), () -> 1_000_000L);
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new PaymentController(paymentService, new PaymentJournal(new PaymentJournalProperties())))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addInterceptors(interceptor)
+                .build();
+    }
+
+    @Test
+    void withinQuota_shouldReturnRemainingQuotaHeaders() throws Exception {
+        mockMvc.perform(get("/payments/customers/1").with(from("10.0.0.1")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-RateLimit-Limit", "2"))
+                .andExpect(header().string("X-RateLimit-Remaining", "1"));
+    }
+
+    @Test
+    void customerOverQuota_shouldReturn429EvenFromOtherClient() throws Exception {
+        mockMvc.perform(get("/payments/customers/1").with(from("10.0.0.1")));
+        mockMvc.perform(get("/payments/customers/1").with(from("10.0.0.1")));
+
+        mockMvc.perform(get("/payments/customers/1").with(from("10.0.0.2")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("X-RateLimit-Remaining", "0"))
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.code").value(429));
+
+        // otro cliente final no se ve afectado
+        mockMvc.perform(get("/payments/customers/2").with(from("10.0.0.2")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void clientQuota_shouldNotBeEscapedByRotatingClientHeader() throws Exception {
+        // 3 requests del mismo integrador sobre clientes distintos: agota su cuota propia (3)
+        for (int customer = 1; customer <= 3; customer++) {
+            mockMvc.perform(get("/payments/customers/" + customer).with(from("10.0.0.1"))
+                            .header("X-Client-Id", "integrator-" + customer))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/payments/customers/4").with(from("10.0.0.1")).header("X-Client-Id", "integrator-4"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("X-RateLimit-Limit", "3"));
+    }
+
+    @Test
+    void customerRejection_shouldNotChargeClientQuota() throws Exception {
+        mockMvc.perform(get("/payments/customers/1").with(from("10.0.0.1")));
+        mockMvc.perform(get("/payments/customers/1").with(from("10.0.0.1")));
+        // rechazados por la cuota del cliente final 1: el integrador recupera su token
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/payments/customers/1").with(from("10.0.0.1")))
+                    .andExpect(status().isTooManyRequests());
+        }
+
+        mockMvc.perform(get("/payments/customers/2").with(from("10.0.0.1")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-RateLimit-Remaining", "0"));
+        mockMvc.perform(get("/payments/customers/3").with(from("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("X-RateLimit-Limit", "3"));
+    }
+
+    @Test
+    void authenticatedClient_shouldBeLimitedByIdentityNotAddress() throws Exception {
+        for (int customer = 1; customer <= 3; customer++) {
+            mockMvc.perform(get("/payments/customers/" + customer).with(from("10.0.0." + customer)).principal(() -> "acme"))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/payments/customers/4").with(from("10.0.0.4")).principal(() -> "acme"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void graphqlRouterFunction_shouldUseItsOwnEndpointQuota() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(true);
+        properties.getClient().setEndpoints(Map.of("graphql", new RateLimitProperties.Limit(1, 0.001)));
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(
+                properties, new LocalRateLimitStore(1_000), () -> 1_000_000L);
+        // /graphql lo atiende una HandlerFunction, no un método de controller
+        HandlerFunction<ServerResponse> graphql = request -> ServerResponse.ok().build();
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/graphql"), first, graphql);
+        assertEquals("0", first.getHeader("X-RateLimit-Remaining"));
+
+        assertThrows(RateLimitExceededException.class, () -> interceptor.preHandle(
+                new MockHttpServletRequest("POST", "/graphql"), new MockHttpServletResponse(), graphql));
+    }
+
+    private static RequestPostProcessor from(String remoteAddr) {
+        return request -> {
+            request.setRemoteAddr(remoteAddr);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.event.PaymentCommittedEvent;
+import com.payservice.paymentservice.repository.WriteNoticeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private ReadWriteRoutingDataSource routing;
+    private ReplicaStalenessGuard guard;
+
+    @BeforeEach
+    void setup() {
+        routing = new ReadWriteRoutingDataSource(2);
+
+        ReplicaRoutingProperties properties = new ReplicaRoutingProperties();
+        properties.setEnabled(true);
+        properties.setStalenessBound(Duration.ofMinutes(1));
+        guard = new ReplicaStalenessGuard(properties, Mockito.mock(WriteNoticeRepository.class));
+        guard.onListenerConnected();
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void readWriteTransaction_shouldUsePrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransaction_shouldRoundRobinReplicas() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-0", routing.determineCurrentLookupKey());
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+        assertEquals("replica-0", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void customerThatJustPaid_shouldReadFromPrimaryUntilTransactionEnds() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        guard.onPaymentCommitted(new PaymentCommittedEvent(1, 100, 10));
+
+        guard.pinPrimaryIfRecentlyWritten(2);
+        assertEquals("replica-0", routing.determineCurrentLookupKey());
+
+        guard.pinPrimaryIfRecentlyWritten(1);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+    }
+
+    //Pagó en otra instancia: llega el NOTIFY y esta instancia también lee del primario
+    @Test
+    void customerThatPaidOnAnotherInstance_shouldReadFromPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        guard.markWritten(3);
+
+        guard.pinPrimaryIfRecentlyWritten(3);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    //Sin LISTEN no llegan los avisos de otras instancias: nadie lee de la réplica
+    @Test
+    void listenerDown_shouldPinEveryReadToPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        guard.onListenerLost();
+
+        guard.pinPrimaryIfRecentlyWritten(2);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyWithoutReplicas_shouldUseSeparateReadPoolWhenBulkheadsEnabled() {
+        ReadWriteRoutingDataSource bulkheaded = new ReadWriteRoutingDataSource(0, true);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY_READ, bulkheaded.determineCurrentLookupKey());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, bulkheaded.determineCurrentLookupKey());
+    }
+}
@@ -0,0 +1,86 @@
+package com.payservice.paymentservice.config;
+
+import com.payservice.paymentservice.controller.ServiceController;
+import com.payservice.paymentservice.dto.ServiceResponseDTO;
+import com.payservice.paymentservice.service.ServiceService;
+import com.payservice.paymentservice.util.RequestCoalescer;
+import com.payservice.paymentservice.util.exception.GlobalExceptionHandler;
+import com.payservice.paymentservice.util.timing.ServerTimingContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ServerTimingFilterTest {
+
+    @AfterEach
+    void cleanUp() {
+        ServerTimingContext.clear();
+    }
+
+    private MockMvc buildMockMvc(double sampleRate) {
+        ServiceService serviceService = Mockito.mock(ServiceService.class);
+        when(serviceService.getServicesByCustomer(1)).thenReturn(List.of(
+                new ServiceResponseDTO("Internet", "Plan", "PEN", new BigDecimal("150"), BigDecimal.ZERO)));
+
+        ServerTimingProperties properties = new ServerTimingProperties();
+        properties.setEnabled(true);
+        properties.setSampleRate(sampleRate);
+
+        return MockMvcBuilders
+                .standaloneSetup(new ServiceController(serviceService, new RequestCoalescer()))
+                .setControllerAdvice(new GlobalExceptionHandler(), new ServerTimingResponseBodyAdvice())
+                .addFilters(new ServerTimingFilter(properties))
+                .build();
+    }
+
+    @Test
+    void sampledRequest_shouldCarryServerTimingHeader() throws Exception {
+        buildMockMvc(1.0).perform(get("/services/customers/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serviceName").value("Internet"))
+                .andExpect(header().string(ServerTimingFilter.HEADER, matchesPattern(
+                        "db;dur=[0-9.]+;desc=\"0 queries\", map;dur=[0-9.]+, ser;dur=[0-9.]+, total;dur=[0-9.]+")));
+    }
+
+    @Test
+    void notSampledRequest_shouldNotCarryHeader() throws Exception {
+        buildMockMvc(0.0).perform(get("/services/customers/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ServerTimingFilter.HEADER));
+    }
+
+    @Test
+    void timingDataSource_shouldCountExecutedQueries() throws Exception {
+        DataSource target = Mockito.mock(DataSource.class);
+        Connection connection = Mockito.mock(Connection.class);
+        PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("select 1")).thenReturn(statement);
+
+        DataSource dataSource = (DataSource) new ServerTimingDataSourcePostProcessor()
+                .postProcessAfterInitialization(target, "dataSource");
+
+        ServerTimingContext ctx = ServerTimingContext.start();
+        try (Connection c = dataSource.getConnection()) {
+            PreparedStatement ps = c.prepareStatement("select 1");
+            ps.executeQuery();
+            ps.executeQuery();
+        }
+
+        assertEquals(2, ctx.getQueryCount());
+    }
+}
@@ -0,0 +1,61 @@
+package com.payservice.paymentservice.controller;
+
+import com.payservice.paymentservice.dto.CustomerDashboardDTO;
+import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.service.DashboardService;
+import com.payservice.paymentservice.util.exception.DeadlineExceededException;
+import com.payservice.paymentservice.util.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CustomerControllerTest {
+    private MockMvc mockMvc;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setup() {
+        dashboardService = Mockito.mock(DashboardService.class);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new CustomerController(dashboardService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getDashboard_partial() throws Exception {
+        CustomerDashboardDTO dto = CustomerDashboardDTO.builder()
+                .customer(new CustomerSummaryDTO("Ana", "Díaz", "ana@mail.com"))
+                .services(List.of())
+                .openReceipts(List.of())
+                .partial(true)
+                .unavailableSections(List.of("lastPayments"))
+                .build();
+        when(dashboardService.getCustomerDashboard(1, 5)).thenReturn(dto);
+
+        mockMvc.perform(get("/customers/1/dashboard").param("payments", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customer.names").value("Ana"))
+                .andExpect(jsonPath("$.partial").value(true))
+                .andExpect(jsonPath("$.unavailableSections[0]").value("lastPayments"));
+    }
+
+    @Test
+    void getDashboard_requiredSectionTimedOut() throws Exception {
+        when(dashboardService.getCustomerDashboard(1, null))
+                .thenThrow(new DeadlineExceededException("Dashboard section services did not complete in time"));
+
+        mockMvc.perform(get("/customers/1/dashboard"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.message").value("Dashboard section services did not complete in time"));
+    }
+}
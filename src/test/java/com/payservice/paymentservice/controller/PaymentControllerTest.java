@@ -1,22 +1,38 @@
 package com.payservice.paymentservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payservice.paymentservice.config.PaymentJournalProperties;
+import com.payservice.paymentservice.config.ReadWriteRoutingDataSource;
 import com.payservice.paymentservice.dto.*;
+import com.payservice.paymentservice.journal.PaymentJournal;
 import com.payservice.paymentservice.service.PaymentService;
 import com.payservice.paymentservice.util.exception.*;
+import com.zaxxer.hikari.HikariDataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.test.web.servlet.*;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -36,7 +52,7 @@ class PaymentControllerTest {
 
         //standaloneSetup: Crea un MockMvc solo con el Controller
         mockMvc = MockMvcBuilders
-                .standaloneSetup(new PaymentController(paymentService))
+                .standaloneSetup(new PaymentController(paymentService, new PaymentJournal(new PaymentJournalProperties())))
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
 
@@ -206,6 +222,144 @@ class PaymentControllerTest {
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    //Sin conexión y sin journal: el error de siempre
+    @Test
+    void registerPayment_ShouldReturn500_WhenDatabaseDownAndJournalDisabled() throws Exception {
+        PaymentRequestDTO request = new PaymentRequestDTO();
+        request.setAmount(new BigDecimal("30.00"));
+        request.setPaymentCurrency("PEN");
+
+        Mockito.when(paymentService.registerPayment(eq(10), eq(5), any()))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager"));
+
+        mockMvc.perform(post("/payments/receipts/10/customer/5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isInternalServerError());
+    }
+
+    //Base inalcanzable detrás del ruteo (LazyConnectionDataSourceProxy): la conexión real se pide en la
+    //primera sentencia, así que la caída llega como error de acceso a datos y no al abrir la transacción
+    private static RuntimeException routedOutage() {
+        HikariDataSource unreachable = new HikariDataSource();
+        unreachable.setJdbcUrl("jdbc:postgresql://127.0.0.1:1/payments");
+        unreachable.setConnectionTimeout(1000);
+        unreachable.setInitializationFailTimeout(-1);
+        try {
+            ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(0);
+            routing.setTargetDataSources(Map.of(ReadWriteRoutingDataSource.PRIMARY, unreachable));
+            routing.setDefaultTargetDataSource(unreachable);
+            routing.afterPropertiesSet();
+            DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+            TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            return assertThrows(RuntimeException.class, () -> tx.executeWithoutResult(s ->
+                    new JdbcTemplate(dataSource).queryForObject("SELECT 1", Integer.class)));
+        } finally {
+            unreachable.close();
+        }
+    }
+
+    private MockMvc withJournal(PaymentJournal journal) {
+        return MockMvcBuilders
+                .standaloneSetup(new PaymentController(paymentService, journal))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static PaymentJournal openJournal(Path dir) {
+        PaymentJournalProperties journalProperties = new PaymentJournalProperties();
+        journalProperties.setEnabled(true);
+        journalProperties.setDirectory(dir.toString());
+        PaymentJournal journal = new PaymentJournal(journalProperties);
+        journal.open();
+        return journal;
+    }
+
+    //Modo degradado: el pago queda en el journal local y se responde 202
+    @Test
+    void registerPayment_ShouldReturn202_WhenDatabaseDownAndJournalEnabled(@TempDir Path dir) throws Exception {
+        PaymentJournal journal = openJournal(dir);
+        try {
+            MockMvc degraded = withJournal(journal);
+
+            PaymentRequestDTO request = new PaymentRequestDTO();
+            request.setAmount(new BigDecimal("30.00"));
+            request.setPaymentCurrency("usd");
+
+            Mockito.when(paymentService.registerPayment(eq(10), eq(5), any()))
+                    .thenThrow(routedOutage());
+
+            degraded.perform(post("/payments/receipts/10/customer/5")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.status").value("QUEUED"))
+                    .andExpect(jsonPath("$.paymentCurrency").value("USD"))
+                    .andExpect(jsonPath("$.journalId").exists());
+
+            assertEquals(1, journal.pending());
+        } finally {
+            journal.close();
+        }
+    }
+
+    //Pool agotado con la base sana: no es una caída, el pago no se acepta sin validar sus reglas
+    @Test
+    void registerPayment_ShouldNotJournal_WhenPoolTimesOutUnderLoad(@TempDir Path dir) throws Exception {
+        PaymentJournal journal = openJournal(dir);
+        try {
+            PaymentRequestDTO request = new PaymentRequestDTO();
+            request.setAmount(new BigDecimal("30.00"));
+            request.setPaymentCurrency("PEN");
+
+            Mockito.when(paymentService.registerPayment(eq(10), eq(5), any()))
+                    .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager",
+                            new SQLTransientConnectionException("payment-writes - Connection is not available, "
+                                    + "request timed out after 250ms (total=10, active=10, idle=0, waiting=4)")));
+
+            withJournal(journal).perform(post("/payments/receipts/10/customer/5")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isInternalServerError());
+
+            assertEquals(0, journal.pending());
+        } finally {
+            journal.close();
+        }
+    }
+
+    //Api Pago en cascada
+    @Test
+    void allocatePayment_ShouldReturn201_WithAllocations() throws Exception {
+        PaymentRequestDTO request = new PaymentRequestDTO();
+        request.setAmount(new BigDecimal("80.00"));
+        request.setPaymentCurrency("PEN");
+
+        PaymentAllocationResponseDTO response = PaymentAllocationResponseDTO.builder()
+                .amount(new BigDecimal("80.00"))
+                .paymentCurrency("PEN")
+                .allocations(List.of(
+                        new ReceiptAllocationDTO("0001", "ENE-2024", LocalDate.now().minusMonths(1), "PEN",
+                                new BigDecimal("50.00"), new BigDecimal("50.00"), new BigDecimal("1.00"),
+                                new BigDecimal("50.00"), BigDecimal.ZERO, "PAID"),
+                        new ReceiptAllocationDTO("0002", "FEB-2024", LocalDate.now(), "PEN",
+                                new BigDecimal("30.00"), new BigDecimal("30.00"), new BigDecimal("1.00"),
+                                new BigDecimal("50.00"), new BigDecimal("20.00"), "PARTIALLY_PAID")))
+                .build();
+
+        Mockito.when(paymentService.allocatePayment(eq(100), eq(5), any(PaymentRequestDTO.class)))
+                .thenReturn(response);
+
+        mockMvc.perform(post("/payments/services/100/customer/5/allocate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.allocations.length()").value(2))
+                .andExpect(jsonPath("$.allocations[0].receiptStatus").value("PAID"))
+                .andExpect(jsonPath("$.allocations[1].newPendingAmount").value(20.00));
+    }
+
     //Api Historial de Pago del Customer
     @Test
     void getPaymentsByCustomer_ShouldReturn200_WithData() throws Exception {
@@ -222,7 +376,7 @@ class PaymentControllerTest {
                         BigDecimal.valueOf(150), BigDecimal.valueOf(0), "PEN", "PAID"))
                 .build();
 
-        Mockito.when(paymentService.getPaymentsByCustomer(customerId))
+        Mockito.when(paymentService.getPaymentsByCustomer(customerId, null, null))
                 .thenReturn(List.of(dto));
 
         mockMvc.perform(get("/payments/customers/{customerId}", customerId))
@@ -236,7 +390,7 @@ class PaymentControllerTest {
     void getPaymentsByCustomer_ShouldReturn200_WhenEmpty() throws Exception {
         Integer customerId = 5;
 
-        Mockito.when(paymentService.getPaymentsByCustomer(customerId))
+        Mockito.when(paymentService.getPaymentsByCustomer(customerId, null, null))
                 .thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/payments/customers/{customerId}", customerId))
@@ -249,7 +403,7 @@ class PaymentControllerTest {
     void getPaymentsByCustomer_ShouldReturn404_WhenCustomerNotFound() throws Exception {
         Integer customerId = 999;
 
-        Mockito.when(paymentService.getPaymentsByCustomer(customerId))
+        Mockito.when(paymentService.getPaymentsByCustomer(customerId, null, null))
                 .thenThrow(new ResourceNotFoundException("Customer not found"));
 
         mockMvc.perform(get("/payments/customers/{customerId}", customerId))
@@ -260,14 +414,32 @@ class PaymentControllerTest {
     void getPaymentsByCustomer_ShouldReturn500_WhenUnexpectedError() throws Exception {
         Integer customerId = 5;
 
-        Mockito.when(paymentService.getPaymentsByCustomer(customerId))
+        Mockito.when(paymentService.getPaymentsByCustomer(customerId, null, null))
                 .thenThrow(new RuntimeException("Unexpected error"));
 
         mockMvc.perform(get("/payments/customers/{customerId}", customerId))
                 .andExpect(status().is5xxServerError());
     }
 
+    //Rango explícito: el service decide si además lee el archivo
+    @Test
+    void getPaymentsByCustomer_WithRange_PassesDatesToService() throws Exception {
+        Integer customerId = 5;
+        LocalDate from = LocalDate.of(2023, 1, 1);
+        LocalDate to = LocalDate.of(2023, 12, 31);
+
+        Mockito.when(paymentService.getPaymentsByCustomer(customerId, from, to))
+                .thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/payments/customers/{customerId}", customerId)
+                        .param("from", "2023-01-01")
+                        .param("to", "2023-12-31"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(paymentService).getPaymentsByCustomer(customerId, from, to);
+    }
+
 
 
 
-}
\ No newline at end of file
+}
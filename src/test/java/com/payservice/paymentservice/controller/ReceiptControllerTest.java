@@ -2,9 +2,13 @@ package com.payservice.paymentservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.dto.ReceiptLedgerDTO;
 import com.payservice.paymentservice.dto.ReceiptResponseDTO;
 import com.payservice.paymentservice.dto.ServiceSummaryDTO;
+import com.payservice.paymentservice.dto.ReceiptImportResultDTO;
+import com.payservice.paymentservice.service.ReceiptImportService;
 import com.payservice.paymentservice.service.ReceiptService;
+import com.payservice.paymentservice.util.RequestCoalescer;
 import com.payservice.paymentservice.util.exception.GlobalExceptionHandler;
 import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,10 +19,16 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -26,15 +36,17 @@ class ReceiptControllerTest {
 
     private MockMvc mockMvc;
     private ReceiptService receiptService;
+    private ReceiptImportService receiptImportService;
 
     @BeforeEach
     void setup() {
         //Crea una versión falsa del service
         receiptService = Mockito.mock(ReceiptService.class);
+        receiptImportService = Mockito.mock(ReceiptImportService.class);
 
         //standaloneSetup: Crea un MockMvc solo con el Controller
         mockMvc = MockMvcBuilders
-                .standaloneSetup(new ReceiptController(receiptService))
+                .standaloneSetup(new ReceiptController(receiptService, new RequestCoalescer(), receiptImportService))
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
     }
@@ -54,7 +66,7 @@ class ReceiptControllerTest {
                 .service(new ServiceSummaryDTO("Electricidad", "Plan mensual"))
                 .build();
 
-        when(receiptService.getReceiptsByServiceAndCustomer(100, 1))
+        when(receiptService.getReceiptsByServiceAndCustomer(100, 1, false))
                 .thenReturn(List.of(dto));
 
         mockMvc.perform(get("/receipts/service/100/customer/1"))
@@ -65,9 +77,21 @@ class ReceiptControllerTest {
 
     }
 
+    @Test
+    void getReceipts_fullHistory_shouldAskServiceForArchivedReceipts() throws Exception {
+        when(receiptService.getReceiptsByServiceAndCustomer(100, 1, true))
+                .thenReturn(List.of(ReceiptResponseDTO.builder().receiptNumber("00000005").build()));
+
+        mockMvc.perform(get("/receipts/service/100/customer/1").param("fullHistory", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].receiptNumber").value("00000005"));
+
+        verify(receiptService, never()).getReceiptsByServiceAndCustomer(100, 1, false);
+    }
+
     @Test
     void getReceipts_customerNotFound_shouldReturn404() throws Exception {
-        when(receiptService.getReceiptsByServiceAndCustomer(100, 1))
+        when(receiptService.getReceiptsByServiceAndCustomer(100, 1, false))
                 .thenThrow(new ResourceNotFoundException("Customer not found"));
 
         mockMvc.perform(get("/receipts/service/100/customer/1"))
@@ -82,7 +106,7 @@ class ReceiptControllerTest {
     @Test
     void getReceipts_serviceNotFound_shouldReturn404() throws Exception {
 
-        when(receiptService.getReceiptsByServiceAndCustomer(100, 1))
+        when(receiptService.getReceiptsByServiceAndCustomer(100, 1, false))
                 .thenThrow(new ResourceNotFoundException("Service not found"));
 
         mockMvc.perform(get("/receipts/service/100/customer/1"))
@@ -97,7 +121,7 @@ class ReceiptControllerTest {
     @Test
     void getReceipts_noReceipts_shouldReturn404() throws Exception {
 
-        when(receiptService.getReceiptsByServiceAndCustomer(100, 1))
+        when(receiptService.getReceiptsByServiceAndCustomer(100, 1, false))
                 .thenThrow(new ResourceNotFoundException("No receipts found for this customer/service"));
 
         mockMvc.perform(get("/receipts/service/100/customer/1"))
@@ -113,7 +137,7 @@ class ReceiptControllerTest {
     @Test
     void getReceipts_unexpectedError_shouldReturn500() throws Exception {
 
-        when(receiptService.getReceiptsByServiceAndCustomer(100, 1))
+        when(receiptService.getReceiptsByServiceAndCustomer(100, 1, false))
                 .thenThrow(new RuntimeException("Unexpected error"));
 
         mockMvc.perform(get("/receipts/service/100/customer/1"))
@@ -125,4 +149,68 @@ class ReceiptControllerTest {
                 .andExpect(jsonPath("$.path").value("/receipts/service/100/customer/1"))
                 .andExpect(jsonPath("$.timestamp").exists());
     }
+
+    @Test
+    void getReceipts_shouldReturnWeakETag_whenDataExists() throws Exception {
+        when(receiptService.getReceiptsEtag(100, 1)).thenReturn("W/\"1-5f3a\"");
+        when(receiptService.getReceiptsByServiceAndCustomer(100, 1, false))
+                .thenReturn(List.of(ReceiptResponseDTO.builder().receiptNumber("00045231").build()));
+
+        mockMvc.perform(get("/receipts/service/100/customer/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-5f3a\""));
+    }
+
+    @Test
+    void getReceipts_ifNoneMatch_shouldReturn304WithoutLoadingReceipts() throws Exception {
+        when(receiptService.getReceiptsEtag(100, 1)).thenReturn("W/\"1-5f3a\"");
+
+        mockMvc.perform(get("/receipts/service/100/customer/1")
+                        .header("If-None-Match", "W/\"1-5f3a\""))
+                .andExpect(status().isNotModified());
+
+        verify(receiptService, never()).getReceiptsByServiceAndCustomer(100, 1, false);
+    }
+
+    @Test
+    void importReceipts_shouldReturn201_withStatistics() throws Exception {
+        ReceiptImportResultDTO result = ReceiptImportResultDTO.builder()
+                .totalRows(3).imported(2).rejected(1).duplicates(0)
+                .errors(List.of(new com.payservice.paymentservice.dto.ImportErrorDTO(3, "Customer not found")))
+                .build();
+        when(receiptImportService.importReceipts(any())).thenReturn(result);
+
+        mockMvc.perform(post("/receipts/import")
+                        .contentType("text/csv")
+                        .content("receipt_number,service_id,customer_id,period_label,due_date,receipt_amount,currency\n"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("Customer not found"));
+    }
+
+    @Test
+    void getReceiptLedger_shouldPassAsOfAndReturn200() throws Exception {
+        LocalDateTime asOf = LocalDateTime.of(2026, 1, 15, 10, 0);
+        ReceiptLedgerDTO dto = ReceiptLedgerDTO.builder()
+                .receiptId(10).asOf(asOf).pendingAmount(new BigDecimal("40.00")).receiptStatus("PARTIALLY_PAID")
+                .eventCount(2).events(List.of())
+                .build();
+        when(receiptService.getReceiptLedger(10, asOf)).thenReturn(dto);
+
+        mockMvc.perform(get("/receipts/10/ledger").param("asOf", "2026-01-15T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pendingAmount").value(40.00))
+                .andExpect(jsonPath("$.receiptStatus").value("PARTIALLY_PAID"));
+    }
+
+    @Test
+    void getReceiptLedger_unknownReceipt_shouldReturn404() throws Exception {
+        when(receiptService.getReceiptLedger(99, null))
+                .thenThrow(new ResourceNotFoundException("Receipt not found in ledger as of now"));
+
+        mockMvc.perform(get("/receipts/99/ledger"))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,87 @@
+package com.payservice.paymentservice.controller;
+
+import com.payservice.paymentservice.dto.AgingReportDTO;
+import com.payservice.paymentservice.dto.AgingRowDTO;
+import com.payservice.paymentservice.dto.SettlementDTO;
+import com.payservice.paymentservice.dto.SettlementLineDTO;
+import com.payservice.paymentservice.service.AgingReportService;
+import com.payservice.paymentservice.service.SettlementService;
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import com.payservice.paymentservice.util.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReportControllerTest {
+
+    private MockMvc mockMvc;
+    private AgingReportService agingReportService;
+    private SettlementService settlementService;
+
+    @BeforeEach
+    void setup() {
+        agingReportService = Mockito.mock(AgingReportService.class);
+        settlementService = Mockito.mock(SettlementService.class);
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ReportController(agingReportService, settlementService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getAgingReport_shouldReturn200_withBuckets() throws Exception {
+        AgingRowDTO row = AgingRowDTO.builder()
+                .currency("PEN").serviceId(100)
+                .current(new BigDecimal("50.00")).days1To30(new BigDecimal("20.00"))
+                .days31To60(BigDecimal.ZERO).days61To90(BigDecimal.ZERO).days90Plus(new BigDecimal("10.00"))
+                .total(new BigDecimal("80.00")).receiptCount(3)
+                .build();
+        when(agingReportService.getAgingReport("PEN", null))
+                .thenReturn(AgingReportDTO.builder().asOf(LocalDate.of(2026, 10, 19)).rows(List.of(row)).build());
+
+        mockMvc.perform(get("/reports/aging").param("currency", "PEN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows[0].serviceId").value(100))
+                .andExpect(jsonPath("$.rows[0].days1To30").value(20.00))
+                .andExpect(jsonPath("$.rows[0].days90Plus").value(10.00))
+                .andExpect(jsonPath("$.rows[0].total").value(80.00));
+    }
+
+    @Test
+    void getSettlement_shouldReturn200_withFrozenTotals() throws Exception {
+        LocalDate day = LocalDate.of(2026, 10, 18);
+        SettlementDTO settlement = SettlementDTO.builder()
+                .settlementDate(day).paymentCount(3)
+                .lines(List.of(new SettlementLineDTO("USD", new BigDecimal("3.50"), "PEN", 3,
+                        new BigDecimal("30.00"), new BigDecimal("105.00"))))
+                .build();
+        when(settlementService.getSettlement(day)).thenReturn(settlement);
+
+        mockMvc.perform(get("/reports/settlements/2026-10-18"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentCount").value(3))
+                .andExpect(jsonPath("$.lines[0].receiptCurrency").value("PEN"))
+                .andExpect(jsonPath("$.lines[0].receiptAmountTotal").value(105.00));
+    }
+
+    @Test
+    void getSettlement_shouldReturn404_whenDayNotClosed() throws Exception {
+        when(settlementService.getSettlement(LocalDate.of(2026, 10, 18)))
+                .thenThrow(new ResourceNotFoundException("Settlement not found"));
+
+        mockMvc.perform(get("/reports/settlements/2026-10-18"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -2,6 +2,7 @@ package com.payservice.paymentservice.controller;
 
 import com.payservice.paymentservice.dto.ServiceResponseDTO;
 import com.payservice.paymentservice.service.ServiceService;
+import com.payservice.paymentservice.util.RequestCoalescer;
 import com.payservice.paymentservice.util.exception.GlobalExceptionHandler;
 import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.math.BigDecimal;
 import java.util.List;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -29,7 +32,7 @@ class ServiceControllerTest {
 
         //standaloneSetup: Crea un MockMvc solo con el Controller
         mockMvc = MockMvcBuilders
-                .standaloneSetup(new ServiceController(serviceService))
+                .standaloneSetup(new ServiceController(serviceService, new RequestCoalescer()))
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
     }
@@ -65,4 +68,15 @@ class ServiceControllerTest {
                 .andExpect(jsonPath("$.path").value("/services/customers/1"))
                 .andExpect(jsonPath("$.timestamp").exists());
     }
+
+    @Test
+    void listServicesByCustomer_ifNoneMatch_shouldReturn304() throws Exception {
+        when(serviceService.getServicesEtag(1)).thenReturn("W/\"4-9c1\"");
+
+        mockMvc.perform(get("/services/customers/1")
+                        .header("If-None-Match", "W/\"4-9c1\""))
+                .andExpect(status().isNotModified());
+
+        verify(serviceService, never()).getServicesByCustomer(1);
+    }
 }
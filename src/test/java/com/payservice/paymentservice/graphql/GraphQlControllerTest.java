@@ -0,0 +1,157 @@
+package com.payservice.paymentservice.graphql;
+
+import com.payservice.paymentservice.config.GraphQlLimitsProperties;
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.repository.GraphRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.graphql.test.autoconfigure.GraphQlTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@GraphQlTest(GraphQlController.class)
+@Import({GraphQlCostConfig.class, GraphQlExceptionResolver.class})
+@EnableConfigurationProperties({GraphQlLimitsProperties.class, JobProperties.class})
+class GraphQlControllerTest {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @MockitoBean
+    private GraphRepository repository;
+
+    private final CustomerNode ana = new CustomerNode(1, "Ana", "Díaz", "ana@mail.com");
+    private final CustomerNode luis = new CustomerNode(2, "Luis", "Pérez", "luis@mail.com");
+
+    @Test
+    void nestedQuery_shouldIssueOneQueryPerTypeAndLevel() {
+        when(repository.findCustomers(anyCollection())).thenReturn(List.of(ana, luis));
+        when(repository.findServicesByCustomers(anyCollection())).thenReturn(List.of(
+                new ServiceNode(10, 1, "Internet", "Plan", true),
+                new ServiceNode(11, 1, "Cable", "Plan", true),
+                new ServiceNode(20, 2, "Internet", "Plan", true)));
+        when(repository.findReceiptsByServices(anyCollection())).thenReturn(List.of(
+                receipt(100, 10, 1), receipt(101, 11, 1), receipt(200, 20, 2)));
+        when(repository.findPaymentsByReceipts(anyCollection(), any())).thenReturn(List.of(
+                payment(7, 100, 1), payment(8, 200, 2)));
+
+        graphQlTester.document("""
+                        { customers(ids: [1, 2]) {
+                            names
+                            services { serviceName
+                              receipts { receiptNumber dueDate pendingAmount
+                                customer { email }
+                                payments { amount customer { names } } } } } }
+                        """)
+                .execute()
+                .path("customers[0].services").entityList(Object.class).hasSize(2)
+                .path("customers[1].services[0].receipts[0].customer.email").entity(String.class).isEqualTo("luis@mail.com")
+                .path("customers[0].services[0].receipts[0].dueDate").entity(String.class).isEqualTo("2026-01-31")
+                .path("customers[0].services[0].receipts[0].pendingAmount").entity(String.class).isEqualTo("40.00")
+                .path("customers[0].services[0].receipts[0].payments[0].amount").entity(String.class).isEqualTo("60.00")
+                .path("customers[0].services[1].receipts[0].payments").entityList(Object.class).hasSize(0);
+
+        verify(repository, times(1)).findServicesByCustomers(List.of(1, 2));
+        verify(repository, times(1)).findReceiptsByServices(List.of(10, 11, 20));
+        verify(repository, times(1)).findPaymentsByReceipts(eq(List.of(100, 101, 200)), any());
+        // clientes anidados: ya están en la caché del DataLoader de la raíz
+        verify(repository, times(1)).findCustomers(anyCollection());
+    }
+
+    @Test
+    void references_shouldBeBatchedAndCachedPerRequest() {
+        when(repository.findCustomers(anyCollection())).thenReturn(List.of(ana, luis));
+        when(repository.findLatestPayments(anyCollection(), any(), anyInt())).thenReturn(List.of(
+                payment(7, 100, 1), payment(8, 100, 1), payment(9, 200, 2)));
+        when(repository.findReceipts(anyCollection())).thenReturn(List.of(receipt(100, 10, 1), receipt(200, 20, 2)));
+        when(repository.findServices(anyCollection())).thenReturn(List.of(
+                new ServiceNode(10, 1, "Internet", "Plan", true), new ServiceNode(20, 2, "Cable", "Plan", true)));
+
+        graphQlTester.document("""
+                        { customers(ids: [1, 2]) {
+                            payments(limit: 3) { paymentId receipt { receiptNumber service { serviceName } } } } }
+                        """)
+                .execute()
+                .path("customers[0].payments").entityList(Object.class).hasSize(2)
+                .path("customers[1].payments[0].receipt.service.serviceName").entity(String.class).isEqualTo("Cable");
+
+        verify(repository, times(1)).findLatestPayments(eq(List.of(1, 2)), any(LocalDateTime.class), eq(3));
+        // dos pagos del mismo recibo: una sola clave en el lote
+        verify(repository, times(1)).findReceipts(argThatContainsExactly(100, 200));
+        verify(repository, times(1)).findServices(argThatContainsExactly(10, 20));
+    }
+
+    @Test
+    void query_overComplexityLimit_shouldBeRejectedBeforeExecution() {
+        graphQlTester.document("""
+                        { customers(ids: [1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20]) {
+                            services { receipts { payments { amount } } } } }
+                        """)
+                .execute()
+                .errors()
+                .satisfy(errors -> assertThat(errors).anyMatch(e -> e.getMessage().contains("complexity")));
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void query_overDepthLimit_shouldBeRejectedBeforeExecution() {
+        graphQlTester.document("""
+                        { receipt(id: 1) { payments { receipt { customer { services { receipts {
+                            service { customer { names } } } } } } } } }
+                        """)
+                .execute()
+                .errors()
+                .satisfy(errors -> assertThat(errors).anyMatch(e -> e.getMessage().contains("depth")));
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void customers_tooManyIds_shouldReturnBadRequest() {
+        StringBuilder ids = new StringBuilder("1");
+        for (int i = 2; i <= 101; i++) ids.append(',').append(i);
+
+        graphQlTester.document("{ customers(ids: [" + ids + "]) { names } }")
+                .execute()
+                .errors()
+                .expect(e -> e.getErrorType() == ErrorType.BAD_REQUEST)
+                .verify();
+
+        verifyNoInteractions(repository);
+    }
+
+    private static Collection<Integer> argThatContainsExactly(Integer... ids) {
+        return argThat(c -> c.size() == ids.length && c.containsAll(List.of(ids)));
+    }
+
+    private static ReceiptNode receipt(int receiptId, int serviceId, int customerId) {
+        return new ReceiptNode(receiptId, serviceId, customerId, "R-" + receiptId, "2026-01",
+                LocalDate.of(2026, 1, 31), new BigDecimal("100.00"), new BigDecimal("40.00"), "PEN", "PENDING");
+    }
+
+    private static PaymentNode payment(int paymentId, int receiptId, int customerId) {
+        return new PaymentNode(paymentId, receiptId, customerId, LocalDateTime.of(2026, 1, 10, 12, 0),
+                new BigDecimal("60.00"), "PEN", null, new BigDecimal("100.00"), new BigDecimal("40.00"), "COMPLETED");
+    }
+}
@@ -0,0 +1,72 @@
+package com.payservice.paymentservice.graphql;
+
+import com.payservice.paymentservice.repository.GraphRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GraphQlSnapshotFilterTest {
+
+    private DataSource dataSource;
+    private Connection connection;
+    private GraphRepository repository;
+    private GraphQlSnapshotFilter filter;
+
+    @BeforeEach
+    void setup() throws Exception {
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        connection = Mockito.mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(ps);
+        when(connection.getAutoCommit()).thenReturn(true);
+        dataSource = Mockito.mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        repository = new GraphRepository(dataSource, transactionManager);
+        filter = new GraphQlSnapshotFilter(repository, transactionManager);
+    }
+
+    @Test
+    void graphqlRequest_allLevelsShouldShareOneReadOnlySnapshot() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("POST", "/graphql"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    repository.findCustomers(List.of(1));
+                    repository.findServicesByCustomers(List.of(1));
+                    repository.findReceiptsByServices(List.of(10));
+                });
+
+        // una conexión y una transacción para los tres niveles
+        verify(dataSource, times(1)).getConnection();
+        verify(connection).setReadOnly(true);
+        verify(connection).setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        verify(connection, times(3)).prepareStatement(anyString());
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    void queryOutsideRequest_shouldRunInItsOwnReadOnlyTransaction() throws Exception {
+        repository.findCustomers(List.of(1));
+        repository.findServices(List.of(10));
+
+        verify(dataSource, times(2)).getConnection();
+        verify(connection, times(2)).setReadOnly(true);
+        verify(connection, times(2)).setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        verify(connection, times(2)).commit();
+    }
+}
@@ -0,0 +1,64 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.repository.AgingRepository;
+import com.payservice.paymentservice.repository.AgingRepository.Watermark;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AgingRefreshJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 10, 15);
+
+    private AgingRepository agingRepository;
+    private AgingRefreshJob job;
+
+    @BeforeEach
+    void setUp() {
+        agingRepository = mock(AgingRepository.class);
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+
+        job = new AgingRefreshJob(new JobProperties(), agingRepository, new JobMetrics(new SimpleMeterRegistry()), tx);
+        when(agingRepository.dbNow()).thenReturn(NOW);
+    }
+
+    @Test
+    void run_firstRun_rebuildsAndSavesWatermark() {
+        when(agingRepository.findWatermark()).thenReturn(Optional.empty());
+        when(agingRepository.rebuild(TODAY)).thenReturn(1200);
+
+        JobRunReportDTO report = job.run(TODAY);
+
+        assertEquals(1200, report.getProcessed());
+        verify(agingRepository, never()).refresh(any(), any(), any());
+        verify(agingRepository).saveWatermark(NOW, TODAY);
+    }
+
+    //Incremental: desde la marca anterior menos el solape, con la fecha de corte anterior para los cruces de bucket
+    @Test
+    void run_withWatermark_refreshesIncrementally() {
+        LocalDateTime last = LocalDateTime.of(2026, 10, 18, 23, 45);
+        when(agingRepository.findWatermark()).thenReturn(Optional.of(new Watermark(last, TODAY.minusDays(1))));
+        when(agingRepository.refresh(last.minusMinutes(5), TODAY.minusDays(1), TODAY)).thenReturn(35);
+
+        JobRunReportDTO report = job.run(TODAY);
+
+        assertEquals(35, report.getProcessed());
+        verify(agingRepository, never()).rebuild(any());
+        verify(agingRepository).saveWatermark(NOW, TODAY);
+    }
+}
@@ -0,0 +1,135 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.dto.PaymentRequestDTO;
+import com.payservice.paymentservice.repository.JobCheckpointRepository;
+import com.payservice.paymentservice.repository.ReceiptCursorRepository;
+import com.payservice.paymentservice.repository.ReceiptCursorRepository.AutopayCandidate;
+import com.payservice.paymentservice.repository.ReceiptCursorRepository.Payable;
+import com.payservice.paymentservice.service.PaymentService;
+import com.payservice.paymentservice.util.exception.PendingReceiptException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AutopayJobTest {
+
+    private static final LocalDate DUE = LocalDate.of(2026, 10, 19);
+
+    private ReceiptCursorRepository cursorRepository;
+    private PaymentService paymentService;
+    private JobCheckpointRepository checkpoints;
+    private AutopayJob job;
+
+    @BeforeEach
+    void setUp() {
+        JobProperties properties = new JobProperties();
+        properties.getAutopay().setWorkers(1);
+        properties.getAutopay().setChunkSize(2);
+
+        cursorRepository = mock(ReceiptCursorRepository.class);
+        paymentService = mock(PaymentService.class);
+        checkpoints = mock(JobCheckpointRepository.class);
+
+        //Transacciones simuladas: el job solo necesita que se abran y confirmen
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+
+        job = new AutopayJob(properties, cursorRepository, paymentService,
+                checkpoints, new JobMetrics(new SimpleMeterRegistry()), tx);
+
+        when(cursorRepository.tryLockPartition(anyString(), anyInt())).thenReturn(true);
+        when(cursorRepository.lockPayable(anyInt())).thenReturn(Optional.of(new Payable(new BigDecimal("25.00"), "PEN")));
+    }
+
+    @Test
+    void run_paysInChunksAndCheckpointsEachChunk() {
+        when(checkpoints.find(AutopayJob.JOB_NAME, "2026-10-19", 0)).thenReturn(JobCheckpoint.START);
+        when(cursorRepository.streamAutopayCandidates(DUE, 1, 0, 0L)).thenReturn(Stream.of(
+                new AutopayCandidate(1, 7), new AutopayCandidate(2, 7), new AutopayCandidate(3, 8)));
+
+        //RN6 rechaza el recibo 2: se omite y el chunk continúa
+        when(paymentService.registerPayment(eq(2), eq(7), any()))
+                .thenThrow(new PendingReceiptException("RN6: Cannot pay this receipt while previous receipts are unpaid"));
+
+        JobRunReportDTO report = job.run(DUE);
+
+        assertEquals(2, report.getProcessed());
+        assertEquals(1, report.getSkipped());
+
+        ArgumentCaptor<PaymentRequestDTO> req = ArgumentCaptor.forClass(PaymentRequestDTO.class);
+        verify(paymentService).registerPayment(eq(1), eq(7), req.capture());
+        assertEquals(new BigDecimal("25.00"), req.getValue().getAmount());
+        assertEquals("PEN", req.getValue().getPaymentCurrency());
+
+        ArgumentCaptor<JobCheckpoint> saved = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(checkpoints, times(3)).save(eq(AutopayJob.JOB_NAME), eq("2026-10-19"), eq(0), saved.capture());
+        assertEquals(new JobCheckpoint(2, 1, 1, false), saved.getAllValues().get(0));
+        assertEquals(new JobCheckpoint(3, 2, 1, false), saved.getAllValues().get(1));
+        assertTrue(saved.getAllValues().get(2).completed());
+    }
+
+    @Test
+    void run_resumesFromCheckpoint() {
+        when(checkpoints.find(AutopayJob.JOB_NAME, "2026-10-19", 0)).thenReturn(new JobCheckpoint(2, 2, 0, false));
+        when(cursorRepository.streamAutopayCandidates(DUE, 1, 0, 2L))
+                .thenReturn(Stream.of(new AutopayCandidate(3, 8)));
+
+        JobRunReportDTO report = job.run(DUE);
+
+        assertEquals(3, report.getProcessed());
+        verify(paymentService, times(1)).registerPayment(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void run_completedPartitionIsNotReprocessed() {
+        when(checkpoints.find(AutopayJob.JOB_NAME, "2026-10-19", 0)).thenReturn(new JobCheckpoint(3, 3, 0, true));
+
+        JobRunReportDTO report = job.run(DUE);
+
+        assertEquals(3, report.getProcessed());
+        verifyNoInteractions(cursorRepository, paymentService);
+    }
+
+    @Test
+    void run_receiptPaidOrLockedElsewhere_isSkippedWithoutPaying() {
+        when(checkpoints.find(AutopayJob.JOB_NAME, "2026-10-19", 0)).thenReturn(JobCheckpoint.START);
+        when(cursorRepository.streamAutopayCandidates(DUE, 1, 0, 0L)).thenReturn(Stream.of(
+                new AutopayCandidate(1, 7), new AutopayCandidate(2, 7)));
+        //el recibo 1 ya lo pagó (o lo está pagando) otra instancia
+        when(cursorRepository.lockPayable(1)).thenReturn(Optional.empty());
+
+        JobRunReportDTO report = job.run(DUE);
+
+        assertEquals(1, report.getProcessed());
+        assertEquals(1, report.getSkipped());
+        verify(paymentService, never()).registerPayment(eq(1), anyInt(), any());
+    }
+
+    @Test
+    void run_partitionHeldByOtherInstance_isLeftIncomplete() {
+        when(checkpoints.find(AutopayJob.JOB_NAME, "2026-10-19", 0)).thenReturn(JobCheckpoint.START);
+        when(cursorRepository.tryLockPartition("autopay:2026-10-19", 0)).thenReturn(false);
+
+        JobRunReportDTO report = job.run(DUE);
+
+        assertEquals(0, report.getProcessed());
+        verify(cursorRepository, never()).streamAutopayCandidates(any(), anyInt(), anyInt(), anyLong());
+        verify(checkpoints, never()).save(any(), any(), anyInt(), any());
+        verifyNoInteractions(paymentService);
+    }
+}
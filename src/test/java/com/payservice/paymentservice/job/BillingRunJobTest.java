@@ -0,0 +1,123 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.entity.Receipt;
+import com.payservice.paymentservice.repository.JobCheckpointRepository;
+import com.payservice.paymentservice.repository.ReceiptBatchRepository;
+import com.payservice.paymentservice.repository.ReceiptBatchRepository.BillingSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BillingRunJobTest {
+
+    private static final YearMonth FEB = YearMonth.of(2026, 2);
+
+    private ReceiptBatchRepository receiptBatchRepository;
+    private JobCheckpointRepository checkpoints;
+    private BillingRunJob job;
+    private JobProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JobProperties();
+        properties.getBilling().setPageSize(2);
+
+        receiptBatchRepository = mock(ReceiptBatchRepository.class);
+        checkpoints = mock(JobCheckpointRepository.class);
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+
+        job = new BillingRunJob(properties, receiptBatchRepository, checkpoints,
+                new JobMetrics(new SimpleMeterRegistry()), mock(ApplicationEventPublisher.class), tx);
+
+        when(receiptBatchRepository.insertAll(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+    }
+
+    @Test
+    void run_generatesNextReceiptPerServiceInPages() {
+        when(checkpoints.find(BillingRunJob.JOB_NAME, "2026-02", 0)).thenReturn(JobCheckpoint.START);
+        when(receiptBatchRepository.findBillingPage(0L, "FEB-2026", 2)).thenReturn(List.of(
+                new BillingSource(10, 1, LocalDate.of(2026, 1, 31), new BigDecimal("80.00"), "PEN"),
+                new BillingSource(11, 2, LocalDate.of(2026, 2, 15), new BigDecimal("20.00"), "USD")));
+        when(receiptBatchRepository.findBillingPage(11L, "FEB-2026", 2)).thenReturn(List.of(
+                new BillingSource(12, 3, LocalDate.of(2026, 1, 5), new BigDecimal("50.00"), "USD")));
+
+        JobRunReportDTO report = job.run(FEB);
+
+        assertEquals(2, report.getProcessed());
+        assertEquals(1, report.getSkipped()); // el servicio 11 ya tiene recibo de febrero
+        assertEquals(2, report.getChunks());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Receipt>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(receiptBatchRepository, times(2)).insertAll(inserted.capture());
+        Receipt first = inserted.getAllValues().get(0).get(0);
+        assertEquals("FEB-2026", first.getPeriodLabel());
+        assertEquals(LocalDate.of(2026, 2, 28), first.getDueDate());
+        assertEquals(new BigDecimal("80.00"), first.getPendingAmount());
+        assertEquals("PENDING", first.getReceiptStatus());
+
+        ArgumentCaptor<JobCheckpoint> saved = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(checkpoints, times(2)).save(eq(BillingRunJob.JOB_NAME), eq("2026-02"), eq(0), saved.capture());
+        assertEquals(new JobCheckpoint(11, 1, 1, false), saved.getAllValues().get(0));
+        assertEquals(new JobCheckpoint(12, 2, 1, true), saved.getAllValues().get(1));
+    }
+
+    @Test
+    void run_serviceWithoutReceipts_getsConfiguredFirstReceipt() {
+        properties.getBilling().setFirstReceiptAmount(new BigDecimal("35.00"));
+        properties.getBilling().setFirstReceiptCurrency("USD");
+        properties.getBilling().setFirstReceiptDueDay(30);
+        when(checkpoints.find(BillingRunJob.JOB_NAME, "2026-02", 0)).thenReturn(JobCheckpoint.START);
+        when(receiptBatchRepository.findBillingPage(0L, "FEB-2026", 2)).thenReturn(List.of(
+                new BillingSource(20, 4, null, null, null)));
+
+        JobRunReportDTO report = job.run(FEB);
+
+        assertEquals(1, report.getProcessed());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Receipt>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(receiptBatchRepository).insertAll(inserted.capture());
+        Receipt first = inserted.getValue().get(0);
+        assertEquals(LocalDate.of(2026, 2, 28), first.getDueDate());
+        assertEquals(new BigDecimal("35.00"), first.getReceiptAmount());
+        assertEquals("USD", first.getCurrency());
+    }
+
+    @Test
+    void run_serviceWithoutReceiptsAndNoConfiguredAmount_isSkipped() {
+        when(checkpoints.find(BillingRunJob.JOB_NAME, "2026-02", 0)).thenReturn(JobCheckpoint.START);
+        when(receiptBatchRepository.findBillingPage(0L, "FEB-2026", 2)).thenReturn(List.of(
+                new BillingSource(20, 4, null, null, null)));
+
+        JobRunReportDTO report = job.run(FEB);
+
+        assertEquals(0, report.getProcessed());
+        assertEquals(1, report.getSkipped());
+    }
+
+    @Test
+    void run_completedPeriodIsNoOp() {
+        when(checkpoints.find(BillingRunJob.JOB_NAME, "2026-02", 0)).thenReturn(new JobCheckpoint(12, 2, 1, true));
+
+        JobRunReportDTO report = job.run(FEB);
+
+        assertEquals(0, report.getProcessed());
+        verifyNoInteractions(receiptBatchRepository);
+    }
+}
@@ -0,0 +1,38 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OverdueSweepJobTest {
+
+    @Test
+    void run_updatesInChunksUntilAPartialChunk() {
+        JobProperties properties = new JobProperties();
+        properties.getOverdue().setChunkSize(3);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        LocalDate cutoff = LocalDate.of(2026, 10, 19);
+        when(jdbcTemplate.update(anyString(), eq(cutoff), eq(3))).thenReturn(3, 3, 1);
+
+        JobRunReportDTO report = new OverdueSweepJob(properties, jdbcTemplate, new JobMetrics(registry),
+                mock(ApplicationEventPublisher.class)).run(cutoff);
+
+        assertEquals(7, report.getProcessed());
+        assertEquals(3, report.getChunks());
+        verify(jdbcTemplate, times(3)).update(contains("receipt_status = 'OVERDUE'"), eq(cutoff), eq(3));
+        // los recibos sin estado también vencen
+        verify(jdbcTemplate, times(3)).update(contains("receipt_status IS NULL OR"), eq(cutoff), eq(3));
+        assertEquals(7.0, registry.counter("payment.jobs.rows", "job", "overdue", "outcome", "processed").count());
+    }
+}
@@ -0,0 +1,60 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.repository.PaymentArchiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PaymentArchivalJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+
+    //Ventana de 24 meses: el horizonte es 2024-11; se crean octubre..enero y se archivan los meses anteriores
+    @Test
+    void run_createsUpcomingPartitionsAndArchivesOldMonthsInOrder() {
+        PaymentArchiveRepository repository = mock(PaymentArchiveRepository.class);
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+
+        when(repository.findPartitionsBefore(YearMonth.of(2024, 11)))
+                .thenReturn(List.of(YearMonth.of(2024, 9), YearMonth.of(2024, 10)));
+        when(repository.copyToArchive(YearMonth.of(2024, 9))).thenReturn(1200);
+        when(repository.copyToArchive(YearMonth.of(2024, 10))).thenReturn(798);
+        //dos pagos tardíos de octubre llegaron entre la copia y el detach
+        when(repository.dropArchived(YearMonth.of(2024, 10))).thenReturn(2);
+
+        PaymentArchivalJob job = new PaymentArchivalJob(new JobProperties(), repository,
+                new JobMetrics(new SimpleMeterRegistry()), tx);
+
+        JobRunReportDTO report = job.run(TODAY);
+
+        assertEquals(2, report.getPartitions());
+        assertEquals(2000, report.getProcessed());
+        assertEquals("2024-11", report.getRunKey());
+        for (int i = 0; i <= 3; i++) {
+            verify(repository).ensurePartition(YearMonth.of(2026, 10).plusMonths(i));
+        }
+        InOrder order = inOrder(repository, tx);
+        for (YearMonth month : List.of(YearMonth.of(2024, 9), YearMonth.of(2024, 10))) {
+            order.verify(repository).copyToArchive(month);
+            order.verify(tx).commit(any());
+            // el detach concurrente corre entre transacciones, no dentro de una
+            order.verify(repository).detachPartition(month);
+            order.verify(tx).getTransaction(any());
+            order.verify(repository).dropArchived(month);
+            order.verify(tx).commit(any());
+        }
+    }
+}
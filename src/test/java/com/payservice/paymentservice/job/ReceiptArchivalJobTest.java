@@ -0,0 +1,36 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.JobRunReportDTO;
+import com.payservice.paymentservice.repository.ReceiptArchiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReceiptArchivalJobTest {
+
+    //Lotes hasta uno incompleto; la fecha de corte es hoy menos minAgeMonths
+    @Test
+    void run_movesBatchesUntilAPartialBatch() {
+        JobProperties properties = new JobProperties();
+        properties.getReceiptArchive().setBatchSize(100);
+        properties.getReceiptArchive().setMinAgeMonths(24);
+        ReceiptArchiveRepository repository = mock(ReceiptArchiveRepository.class);
+
+        LocalDate dueBefore = LocalDate.of(2024, 10, 19);
+        when(repository.moveBatch(dueBefore, 100)).thenReturn(100, 100, 40);
+
+        JobRunReportDTO report = new ReceiptArchivalJob(properties, repository, new JobMetrics(new SimpleMeterRegistry()),
+                mock(ApplicationEventPublisher.class))
+                .run(LocalDate.of(2026, 10, 19));
+
+        assertEquals(240, report.getProcessed());
+        assertEquals(3, report.getChunks());
+        verify(repository, times(3)).moveBatch(dueBefore, 100);
+    }
+}
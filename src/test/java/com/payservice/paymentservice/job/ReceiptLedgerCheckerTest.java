@@ -0,0 +1,77 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.dto.DiscrepancyDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReceiptLedgerCheckerTest {
+
+    private static final BigDecimal ONE = BigDecimal.ONE;
+    private static final BigDecimal USD_RATE = new BigDecimal("3.50");
+
+    private final List<DiscrepancyDTO> found = new ArrayList<>();
+    private ReceiptLedgerChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        checker = new ReceiptLedgerChecker(found::add);
+    }
+
+    @Test
+    void consistentLedger_withCurrencyConversion_hasNoDiscrepancies() {
+        checker.start(10, new BigDecimal("150.00"), new BigDecimal("30.00"), "PEN");
+        checker.payment(1, new BigDecimal("50.00"), "PEN", ONE, new BigDecimal("150.00"), new BigDecimal("100.00"));
+        checker.payment(2, new BigDecimal("20.00"), "USD", USD_RATE, new BigDecimal("100.00"), new BigDecimal("30.00"));
+
+        assertTrue(checker.finish());
+        assertTrue(found.isEmpty());
+        assertEquals(2, checker.payments());
+    }
+
+    //Pago en cascada en USD que cubre el recibo: se descuenta el saldo exacto y se registra 100.05 / 3.50 = 28.59
+    @Test
+    void usdPaymentCoveringPenReceipt_roundingScaledByRateIsTolerated() {
+        checker.start(14, new BigDecimal("100.05"), new BigDecimal("0.00"), "PEN");
+        checker.payment(1, new BigDecimal("28.59"), "USD", USD_RATE, new BigDecimal("100.05"), new BigDecimal("0.00"));
+
+        assertTrue(checker.finish());
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    void receiptWithoutPayments_mustKeepFullPending() {
+        checker.start(11, new BigDecimal("80.00"), new BigDecimal("70.00"), "PEN");
+
+        assertFalse(checker.finish());
+        assertEquals("BALANCE", found.get(0).getType());
+        assertEquals(new BigDecimal("80.00"), found.get(0).getExpected());
+    }
+
+    //Escritura perdida: dos pagos leyeron el mismo saldo (read-modify-write sin lock)
+    @Test
+    void lostUpdate_isReportedAsChainAndBalanceDiscrepancy() {
+        checker.start(12, new BigDecimal("100.00"), new BigDecimal("60.00"), "PEN");
+        checker.payment(1, new BigDecimal("40.00"), "PEN", ONE, new BigDecimal("100.00"), new BigDecimal("60.00"));
+        checker.payment(2, new BigDecimal("40.00"), "PEN", ONE, new BigDecimal("100.00"), new BigDecimal("60.00"));
+
+        assertFalse(checker.finish());
+        assertEquals(List.of("CHAIN", "BALANCE"), found.stream().map(DiscrepancyDTO::getType).toList());
+        assertEquals(2, found.get(0).getPaymentId());
+        assertEquals(new BigDecimal("20.00"), found.get(1).getExpected());
+    }
+
+    @Test
+    void lastPaymentNotMatchingReceipt_isReportedAsFinal() {
+        checker.start(13, new BigDecimal("100.00"), new BigDecimal("50.00"), "PEN");
+        checker.payment(1, new BigDecimal("50.00"), "PEN", ONE, new BigDecimal("100.00"), new BigDecimal("49.00"));
+
+        assertFalse(checker.finish());
+        assertEquals(List.of("FINAL"), found.stream().map(DiscrepancyDTO::getType).toList());
+    }
+}
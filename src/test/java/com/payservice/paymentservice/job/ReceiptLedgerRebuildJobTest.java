@@ -0,0 +1,180 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.LedgerRebuildReportDTO;
+import com.payservice.paymentservice.event.ReceiptsBulkChangedEvent;
+import com.payservice.paymentservice.ledger.ReceiptEvent;
+import com.payservice.paymentservice.ledger.ReceiptEventType;
+import com.payservice.paymentservice.ledger.ReceiptState;
+import com.payservice.paymentservice.repository.ReceiptLedgerRepository;
+import com.payservice.paymentservice.repository.ReceiptLedgerRepository.LedgerRow;
+import com.payservice.paymentservice.repository.ReceiptLedgerRepository.Repair;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ReceiptLedgerRebuildJobTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 9, 0);
+
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+
+    private static LedgerRow row(long eventId, int receiptId, ReceiptEventType type, String amount, String status,
+                                 String projectedPending, String projectedStatus, boolean hot) {
+        return new LedgerRow(
+                new ReceiptEvent(eventId, receiptId, type, amount == null ? null : new BigDecimal(amount), status,
+                        null, T0.plusMinutes(eventId)),
+                projectedPending == null ? null : new BigDecimal(projectedPending), projectedStatus, hot);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void stubRange(ReceiptLedgerRepository repository, long from, List<LedgerRow> rows) {
+        doAnswer(i -> {
+            rows.forEach(((Consumer<LedgerRow>) i.getArgument(2))::accept);
+            return null;
+        }).when(repository).streamRange(eq(from), anyLong(), any());
+    }
+
+    //Dos rangos de 10 ids; el recibo 3 difiere de la proyección, el 15 (archivado) también pero no se reescribe
+    @Test
+    void run_replaysRangesSnapshotsLongHistoriesAndRepairsHotMismatches() {
+        ReceiptLedgerRepository repository = mock(ReceiptLedgerRepository.class);
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+
+        when(repository.receiptIdBounds()).thenReturn(new long[]{1, 20});
+        when(repository.snapshotHorizon(any())).thenReturn(Long.MAX_VALUE);
+        stubRange(repository, 1, List.of(
+                row(1, 1, ReceiptEventType.ISSUED, "50.00", "PENDING", "20.00", "PARTIALLY_PAID", true),
+                row(4, 1, ReceiptEventType.PAYMENT_APPLIED, "30.00", "PARTIALLY_PAID", "20.00", "PARTIALLY_PAID", true),
+                row(2, 3, ReceiptEventType.ISSUED, "80.00", "PENDING", "80.00", "OVERDUE", true)));
+        stubRange(repository, 11, List.of(
+                row(3, 15, ReceiptEventType.ISSUED, "10.00", "PENDING", "0.00", "PAID", false)));
+        when(repository.saveSnapshots(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+        when(repository.repairProjection(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+
+        JobProperties properties = new JobProperties();
+        properties.getReceiptLedger().setRangeSize(10);
+        properties.getReceiptLedger().setWorkers(2);
+        properties.getReceiptLedger().setSnapshotMinEvents(2);
+
+        ReceiptLedgerRebuildJob job = new ReceiptLedgerRebuildJob(properties, repository,
+                new JobMetrics(new SimpleMeterRegistry()), tx, publisher);
+
+        LedgerRebuildReportDTO report = job.run(true);
+
+        assertEquals(2, report.getRanges());
+        assertEquals(3, report.getReceipts());
+        assertEquals(4, report.getEvents());
+        assertEquals(1, report.getSnapshotsWritten());
+        assertEquals(2, report.getMismatches());
+        assertEquals(1, report.getRepaired());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReceiptState>> snapshots = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).saveSnapshots(snapshots.capture());
+        List<ReceiptState> written = new ArrayList<>();
+        snapshots.getAllValues().forEach(written::addAll);
+        assertEquals(1, written.size());
+        assertEquals(1, written.get(0).receiptId());
+        assertEquals(new BigDecimal("20.00"), written.get(0).pendingAmount());
+        assertEquals(4, written.get(0).lastEventId());
+
+        // la corrección lleva los valores leídos de la proyección para el compare-and-set
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Repair>> repaired = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).repairProjection(repaired.capture());
+        List<Repair> corrected = new ArrayList<>();
+        repaired.getAllValues().forEach(corrected::addAll);
+        assertEquals(1, corrected.size());
+        assertEquals(3, corrected.get(0).state().receiptId());
+        assertEquals("PENDING", corrected.get(0).state().receiptStatus());
+        assertEquals(new BigDecimal("80.00"), corrected.get(0).seenPending());
+        assertEquals("OVERDUE", corrected.get(0).seenStatus());
+        verify(tx, times(2)).commit(any());
+
+        // la proyección cambió fuera de los servicios: los read models se invalidan
+        verify(publisher).publishEvent(new ReceiptsBulkChangedEvent(ReceiptLedgerRebuildJob.JOB_NAME, 1));
+    }
+
+    //Eventos sobre el horizonte se comparan pero no entran al snapshot
+    @Test
+    void run_snapshotsOnlyUpToCommittedHorizon() {
+        ReceiptLedgerRepository repository = mock(ReceiptLedgerRepository.class);
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+
+        when(repository.receiptIdBounds()).thenReturn(new long[]{1, 1});
+        when(repository.snapshotHorizon(any())).thenReturn(5L);
+        stubRange(repository, 1, List.of(
+                row(1, 1, ReceiptEventType.ISSUED, "50.00", "PENDING", "10.00", "PARTIALLY_PAID", true),
+                row(5, 1, ReceiptEventType.PAYMENT_APPLIED, "30.00", "PARTIALLY_PAID", "10.00", "PARTIALLY_PAID", true),
+                row(9, 1, ReceiptEventType.PAYMENT_APPLIED, "10.00", "PARTIALLY_PAID", "10.00", "PARTIALLY_PAID", true)));
+
+        JobProperties properties = new JobProperties();
+        properties.getReceiptLedger().setSnapshotMinEvents(2);
+        ReceiptLedgerRebuildJob job = new ReceiptLedgerRebuildJob(properties, repository,
+                new JobMetrics(new SimpleMeterRegistry()), tx, publisher);
+
+        LedgerRebuildReportDTO report = job.run(false);
+
+        assertEquals(0, report.getMismatches());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReceiptState>> snapshots = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveSnapshots(snapshots.capture());
+        ReceiptState written = snapshots.getValue().get(0);
+        assertEquals(5, written.lastEventId());
+        assertEquals(2, written.eventCount());
+        assertEquals(new BigDecimal("20.00"), written.pendingAmount());
+    }
+
+    //Sin repair solo se informa: la proyección no se toca
+    @Test
+    void run_withoutRepair_onlyCountsMismatches() {
+        ReceiptLedgerRepository repository = mock(ReceiptLedgerRepository.class);
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+
+        when(repository.receiptIdBounds()).thenReturn(new long[]{3, 3});
+        stubRange(repository, 3, List.of(
+                row(2, 3, ReceiptEventType.ISSUED, "80.00", "PENDING", "75.00", "PENDING", true)));
+
+        ReceiptLedgerRebuildJob job = new ReceiptLedgerRebuildJob(new JobProperties(), repository,
+                new JobMetrics(new SimpleMeterRegistry()), tx, publisher);
+
+        LedgerRebuildReportDTO report = job.run(false);
+
+        assertEquals(1, report.getMismatches());
+        assertEquals(0, report.getRepaired());
+        verify(repository, never()).repairProjection(anyList());
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void run_emptyLedger_reportsNothing() {
+        ReceiptLedgerRepository repository = mock(ReceiptLedgerRepository.class);
+        ReceiptLedgerRebuildJob job = new ReceiptLedgerRebuildJob(new JobProperties(), repository,
+                new JobMetrics(new SimpleMeterRegistry()), mock(PlatformTransactionManager.class), publisher);
+
+        LedgerRebuildReportDTO report = job.run(false);
+
+        assertEquals(0, report.getRanges());
+        assertEquals(0, report.getEvents());
+        verify(repository, never()).streamRange(anyLong(), anyLong(), any());
+    }
+}
@@ -0,0 +1,150 @@
+package com.payservice.paymentservice.job;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.SettlementDTO;
+import com.payservice.paymentservice.dto.SettlementLineDTO;
+import com.payservice.paymentservice.repository.JobCheckpointRepository;
+import com.payservice.paymentservice.repository.SettlementRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SettlementCloseJobTest {
+
+    private static final LocalDate DAY = LocalDate.now().minusDays(1);
+    private static final BigDecimal ONE = new BigDecimal("1.00");
+    private static final BigDecimal USD_RATE = new BigDecimal("3.50");
+
+    private SettlementRepository settlementRepository;
+    private JobCheckpointRepository checkpoints;
+    private SettlementCloseJob job;
+
+    @BeforeEach
+    void setUp() {
+        JobProperties properties = new JobProperties();
+        properties.getSettlement().setChunkSize(2);
+
+        settlementRepository = mock(SettlementRepository.class);
+        checkpoints = mock(JobCheckpointRepository.class);
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+
+        job = new SettlementCloseJob(properties, settlementRepository, checkpoints,
+                new JobMetrics(new SimpleMeterRegistry()), tx);
+
+        when(settlementRepository.findSettlement(DAY))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(SettlementDTO.builder().settlementDate(DAY).build()));
+    }
+
+    @Test
+    void run_aggregatesDayPaymentsAndCheckpointsEachChunk() throws Exception {
+        when(checkpoints.find(SettlementCloseJob.JOB_NAME, DAY.toString(), 0)).thenReturn(JobCheckpoint.START);
+        streamRows(0L,
+                row(1, "50.00", "PEN", ONE, "PEN", "50.00"),
+                row(2, "20.00", "USD", USD_RATE, "PEN", "70.00"),
+                row(3, "10.00", "USD", USD_RATE, "PEN", "35.00"));
+
+        job.run(DAY);
+
+        //checkpoint intermedio después de 2 pagos, con los acumuladores parciales
+        verify(checkpoints).save(SettlementCloseJob.JOB_NAME, DAY.toString(), 0,
+                new JobCheckpoint(2, 2, 0, false), "PEN|1.00|PEN|1|5000|5000;USD|3.50|PEN|1|2000|7000");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SettlementLineDTO>> lines = ArgumentCaptor.forClass(List.class);
+        verify(settlementRepository).insertSettlement(eq(DAY), eq(3L), lines.capture());
+        SettlementLineDTO usd = lines.getValue().get(1);
+        assertEquals("USD", usd.getPaymentCurrency());
+        assertEquals(2, usd.getPaymentCount());
+        assertEquals(new BigDecimal("30.00"), usd.getAmountTotal());
+        assertEquals(new BigDecimal("105.00"), usd.getReceiptAmountTotal());
+        verify(checkpoints).save(eq(SettlementCloseJob.JOB_NAME), eq(DAY.toString()), eq(0),
+                eq(new JobCheckpoint(3, 3, 0, true)), anyString());
+    }
+
+    @Test
+    void run_resumesWithSavedAccumulators() throws Exception {
+        when(checkpoints.find(SettlementCloseJob.JOB_NAME, DAY.toString(), 0)).thenReturn(new JobCheckpoint(2, 2, 0, false));
+        when(checkpoints.findState(SettlementCloseJob.JOB_NAME, DAY.toString(), 0))
+                .thenReturn("PEN|1.00|PEN|1|5000|5000;USD|3.50|PEN|1|2000|7000");
+        streamRows(2L, row(3, "10.00", "USD", USD_RATE, "PEN", "35.00"));
+
+        job.run(DAY);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SettlementLineDTO>> lines = ArgumentCaptor.forClass(List.class);
+        verify(settlementRepository).insertSettlement(eq(DAY), eq(3L), lines.capture());
+        assertEquals(new BigDecimal("105.00"), lines.getValue().get(1).getReceiptAmountTotal());
+    }
+
+    //Un replay del journal confirmó un pago del día después de la lectura: entra antes de congelar, bajo el lock
+    @Test
+    void run_addsPaymentsCommittedAfterTheReadUnderTheDayLock() throws Exception {
+        when(checkpoints.find(SettlementCloseJob.JOB_NAME, DAY.toString(), 0)).thenReturn(JobCheckpoint.START);
+        streamRows(0L, row(1, "50.00", "PEN", ONE, "PEN", "50.00"));
+        streamRows(1L, row(9, "20.00", "PEN", ONE, "PEN", "20.00"));
+
+        job.run(DAY);
+
+        InOrder order = inOrder(settlementRepository);
+        order.verify(settlementRepository).lockDay(DAY, true);
+        order.verify(settlementRepository).streamDayPayments(eq(DAY), eq(1L), any());
+        order.verify(settlementRepository).insertSettlement(eq(DAY), eq(2L), anyList());
+        verify(checkpoints).save(eq(SettlementCloseJob.JOB_NAME), eq(DAY.toString()), eq(0),
+                eq(new JobCheckpoint(9, 2, 0, true)), anyString());
+    }
+
+    @Test
+    void run_alreadyClosedDay_returnsExistingSnapshot() {
+        SettlementDTO closed = SettlementDTO.builder().settlementDate(DAY).paymentCount(7).build();
+        reset(settlementRepository);
+        when(settlementRepository.findSettlement(DAY)).thenReturn(Optional.of(closed));
+
+        assertSame(closed, job.run(DAY));
+        verify(settlementRepository, never()).insertSettlement(any(), anyLong(), anyList());
+    }
+
+    @Test
+    void run_today_throwsIllegalArgumentException() {
+        LocalDate today = LocalDate.now();
+        assertThrows(IllegalArgumentException.class, () -> job.run(today));
+    }
+
+    private void streamRows(long afterId, Object[]... rows) {
+        doAnswer(i -> {
+            RowCallbackHandler handler = i.getArgument(2);
+            for (Object[] r : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn((Long) r[0]);
+                when(rs.getBigDecimal(2)).thenReturn((BigDecimal) r[1]);
+                when(rs.getString(3)).thenReturn((String) r[2]);
+                when(rs.getBigDecimal(4)).thenReturn((BigDecimal) r[3]);
+                when(rs.getString(5)).thenReturn((String) r[4]);
+                when(rs.getBigDecimal(6)).thenReturn((BigDecimal) r[5]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(settlementRepository).streamDayPayments(eq(DAY), eq(afterId), any());
+    }
+
+    private static Object[] row(long id, String amount, String currency, BigDecimal rate,
+                                String receiptCurrency, String receiptAmount) {
+        return new Object[]{id, new BigDecimal(amount), currency, rate, receiptCurrency, new BigDecimal(receiptAmount)};
+    }
+}
@@ -0,0 +1,121 @@
+package com.payservice.paymentservice.journal;
+
+import com.payservice.paymentservice.config.PaymentJournalProperties;
+import com.payservice.paymentservice.dto.JournalReplayReportDTO;
+import com.payservice.paymentservice.repository.PaymentJournalRepository;
+import com.payservice.paymentservice.repository.SettlementRepository;
+import com.payservice.paymentservice.service.PaymentService;
+import com.payservice.paymentservice.util.exception.OverpaymentException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class PaymentJournalReplayerTest {
+
+    @TempDir
+    Path dir;
+
+    private PaymentJournal journal;
+    private PaymentJournalRepository repository;
+    private PaymentService paymentService;
+    private SettlementRepository settlementRepository;
+    private PlatformTransactionManager tx;
+    private PaymentJournalReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        PaymentJournalProperties properties = new PaymentJournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(dir.toString());
+        journal = new PaymentJournal(properties);
+        journal.open();
+
+        repository = mock(PaymentJournalRepository.class);
+        paymentService = mock(PaymentService.class);
+        tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+
+        settlementRepository = mock(SettlementRepository.class);
+        replayer = new PaymentJournalReplayer(properties, journal, repository, paymentService, settlementRepository, tx);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    //Aplicado, ya aplicado antes (idempotencia) y sobrepago detectado recién al reaplicar
+    @Test
+    void run_appliesSkipsDuplicatesAndReportsConflicts() {
+        JournalEntry ok = journal.append(10, 5, new BigDecimal("30.00"), "PEN");
+        JournalEntry again = journal.append(11, 5, new BigDecimal("20.00"), "PEN");
+        JournalEntry over = journal.append(12, 5, new BigDecimal("999.00"), "PEN");
+
+        when(repository.claim(ok)).thenReturn(true);
+        when(repository.claim(again)).thenReturn(false);
+        when(repository.claim(over)).thenReturn(true);
+        when(paymentService.registerPayment(eq(12), eq(5), any(), any()))
+                .thenThrow(new OverpaymentException("RN3: Payment exceeds pending amount"));
+
+        JournalReplayReportDTO report = replayer.run();
+
+        assertEquals(1, report.getApplied());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(1, report.getRejected());
+        assertEquals(0, report.getRemaining());
+        assertEquals(1, report.getConflicts().size());
+        assertEquals(over.journalId().toString(), report.getConflicts().get(0).getJournalId());
+        assertEquals("RN3: Payment exceeds pending amount", report.getConflicts().get(0).getReason());
+
+        verify(repository).markApplied(ok.journalId());
+        verify(repository).markRejected(over.journalId(), "RN3: Payment exceeds pending amount");
+        verify(paymentService, never()).registerPayment(eq(11), any(), any(), any());
+        // el pago conserva la fecha en que se aceptó
+        verify(paymentService).registerPayment(eq(10), eq(5), any(), eq(ok.acceptedAt()));
+        verify(tx, times(3)).commit(any());
+    }
+
+    //Aceptado antes de un cierre que ya corrió: no puede quedar fuera de todo cierre, entra en el día del replay
+    @Test
+    void run_dayAlreadySettled_registersWithReplayDateAndReportsLate() {
+        JournalEntry entry = journal.append(10, 5, new BigDecimal("30.00"), "PEN");
+        when(repository.claim(entry)).thenReturn(true);
+        when(settlementRepository.isClosed(entry.acceptedAt().toLocalDate())).thenReturn(true);
+        LocalDateTime before = LocalDateTime.now();
+
+        JournalReplayReportDTO report = replayer.run();
+
+        assertEquals(1, report.getApplied());
+        assertEquals(1, report.getLate());
+        verify(settlementRepository).lockDay(entry.acceptedAt().toLocalDate(), false);
+        verify(paymentService).registerPayment(eq(10), eq(5), any(), argThat(d -> !d.isBefore(before)));
+        verify(repository).markApplied(entry.journalId());
+    }
+
+    //La base sigue caída: no se avanza y todo queda para el próximo intento
+    @Test
+    void run_stopsWhileDatabaseIsDown() {
+        journal.append(10, 5, new BigDecimal("30.00"), "PEN");
+        journal.append(11, 5, new BigDecimal("20.00"), "PEN");
+        when(tx.getTransaction(any())).thenThrow(new CannotCreateTransactionException("Connection refused"));
+
+        JournalReplayReportDTO report = replayer.run();
+
+        assertEquals(0, report.getApplied());
+        assertEquals(2, report.getRemaining());
+        verifyNoInteractions(repository, paymentService, settlementRepository);
+    }
+}
@@ -0,0 +1,145 @@
+package com.payservice.paymentservice.journal;
+
+import com.payservice.paymentservice.config.PaymentJournalProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private PaymentJournal open(long segmentBytes) {
+        PaymentJournalProperties properties = new PaymentJournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(dir.toString());
+        properties.setSegmentSize(DataSize.ofBytes(segmentBytes));
+        PaymentJournal journal = new PaymentJournal(properties);
+        journal.open();
+        return journal;
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void disabled_doesNotTouchDiskAndRejectsAppends() {
+        PaymentJournal journal = new PaymentJournal(new PaymentJournalProperties());
+        journal.open();
+
+        assertFalse(journal.isEnabled());
+        assertEquals(0, journal.pending());
+        assertThrows(IllegalStateException.class, () -> journal.append(1, 1, BigDecimal.TEN, "PEN"));
+    }
+
+    //Lo aceptado sobrevive a un reinicio y se reaplica en el orden en que entró
+    @Test
+    void append_survivesReopen_andReplaysInOrder() {
+        PaymentJournal journal = open(64 * 1024);
+        JournalEntry first = journal.append(10, 5, new BigDecimal("30.00"), "PEN");
+        JournalEntry second = journal.append(11, 5, new BigDecimal("12.5"), "usd");
+        journal.close();
+
+        PaymentJournal reopened = open(64 * 1024);
+        try {
+            assertEquals(2, reopened.pending());
+
+            List<JournalEntry> seen = new ArrayList<>();
+            PaymentJournal.ReplayScan scan = reopened.replayPending(seen::add);
+
+            assertEquals(2, scan.consumed());
+            assertEquals(List.of(first, second), seen);
+            assertEquals("USD", seen.get(1).paymentCurrency());
+            assertEquals(new BigDecimal("12.5"), seen.get(1).amount());
+            assertEquals(0, reopened.pending());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    //El handler corta (base caída): lo no aplicado queda pendiente y el próximo replay sigue desde ahí
+    @Test
+    void replayPending_stopsWithoutAdvancing_whenHandlerFails() {
+        PaymentJournal journal = open(64 * 1024);
+        try {
+            journal.append(10, 5, new BigDecimal("1.00"), "PEN");
+            JournalEntry second = journal.append(11, 5, new BigDecimal("2.00"), "PEN");
+
+            PaymentJournal.ReplayScan scan = journal.replayPending(e -> e.receiptId() == 10);
+            assertTrue(scan.stopped());
+            assertEquals(1, scan.consumed());
+            assertEquals(1, journal.pending());
+
+            List<JournalEntry> seen = new ArrayList<>();
+            journal.replayPending(seen::add);
+            assertEquals(List.of(second), seen);
+        } finally {
+            journal.close();
+        }
+    }
+
+    //Un byte dañado en disco invalida el CRC: el registro se descarta y se informa, el resto se aplica
+    @Test
+    void replayPending_skipsRecordsWithBadChecksum() throws Exception {
+        PaymentJournal journal = open(64 * 1024);
+        journal.append(10, 5, new BigDecimal("1.00"), "PEN");
+        journal.append(11, 5, new BigDecimal("2.00"), "PEN");
+        journal.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(segment.toFile(), "rw")) {
+            long amountByte = PaymentJournal.HEADER_SIZE + 8 + 24;
+            raf.seek(amountByte);
+            raf.write(raf.read() ^ 0x40);
+        }
+
+        PaymentJournal reopened = open(64 * 1024);
+        try {
+            List<JournalEntry> seen = new ArrayList<>();
+            PaymentJournal.ReplayScan scan = reopened.replayPending(seen::add);
+
+            assertEquals(1, scan.corrupt());
+            assertEquals(1, seen.size());
+            assertEquals(11, seen.get(0).receiptId());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    //Segmentos chicos: se rota al llenarse y los ya reaplicados se borran (menos el activo)
+    @Test
+    void append_rotatesSegments_andReplayDeletesConsumedOnes() throws Exception {
+        PaymentJournal journal = open(PaymentJournal.HEADER_SIZE + 2L * PaymentJournal.RECORD_SIZE);
+        try {
+            for (int i = 0; i < 5; i++) {
+                journal.append(100 + i, 1, BigDecimal.ONE, "PEN");
+            }
+            assertEquals(3, segmentFiles());
+
+            List<Integer> receipts = new ArrayList<>();
+            journal.replayPending(e -> receipts.add(e.receiptId()));
+
+            assertEquals(List.of(100, 101, 102, 103, 104), receipts);
+            assertEquals(1, segmentFiles());
+        } finally {
+            journal.close();
+        }
+    }
+}
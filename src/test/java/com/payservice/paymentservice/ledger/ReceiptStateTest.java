@@ -0,0 +1,58 @@
+package com.payservice.paymentservice.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReceiptStateTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    private static ReceiptEvent event(long id, ReceiptEventType type, String amount, String status) {
+        return new ReceiptEvent(id, 10, type, amount == null ? null : new BigDecimal(amount), status, null,
+                T0.plusDays(id));
+    }
+
+    //Emitido 100, paga 30, vence, paga 70: el saldo sale solo de los eventos
+    @Test
+    void apply_foldsIssuedPaymentsAndStatusChanges() {
+        ReceiptState state = ReceiptState.empty(10)
+                .apply(event(1, ReceiptEventType.ISSUED, "100.00", "PENDING"))
+                .apply(event(2, ReceiptEventType.PAYMENT_APPLIED, "30.00", "PARTIALLY_PAID"))
+                .apply(event(3, ReceiptEventType.STATUS_CHANGED, null, "OVERDUE"));
+
+        assertEquals(new BigDecimal("70.00"), state.pendingAmount());
+        assertEquals("OVERDUE", state.receiptStatus());
+        assertEquals(3, state.eventCount());
+        assertEquals(T0.plusDays(3), state.asOf());
+
+        ReceiptState paid = state.apply(event(4, ReceiptEventType.PAYMENT_APPLIED, "70.00", "PAID"));
+        assertEquals(0, paid.pendingAmount().signum());
+        assertEquals("PAID", paid.receiptStatus());
+        assertEquals(4, paid.lastEventId());
+    }
+
+    //Un snapshot es un estado más: seguir plegando desde él da lo mismo que desde el principio
+    @Test
+    void apply_fromSnapshot_continuesCount() {
+        ReceiptState snapshot = new ReceiptState(10, new BigDecimal("70.00"), "PARTIALLY_PAID", 2, 2, T0.plusDays(2));
+
+        ReceiptState state = snapshot.apply(event(5, ReceiptEventType.PAYMENT_APPLIED, "20.00", "PARTIALLY_PAID"));
+
+        assertEquals(new BigDecimal("50.00"), state.pendingAmount());
+        assertEquals(3, state.eventCount());
+    }
+
+    @Test
+    void apply_rejectsOutOfOrderOrForeignEvents() {
+        ReceiptState state = ReceiptState.empty(10).apply(event(5, ReceiptEventType.ISSUED, "100.00", "PENDING"));
+
+        assertThrows(IllegalStateException.class,
+                () -> state.apply(event(4, ReceiptEventType.PAYMENT_APPLIED, "10.00", "PARTIALLY_PAID")));
+        assertThrows(IllegalArgumentException.class, () -> state.apply(
+                new ReceiptEvent(6, 11, ReceiptEventType.PAYMENT_APPLIED, BigDecimal.TEN, "PARTIALLY_PAID", null, T0)));
+    }
+}
@@ -0,0 +1,181 @@
+package com.payservice.paymentservice.reactive;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.dto.ListingVersionDTO;
+import com.payservice.paymentservice.dto.PaymentResponseDTO;
+import com.payservice.paymentservice.dto.ReceiptInfoDTO;
+import com.payservice.paymentservice.dto.ServiceSummaryDTO;
+import com.payservice.paymentservice.reactive.ReactiveReadRepository.ServiceRow;
+import com.payservice.paymentservice.reactive.ReactiveReadRepository.ServiceTotalsRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveReadHandlerTest {
+
+    private WebTestClient client;
+    private ReactiveReadRepository repository;
+
+    private final CustomerSummaryDTO customer = new CustomerSummaryDTO("Ana", "Díaz", "ana@mail.com");
+    private final ServiceSummaryDTO service = new ServiceSummaryDTO("Internet", "Plan");
+
+    @BeforeEach
+    void setup() {
+        repository = Mockito.mock(ReactiveReadRepository.class);
+        when(repository.findListingVersion(any(), anyInt())).thenReturn(Mono.empty());
+
+        ReactiveReadHandler handler = new ReactiveReadHandler(repository, new JobProperties());
+        client = WebTestClient.bindToRouterFunction(ReactiveReadConfig.routes(handler))
+                .handlerStrategies(ReactiveReadConfig.strategies(JsonMapper.builder().build()))
+                .build();
+    }
+
+    @Test
+    void receipts_shouldIssueLookupsConcurrently() {
+        AtomicBoolean serviceSubscribed = new AtomicBoolean();
+        AtomicBoolean receiptsSubscribed = new AtomicBoolean();
+        AtomicBoolean othersInFlight = new AtomicBoolean();
+
+        // el cliente responde último: para entonces servicio y recibos ya tienen que estar pedidos
+        when(repository.findCustomer(2)).thenReturn(Mono.delay(Duration.ofMillis(100))
+                .map(t -> {
+                    othersInFlight.set(serviceSubscribed.get() && receiptsSubscribed.get());
+                    return customer;
+                }));
+        when(repository.findService(1)).thenReturn(Mono.just(service)
+                .doOnSubscribe(s -> serviceSubscribed.set(true)));
+        when(repository.findReceipts(1, 2, false)).thenReturn(Flux.just(receipt("R-2"), receipt("R-1"))
+                .doOnSubscribe(s -> receiptsSubscribed.set(true)));
+
+        client.get().uri("/receipts/service/1/customer/2").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].receiptNumber").isEqualTo("R-2")
+                .jsonPath("$[0].customer.names").isEqualTo("Ana")
+                .jsonPath("$[1].service.serviceName").isEqualTo("Internet");
+
+        assertTrue(othersInFlight.get());
+    }
+
+    @Test
+    void receipts_customerNotFound_shouldWinOverEmptyList() {
+        when(repository.findCustomer(2)).thenReturn(Mono.delay(Duration.ofMillis(50)).then(Mono.empty()));
+        when(repository.findService(1)).thenReturn(Mono.empty());
+        when(repository.findReceipts(1, 2, false)).thenReturn(Flux.empty());
+
+        client.get().uri("/receipts/service/1/customer/2").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Customer not found")
+                .jsonPath("$.path").isEqualTo("/receipts/service/1/customer/2");
+    }
+
+    @Test
+    void receipts_noReceipts_shouldReturn404() {
+        when(repository.findCustomer(2)).thenReturn(Mono.just(customer));
+        when(repository.findService(1)).thenReturn(Mono.just(service));
+        when(repository.findReceipts(1, 2, true)).thenReturn(Flux.empty());
+
+        client.get().uri("/receipts/service/1/customer/2?fullHistory=true").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("No receipts found for this customer/service");
+    }
+
+    @Test
+    void receipts_matchingETag_shouldReturn304WithoutLookups() {
+        when(repository.findListingVersion(1, 2))
+                .thenReturn(Mono.just(new ListingVersionDTO(LocalDateTime.of(2026, 1, 1, 0, 0), 3L)));
+
+        String etag = client.get().uri("/receipts/service/1/customer/2").exchange()
+                .returnResult(Void.class).getResponseHeaders().getETag();
+
+        client.get().uri("/receipts/service/1/customer/2").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified();
+
+        verify(repository, never()).findReceipts(anyInt(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void services_shouldAggregateTotalsPerService() {
+        when(repository.findCustomer(1)).thenReturn(Mono.just(customer));
+        when(repository.findServices(1)).thenReturn(Flux.just(new ServiceRow(10, "Internet", "Plan")));
+        when(repository.findServiceTotals(1)).thenReturn(Flux.just(
+                new ServiceTotalsRow(10, "MULTIMONEDA", new BigDecimal("150"), new BigDecimal("20"))));
+
+        client.get().uri("/services/customers/1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].serviceName").isEqualTo("Internet")
+                .jsonPath("$[0].currency").isEqualTo("MULTIMONEDA")
+                .jsonPath("$[0].pendingAmount").isEqualTo(20);
+    }
+
+    @Test
+    void services_serviceWithoutReceipts_shouldReturn404() {
+        when(repository.findCustomer(1)).thenReturn(Mono.just(customer));
+        when(repository.findServices(1)).thenReturn(Flux.just(new ServiceRow(10, "Internet", "Plan")));
+        when(repository.findServiceTotals(1)).thenReturn(Flux.empty());
+
+        client.get().uri("/services/customers/1").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Service Internet has no receipts for this customer");
+    }
+
+    @Test
+    void payments_shouldAttachCustomerToEveryRow() {
+        PaymentResponseDTO payment = PaymentResponseDTO.builder()
+                .amount(new BigDecimal("50"))
+                .paymentCurrency("PEN")
+                .receipt(receipt("R-1"))
+                .build();
+        when(repository.findCustomer(1)).thenReturn(Mono.just(customer));
+        when(repository.findPayments(eq(1), any(), any(), anyBoolean())).thenReturn(Flux.just(payment));
+
+        client.get().uri("/payments/customers/1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].customer.email").isEqualTo("ana@mail.com")
+                .jsonPath("$[0].receipt.receiptNumber").isEqualTo("R-1");
+    }
+
+    @Test
+    void payments_invalidRange_shouldReturn400() {
+        when(repository.findCustomer(1)).thenReturn(Mono.just(customer));
+
+        client.get().uri("/payments/customers/1?from=2026-02-01&to=2026-01-01").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("from must not be after to");
+
+        verify(repository, never()).findPayments(anyInt(), any(), any(), anyBoolean());
+    }
+
+    private static ReceiptInfoDTO receipt(String number) {
+        return new ReceiptInfoDTO(number, "2026-01", LocalDate.of(2026, 1, 31),
+                new BigDecimal("100"), new BigDecimal("40"), "PEN", "PENDING");
+    }
+}
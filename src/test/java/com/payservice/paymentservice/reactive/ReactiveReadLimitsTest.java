@@ -0,0 +1,108 @@
+package com.payservice.paymentservice.reactive;
+
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.config.RateLimitInterceptor;
+import com.payservice.paymentservice.config.RateLimitProperties;
+import com.payservice.paymentservice.config.ReactiveReadProperties;
+import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.util.AdaptiveConcurrencyLimiter;
+import com.payservice.paymentservice.util.ratelimit.LocalRateLimitStore;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class ReactiveReadLimitsTest {
+
+    private final CustomerSummaryDTO customer = new CustomerSummaryDTO("Ana", "Díaz", "ana@mail.com");
+
+    @Test
+    void saturatedPool_shouldReturn503() {
+        Connection connection = Mockito.mock(Connection.class);
+        when(connection.validate(any())).thenAnswer(i -> Mono.just(true));
+        when(connection.close()).thenAnswer(i -> Mono.empty());
+        ConnectionFactory factory = Mockito.mock(ConnectionFactory.class);
+        when(factory.create()).thenAnswer(i -> Mono.just(connection));
+        ConnectionFactoryMetadata metadata = () -> "PostgreSQL";
+        when(factory.getMetadata()).thenReturn(metadata);
+
+        ReactiveReadProperties.Pool config = new ReactiveReadProperties.Pool();
+        config.setInitialSize(0);
+        config.setMaxSize(1);
+        config.setMaxPendingAcquire(1);
+        config.setMaxAcquireTime(Duration.ofMillis(200));
+        ConnectionPool pool = ReactiveReadRepository.pool(factory, config);
+        ReactiveReadRepository repository = new ReactiveReadRepository(pool, 64);
+
+        // la única conexión queda tomada: los requests no pueden adquirir ninguna
+        Connection held = pool.create().block(Duration.ofSeconds(5));
+        try {
+            client(repository, ReactiveReadLimits.none())
+                    .get().uri("/payments/customers/1").exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("Read capacity exhausted");
+        } finally {
+            Mono.from(held.close()).block(Duration.ofSeconds(5));
+            repository.close();
+        }
+    }
+
+    @Test
+    void concurrencyLimitReached_shouldReturn503WithRetryAfter() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, Long.MAX_VALUE, 0.9, 0.0);
+        // un request del stack servlet ocupa el único cupo compartido
+        assertEquals(true, limiter.tryAcquire(false));
+
+        client(Mockito.mock(ReactiveReadRepository.class), new ReactiveReadLimits(limiter, 2, null))
+                .get().uri("/payments/customers/1").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "2");
+    }
+
+    @Test
+    void customerOverQuota_shouldReturn429() {
+        ReactiveReadRepository repository = Mockito.mock(ReactiveReadRepository.class);
+        when(repository.findListingVersion(any(), anyInt())).thenReturn(Mono.empty());
+        when(repository.findCustomer(1)).thenReturn(Mono.just(customer));
+        when(repository.findPayments(eq(1), any(), any(), anyBoolean())).thenReturn(Flux.empty());
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(true);
+        properties.getCustomer().setEndpoints(Map.of("getPaymentsByCustomer", new RateLimitProperties.Limit(1, 0.001)));
+        RateLimitInterceptor rateLimit = new RateLimitInterceptor(properties, new LocalRateLimitStore(1_000));
+        WebTestClient client = client(repository, new ReactiveReadLimits(null, 0, rateLimit));
+
+        client.get().uri("/payments/customers/1").exchange()
+                .expectHeader().valueEquals("X-RateLimit-Limit", "1")
+                .expectHeader().valueEquals("X-RateLimit-Remaining", "0");
+
+        client.get().uri("/payments/customers/1").exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("X-RateLimit-Remaining", "0")
+                .expectHeader().exists("Retry-After");
+    }
+
+    private static WebTestClient client(ReactiveReadRepository repository, ReactiveReadLimits limits) {
+        ReactiveReadHandler handler = new ReactiveReadHandler(repository, new JobProperties());
+        return WebTestClient.bindToRouterFunction(ReactiveReadConfig.routes(handler, limits))
+                .handlerStrategies(ReactiveReadConfig.strategies(JsonMapper.builder().build(), limits))
+                .build();
+    }
+}
@@ -0,0 +1,234 @@
+package com.payservice.paymentservice.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Benchmark stack bloqueante vs reactivo contra una base y una app reales (perfil reactive-read), misma concurrencia
+//Mide p50/p99, throughput, hilos vivos de la JVM (actuator) y conexiones por application_name (pg_stat_activity)
+//mvn test -Dtest=ReadStackBenchmarkTest -Dbench.enabled=true -Dbench.jdbc-url=jdbc:postgresql://localhost:5432/payment_service
+//  -Dbench.user=... -Dbench.password=... [-Dbench.blocking-url=http://localhost:8088 -Dbench.reactive-url=http://localhost:8089
+//   -Dbench.concurrency=64 -Dbench.requests=6000 -Dbench.targets=200]
+@EnabledIfSystemProperty(named = "bench.enabled", matches = "true")
+class ReadStackBenchmarkTest {
+
+    private static final String BLOCKING_URL = System.getProperty("bench.blocking-url", "http://localhost:8088");
+    private static final String REACTIVE_URL = System.getProperty("bench.reactive-url", "http://localhost:8089");
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 64);
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 6000);
+    private static final int TARGETS = Integer.getInteger("bench.targets", 200);
+
+    private static final String BENCH_APPLICATION_NAME = "payment-read-benchmark";
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newFixedThreadPool(CONCURRENCY))
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Test
+    void blockingVsReactive_atEqualConcurrency() throws Exception {
+        try (Connection db = DriverManager.getConnection(System.getProperty("bench.jdbc-url"), jdbcProperties())) {
+            List<String> paths = paths(db);
+
+            // mismas respuestas en los dos puertos antes de medir nada
+            int bodyMismatches = 0;
+            for (String path : paths.subList(0, Math.min(30, paths.size()))) {
+                HttpResponse<String> blocking = get(BLOCKING_URL + path);
+                HttpResponse<String> reactive = get(REACTIVE_URL + path);
+                assertEquals(blocking.statusCode(), reactive.statusCode(), path);
+                if (!json(blocking.body()).equals(json(reactive.body()))) bodyMismatches++;
+            }
+
+            // reactivo primero: los hilos de Tomcat creados por la otra fase no inflan su medición
+            Result reactive = run("reactive", REACTIVE_URL, paths, db);
+            Result blocking = run("blocking", BLOCKING_URL, paths, db);
+
+            System.out.printf("%n%-9s %8s %8s %8s %10s %12s %14s %8s%n", "stack", "p50 ms", "p99 ms", "max ms",
+                    "req/s", "+jvm threads", "db connections", "errors");
+            for (Result r : List.of(blocking, reactive)) {
+                System.out.printf("%-9s %8.1f %8.1f %8.1f %10.0f %12d %14d %8d%n", r.stack, r.p50, r.p99, r.max,
+                        r.throughput, r.peakThreads - r.baselineThreads, r.peakConnections, r.errors);
+            }
+            System.out.printf("concurrency=%d requests=%d targets=%d body mismatches=%d%n",
+                    CONCURRENCY, REQUESTS, paths.size(), bodyMismatches);
+        }
+    }
+
+    private Result run(String stack, String baseUrl, List<String> paths, Connection db) throws Exception {
+        // calentamiento: JIT, pools y planes de la base
+        load(baseUrl, paths, Math.max(CONCURRENCY, REQUESTS / 10), new long[0]);
+
+        long baselineThreads = liveThreads();
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        long[] peaks = {baselineThreads, 0};
+        String applicationName = stack.equals("reactive") ? ReactiveReadRepository.APPLICATION_NAME : null;
+        ExecutorService sampler = Executors.newSingleThreadExecutor();
+        Future<?> samples = sampler.submit(() -> {
+            while (sampling.get()) {
+                peaks[0] = Math.max(peaks[0], liveThreads());
+                peaks[1] = Math.max(peaks[1], connections(db, applicationName));
+                sleep(50);
+            }
+        });
+
+        long[] latencies = new long[REQUESTS];
+        long start = System.nanoTime();
+        int errors = load(baseUrl, paths, REQUESTS, latencies);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        sampling.set(false);
+        samples.get();
+        sampler.shutdownNow();
+
+        Arrays.sort(latencies);
+        return new Result(stack, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6, REQUESTS / seconds,
+                baselineThreads, peaks[0], peaks[1], errors);
+    }
+
+    //Clientes en bucle cerrado: CONCURRENCY requests en vuelo todo el tiempo
+    private int load(String baseUrl, List<String> paths, int requests, long[] latencies) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CONCURRENCY; c++) {
+                futures.add(clients.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        long t0 = System.nanoTime();
+                        try {
+                            int status = get(baseUrl + paths.get(i % paths.size())).statusCode();
+                            if (status >= 500) errors.incrementAndGet();
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                        }
+                        if (i < latencies.length) latencies[i] = System.nanoTime() - t0;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            clients.shutdownNow();
+            clients.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        return errors.get();
+    }
+
+    //Mezcla de las tres lecturas sobre pares cliente/servicio reales
+    private static List<String> paths(Connection db) throws Exception {
+        List<String> paths = new ArrayList<>();
+        try (PreparedStatement ps = db.prepareStatement(
+                "SELECT service_id, customer_id FROM operation.services ORDER BY random() LIMIT ?")) {
+            ps.setInt(1, TARGETS);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int serviceId = rs.getInt(1);
+                    int customerId = rs.getInt(2);
+                    paths.add("/services/customers/" + customerId);
+                    paths.add("/receipts/service/" + serviceId + "/customer/" + customerId);
+                    paths.add("/payments/customers/" + customerId);
+                }
+            }
+        }
+        if (paths.isEmpty()) throw new IllegalStateException("operation.services is empty");
+        return paths;
+    }
+
+    //null = todas las conexiones de la app que no son R2DBC ni de este benchmark (Hikari)
+    private static int connections(Connection db, String applicationName) {
+        String sql = applicationName != null
+                ? "SELECT count(*) FROM pg_stat_activity WHERE application_name = ?"
+                : "SELECT count(*) FROM pg_stat_activity WHERE datname = current_database() " +
+                  "AND backend_type = 'client backend' AND application_name NOT IN (?, ?)";
+        try (PreparedStatement ps = db.prepareStatement(sql)) {
+            if (applicationName != null) {
+                ps.setString(1, applicationName);
+            } else {
+                ps.setString(1, ReactiveReadRepository.APPLICATION_NAME);
+                ps.setString(2, BENCH_APPLICATION_NAME);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    //Hilos vivos de la JVM de la app; los dos stacks corren en el mismo proceso
+    private long liveThreads() {
+        try {
+            JsonNode metric = jsonMapper.readTree(get(BLOCKING_URL + "/actuator/metrics/jvm.threads.live").body());
+            return metric.path("measurements").path(0).path("value").asLong();
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    private HttpResponse<String> get(String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(String body) {
+        if (body == null || body.isBlank()) return jsonMapper.nullNode();
+        JsonNode node = jsonMapper.readTree(body);
+        // el timestamp de los errores cambia entre llamadas
+        if (node.isObject()) ((ObjectNode) node).remove("timestamp");
+        return node;
+    }
+
+    private static Properties jdbcProperties() {
+        Properties p = new Properties();
+        p.setProperty("user", System.getProperty("bench.user", ""));
+        p.setProperty("password", System.getProperty("bench.password", ""));
+        p.setProperty("ApplicationName", BENCH_APPLICATION_NAME);
+        return p;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(String stack, double p50, double p99, double max, double throughput,
+                          long baselineThreads, long peakThreads, long peakConnections, int errors) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.payservice.paymentservice.readmodel;
+
+import com.payservice.paymentservice.config.ReadModelProperties;
+import com.payservice.paymentservice.event.PaymentCommittedEvent;
+import com.payservice.paymentservice.event.ReceiptsBulkChangedEvent;
+import com.payservice.paymentservice.repository.ReadModelRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class CustomerReadModelTest {
+
+    private ReadModelProperties properties;
+    private ReadModelRepository repository;
+    private SimpleMeterRegistry registry;
+    private CustomerReadModel readModel;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReadModelProperties();
+        properties.setEnabled(true);
+        properties.setRangeSize(2);
+        properties.setLoadWorkers(2);
+        repository = mock(ReadModelRepository.class);
+        registry = new SimpleMeterRegistry();
+        readModel = new CustomerReadModel(properties, repository, registry);
+    }
+
+    private static CustomerView view(int customerId, String pending) {
+        return new CustomerView(customerId, "Dolly", "Asto", "dolly@mail.com", null,
+                List.of(new ServiceView(100, "Internet Hogar", "Plan mensual", null)),
+                List.of(new ReceiptView(10, 100, "00000010", "ENE-2026", LocalDate.of(2026, 1, 31),
+                        new BigDecimal("150.00"), new BigDecimal(pending), "PEN", "PENDING", null)),
+                List.of());
+    }
+
+    //Rangos [0,2) [2,4) [4,5) cargados en paralelo; no se sirve nada antes de terminar
+    @Test
+    void rebuild_loadsAllRangesThenServes() throws Exception {
+        when(repository.maxCustomerId()).thenReturn(4);
+        when(repository.loadRange(anyInt(), anyInt())).thenReturn(List.of());
+        when(repository.loadRange(0, 2)).thenReturn(List.of(view(1, "150.00")));
+        when(repository.loadRange(4, 5)).thenReturn(List.of(view(4, "20.00")));
+
+        assertTrue(readModel.find(1).isEmpty());
+        readModel.onListenerConnected().get(5, TimeUnit.SECONDS);
+
+        assertTrue(readModel.isReady());
+        assertEquals(new BigDecimal("150.00"), readModel.find(1).orElseThrow().receipts().get(0).pendingAmount());
+        assertEquals(4, readModel.find(4).orElseThrow().customerId());
+        assertTrue(readModel.find(3).isEmpty());
+        assertTrue(readModel.find(99_999).isEmpty());
+        verify(repository).loadRange(2, 4);
+    }
+
+    //Entre el commit y la recarga el cliente se lee de la base (read-your-writes)
+    @Test
+    void paymentCommitted_fallsBackToDatabaseUntilReloaded() throws Exception {
+        when(repository.maxCustomerId()).thenReturn(1);
+        when(repository.loadRange(0, 2)).thenReturn(List.of(view(1, "150.00")));
+        readModel.onListenerConnected().get(5, TimeUnit.SECONDS);
+
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.loadCustomer(1)).thenAnswer(i -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(view(1, "50.00"));
+        });
+
+        readModel.onPaymentCommitted(new PaymentCommittedEvent(1, 100, 10));
+        assertTrue(readModel.find(1).isEmpty());
+
+        release.countDown();
+        // el updater es un solo hilo: cuando termina lo encolado después, la recarga ya se aplicó
+        readModel.requestReload(2).get(5, TimeUnit.SECONDS);
+
+        assertEquals(new BigDecimal("50.00"), readModel.find(1).orElseThrow().receipts().get(0).pendingAmount());
+        verify(repository, times(1)).loadCustomer(1);
+    }
+
+    //Una diferencia con la base se cuenta y se corrige
+    @Test
+    void checkSample_repairsAndCountsMismatches() throws Exception {
+        properties.setCheckSampleSize(20);
+        when(repository.maxCustomerId()).thenReturn(0);
+        when(repository.loadRange(0, 1)).thenReturn(List.of(view(0, "150.00")));
+        readModel.onListenerConnected().get(5, TimeUnit.SECONDS);
+
+        when(repository.loadCustomer(anyInt())).thenReturn(Optional.empty());
+        when(repository.loadCustomer(0)).thenReturn(Optional.of(view(0, "0.00")));
+        readModel.checkSample();
+
+        assertEquals(new BigDecimal("0.00"), readModel.find(0).orElseThrow().receipts().get(0).pendingAmount());
+        assertEquals(1.0, registry.counter("payment.read-model.mismatches").count());
+    }
+
+    //Una reconstrucción pedida no deja servir las vistas viejas mientras corre
+    @Test
+    void requestRebuild_readsDatabaseUntilRebuilt() throws Exception {
+        when(repository.maxCustomerId()).thenReturn(1);
+        when(repository.loadRange(0, 2)).thenReturn(List.of(view(1, "150.00")));
+        readModel.onListenerConnected().get(5, TimeUnit.SECONDS);
+
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.loadRange(0, 2)).thenAnswer(i -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(view(1, "0.00"));
+        });
+
+        var rebuilt = readModel.requestRebuild();
+        assertFalse(readModel.isReady());
+        assertTrue(readModel.find(1).isEmpty());
+
+        release.countDown();
+        rebuilt.get(5, TimeUnit.SECONDS);
+        assertEquals(new BigDecimal("0.00"), readModel.find(1).orElseThrow().receipts().get(0).pendingAmount());
+    }
+
+    //Los avisos de otra instancia recargan; los propios se descartan
+    @Test
+    void onChange_reloadsRemoteChangesOnly() throws Exception {
+        when(repository.maxCustomerId()).thenReturn(1);
+        when(repository.loadRange(0, 2)).thenReturn(List.of(view(1, "150.00")));
+        readModel.onListenerConnected().get(5, TimeUnit.SECONDS);
+        when(repository.loadCustomer(1)).thenReturn(Optional.of(view(1, "50.00")));
+
+        readModel.announcePayment(new PaymentCommittedEvent(1, 100, 10));
+        ArgumentCaptor<String> own = ArgumentCaptor.forClass(String.class);
+        verify(repository).publishChange(own.capture());
+        readModel.onChange(own.getValue());
+        readModel.requestReload(2).get(5, TimeUnit.SECONDS);
+        verify(repository, never()).loadCustomer(1);
+
+        readModel.onChange("other-instance:1");
+        readModel.requestReload(2).get(5, TimeUnit.SECONDS);
+        assertEquals(new BigDecimal("50.00"), readModel.find(1).orElseThrow().receipts().get(0).pendingAmount());
+    }
+
+    @Test
+    void announceBulkChange_publishesRebuild() {
+        readModel.announceBulkChange(new ReceiptsBulkChangedEvent("billing-run", 3));
+
+        verify(repository).publishChange(argThat(p -> p.endsWith(":*")));
+    }
+
+    //Sin escucha pueden perderse cambios de otras instancias: se lee de la base
+    @Test
+    void listenerLost_stopsServing() throws Exception {
+        when(repository.maxCustomerId()).thenReturn(1);
+        when(repository.loadRange(0, 2)).thenReturn(List.of(view(1, "150.00")));
+        readModel.onListenerConnected().get(5, TimeUnit.SECONDS);
+
+        readModel.onListenerLost();
+
+        assertFalse(readModel.isReady());
+        assertTrue(readModel.find(1).isEmpty());
+        assertEquals(1.0, registry.counter("payment.read-model.failures").count());
+        assertEquals(0.0, registry.get("payment.read-model.ready").gauge().value());
+    }
+
+    //Una recarga fallida descarta la vista y se cuenta
+    @Test
+    void reloadFailure_dropsViewAndCounts() throws Exception {
+        when(repository.maxCustomerId()).thenReturn(1);
+        when(repository.loadRange(0, 2)).thenReturn(List.of(view(1, "150.00")));
+        readModel.onListenerConnected().get(5, TimeUnit.SECONDS);
+        when(repository.loadCustomer(1)).thenThrow(new IllegalStateException("connection reset"));
+
+        var reload = readModel.requestReload(1);
+
+        assertThrows(ExecutionException.class, () -> reload.get(5, TimeUnit.SECONDS));
+        assertTrue(readModel.find(1).isEmpty());
+        assertEquals(1.0, registry.counter("payment.read-model.failures").count());
+    }
+
+    @Test
+    void disabled_ignoresEvents() {
+        properties.setEnabled(false);
+
+        readModel.onPaymentCommitted(new PaymentCommittedEvent(1, 100, 10));
+        readModel.onApplicationReady();
+
+        verifyNoInteractions(repository);
+        assertFalse(readModel.isReady());
+    }
+}
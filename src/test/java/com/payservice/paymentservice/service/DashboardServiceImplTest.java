@@ -0,0 +1,264 @@
+package com.payservice.paymentservice.service;
+
+import com.payservice.paymentservice.config.DashboardProperties;
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.config.ReplicaStalenessGuard;
+import com.payservice.paymentservice.dto.CustomerDashboardDTO;
+import com.payservice.paymentservice.entity.Customer;
+import com.payservice.paymentservice.entity.Payment;
+import com.payservice.paymentservice.entity.Receipt;
+import com.payservice.paymentservice.entity.ServiceEntity;
+import com.payservice.paymentservice.mapper.CustomerMapper;
+import com.payservice.paymentservice.mapper.PaymentMapper;
+import com.payservice.paymentservice.mapper.ReceiptMapper;
+import com.payservice.paymentservice.mapper.ServiceMapper;
+import com.payservice.paymentservice.repository.CustomerRepository;
+import com.payservice.paymentservice.repository.PaymentRepository;
+import com.payservice.paymentservice.repository.ReceiptRepository;
+import com.payservice.paymentservice.repository.ServiceRepository;
+import com.payservice.paymentservice.service.impl.DashboardServiceImpl;
+import com.payservice.paymentservice.util.exception.BulkheadFullException;
+import com.payservice.paymentservice.util.exception.DeadlineExceededException;
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DashboardServiceImplTest {
+
+    @Mock private CustomerRepository customerRepository;
+    @Mock private ServiceRepository serviceRepository;
+    @Mock private ReceiptRepository receiptRepository;
+    @Mock private PaymentRepository paymentRepository;
+    @Mock private ReplicaStalenessGuard stalenessGuard;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private DashboardServiceImpl dashboardService;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private Customer customer;
+    private ServiceEntity service;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        DashboardProperties properties = new DashboardProperties();
+        properties.setDeadline(Duration.ofMillis(500));
+        properties.setPoolSize(4);
+
+        CustomerMapper customerMapper = new CustomerMapper();
+        ServiceMapper serviceMapper = new ServiceMapper();
+        ReceiptMapper receiptMapper = new ReceiptMapper();
+        dashboardService = new DashboardServiceImpl(properties, new JobProperties(), customerRepository,
+                serviceRepository, receiptRepository, paymentRepository, customerMapper, serviceMapper,
+                receiptMapper, new PaymentMapper(customerMapper, serviceMapper, receiptMapper),
+                stalenessGuard, transactionManager);
+
+        customer = new Customer();
+        customer.setCustomerId(1);
+        customer.setNames("Ana");
+        service = new ServiceEntity();
+        service.setServiceId(10);
+        service.setServiceName("Internet");
+
+        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+        when(serviceRepository.findByCustomerId(1)).thenReturn(List.of(service));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        dashboardService.shutdown();
+    }
+
+    @Test
+    void getCustomerDashboard_shouldReturnAllSections() {
+        when(receiptRepository.findOpenByCustomerIdWithService(1)).thenReturn(List.of(receipt()));
+        when(paymentRepository.findLatestWithReceipt(eq(1), any(), eq(Limit.of(5)))).thenReturn(List.of(payment()));
+
+        CustomerDashboardDTO result = dashboardService.getCustomerDashboard(1, 5);
+
+        assertFalse(result.isPartial());
+        assertEquals("Ana", result.getCustomer().getNames());
+        assertEquals("Internet", result.getServices().get(0).getServiceName());
+        assertEquals("R-1", result.getOpenReceipts().get(0).getReceiptNumber());
+        assertEquals("Internet", result.getOpenReceipts().get(0).getService().getServiceName());
+        assertEquals("Ana", result.getLastPayments().get(0).getCustomer().getNames());
+        assertEquals("R-1", result.getLastPayments().get(0).getReceipt().getReceiptNumber());
+    }
+
+    @Test
+    void getCustomerDashboard_shouldRunSectionsConcurrently() {
+        // cada sección tarda 200 ms: en serie serían 800 ms, por encima del plazo de 500 ms
+        when(customerRepository.findById(1)).thenAnswer(inv -> { sleep(200); return Optional.of(customer); });
+        when(serviceRepository.findByCustomerId(1)).thenAnswer(inv -> { sleep(200); return List.of(service); });
+        when(receiptRepository.findOpenByCustomerIdWithService(1)).thenAnswer(inv -> { sleep(200); return List.of(receipt()); });
+        when(paymentRepository.findLatestWithReceipt(eq(1), any(), any())).thenAnswer(inv -> { sleep(200); return List.of(); });
+
+        CustomerDashboardDTO result = dashboardService.getCustomerDashboard(1, null);
+
+        assertFalse(result.isPartial());
+        assertEquals(1, result.getOpenReceipts().size());
+    }
+
+    @Test
+    void getCustomerDashboard_slowOptionalSection_shouldReturnPartialResult() {
+        when(receiptRepository.findOpenByCustomerIdWithService(1)).thenReturn(List.of(receipt()));
+        when(paymentRepository.findLatestWithReceipt(eq(1), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(payment());
+        });
+
+        long start = System.nanoTime();
+        CustomerDashboardDTO result = dashboardService.getCustomerDashboard(1, null);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(result.isPartial());
+        assertEquals(List.of("lastPayments"), result.getUnavailableSections());
+        assertNull(result.getLastPayments());
+        assertEquals(1, result.getOpenReceipts().size());
+        assertTrue(elapsedMs < 2000, "should answer at the deadline, took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void getCustomerDashboard_failingOptionalSection_shouldReturnPartialResult() {
+        when(receiptRepository.findOpenByCustomerIdWithService(1)).thenThrow(new IllegalStateException("db down"));
+        when(paymentRepository.findLatestWithReceipt(eq(1), any(), any())).thenReturn(List.of());
+
+        CustomerDashboardDTO result = dashboardService.getCustomerDashboard(1, null);
+
+        assertTrue(result.isPartial());
+        assertEquals(List.of("openReceipts"), result.getUnavailableSections());
+        assertEquals(0, result.getLastPayments().size());
+    }
+
+    @Test
+    void getCustomerDashboard_slowRequiredSection_shouldThrowDeadlineExceeded() {
+        when(serviceRepository.findByCustomerId(1)).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(service);
+        });
+
+        DeadlineExceededException ex = assertThrows(DeadlineExceededException.class,
+                () -> dashboardService.getCustomerDashboard(1, null));
+        assertTrue(ex.getMessage().contains("services"));
+    }
+
+    @Test
+    void getCustomerDashboard_sectionsShouldRunWithTransactionTimeoutFromDeadline() {
+        when(receiptRepository.findOpenByCustomerIdWithService(1)).thenReturn(List.of());
+        when(paymentRepository.findLatestWithReceipt(eq(1), any(), any())).thenReturn(List.of());
+
+        dashboardService.getCustomerDashboard(1, null);
+
+        // plazo de 500 ms -> 1 s: el driver corta la consulta aunque el hilo siga ocupado
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(4)).getTransaction(definitions.capture());
+        definitions.getAllValues().forEach(d -> {
+            assertTrue(d.isReadOnly());
+            assertEquals(1, d.getTimeout());
+        });
+    }
+
+    @Test
+    void getCustomerDashboard_queueFull_shouldRejectFast() {
+        DashboardProperties properties = new DashboardProperties();
+        properties.setPoolSize(1);
+        properties.setQueueCapacity(1);
+        CustomerMapper customerMapper = new CustomerMapper();
+        ServiceMapper serviceMapper = new ServiceMapper();
+        ReceiptMapper receiptMapper = new ReceiptMapper();
+        DashboardServiceImpl saturated = new DashboardServiceImpl(properties, new JobProperties(), customerRepository,
+                serviceRepository, receiptRepository, paymentRepository, customerMapper, serviceMapper,
+                receiptMapper, new PaymentMapper(customerMapper, serviceMapper, receiptMapper),
+                stalenessGuard, transactionManager);
+        when(customerRepository.findById(1)).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(customer);
+        });
+
+        try {
+            // un hilo y un lugar en cola: la tercera sección ya no entra
+            long start = System.nanoTime();
+            assertThrows(BulkheadFullException.class, () -> saturated.getCustomerDashboard(1, null));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 400);
+        } finally {
+            saturated.shutdown();
+        }
+    }
+
+    @Test
+    void getCustomerDashboard_customerNotFound_shouldThrow() {
+        when(customerRepository.findById(1)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> dashboardService.getCustomerDashboard(1, null));
+    }
+
+    @Test
+    void getCustomerDashboard_paymentsOutOfRange_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.getCustomerDashboard(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.getCustomerDashboard(1, 51));
+    }
+
+    private Receipt receipt() {
+        Receipt r = new Receipt();
+        r.setReceiptId(100);
+        r.setReceiptNumber("R-1");
+        r.setServiceId(10);
+        r.setService(service);
+        r.setDueDate(LocalDate.of(2026, 1, 31));
+        r.setReceiptAmount(new BigDecimal("100"));
+        r.setPendingAmount(new BigDecimal("40"));
+        r.setCurrency("PEN");
+        r.setReceiptStatus("PENDING");
+        return r;
+    }
+
+    private Payment payment() {
+        Payment p = new Payment();
+        p.setPaymentId(7);
+        p.setReceipt(receipt());
+        p.setAmount(new BigDecimal("60"));
+        p.setPaymentCurrency("PEN");
+        p.setPaymentStatus("COMPLETED");
+        p.setPaymentDate(LocalDateTime.of(2026, 1, 10, 12, 0));
+        return p;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,24 +1,35 @@
 package com.payservice.paymentservice.service;
 
+import com.payservice.paymentservice.config.JobProperties;
+import com.payservice.paymentservice.config.ReplicaStalenessGuard;
 import com.payservice.paymentservice.dto.PaymentRequestDTO;
 import com.payservice.paymentservice.dto.PaymentResponseDTO;
 import com.payservice.paymentservice.entity.*;
+import com.payservice.paymentservice.ledger.ReceiptEvent;
 import com.payservice.paymentservice.service.impl.PaymentServiceImpl;
 import com.payservice.paymentservice.util.ExchangeRateConstants;
 import com.payservice.paymentservice.util.exception.NoPaymentsFoundException;
 import com.payservice.paymentservice.util.exception.OverpaymentException;
 import com.payservice.paymentservice.util.exception.PendingReceiptException;
 import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import com.payservice.paymentservice.util.jfr.RuleRejectedEvent;
 import com.payservice.paymentservice.mapper.PaymentMapper;
 import com.payservice.paymentservice.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -36,6 +47,13 @@ class PaymentServiceImplTest {
     @Mock private ServiceRepository serviceRepository;
     @Mock private PaymentRepository paymentRepository;
     @Mock private PaymentMapper paymentMapper;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private ReplicaStalenessGuard stalenessGuard;
+    @Mock private PaymentBatchRepository paymentBatchRepository;
+    @Mock private PaymentArchiveRepository paymentArchiveRepository;
+    @Mock private ReceiptLedgerRepository ledgerRepository;
+    @Mock private ReceiptArchiveRepository receiptArchiveRepository;
+    @Spy private JobProperties jobProperties = new JobProperties();
 
     @InjectMocks //Crea una instancia real de PaymentServiceImpl y le inyecta los mocks.
     private PaymentServiceImpl paymentService;
@@ -136,6 +154,13 @@ class PaymentServiceImplTest {
         verify(receiptRepository).save(any(Receipt.class));
         verify(paymentRepository).save(any(Payment.class));
         verify(paymentMapper).toPaymentResponse(any(Payment.class), any(Customer.class), any(ServiceEntity.class), any(Receipt.class));
+
+        // el ledger recibe el pago aplicado con el id del pago y el estado resultante,
+        // después de que el UPDATE del recibo llegó a la base
+        InOrder order = inOrder(receiptRepository, ledgerRepository);
+        order.verify(receiptRepository).flush();
+        order.verify(ledgerRepository).append(List.of(
+                ReceiptEvent.paymentApplied(receipt.getReceiptId(), new BigDecimal("10.00"), "PARTIALLY_PAID", 999)));
     }
 
     @Test
@@ -375,6 +400,103 @@ class PaymentServiceImplTest {
         verify(paymentRepository, never()).save(any(Payment.class));
     }
 
+    //Un recibo OVERDUE se puede pagar (RN5) y sigue OVERDUE mientras tenga saldo
+    @Test
+    void registerPayment_overdueReceipt_partialPaymentKeepsOverdue() {
+        receipt.setReceiptStatus("OVERDUE");
+        PaymentRequestDTO req = new PaymentRequestDTO(new BigDecimal("10.00"), "PEN");
+
+        when(receiptRepository.findById(receipt.getReceiptId())).thenReturn(Optional.of(receipt));
+        when(receiptRepository.findByServiceIdAndCustomerIdAndDueDateBeforeOrderByDueDateAsc(
+                anyInt(), anyInt(), any(LocalDate.class)))
+                .thenReturn(Collections.emptyList());
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(i -> i.getArgument(0));
+
+        paymentService.registerPayment(receipt.getReceiptId(), 1, req);
+
+        assertEquals("OVERDUE", receipt.getReceiptStatus());
+        assertEquals(new BigDecimal("40.00"), receipt.getPendingAmount());
+    }
+
+    //RN6: un recibo anterior OVERDUE bloquea el pago del siguiente
+    @Test
+    void registerPayment_previousOverdue_throwsPendingReceiptException() {
+        Receipt prev = new Receipt();
+        prev.setReceiptId(9);
+        prev.setReceiptStatus("OVERDUE");
+        PaymentRequestDTO req = new PaymentRequestDTO(new BigDecimal("10.00"), "PEN");
+
+        when(receiptRepository.findById(receipt.getReceiptId())).thenReturn(Optional.of(receipt));
+        when(receiptRepository.findByServiceIdAndCustomerIdAndDueDateBeforeOrderByDueDateAsc(
+                anyInt(), anyInt(), any(LocalDate.class)))
+                .thenReturn(List.of(prev));
+
+        Integer receiptId = receipt.getReceiptId();
+        assertThrows(PendingReceiptException.class, () -> paymentService.registerPayment(receiptId, 1, req));
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    //Pago en cascada: el monto cubre el recibo más antiguo y abona el resto al siguiente
+    @Test
+    void allocatePayment_waterfall_paysOldestFirst() {
+        Receipt older = new Receipt();
+        older.setReceiptId(9);
+        older.setServiceId(100);
+        older.setCustomerId(1);
+        older.setCurrency("PEN");
+        older.setPendingAmount(new BigDecimal("30.00"));
+        older.setReceiptStatus("PENDING");
+        older.setDueDate(LocalDate.now().minusMonths(1));
+
+        PaymentRequestDTO req = new PaymentRequestDTO();
+        req.setAmount(new BigDecimal("40.00"));
+        req.setPaymentCurrency("PEN");
+
+        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+        when(serviceRepository.findById(100)).thenReturn(Optional.of(serviceEntity));
+        when(receiptRepository.findPendingForAllocation(100, 1)).thenReturn(List.of(older, receipt));
+        when(paymentBatchRepository.insertAll(anyList())).thenReturn(List.of(501, 502));
+
+        paymentService.allocatePayment(100, 1, req);
+
+        assertEquals("PAID", older.getReceiptStatus());
+        assertEquals(0, older.getPendingAmount().compareTo(BigDecimal.ZERO));
+        assertEquals("PARTIALLY_PAID", receipt.getReceiptStatus());
+        assertEquals(new BigDecimal("40.00"), receipt.getPendingAmount());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Payment>> payments = ArgumentCaptor.forClass(List.class);
+        verify(paymentBatchRepository).insertAll(payments.capture());
+        assertEquals(2, payments.getValue().size());
+        assertEquals(new BigDecimal("30.00"), payments.getValue().get(0).getAmount());
+        assertEquals(new BigDecimal("10.00"), payments.getValue().get(1).getAmount());
+        verify(receiptRepository).saveAll(List.of(older, receipt));
+        verify(paymentRepository, never()).save(any(Payment.class));
+
+        // un evento por recibo tocado, en el orden en que se aplicó el pago y con el id de su pago
+        verify(ledgerRepository).append(List.of(
+                ReceiptEvent.paymentApplied(9, new BigDecimal("30.00"), "PAID", 501),
+                ReceiptEvent.paymentApplied(receipt.getReceiptId(), new BigDecimal("10.00"), "PARTIALLY_PAID", 502)));
+    }
+
+    //RN3 aplicado al total: no se puede pagar más que la deuda del servicio
+    @Test
+    void allocatePayment_exceedsTotalPending_throwsOverpaymentException() {
+        PaymentRequestDTO req = new PaymentRequestDTO();
+        req.setAmount(new BigDecimal("60.00")); // pending 50
+        req.setPaymentCurrency("PEN");
+
+        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+        when(serviceRepository.findById(100)).thenReturn(Optional.of(serviceEntity));
+        when(receiptRepository.findPendingForAllocation(100, 1)).thenReturn(List.of(receipt));
+
+        OverpaymentException ex = assertThrows(OverpaymentException.class,
+                () -> paymentService.allocatePayment(100, 1, req));
+
+        assertTrue(ex.getMessage().contains("total pending"));
+        verifyNoInteractions(paymentBatchRepository);
+    }
+
     @Test
     void registerPayment_previousUnpaid_throwsPendingReceiptException() {
         // Arrange:
@@ -787,7 +909,7 @@ class PaymentServiceImplTest {
                 .thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () ->
-                paymentService.getPaymentsByCustomer(2));
+                paymentService.getPaymentsByCustomer(2, null, null));
 
         //confirma que el mensaje de error.
         assertTrue(ex.getMessage().toLowerCase().contains("customer not found"));
@@ -806,7 +928,7 @@ class PaymentServiceImplTest {
                 .thenReturn(Collections.emptyList());
 
         NoPaymentsFoundException ex = assertThrows(NoPaymentsFoundException.class, () ->
-                paymentService.getPaymentsByCustomer(1));
+                paymentService.getPaymentsByCustomer(1, null, null));
 
         //confirma que el mensaje de error.
         assertTrue(ex.getMessage().toLowerCase().contains("customer has no registered payments"));
@@ -840,7 +962,7 @@ class PaymentServiceImplTest {
         when(paymentMapper.toPaymentResponse(payment, customer, serviceEntity, receipt))
                 .thenReturn(dto);
 
-        List<PaymentResponseDTO> result = paymentService.getPaymentsByCustomer(1);
+        List<PaymentResponseDTO> result = paymentService.getPaymentsByCustomer(1, null, null);
 
         assertEquals(1, result.size());
         assertEquals(BigDecimal.TEN, result.get(0).getAmount());
@@ -872,7 +994,7 @@ class PaymentServiceImplTest {
         when(paymentMapper.toPaymentResponse(eq(payment), eq(customer), isNull(), isNull()))
                 .thenReturn(dto);
 
-        List<PaymentResponseDTO> result = paymentService.getPaymentsByCustomer(1);
+        List<PaymentResponseDTO> result = paymentService.getPaymentsByCustomer(1, null, null);
 
         assertEquals(1, result.size());
         assertEquals("PEN", result.get(0).getPaymentCurrency());
@@ -880,4 +1002,131 @@ class PaymentServiceImplTest {
         verify(paymentMapper).toPaymentResponse(eq(payment), eq(customer), isNull(), isNull());
     }
 
-}
\ No newline at end of file
+    //Sin rango: todo payments sin cota inferior (incluye meses aún no archivados), nunca el archivo
+    @Test
+    void getPaymentsByCustomer_noRange_readsAllHotPartitionsButNotArchive() {
+        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+
+        Payment old = new Payment();
+        old.setPaymentId(10);
+        old.setReceiptId(10);
+        old.setPaymentDate(LocalDate.now().minusYears(3).atStartOfDay());
+        when(paymentRepository.findByCustomerIdOrderByPaymentDateDesc(1)).thenReturn(List.of(old));
+        when(receiptRepository.findById(10)).thenReturn(Optional.of(receipt));
+        when(serviceRepository.findById(100)).thenReturn(Optional.of(serviceEntity));
+        when(paymentMapper.toPaymentResponse(old, customer, serviceEntity, receipt))
+                .thenReturn(PaymentResponseDTO.builder().build());
+
+        assertEquals(1, paymentService.getPaymentsByCustomer(1, null, null).size());
+
+        verify(paymentRepository, never()).findByCustomerIdAndPaymentDateGreaterThanEqualOrderByPaymentDateDesc(anyInt(), any());
+        verifyNoInteractions(paymentArchiveRepository);
+    }
+
+    //Rango anterior a la ventana caliente: calientes primero, luego archivados
+    @Test
+    void getPaymentsByCustomer_olderRange_alsoReadsArchive() {
+        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+
+        LocalDate from = LocalDate.now().minusYears(5);
+        LocalDate to = LocalDate.now();
+        Payment hot = new Payment();
+        hot.setPaymentId(2);
+        hot.setReceiptId(10);
+        Payment archived = new Payment();
+        archived.setPaymentId(1);
+        archived.setReceiptId(10);
+
+        when(paymentRepository.findByCustomerIdAndPaymentDateGreaterThanEqualAndPaymentDateLessThanOrderByPaymentDateDesc(
+                1, from.atStartOfDay(), to.plusDays(1).atStartOfDay())).thenReturn(List.of(hot));
+        when(paymentArchiveRepository.findByCustomer(1, from.atStartOfDay(), to.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(archived));
+        when(receiptRepository.findById(10)).thenReturn(Optional.of(receipt));
+        when(serviceRepository.findById(100)).thenReturn(Optional.of(serviceEntity));
+        when(paymentMapper.toPaymentResponse(any(), any(), any(), any())).thenAnswer(i ->
+                PaymentResponseDTO.builder().amount(BigDecimal.valueOf(((Payment) i.getArgument(0)).getPaymentId())).build());
+
+        List<PaymentResponseDTO> result = paymentService.getPaymentsByCustomer(1, from, to);
+
+        assertEquals(List.of(BigDecimal.valueOf(2), BigDecimal.valueOf(1)),
+                result.stream().map(PaymentResponseDTO::getAmount).toList());
+    }
+
+    //Pago archivado: su recibo ya salió de receipts y se resuelve en receipts_archive, en un solo lote
+    @Test
+    void getPaymentsByCustomer_archivedPayment_resolvesArchivedReceipt() {
+        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+
+        LocalDate from = LocalDate.now().minusYears(5);
+        Payment first = new Payment();
+        first.setPaymentId(1);
+        first.setReceiptId(7);
+        Payment second = new Payment();
+        second.setPaymentId(2);
+        second.setReceiptId(7);
+        Receipt old = new Receipt();
+        old.setReceiptId(7);
+        old.setServiceId(100);
+
+        when(paymentArchiveRepository.findByCustomer(1, from.atStartOfDay(), null)).thenReturn(List.of(second, first));
+        when(receiptRepository.findById(7)).thenReturn(Optional.empty());
+        when(receiptArchiveRepository.findByIds(List.of(7))).thenReturn(List.of(old));
+        when(serviceRepository.findById(100)).thenReturn(Optional.of(serviceEntity));
+
+        paymentService.getPaymentsByCustomer(1, from, null);
+
+        verify(paymentMapper).toPaymentResponse(first, customer, serviceEntity, old);
+        verify(paymentMapper).toPaymentResponse(second, customer, serviceEntity, old);
+        verify(receiptArchiveRepository, times(1)).findByIds(any());
+    }
+
+    //Rango dentro de la ventana caliente: el archivo no se toca
+    @Test
+    void getPaymentsByCustomer_recentRange_skipsArchive() {
+        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+        LocalDate from = LocalDate.now().minusMonths(2);
+        when(paymentRepository.findByCustomerIdAndPaymentDateGreaterThanEqualOrderByPaymentDateDesc(1, from.atStartOfDay()))
+                .thenReturn(Collections.emptyList());
+
+        assertThrows(NoPaymentsFoundException.class, () -> paymentService.getPaymentsByCustomer(1, from, null));
+
+        verifyNoInteractions(paymentArchiveRepository);
+    }
+
+    @Test
+    void getPaymentsByCustomer_fromAfterTo_throwsIllegalArgument() {
+        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                paymentService.getPaymentsByCustomer(1, LocalDate.of(2026, 5, 1), LocalDate.of(2026, 4, 1)));
+
+        verifyNoInteractions(paymentRepository, paymentArchiveRepository);
+    }
+
+    //JFR — el rechazo por regla queda registrado con el código de la regla
+    @Test
+    void registerPayment_invalidCurrency_emitsRuleRejectedEvent() throws Exception {
+        PaymentRequestDTO req = new PaymentRequestDTO();
+        req.setAmount(new BigDecimal("10.00"));
+        req.setPaymentCurrency("EUR");
+
+        Path file = Files.createTempFile("rule-rejected", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RuleRejectedEvent.class);
+            recording.start();
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> paymentService.registerPayment(receipt.getReceiptId(), receipt.getCustomerId(), req));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.deleteIfExists(file);
+
+        assertTrue(events.stream().anyMatch(e ->
+                "RN1".equals(e.getString("rule")) && e.getInt("receiptId") == 10));
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.payservice.paymentservice.service;
+
+import com.payservice.paymentservice.config.ReceiptImportProperties;
+import com.payservice.paymentservice.dto.ReceiptImportResultDTO;
+import com.payservice.paymentservice.repository.ReceiptImportRepository;
+import com.payservice.paymentservice.repository.ReceiptImportRepository.ImportRow;
+import com.payservice.paymentservice.service.impl.ReceiptImportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReceiptImportServiceImplTest {
+
+    @Mock private ReceiptImportRepository importRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private ReceiptImportServiceImpl importService;
+    private final List<ImportRow> staged = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReceiptImportProperties properties = new ReceiptImportProperties();
+        properties.setChunkSize(2);
+        properties.setMaxReportedErrors(3);
+        importService = new ReceiptImportServiceImpl(importRepository, properties, eventPublisher, transactionManager);
+
+        //Transacciones simuladas: una por chunk con filas válidas
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+        //la base solo conoce los clientes 1 y 2 y los servicios 100 y 200; cada chunk pregunta por sus ids
+        lenient().when(importRepository.findCustomerIds(anyCollection())).thenAnswer(i ->
+                ((Collection<Integer>) i.getArgument(0)).stream().filter(id -> id <= 2).collect(Collectors.toSet()));
+        lenient().when(importRepository.findServiceOwners(anyCollection())).thenAnswer(i -> {
+            Map<Integer, Integer> owners = new HashMap<>();
+            for (Integer id : (Collection<Integer>) i.getArgument(0)) {
+                if (id == 100) owners.put(100, 1);
+                if (id == 200) owners.put(200, 2);
+            }
+            return owners;
+        });
+        //copia: el service reutiliza la lista del chunk
+        lenient().when(importRepository.stage(anyList())).thenAnswer(i -> {
+            List<ImportRow> rows = i.getArgument(0);
+            staged.addAll(rows);
+            return (long) rows.size();
+        });
+    }
+
+    @Test
+    void importReceipts_validRowsAreStagedInChunksAndInvalidReported() {
+        String csv = """
+                receipt_number,service_id,customer_id,period_label,due_date,receipt_amount,currency
+                00000101,100,1,ENE-2026,2026-01-15,80.00,PEN
+                00000102,200,2,"FEB, 2026",2026-02-15,25.5,usd
+                00000103,100,1,MAR-2026,2026-03-15,80.00,EUR
+                00000104,300,1,MAR-2026,2026-03-15,80.00,PEN
+                00000105,200,1,MAR-2026,2026-03-15,80.00,PEN
+
+                00000106,100,9,MAR-2026,2026-03-15,80.00,PEN
+                00000107,100,1,ABR-2026,2026-04-15,-1,PEN
+                00000108,100,1,MAY-2026,2026-05-15,80.00,PEN
+                """;
+        //chunks con filas válidas: [101, 102] inserta las dos, [107, 108] encuentra 108 ya existente
+        when(importRepository.mergeStaged()).thenReturn(2, 0);
+
+        ReceiptImportResultDTO result = importService.importReceipts(stream(csv));
+
+        assertEquals(8, result.getTotalRows());
+        assertEquals(5, result.getRejected());
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(3, result.getErrors().size());
+        assertTrue(result.isErrorsTruncated());
+        assertEquals(4, result.getErrors().get(0).getLine());
+        assertEquals("RN1: Only PEN or USD allowed", result.getErrors().get(0).getMessage());
+        assertEquals("Service not found", result.getErrors().get(1).getMessage());
+        assertEquals("Service does not belong to customer", result.getErrors().get(2).getMessage());
+
+        assertEquals(3, staged.size());
+        assertEquals("FEB, 2026", staged.get(1).periodLabel());
+        assertEquals("USD", staged.get(1).currency());
+        assertEquals(new BigDecimal("25.5"), staged.get(1).receiptAmount());
+        // cada chunk con filas válidas confirma por separado; solo consulta los ids que menciona
+        verify(importRepository, times(2)).createStage();
+        verify(importRepository, times(2)).mergeStaged();
+        verify(transactionManager, times(2)).commit(any());
+        verify(importRepository).findServiceOwners(Set.of(300));
+    }
+
+    @Test
+    void importReceipts_repeatedReceiptInFile_isReportedWithOriginalLine() {
+        String csv = """
+                receipt_number,service_id,customer_id,period_label,due_date,receipt_amount,currency
+                00000101,100,1,ENE-2026,2026-01-15,80.00,PEN
+                00000102,200,2,ENE-2026,2026-01-15,25.00,USD
+                00000103,100,1,ENE-2026,2026-01-15,80.00,PEN
+                """;
+        when(importRepository.mergeStaged()).thenReturn(2);
+
+        ReceiptImportResultDTO result = importService.importReceipts(stream(csv));
+
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getDuplicates());
+        assertEquals(1, result.getRejected());
+        assertEquals(4, result.getErrors().get(0).getLine());
+        assertEquals("Duplicate of line 2 (same service_id and period_label)", result.getErrors().get(0).getMessage());
+        assertEquals(2, staged.size());
+    }
+
+    @Test
+    void importReceipts_invalidHeader_throwsIllegalArgumentException() {
+        InputStream csv = stream("number,service,customer\n1,2,3\n");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> importService.importReceipts(csv));
+
+        assertTrue(ex.getMessage().contains("Invalid CSV header"));
+        verify(importRepository, never()).mergeStaged();
+    }
+
+    @Test
+    void importReceipts_noValidRows_skipsMerge() {
+        String csv = "receipt_number,service_id,customer_id,period_label,due_date,receipt_amount,currency\n"
+                + "00000101,100,1,ENE-2026,15/01/2026,80.00,PEN\n";
+
+        ReceiptImportResultDTO result = importService.importReceipts(stream(csv));
+
+        assertEquals(1, result.getRejected());
+        assertEquals(0, result.getImported());
+        verify(importRepository, never()).stage(anyList());
+        verify(importRepository, never()).mergeStaged();
+        verifyNoInteractions(transactionManager);
+    }
+
+    private static InputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,13 +1,25 @@
 package com.payservice.paymentservice.service;
 
+import com.payservice.paymentservice.config.ReplicaStalenessGuard;
 import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.dto.ListingVersionDTO;
+import com.payservice.paymentservice.dto.ReceiptInfoDTO;
+import com.payservice.paymentservice.dto.ReceiptLedgerDTO;
 import com.payservice.paymentservice.dto.ReceiptResponseDTO;
 import com.payservice.paymentservice.dto.ServiceSummaryDTO;
-import com.payservice.paymentservice.entity.Customer;
 import com.payservice.paymentservice.entity.Receipt;
-import com.payservice.paymentservice.entity.ServiceEntity;
+import com.payservice.paymentservice.ledger.ReceiptEvent;
+import com.payservice.paymentservice.ledger.ReceiptEventType;
+import com.payservice.paymentservice.ledger.ReceiptState;
+import com.payservice.paymentservice.readmodel.CustomerReadModel;
+import com.payservice.paymentservice.readmodel.CustomerView;
+import com.payservice.paymentservice.readmodel.ReceiptView;
+import com.payservice.paymentservice.readmodel.ServiceView;
+import com.payservice.paymentservice.util.WeakETag;
 import com.payservice.paymentservice.mapper.ReceiptMapper;
 import com.payservice.paymentservice.repository.CustomerRepository;
+import com.payservice.paymentservice.repository.ReceiptArchiveRepository;
+import com.payservice.paymentservice.repository.ReceiptLedgerRepository;
 import com.payservice.paymentservice.repository.ReceiptRepository;
 import com.payservice.paymentservice.repository.ServiceRepository;
 import com.payservice.paymentservice.service.impl.ReceiptServiceImpl;
@@ -25,7 +37,13 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
@@ -36,53 +54,36 @@ class ReceiptServiceImplTest {
     @Mock private CustomerRepository customerRepository;
     @Mock private ServiceRepository serviceRepository;
     @Mock private ReceiptMapper receiptMapper;
+    @Mock private ReplicaStalenessGuard stalenessGuard;
+    @Mock private CustomerReadModel readModel;
+    @Mock private ReceiptArchiveRepository receiptArchiveRepository;
+    @Mock private ReceiptLedgerRepository ledgerRepository;
 
     @InjectMocks
     private ReceiptServiceImpl receiptService;
 
-    private Receipt receipt;
-    private Customer customer;
-    private ServiceEntity serviceEntity;
+    private ReceiptInfoDTO receipt;
+    private CustomerSummaryDTO customer;
+    private ServiceSummaryDTO service;
 
     @BeforeEach
         //Se ejecuta antes de cada prueba
     void setUp() {
-        receipt = new Receipt();
-        receipt.setReceiptId(10);
-        receipt.setReceiptNumber("00000010");
-        receipt.setServiceId(100);
-        receipt.setCustomerId(1);
-        receipt.setCurrency("PEN");
-        receipt.setReceiptAmount(new BigDecimal("150.00"));
-        receipt.setPendingAmount(new BigDecimal("0.00"));
-        receipt.setReceiptStatus("PAID");
-        receipt.setPeriodLabel("2025-11");
-        receipt.setDueDate(LocalDate.of(2025, 11, 30));
-        receipt.setDateRegist(LocalDateTime.now());
-
-        customer = new Customer();
-        customer.setCustomerId(1);
-        customer.setNames("Dolly");
-        customer.setLastname("Asto");
-        customer.setEmail("dolly@mail.com");
-
-        serviceEntity = new ServiceEntity();
-        serviceEntity.setServiceId(100);
-        serviceEntity.setCustomerId(1);
-        serviceEntity.setServiceName("Internet Hogar");
-        serviceEntity.setDescription("Plan mensual");
-        serviceEntity.setIsActive(true);
+        receipt = new ReceiptInfoDTO("00000010", "2025-11", LocalDate.of(2025, 11, 30),
+                new BigDecimal("150.00"), new BigDecimal("0.00"), "PEN", "PAID");
+        customer = new CustomerSummaryDTO("Dolly", "Asto", "dolly@mail.com");
+        service = new ServiceSummaryDTO("Internet Hogar", "Plan mensual");
     }
 
     @Test
     void getReceipts_CustomerNotFound_ShouldThrowNotFound() {
 
-        when(customerRepository.findById(1))
+        when(customerRepository.findSummaryById(1))
                 .thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(
                 ResourceNotFoundException.class,
-                () -> receiptService.getReceiptsByServiceAndCustomer(100, 1)
+                () -> receiptService.getReceiptsByServiceAndCustomer(100, 1, false)
         );
 
         assertEquals("Customer not found", ex.getMessage());
@@ -91,15 +92,15 @@ class ReceiptServiceImplTest {
     @Test
     void getReceipts_ServiceNotFound_ShouldThrowNotFound() {
 
-        when(customerRepository.findById(1))
+        when(customerRepository.findSummaryById(1))
                 .thenReturn(Optional.of(customer));
 
-        when(serviceRepository.findById(100))
+        when(serviceRepository.findSummaryById(100))
                 .thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(
                 ResourceNotFoundException.class,
-                () -> receiptService.getReceiptsByServiceAndCustomer(100, 1)
+                () -> receiptService.getReceiptsByServiceAndCustomer(100, 1, false)
         );
 
         assertEquals("Service not found", ex.getMessage());
@@ -108,18 +109,18 @@ class ReceiptServiceImplTest {
     @Test
     void getReceipts_NoReceipts_ShouldThrowNotFound() {
 
-        when(customerRepository.findById(1))
+        when(customerRepository.findSummaryById(1))
                 .thenReturn(Optional.of(customer));
 
-        when(serviceRepository.findById(100))
-                .thenReturn(Optional.of(serviceEntity));
+        when(serviceRepository.findSummaryById(100))
+                .thenReturn(Optional.of(service));
 
-        when(receiptRepository.findByServiceIdAndCustomerIdOrderByDueDateDesc(100, 1))
+        when(receiptRepository.findInfoByServiceIdAndCustomerId(100, 1))
                 .thenReturn(List.of()); // lista vacía
 
         ResourceNotFoundException ex = assertThrows(
                 ResourceNotFoundException.class,
-                () -> receiptService.getReceiptsByServiceAndCustomer(100, 1)
+                () -> receiptService.getReceiptsByServiceAndCustomer(100, 1, false)
         );
 
         assertEquals("No receipts found for this customer/service", ex.getMessage());
@@ -135,31 +136,187 @@ class ReceiptServiceImplTest {
                 .receiptAmount(new BigDecimal("150"))
                 .pendingAmount(BigDecimal.ZERO)
                 .dueDate(LocalDate.of(2025, 11, 30))
-                .customer(new CustomerSummaryDTO(customer.getNames(), customer.getLastname(), customer.getEmail()))
-                .service(new ServiceSummaryDTO(serviceEntity.getServiceName(), serviceEntity.getDescription()))
+                .customer(customer)
+                .service(service)
                 .build();
 
-        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+        when(customerRepository.findSummaryById(1)).thenReturn(Optional.of(customer));
 
-        when(serviceRepository.findById(100)).thenReturn(Optional.of(serviceEntity));
+        when(serviceRepository.findSummaryById(100)).thenReturn(Optional.of(service));
 
-        when(receiptRepository.findByServiceIdAndCustomerIdOrderByDueDateDesc(100, 1))
+        when(receiptRepository.findInfoByServiceIdAndCustomerId(100, 1))
                 .thenReturn(List.of(receipt));
 
-        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
-
-        when(serviceRepository.findById(100)).thenReturn(Optional.of(serviceEntity));
-
-        when(receiptMapper.toFullReceiptInfo(receipt, customer, serviceEntity))
+        when(receiptMapper.toFullReceiptInfo(receipt, customer, service))
                 .thenReturn(mappedDto);
 
         List<ReceiptResponseDTO> result =
-                receiptService.getReceiptsByServiceAndCustomer(100, 1);
+                receiptService.getReceiptsByServiceAndCustomer(100, 1, false);
 
         assertEquals(1, result.size());
         assertEquals("00000010", result.get(0).getReceiptNumber());
         assertEquals("PEN", result.get(0).getCurrency());
     }
 
+    //Historial completo: archivados y calientes juntos, por vencimiento descendente
+    @Test
+    void getReceipts_FullHistory_MergesArchivedByDueDate() {
+        ReceiptInfoDTO pendingOld = new ReceiptInfoDTO();
+        pendingOld.setReceiptNumber("00000001");
+        pendingOld.setDueDate(LocalDate.of(2022, 1, 31));
+        Receipt archived = new Receipt();
+        archived.setReceiptNumber("00000005");
+        archived.setDueDate(LocalDate.of(2023, 6, 30));
+
+        when(customerRepository.findSummaryById(1)).thenReturn(Optional.of(customer));
+        when(serviceRepository.findSummaryById(100)).thenReturn(Optional.of(service));
+        when(receiptRepository.findInfoByServiceIdAndCustomerId(100, 1))
+                .thenReturn(List.of(receipt, pendingOld));
+        when(receiptArchiveRepository.findByServiceIdAndCustomerId(100, 1)).thenReturn(List.of(archived));
+        when(receiptMapper.toReceiptInfo(archived))
+                .thenReturn(new ReceiptInfoDTO("00000005", null, LocalDate.of(2023, 6, 30), null, null, null, "PAID"));
+        when(receiptMapper.toFullReceiptInfo(any(ReceiptInfoDTO.class), eq(customer), eq(service))).thenAnswer(i ->
+                ReceiptResponseDTO.builder().receiptNumber(((ReceiptInfoDTO) i.getArgument(0)).getReceiptNumber()).build());
+
+        List<ReceiptResponseDTO> result = receiptService.getReceiptsByServiceAndCustomer(100, 1, true);
+
+        assertEquals(List.of("00000010", "00000005", "00000001"),
+                result.stream().map(ReceiptResponseDTO::getReceiptNumber).toList());
+    }
+
+    @Test
+    void getReceipts_Default_DoesNotReadArchive() {
+        when(customerRepository.findSummaryById(1)).thenReturn(Optional.of(customer));
+        when(serviceRepository.findSummaryById(100)).thenReturn(Optional.of(service));
+        when(receiptRepository.findInfoByServiceIdAndCustomerId(100, 1)).thenReturn(List.of(receipt));
+
+        receiptService.getReceiptsByServiceAndCustomer(100, 1, false);
+
+        verifyNoInteractions(receiptArchiveRepository);
+    }
+
+    //Proyección en memoria: listado y ETag sin consultas; el ETag coincide con el de la base
+    @Test
+    void getReceipts_FromReadModel_DoesNotQueryDatabase() {
+        LocalDateTime modified = LocalDateTime.of(2025, 11, 30, 10, 15, 0);
+        CustomerView view = new CustomerView(1, "Dolly", "Asto", "dolly@mail.com", null,
+                List.of(new ServiceView(100, "Internet Hogar", "Plan mensual", null)),
+                List.of(new ReceiptView(10, 100, "00000010", "2025-11", LocalDate.of(2025, 11, 30),
+                        new BigDecimal("150.00"), BigDecimal.ZERO, "PEN", "PAID", modified)),
+                List.of());
+        when(readModel.find(1)).thenReturn(Optional.of(view));
+        when(receiptMapper.toFullReceiptInfoFromView(view.receipts().get(0), view, view.services().get(0)))
+                .thenReturn(ReceiptResponseDTO.builder().receiptNumber("00000010").build());
+
+        List<ReceiptResponseDTO> result = receiptService.getReceiptsByServiceAndCustomer(100, 1, false);
+        String etag = receiptService.getReceiptsEtag(100, 1);
+
+        assertEquals("00000010", result.get(0).getReceiptNumber());
+        assertEquals(WeakETag.of(new ListingVersionDTO(modified, 1L)), etag);
+        verifyNoInteractions(customerRepository, serviceRepository, receiptRepository);
+    }
+
+    @Test
+    void getReceiptsEtag_ShouldBeWeakAndChangeWithModification() {
+        LocalDateTime modified = LocalDateTime.of(2025, 11, 30, 10, 15, 0);
+
+        when(receiptRepository.findListingVersion(100, 1))
+                .thenReturn(new ListingVersionDTO(modified, 3L))
+                .thenReturn(new ListingVersionDTO(modified.plusNanos(1_000), 3L));
+
+        String first = receiptService.getReceiptsEtag(100, 1);
+        String second = receiptService.getReceiptsEtag(100, 1);
+
+        assertTrue(first.startsWith("W/\"3-"));
+        assertNotEquals(first, second);
+    }
 
+    //Renombrar el servicio o el cliente cambia el cuerpo: el ETag también tiene que cambiar
+    @Test
+    void getReceiptsEtag_ShouldChangeWhenEmbeddedServiceOrCustomerChanges() {
+        LocalDateTime modified = LocalDateTime.of(2025, 11, 30, 10, 15, 0);
+        when(receiptRepository.findListingVersion(100, 1)).thenReturn(new ListingVersionDTO(modified, 3L));
+        when(customerRepository.findDateModifiById(1)).thenReturn(null, null, modified.plusDays(2));
+        when(serviceRepository.findDateModifiById(100)).thenReturn(null, modified.plusDays(1));
+
+        String before = receiptService.getReceiptsEtag(100, 1);
+        String serviceRenamed = receiptService.getReceiptsEtag(100, 1);
+        String customerRenamed = receiptService.getReceiptsEtag(100, 1);
+
+        assertNotEquals(before, serviceRenamed);
+        assertNotEquals(serviceRenamed, customerRenamed);
+    }
+
+    //La proyección en memoria incluye las mismas filas embebidas que la base
+    @Test
+    void getReceiptsEtag_FromReadModel_IncludesServiceModification() {
+        LocalDateTime modified = LocalDateTime.of(2025, 11, 30, 10, 15, 0);
+        LocalDateTime renamed = modified.plusDays(1);
+        CustomerView view = new CustomerView(1, "Dolly", "Asto", "dolly@mail.com", null,
+                List.of(new ServiceView(100, "Internet Hogar", "Plan mensual", renamed)),
+                List.of(new ReceiptView(10, 100, "00000010", "2025-11", LocalDate.of(2025, 11, 30),
+                        new BigDecimal("150.00"), BigDecimal.ZERO, "PEN", "PAID", modified)),
+                List.of());
+        when(readModel.find(1)).thenReturn(Optional.of(view));
+
+        assertEquals(WeakETag.of(new ListingVersionDTO(renamed, 1L)), receiptService.getReceiptsEtag(100, 1));
+    }
+
+    @Test
+    void getReceiptsEtag_NoReceipts_ShouldReturnNull() {
+        when(receiptRepository.findListingVersion(100, 1))
+                .thenReturn(new ListingVersionDTO(null, 0L));
+
+        assertNull(receiptService.getReceiptsEtag(100, 1));
+    }
+
+    //asOf: parte del último snapshot anterior y aplica solo los eventos que siguen hasta ese momento
+    @Test
+    void getReceiptLedger_replaysEventsAfterSnapshot() {
+        LocalDateTime asOf = LocalDateTime.of(2026, 2, 10, 12, 0);
+        ReceiptState snapshot = new ReceiptState(10, new BigDecimal("80.00"), "PARTIALLY_PAID", 40, 2,
+                LocalDateTime.of(2026, 2, 1, 9, 0));
+        ReceiptEvent payment = new ReceiptEvent(57, 10, ReceiptEventType.PAYMENT_APPLIED, new BigDecimal("30.00"),
+                "PARTIALLY_PAID", 501, LocalDateTime.of(2026, 2, 5, 16, 30));
+        ReceiptEvent overdue = new ReceiptEvent(63, 10, ReceiptEventType.STATUS_CHANGED, null,
+                "OVERDUE", null, LocalDateTime.of(2026, 2, 6, 0, 5));
+
+        when(ledgerRepository.findSnapshot(10, asOf)).thenReturn(Optional.of(snapshot));
+        when(ledgerRepository.findEvents(10, 40, asOf)).thenReturn(List.of(payment, overdue));
+
+        ReceiptLedgerDTO result = receiptService.getReceiptLedger(10, asOf);
+
+        assertEquals(new BigDecimal("50.00"), result.getPendingAmount());
+        assertEquals("OVERDUE", result.getReceiptStatus());
+        assertEquals(4, result.getEventCount());
+        assertEquals(40, result.getSnapshotEventId());
+        assertEquals(asOf, result.getAsOf());
+        assertEquals(2, result.getEvents().size());
+    }
+
+    //Sin snapshot se reproduce desde el primer evento
+    @Test
+    void getReceiptLedger_withoutSnapshot_replaysFromStart() {
+        LocalDateTime asOf = LocalDateTime.of(2026, 2, 10, 12, 0);
+        when(ledgerRepository.findSnapshot(10, asOf)).thenReturn(Optional.empty());
+        when(ledgerRepository.findEvents(10, 0, asOf)).thenReturn(List.of(
+                new ReceiptEvent(3, 10, ReceiptEventType.ISSUED, new BigDecimal("120.00"), "PENDING", null,
+                        LocalDateTime.of(2026, 1, 31, 2, 0))));
+
+        ReceiptLedgerDTO result = receiptService.getReceiptLedger(10, asOf);
+
+        assertEquals(new BigDecimal("120.00"), result.getPendingAmount());
+        assertEquals("PENDING", result.getReceiptStatus());
+        assertEquals(0, result.getSnapshotEventId());
+    }
+
+    //Antes de emitirse (o id inexistente) no hay nada que reconstruir
+    @Test
+    void getReceiptLedger_noEvents_ShouldThrowNotFound() {
+        LocalDateTime asOf = LocalDateTime.of(2020, 1, 1, 0, 0);
+        when(ledgerRepository.findSnapshot(10, asOf)).thenReturn(Optional.empty());
+        when(ledgerRepository.findEvents(10, 0, asOf)).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> receiptService.getReceiptLedger(10, asOf));
+    }
 }
@@ -1,9 +1,15 @@
 package com.payservice.paymentservice.service;
 
+import com.payservice.paymentservice.config.ReplicaStalenessGuard;
+import com.payservice.paymentservice.dto.CustomerSummaryDTO;
+import com.payservice.paymentservice.dto.ListingVersionDTO;
+import com.payservice.paymentservice.dto.ReceiptInfoDTO;
+import com.payservice.paymentservice.dto.ServiceItemDTO;
 import com.payservice.paymentservice.dto.ServiceResponseDTO;
-import com.payservice.paymentservice.entity.Customer;
-import com.payservice.paymentservice.entity.Receipt;
-import com.payservice.paymentservice.entity.ServiceEntity;
+import com.payservice.paymentservice.readmodel.CustomerReadModel;
+import com.payservice.paymentservice.readmodel.CustomerView;
+import com.payservice.paymentservice.readmodel.ReceiptView;
+import com.payservice.paymentservice.readmodel.ServiceView;
 import com.payservice.paymentservice.mapper.ReceiptMapper;
 import com.payservice.paymentservice.mapper.ServiceMapper;
 import com.payservice.paymentservice.repository.CustomerRepository;
@@ -12,6 +18,7 @@ import com.payservice.paymentservice.repository.ReceiptRepository;
 import com.payservice.paymentservice.repository.ServiceRepository;
 import com.payservice.paymentservice.service.impl.ReceiptServiceImpl;
 import com.payservice.paymentservice.service.impl.ServiceServiceImpl;
+import com.payservice.paymentservice.util.WeakETag;
 import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +35,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
@@ -39,48 +47,29 @@ class ServiceServiceImplTest {
     @Mock private CustomerRepository customerRepository;
     @Mock private ServiceRepository serviceRepository;
     @Mock private ServiceMapper serviceMapper;
+    @Mock private ReplicaStalenessGuard stalenessGuard;
+    @Mock private CustomerReadModel readModel;
 
     @InjectMocks
     private ServiceServiceImpl serviceService;
 
-    private Receipt receipt;
-    private Customer customer;
-    private ServiceEntity serviceEntity;
+    private ReceiptInfoDTO receipt;
+    private CustomerSummaryDTO customer;
+    private ServiceItemDTO service;
 
     @BeforeEach
         //Se ejecuta antes de cada prueba
     void setUp() {
-        receipt = new Receipt();
-        receipt.setReceiptId(10);
-        receipt.setReceiptNumber("00000010");
-        receipt.setServiceId(100);
-        receipt.setCustomerId(1);
-        receipt.setCurrency("PEN");
-        receipt.setReceiptAmount(new BigDecimal("100.00"));
-        receipt.setPendingAmount(new BigDecimal("20.00"));
-        receipt.setReceiptStatus("PAID");
-        receipt.setPeriodLabel("2025-11");
-        receipt.setDueDate(LocalDate.of(2025, 11, 30));
-        receipt.setDateRegist(LocalDateTime.now());
-
-        customer = new Customer();
-        customer.setCustomerId(1);
-        customer.setNames("Dolly");
-        customer.setLastname("Asto");
-        customer.setEmail("dolly@mail.com");
-
-        serviceEntity = new ServiceEntity();
-        serviceEntity.setServiceId(100);
-        serviceEntity.setCustomerId(1);
-        serviceEntity.setServiceName("Internet Hogar");
-        serviceEntity.setDescription("Plan mensual");
-        serviceEntity.setIsActive(true);
+        receipt = new ReceiptInfoDTO("00000010", "2025-11", LocalDate.of(2025, 11, 30),
+                new BigDecimal("100.00"), new BigDecimal("20.00"), "PEN", "PAID");
+        customer = new CustomerSummaryDTO("Dolly", "Asto", "dolly@mail.com");
+        service = new ServiceItemDTO(100, "Internet Hogar", "Plan mensual");
     }
 
     @Test
     void getServicesByCustomer_customerNotFound() {
 
-        when(customerRepository.findById(1))
+        when(customerRepository.findSummaryById(1))
                 .thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(
@@ -94,10 +83,10 @@ class ServiceServiceImplTest {
     @Test
     void getServicesByCustomer_noServices() {
 
-        when(customerRepository.findById(1))
+        when(customerRepository.findSummaryById(1))
                 .thenReturn(Optional.of(customer));
 
-        when(serviceRepository.findByCustomerId(1))
+        when(serviceRepository.findItemsByCustomerId(1))
                 .thenReturn(Collections.emptyList());
 
         ResourceNotFoundException ex = assertThrows(
@@ -111,12 +100,12 @@ class ServiceServiceImplTest {
     @Test
     void getServicesByCustomer_serviceHasNoReceipts() {
 
-        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
+        when(customerRepository.findSummaryById(1)).thenReturn(Optional.of(customer));
 
-        when(serviceRepository.findByCustomerId(1))
-                .thenReturn(List.of(serviceEntity));
+        when(serviceRepository.findItemsByCustomerId(1))
+                .thenReturn(List.of(service));
 
-        when(receiptRepository.findByServiceIdAndCustomerId(100, 1))
+        when(receiptRepository.findInfoByServiceIdAndCustomerId(100, 1))
                 .thenReturn(Collections.emptyList());
 
         ResourceNotFoundException ex = assertThrows(
@@ -130,19 +119,19 @@ class ServiceServiceImplTest {
     @Test
     void getServicesByCustomer_singleCurrency() {
 
-        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
-        when(serviceRepository.findByCustomerId(1)).thenReturn(List.of(serviceEntity));
+        when(customerRepository.findSummaryById(1)).thenReturn(Optional.of(customer));
+        when(serviceRepository.findItemsByCustomerId(1)).thenReturn(List.of(service));
 
         //Otro objecto receipt para pruebas
-        Receipt r2 = new Receipt();
+        ReceiptInfoDTO r2 = new ReceiptInfoDTO();
         r2.setCurrency("PEN");
         r2.setReceiptAmount(new BigDecimal("50"));
         r2.setPendingAmount(BigDecimal.ZERO);
 
-        when(receiptRepository.findByServiceIdAndCustomerId(100, 1))
+        when(receiptRepository.findInfoByServiceIdAndCustomerId(100, 1))
                 .thenReturn(List.of(receipt, r2));
 
-        when(serviceMapper.toServiceResponseDTO(any(), any(), any(), any()))
+        when(serviceMapper.toServiceResponse(any(), any(), any(), any()))
                 .thenReturn(new ServiceResponseDTO("Internet", "Plan", "PEN",
                         new BigDecimal("150"), new BigDecimal("20")));
 
@@ -156,18 +145,18 @@ class ServiceServiceImplTest {
     @Test
     void getServicesByCustomer_multiCurrency() {
 
-        when(customerRepository.findById(1)).thenReturn(Optional.of(customer));
-        when(serviceRepository.findByCustomerId(1)).thenReturn(List.of(serviceEntity));
+        when(customerRepository.findSummaryById(1)).thenReturn(Optional.of(customer));
+        when(serviceRepository.findItemsByCustomerId(1)).thenReturn(List.of(service));
 
-        Receipt r2 = new Receipt();
+        ReceiptInfoDTO r2 = new ReceiptInfoDTO();
         r2.setCurrency("USD");
         r2.setReceiptAmount(new BigDecimal("40"));
         r2.setPendingAmount(BigDecimal.ZERO);
 
-        when(receiptRepository.findByServiceIdAndCustomerId(100, 1))
+        when(receiptRepository.findInfoByServiceIdAndCustomerId(100, 1))
                 .thenReturn(List.of(receipt, r2));
 
-        when(serviceMapper.toServiceResponseDTO(any(), any(), any(), any()))
+        when(serviceMapper.toServiceResponse(any(), any(), any(), any()))
                 .thenReturn(new ServiceResponseDTO("Internet", "Plan",
                         "MULTIMONEDA", new BigDecimal("140"), BigDecimal.ZERO));
 
@@ -175,4 +164,40 @@ class ServiceServiceImplTest {
 
         assertEquals("MULTIMONEDA", result.get(0).getCurrency());
     }
+
+    //Cliente en la proyección en memoria: mismos totales sin tocar la base
+    @Test
+    void getServicesByCustomer_fromReadModel_doesNotQueryDatabase() {
+        CustomerView view = new CustomerView(1, "Dolly", "Asto", "dolly@mail.com", null,
+                List.of(new ServiceView(100, "Internet Hogar", "Plan mensual", null)),
+                List.of(new ReceiptView(10, 100, "00000010", "ENE-2026", LocalDate.of(2026, 1, 31),
+                                new BigDecimal("150.00"), new BigDecimal("50.00"), "PEN", "PARTIALLY_PAID", null),
+                        new ReceiptView(11, 100, "00000011", "FEB-2026", LocalDate.of(2026, 2, 28),
+                                new BigDecimal("150.00"), new BigDecimal("150.00"), "PEN", "PENDING", null)),
+                List.of());
+        when(readModel.find(1)).thenReturn(Optional.of(view));
+        when(serviceMapper.toServiceResponseFromView(view.services().get(0), "PEN",
+                new BigDecimal("300.00"), new BigDecimal("200.00")))
+                .thenReturn(new ServiceResponseDTO("Internet Hogar", "Plan mensual",
+                        "PEN", new BigDecimal("300.00"), new BigDecimal("200.00")));
+
+        List<ServiceResponseDTO> result = serviceService.getServicesByCustomer(1);
+
+        assertEquals(new BigDecimal("200.00"), result.get(0).getPendingAmount());
+        verifyNoInteractions(customerRepository, serviceRepository, receiptRepository);
+    }
+
+    //El listado muestra nombre y descripción del servicio: editarlos invalida el ETag
+    @Test
+    void getServicesEtag_ShouldChangeWhenServiceIsModified() {
+        LocalDateTime modified = LocalDateTime.of(2025, 11, 30, 10, 15, 0);
+        when(receiptRepository.findListingVersionByCustomerId(1)).thenReturn(new ListingVersionDTO(modified, 2L));
+        when(serviceRepository.findMaxDateModifiByCustomerId(1)).thenReturn(null, modified.plusDays(1));
+
+        String before = serviceService.getServicesEtag(1);
+        String after = serviceService.getServicesEtag(1);
+
+        assertNotEquals(before, after);
+        assertEquals(WeakETag.of(new ListingVersionDTO(modified.plusDays(1), 2L)), after);
+    }
 }
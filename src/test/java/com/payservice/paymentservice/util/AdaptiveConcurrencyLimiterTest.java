@@ -0,0 +1,86 @@
+package com.payservice.paymentservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter(initial, 2, 100, THRESHOLD, 0.5, 0.2);
+    }
+
+    @Test
+    void slowResponses_shouldShrinkLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+
+        assertTrue(limiter.tryAcquire(false));
+        limiter.onComplete(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(10.0, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void burstOfSlowResponses_shouldShrinkOnlyOncePerWindow() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        long now = System.nanoTime();
+        long slow = TimeUnit.SECONDS.toNanos(1);
+
+        // 10 requests en vuelo a la vez que terminan lentos casi juntos
+        for (int i = 0; i < 10; i++) assertTrue(limiter.tryAcquire(true));
+        for (int i = 0; i < 10; i++) limiter.onComplete(slow, now + TimeUnit.MILLISECONDS.toNanos(i));
+
+        assertEquals(10.0, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+
+        // un request que empezó después del recorte y también es lento abre otra ventana
+        assertTrue(limiter.tryAcquire(true));
+        limiter.onComplete(slow, now + 2 * slow);
+
+        assertEquals(5.0, limiter.getLimit());
+    }
+
+    @Test
+    void limitShouldNeverDropBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        long now = System.nanoTime();
+        long slow = TimeUnit.SECONDS.toNanos(1);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(true));
+            limiter.onComplete(slow, now + i * 2 * slow);
+        }
+
+        assertEquals(2.0, limiter.getLimit());
+    }
+
+    @Test
+    void fastResponsesUnderLoad_shouldGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        // 6 en vuelo (más de la mitad del límite) y todos rápidos
+        for (int i = 0; i < 6; i++) assertTrue(limiter.tryAcquire(true));
+        for (int i = 0; i < 6; i++) limiter.onComplete(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertTrue(limiter.getLimit() > 10.0);
+    }
+
+    @Test
+    void readsShouldBeShedBeforePaymentWrites() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        // las lecturas solo pueden usar el 80% del límite
+        for (int i = 0; i < 8; i++) assertTrue(limiter.tryAcquire(false));
+        assertFalse(limiter.tryAcquire(false));
+
+        // los pagos usan el 20% reservado
+        assertTrue(limiter.tryAcquire(true));
+        assertTrue(limiter.tryAcquire(true));
+        assertFalse(limiter.tryAcquire(true));
+    }
+}
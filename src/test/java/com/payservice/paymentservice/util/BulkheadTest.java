@@ -0,0 +1,50 @@
+package com.payservice.paymentservice.util;
+
+import com.payservice.paymentservice.util.exception.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_withinLimit_shouldTrackActive() {
+        Bulkhead bulkhead = new Bulkhead("payment-writes", 2, 0, Duration.ofMillis(10), registry);
+
+        bulkhead.acquire();
+        bulkhead.acquire();
+        assertEquals(2, bulkhead.getActive());
+        assertEquals(2.0, registry.get("payment.bulkhead.active").tag("bulkhead", "payment-writes").gauge().value());
+
+        bulkhead.release();
+        assertEquals(1, bulkhead.getActive());
+    }
+
+    @Test
+    void acquire_queueFull_shouldRejectImmediately() {
+        Bulkhead bulkhead = new Bulkhead("history-reads", 1, 0, Duration.ofSeconds(5), registry);
+        bulkhead.acquire();
+
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, bulkhead::acquire);
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+        assertEquals(1.0, registry.get("payment.bulkhead.rejected").tag("bulkhead", "history-reads").counter().count());
+    }
+
+    @Test
+    void acquire_timeout_shouldReject() {
+        Bulkhead bulkhead = new Bulkhead("history-reads", 1, 5, Duration.ofMillis(20), registry);
+        bulkhead.acquire();
+
+        BulkheadFullException ex = assertThrows(BulkheadFullException.class, bulkhead::acquire);
+
+        assertTrue(ex.getMessage().contains("timed out"));
+        assertEquals(0, bulkhead.getWaiting());
+    }
+}
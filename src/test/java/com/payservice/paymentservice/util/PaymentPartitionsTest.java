@@ -0,0 +1,26 @@
+package com.payservice.paymentservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentPartitionsTest {
+
+    @Test
+    void name_andMonth_roundTrip() {
+        assertEquals("payments_p202603", PaymentPartitions.name(YearMonth.of(2026, 3)));
+        assertEquals(Optional.of(YearMonth.of(2026, 3)), PaymentPartitions.month("payments_p202603"));
+        assertEquals(Optional.empty(), PaymentPartitions.month("payments_default"));
+    }
+
+    //El mes actual cuenta dentro de la ventana
+    @Test
+    void hotHorizon_isFirstDayOfOldestHotMonth() {
+        assertEquals(LocalDate.of(2026, 10, 1), PaymentPartitions.hotHorizon(LocalDate.of(2026, 10, 19), 1));
+        assertEquals(LocalDate.of(2024, 11, 1), PaymentPartitions.hotHorizon(LocalDate.of(2026, 10, 19), 24));
+    }
+}
@@ -0,0 +1,166 @@
+package com.payservice.paymentservice.util;
+
+import com.payservice.paymentservice.event.PaymentCommittedEvent;
+import com.payservice.paymentservice.util.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private static final String ENDPOINT = "GET /services/customers/{customerId}";
+
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    void setup() {
+        coalescer = new RequestCoalescer();
+    }
+
+    @Test
+    void concurrentIdenticalReads_shouldShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<String>> leader = pool.submit(() -> coalescer.execute(ENDPOINT, 1, null, () -> {
+                executions.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return List.of("Internet");
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            Future<List<String>> follower = pool.submit(() -> coalescer.execute(ENDPOINT, 1, null, () -> {
+                executions.incrementAndGet();
+                return List.of("other");
+            }));
+
+            // el seguidor queda esperando al líder
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(List.of("Internet"), leader.get(5, TimeUnit.SECONDS));
+            assertSame(leader.get(), follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentPathVariables_shouldNotBeCoalesced() {
+        AtomicInteger executions = new AtomicInteger();
+
+        coalescer.execute(ENDPOINT, 1, null, executions::incrementAndGet);
+        coalescer.execute(ENDPOINT, 2, null, executions::incrementAndGet);
+        coalescer.execute(ENDPOINT, 1, null, executions::incrementAndGet);
+
+        // sin concurrencia cada llamada ejecuta (no es un caché)
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    void leaderException_shouldPropagateToCaller() {
+        assertThrows(ResourceNotFoundException.class, () ->
+                coalescer.execute(ENDPOINT, 1, null, () -> {
+                    throw new ResourceNotFoundException("Customer not found");
+                }));
+    }
+
+    //Un Error del líder también libera a los seguidores (antes quedaban bloqueados en join())
+    @Test
+    void leaderError_shouldReachFollowers() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = pool.submit(() -> coalescer.execute(ENDPOINT, 1, null, () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw new StackOverflowError("boom");
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            Future<Object> follower = pool.submit(() -> coalescer.execute(ENDPOINT, 1, null, () -> "other"));
+            Thread.sleep(50);
+            release.countDown();
+
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, ex.getCause());
+            assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void hungLeader_followerShouldRunItsOwnReadAfterTimeout() throws Exception {
+        coalescer = new RequestCoalescer(Duration.ofMillis(100));
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> coalescer.execute(ENDPOINT, 1, null, () -> {
+                leaderStarted.countDown();
+                await(release);
+                return "leader";
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            assertEquals("own", coalescer.execute(ENDPOINT, 1, null, () -> "own"));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void paymentCommitted_shouldDetachInFlightReadsOfCustomer() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = pool.submit(() -> coalescer.execute(ENDPOINT, 1, null, () -> {
+                leaderStarted.countDown();
+                await(release);
+                return "before-payment";
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            coalescer.onPaymentCommitted(new PaymentCommittedEvent(1, 100, 10));
+
+            // una lectura nueva no se une a la ejecución previa al commit
+            assertEquals("after-payment", coalescer.execute(ENDPOINT, 1, null, () -> "after-payment"));
+
+            release.countDown();
+            assertEquals("before-payment", stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -64,6 +64,39 @@ class GlobalExceptionHandlerTest {
         assertEquals("Customer not found", response.getBody().getMessage());
     }
 
+    @Test
+    void handleBulkheadFull_ShouldReturn503() {
+        BulkheadFullException ex = new BulkheadFullException("Bulkhead history-reads is full, try again later");
+
+        ResponseEntity<ErrorResponseDTO> response = handler.handleBulkheadFull(ex, request);
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("Bulkhead history-reads is full, try again later", response.getBody().getMessage());
+    }
+
+    @Test
+    void handleOverloaded_ShouldReturn503WithRetryAfter() {
+        ServiceOverloadedException ex = new ServiceOverloadedException("Service overloaded, retry later", 2);
+
+        ResponseEntity<ErrorResponseDTO> response = handler.handleOverloaded(ex, request);
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("2", response.getHeaders().getFirst("Retry-After"));
+        assertEquals("Service overloaded, retry later", response.getBody().getMessage());
+    }
+
+    @Test
+    void handleRateLimit_ShouldReturn429WithQuotaHeaders() {
+        RateLimitExceededException ex = new RateLimitExceededException("Rate limit exceeded for getPaymentsByCustomer", 20, 3);
+
+        ResponseEntity<ErrorResponseDTO> response = handler.handleRateLimit(ex, request);
+
+        assertEquals(429, response.getStatusCode().value());
+        assertEquals("20", response.getHeaders().getFirst("X-RateLimit-Limit"));
+        assertEquals("0", response.getHeaders().getFirst("X-RateLimit-Remaining"));
+        assertEquals("3", response.getHeaders().getFirst("Retry-After"));
+    }
+
     @Test
     void handleTypeMismatch_ShouldReturn400() {
         MethodArgumentTypeMismatchException ex =
@@ -0,0 +1,101 @@
+package com.payservice.paymentservice.util.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRateLimitStoreTest {
+
+    private static final long SECOND = 1_000_000;
+
+    @Test
+    void burstUpToCapacity_thenReject_thenRefill() {
+        LocalRateLimitStore store = new LocalRateLimitStore(100);
+        long now = 10 * SECOND;
+
+        for (int i = 2; i >= 0; i--) {
+            RateLimitDecision d = store.tryConsume("customer:1", 3, 1.0, now);
+            assertTrue(d.allowed());
+            assertEquals(i, d.remaining());
+        }
+
+        RateLimitDecision rejected = store.tryConsume("customer:1", 3, 1.0, now);
+        assertFalse(rejected.allowed());
+        assertEquals(SECOND, rejected.retryAfterMicros());
+
+        // al segundo se repone un token
+        assertTrue(store.tryConsume("customer:1", 3, 1.0, now + SECOND).allowed());
+        assertFalse(store.tryConsume("customer:1", 3, 1.0, now + SECOND).allowed());
+    }
+
+    @Test
+    void bucketsAreIndependentPerKey() {
+        LocalRateLimitStore store = new LocalRateLimitStore(100);
+
+        assertTrue(store.tryConsume("customer:1", 1, 1.0, SECOND).allowed());
+        assertFalse(store.tryConsume("customer:1", 1, 1.0, SECOND).allowed());
+        assertTrue(store.tryConsume("customer:2", 1, 1.0, SECOND).allowed());
+    }
+
+    @Test
+    void mapShouldStayBounded() {
+        LocalRateLimitStore store = new LocalRateLimitStore(50);
+
+        for (int i = 0; i < 1_000; i++) {
+            store.tryConsume("client:" + i, 5, 1.0, SECOND);
+        }
+
+        assertTrue(store.size() <= 50);
+    }
+
+    @Test
+    void fullMapOfActiveBuckets_shouldNotResetThem() {
+        LocalRateLimitStore store = new LocalRateLimitStore(10);
+
+        // 10 buckets activos: cada uno gastó su único token
+        for (int i = 0; i < 10; i++) {
+            assertTrue(store.tryConsume("client:" + i, 1, 0.001, SECOND).allowed());
+        }
+
+        // las claves nuevas comparten el bucket de desborde y no desalojan a nadie
+        assertTrue(store.tryConsume("client:new-1", 1, 0.001, SECOND).allowed());
+        assertFalse(store.tryConsume("client:new-2", 1, 0.001, SECOND).allowed());
+        for (int i = 0; i < 10; i++) {
+            assertFalse(store.tryConsume("client:" + i, 1, 0.001, SECOND).allowed());
+        }
+        assertEquals(10, store.size());
+    }
+
+    @Test
+    void idleBuckets_shouldBePurged() {
+        LocalRateLimitStore store = new LocalRateLimitStore(100);
+        store.tryConsume("client:a", 5, 1.0, SECOND);
+        store.tryConsume("client:b", 5, 0.001, SECOND);
+
+        // a los 2 s el bucket de "a" ya está lleno de nuevo; el de "b" no
+        assertEquals(1, store.purgeIdle(3 * SECOND));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void concurrentConsumers_shouldNeverExceedCapacity() throws Exception {
+        LocalRateLimitStore store = new LocalRateLimitStore(10);
+        AtomicInteger allowed = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            pool.submit(() -> {
+                if (store.tryConsume("client:hot", 100, 0.001, SECOND).allowed()) allowed.incrementAndGet();
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, allowed.get());
+    }
+}